@@ -0,0 +1,48 @@
+package io.github.jonloucks.metalog.api;
+
+import java.util.List;
+
+/**
+ * A Subscriber that consumes published log messages in batches.
+ * Dispatcher workers drain the queued log messages, up to {@link Metalog.Config#keyedBatchLimit()},
+ * and hand them over in one call. This allows a sink to do one write and one flush per batch
+ * instead of per log message.
+ * <p>
+ * Note: Log messages that are not dispatched through a batching worker, for example blocking log messages,
+ * are delivered as a batch of one.
+ * </p>
+ */
+@FunctionalInterface
+public interface BatchSubscriber extends Subscriber {
+    
+    /**
+     * Invoked for each batch of published log messages, in the order they were dispatched.
+     * The list is only valid for the duration of the call.
+     *
+     * @param events the batch of log messages, never empty
+     * @return the outcome of processing the batch
+     */
+    Outcome receive(List<Event> events);
+    
+    /**
+     * Delivers a single log message as a batch of one
+     *
+     * @param log the log message
+     * @param meta the meta information
+     * @return the outcome of processing the log
+     */
+    @Override
+    default Outcome receive(Log log, Meta meta) {
+        return receive(List.of(new Event() {
+            @Override
+            public Log getLog() {
+                return log;
+            }
+            
+            @Override
+            public Meta getMeta() {
+                return meta;
+            }
+        }));
+    }
+}
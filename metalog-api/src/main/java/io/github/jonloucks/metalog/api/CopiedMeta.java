@@ -0,0 +1,177 @@
+package io.github.jonloucks.metalog.api;
+
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Immutable copy of a Meta, the default {@link Meta.Builder#template()} for builders that predate it.
+ * Everything is copied when it is made, its correlations are not shared with the builders it is copied into.
+ */
+final class CopiedMeta implements Meta {
+    
+    @Override
+    public CharSequence get() {
+        return text;
+    }
+    
+    @Override
+    public String getChannel() {
+        return channel;
+    }
+    
+    @Override
+    public Optional<String> getKey() {
+        return key;
+    }
+    
+    @Override
+    public boolean isBlocking() {
+        return block;
+    }
+    
+    @Override
+    public Optional<Temporal> getTime() {
+        return time;
+    }
+    
+    @Override
+    public Optional<Throwable> getThrown() {
+        return thrown;
+    }
+    
+    @Override
+    public Optional<Thread> getThread() {
+        return thread;
+    }
+    
+    @Override
+    public Optional<String> getId() {
+        return id;
+    }
+    
+    @Override
+    public Optional<String> getName() {
+        return name;
+    }
+    
+    @Override
+    public Optional<Object> getValue() {
+        return value;
+    }
+    
+    @Override
+    public boolean isUnique() {
+        return unique;
+    }
+    
+    @Override
+    public Optional<Entities> getCorrelations() {
+        return correlations;
+    }
+    
+    CopiedMeta(Meta meta) {
+        this.text = meta.get();
+        this.channel = meta.getChannel();
+        this.key = meta.getKey();
+        this.block = meta.isBlocking();
+        this.time = meta.getTime();
+        this.thrown = meta.getThrown();
+        this.thread = meta.getThread();
+        this.id = meta.getId();
+        this.name = meta.getName();
+        this.value = meta.getValue();
+        this.unique = meta.isUnique();
+        this.correlations = meta.getCorrelations().map(entities -> new CopiedEntities(entities.asList()));
+    }
+    
+    /**
+     * The correlations as they were when the copy was made
+     */
+    private static final class CopiedEntities implements Entities {
+        
+        @Override
+        public void visitEach(Visitor<? super Entity> visitor) {
+            for (Entity entity : entities) {
+                if (!visitor.visit(entity)) {
+                    return;
+                }
+            }
+        }
+        
+        @Override
+        public Optional<Entity> findFirstIf(Predicate<? super Entity> filter) {
+            return entities.stream().filter(filter).findFirst();
+        }
+        
+        @Override
+        public <T> Optional<T> findFirstValueWithType(Predicate<? super Entity> filter, Class<T> type) {
+            for (Entity entity : entities) {
+                final Optional<Object> entityValue = entity.getValue();
+                if (filter.test(entity) && entityValue.isPresent() && type.isInstance(entityValue.get())) {
+                    return Optional.of(type.cast(entityValue.get()));
+                }
+            }
+            return Optional.empty();
+        }
+        
+        @Override
+        public List<Entity> findAllIf(Predicate<? super Entity> filter) {
+            final List<Entity> found = new ArrayList<>();
+            for (Entity entity : entities) {
+                if (filter.test(entity)) {
+                    found.add(entity);
+                }
+            }
+            return found;
+        }
+        
+        @Override
+        public <T> List<T> findAllValuesWithType(Predicate<? super Entity> filter, Class<T> type) {
+            final List<T> found = new ArrayList<>();
+            for (Entity entity : entities) {
+                final Optional<Object> entityValue = entity.getValue();
+                if (filter.test(entity) && entityValue.isPresent() && type.isInstance(entityValue.get())) {
+                    found.add(type.cast(entityValue.get()));
+                }
+            }
+            return found;
+        }
+        
+        @Override
+        public List<Entity> asList() {
+            return new ArrayList<>(entities);
+        }
+        
+        @Override
+        public boolean isEmpty() {
+            return entities.isEmpty();
+        }
+        
+        @Override
+        public int size() {
+            return entities.size();
+        }
+        
+        private CopiedEntities(List<Entity> entities) {
+            this.entities = List.copyOf(entities);
+        }
+        
+        private final List<Entity> entities;
+    }
+    
+    private final CharSequence text;
+    private final String channel;
+    private final Optional<String> key;
+    private final boolean block;
+    private final Optional<Temporal> time;
+    private final Optional<Throwable> thrown;
+    private final Optional<Thread> thread;
+    private final Optional<String> id;
+    private final Optional<String> name;
+    private final Optional<Object> value;
+    private final boolean unique;
+    private final Optional<Entities> correlations;
+}
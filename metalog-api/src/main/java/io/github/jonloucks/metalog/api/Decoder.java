@@ -0,0 +1,42 @@
+package io.github.jonloucks.metalog.api;
+
+import io.github.jonloucks.contracts.api.Contract;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Responsible for reading log messages back from the bytes written by an {@link Encoder}.
+ * A decoder keeps what earlier log messages defined, so it reads one file or segment from the start
+ * and is only used by one thread at a time.
+ */
+public interface Decoder {
+    
+    /**
+     * Creates decoders for the records written by {@link Encoder#BINARY_FACTORY}.
+     * The meta information read back has the channel, key, id, name, value, time and correlations.
+     * The thread and thrown are correlations named "thread" and "thrown" with their text,
+     * the original Thread and Throwable are not available.
+     * The first record written after the encoder was reset tells the decoder to forget as well,
+     * so a file appended to more than once is read from the start with one decoder.
+     */
+    Contract<Supplier<Decoder>> BINARY_FACTORY = Contract.create("Metalog Binary Decoder Factory");
+    
+    /**
+     * Read the next log message at the position of the buffer.
+     * If the buffer does not hold the whole log message, nothing is read and the position is left unchanged,
+     * more bytes can be added and it can be tried again.
+     *
+     * @param buffer the buffer to read from
+     * @return the log message and its meta information, or empty if the buffer did not hold a whole log message
+     * @throws MetalogException if the bytes are not a log message, the position is moved past it when possible
+     */
+    Optional<Event> decode(ByteBuffer buffer);
+    
+    /**
+     * Forget anything carried over from earlier log messages, before reading another file or segment.
+     */
+    default void reset() {
+    }
+}
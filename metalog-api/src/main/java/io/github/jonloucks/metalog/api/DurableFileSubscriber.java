@@ -0,0 +1,104 @@
+package io.github.jonloucks.metalog.api;
+
+import io.github.jonloucks.contracts.api.AutoOpen;
+import io.github.jonloucks.contracts.api.Contract;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A Subscriber that appends log messages to a file with group commit, for channels that must be on disk before they are acknowledged.
+ * A single writer thread takes every pending log message as one batch, writes it with one write and forces it
+ * to the device according to the {@link FsyncPolicy}, so many publishers share the cost of one force.
+ * <p>
+ * A blocking log message, see {@link Meta#isBlocking()}, waits until its batch is committed before publish returns.
+ * Other log messages are acknowledged with {@link Outcome#DISPATCHED} once they are queued for the writer.
+ * If a blocking log message could not be written, publish throws a {@link MetalogException}.
+ * </p>
+ * <p>
+ * Usage: open it, then subscribe it with {@link Metalog#subscribe(Subscriber)}.
+ * </p>
+ */
+public interface DurableFileSubscriber extends Subscriber, Filterable, AutoOpen {
+    
+    /**
+     * Creates new durable file subscribers
+     */
+    Contract<Factory> FACTORY = Contract.create(Factory.class);
+    
+    /**
+     * Creates new durable file subscribers
+     */
+    interface Factory {
+        
+        /**
+         * @param config the configuration
+         * @return the new subscriber, it must be opened before use
+         */
+        DurableFileSubscriber create(Config config);
+        
+        /**
+         * @param builderConsumer configures the new subscriber
+         * @return the new subscriber, it must be opened before use
+         */
+        DurableFileSubscriber create(Consumer<Config.Builder> builderConsumer);
+    }
+    
+    /**
+     * The configuration used to create a new durable file subscriber
+     */
+    interface Config {
+        
+        /**
+         * The default configuration used when creating a new durable file subscriber
+         */
+        Config DEFAULT = new Config() {};
+        
+        /**
+         * @return the file to append to, it and its directory are created if missing
+         */
+        default Path file() {
+            return Path.of("logs", "durable.log");
+        }
+        
+        /**
+         * @return when written log messages are forced to the device
+         */
+        default FsyncPolicy fsyncPolicy() {
+            return FsyncPolicy.BATCH;
+        }
+        
+        /**
+         * The longest time between forces with {@link FsyncPolicy#INTERVAL}
+         * @return the interval
+         */
+        default Duration fsyncInterval() {
+            return Duration.ofMillis(100);
+        }
+        
+        /**
+         * The limit on how many log messages can wait for the writer, publishers wait while it is reached
+         * @return the limit
+         */
+        default int queueLimit() {
+            return 10_000;
+        }
+        
+        /**
+         * @return the contract for the encoders that render the log messages, for example {@link JsonEncoder#FACTORY}
+         */
+        default Contract<? extends Supplier<? extends Encoder>> encoderFactory() {
+            return Encoder.TEXT_FACTORY;
+        }
+        
+        interface Builder extends Config {
+            Builder file(Path file);
+            Builder fsyncPolicy(FsyncPolicy fsyncPolicy);
+            Builder fsyncInterval(Duration fsyncInterval);
+            Builder queueLimit(int queueLimit);
+            Builder encoderFactory(Contract<? extends Supplier<? extends Encoder>> encoderFactory);
+        }
+    }
+}
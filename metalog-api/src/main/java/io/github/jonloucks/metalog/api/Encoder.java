@@ -0,0 +1,45 @@
+package io.github.jonloucks.metalog.api;
+
+import io.github.jonloucks.contracts.api.Contract;
+
+import java.nio.ByteBuffer;
+import java.util.function.Supplier;
+
+/**
+ * Responsible for rendering a log message and its meta information into bytes, for example for a file.
+ * An encoder can keep reusable state, it is only used by one thread at a time.
+ */
+@FunctionalInterface
+public interface Encoder {
+    
+    /**
+     * Creates encoders that render a line of UTF-8 text per log message,
+     * with the time, channel and thread when they are present.
+     */
+    Contract<Supplier<Encoder>> TEXT_FACTORY = Contract.create("Metalog Text Encoder Factory");
+    
+    /**
+     * Creates encoders that write a compact, versioned binary record per log message,
+     * read back with {@link Decoder#BINARY_FACTORY}.
+     */
+    Contract<Supplier<Encoder>> BINARY_FACTORY = Contract.create("Metalog Binary Encoder Factory");
+    
+    /**
+     * Render one log message at the position of the buffer.
+     * If it does not fit, nothing is written and the position is left unchanged.
+     *
+     * @param log the log message
+     * @param meta the meta information
+     * @param buffer the buffer to write into
+     * @return true if the log message was written, false if the buffer did not have room for it
+     */
+    boolean encode(Log log, Meta meta, ByteBuffer buffer);
+    
+    /**
+     * Forget anything carried over from earlier log messages, for example names already written.
+     * Invoked before the first log message of a new file or segment, when appending to an existing file
+     * and after a failed write, so what follows can be read on its own.
+     */
+    default void reset() {
+    }
+}
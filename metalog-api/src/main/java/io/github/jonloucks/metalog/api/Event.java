@@ -0,0 +1,19 @@
+package io.github.jonloucks.metalog.api;
+
+/**
+ * A published log message paired with its meta information
+ *
+ * @see BatchSubscriber
+ */
+public interface Event {
+    
+    /**
+     * @return the log message
+     */
+    Log getLog();
+    
+    /**
+     * @return the meta information
+     */
+    Meta getMeta();
+}
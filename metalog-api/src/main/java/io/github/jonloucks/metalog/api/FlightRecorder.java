@@ -0,0 +1,106 @@
+package io.github.jonloucks.metalog.api;
+
+import io.github.jonloucks.contracts.api.Contract;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * A Subscriber that keeps the most recent log messages in memory and hands them to a sink when an error arrives.
+ * Recording a log message stores a reference in a ring preallocated to the capacity, older log messages are overwritten.
+ * A dispatched log message is rendered only if it is dumped, its Log is then invoked on the thread that dumps.
+ * A log message with a thrown, or on one of the error channels, is recorded and then the ring is dumped to the sink,
+ * oldest first. Each log message is dumped at most once.
+ * <p>
+ * Usage: subscribe it with {@link Metalog#subscribe(Subscriber)}. The Metalog filters still decide what is published,
+ * so only log messages that pass them are recorded.
+ * </p>
+ */
+public interface FlightRecorder extends Subscriber, Filterable {
+
+    /**
+     * Creates new flight recorders
+     */
+    Contract<Factory> FACTORY = Contract.create(Factory.class);
+
+    /**
+     * Dump the recorded log messages to the sink now.
+     * @return the number of log messages dumped
+     */
+    int dump();
+
+    /**
+     * Creates new flight recorders
+     */
+    interface Factory {
+
+        /**
+         * @param config the configuration
+         * @return the new flight recorder
+         */
+        FlightRecorder create(Config config);
+
+        /**
+         * @param builderConsumer configures the new flight recorder
+         * @return the new flight recorder
+         */
+        FlightRecorder create(Consumer<Config.Builder> builderConsumer);
+    }
+
+    /**
+     * The configuration used to create a new flight recorder
+     */
+    interface Config {
+
+        /**
+         * The default configuration used when creating a new flight recorder
+         */
+        Config DEFAULT = new Config() {};
+
+        /**
+         * @return the number of log messages kept in each ring
+         */
+        default int capacity() {
+            return 256;
+        }
+
+        /**
+         * When true, log messages with a key are kept in a ring for the key and an error dumps the ring of its key.
+         * Log messages without a key, or with a key after the maximum number of keys, share one ring.
+         * @return true to keep a ring per key
+         */
+        default boolean perKey() {
+            return false;
+        }
+
+        /**
+         * @return the maximum number of keys with a ring of their own
+         */
+        default int maxKeys() {
+            return 64;
+        }
+
+        /**
+         * @return the channels that dump the ring, in addition to any log message with a thrown
+         */
+        default Set<String> errorChannels() {
+            return Set.of("error");
+        }
+
+        /**
+         * @return the subscriber receiving the dumped log messages, empty prints them as text to System err
+         */
+        default Optional<Subscriber> sink() {
+            return Optional.empty();
+        }
+
+        interface Builder extends Config {
+            Builder capacity(int capacity);
+            Builder perKey(boolean perKey);
+            Builder maxKeys(int maxKeys);
+            Builder errorChannels(Set<String> errorChannels);
+            Builder sink(Subscriber sink);
+        }
+    }
+}
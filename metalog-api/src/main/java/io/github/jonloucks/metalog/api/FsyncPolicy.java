@@ -0,0 +1,24 @@
+package io.github.jonloucks.metalog.api;
+
+/**
+ * When a durable file forces written log messages to the storage device
+ *
+ * @see DurableFileSubscriber.Config#fsyncPolicy()
+ */
+public enum FsyncPolicy {
+    /**
+     * Never force, the operating system decides when the data reaches the device.
+     * A blocking log message is acknowledged once written to the file.
+     */
+    NEVER,
+    /**
+     * Force at most once per {@link DurableFileSubscriber.Config#fsyncInterval()}.
+     * A blocking log message is acknowledged after the next force, so it can wait up to the interval.
+     */
+    INTERVAL,
+    /**
+     * Force after every batch the writer takes, all the log messages pending at the time share one write and one force.
+     * A blocking log message is acknowledged once it is on the device.
+     */
+    BATCH
+}
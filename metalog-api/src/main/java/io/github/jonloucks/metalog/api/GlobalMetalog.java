@@ -43,6 +43,27 @@ public final class GlobalMetalog {
         INSTANCE.metalog.publish(log, builderConsumer);
     }
 
+    /**
+     * Check if log messages on a channel are received by anyone
+     * @param channel the channel
+     * @return true if a log message on the channel could be received
+     * @see Metalog#isEnabled(String)
+     */
+    public static boolean isEnabled(String channel) {
+        return INSTANCE.metalog.isEnabled(channel);
+    }
+
+    /**
+     * Check if keyed log messages on a channel are received by anyone
+     * @param channel the channel
+     * @param key the key
+     * @return true if a log message on the channel with the key could be received
+     * @see Metalog#isEnabled(String, String)
+     */
+    public static boolean isEnabled(String channel, String key) {
+        return INSTANCE.metalog.isEnabled(channel, key);
+    }
+
     /**
      * Add a new log subscription
      * @param subscriber the subscriber to add
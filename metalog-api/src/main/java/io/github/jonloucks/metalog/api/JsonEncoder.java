@@ -0,0 +1,34 @@
+package io.github.jonloucks.metalog.api;
+
+import io.github.jonloucks.contracts.api.Contract;
+
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+
+/**
+ * Renders a log message and its meta information as a line of JSON, one object per line.
+ * The object has the time, channel, key, id, name, value, thread, message, thrown and correlations, when present.
+ * Correlations are an array of objects with the same fields as the entity, nested correlations included.
+ * Numbers and booleans are written as JSON numbers and booleans, other values as strings.
+ * <p>
+ * Usage: give {@link #FACTORY} to a file subscriber for JSON lines files,
+ * or claim it to append the lines to an Appendable.
+ * </p>
+ */
+public interface JsonEncoder extends Encoder {
+    
+    /**
+     * Creates JSON encoders
+     */
+    Contract<Supplier<JsonEncoder>> FACTORY = Contract.create("Metalog JSON Encoder");
+    
+    /**
+     * Append one log message as a line of JSON, ending with a line feed.
+     *
+     * @param log the log message
+     * @param meta the meta information
+     * @param out where the line is appended
+     * @throws UncheckedIOException if appending fails
+     */
+    void append(Log log, Meta meta, Appendable out);
+}
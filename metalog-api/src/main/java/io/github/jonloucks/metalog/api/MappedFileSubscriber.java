@@ -0,0 +1,107 @@
+package io.github.jonloucks.metalog.api;
+
+import io.github.jonloucks.contracts.api.AutoOpen;
+import io.github.jonloucks.contracts.api.Contract;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A Subscriber that appends log messages to memory-mapped files.
+ * Each file is a segment of a fixed size, when a segment is full the next one is used.
+ * The next segment is created and mapped ahead of time on a background thread, so a rollover does not wait on the file system.
+ * Log messages are written by a keyed dispatcher worker of its own, one writer per subscriber, in the order received.
+ * <p>
+ * Usage: open it, then subscribe it with {@link Metalog#subscribe(Subscriber)}.
+ * A segment is trimmed to the bytes written when it is finished, a segment left empty is deleted.
+ * </p>
+ */
+public interface MappedFileSubscriber extends Subscriber, Filterable, AutoOpen {
+    
+    /**
+     * Creates new mapped file subscribers
+     */
+    Contract<Factory> FACTORY = Contract.create(Factory.class);
+    
+    /**
+     * @return the segment being written, empty when not open
+     */
+    Optional<Path> getSegment();
+    
+    /**
+     * Creates new mapped file subscribers
+     */
+    interface Factory {
+        
+        /**
+         * @param config the configuration
+         * @return the new subscriber, it must be opened before use
+         */
+        MappedFileSubscriber create(Config config);
+        
+        /**
+         * @param builderConsumer configures the new subscriber
+         * @return the new subscriber, it must be opened before use
+         */
+        MappedFileSubscriber create(Consumer<Config.Builder> builderConsumer);
+    }
+    
+    /**
+     * The configuration used to create a new mapped file subscriber
+     */
+    interface Config {
+        
+        /**
+         * The default configuration used when creating a new mapped file subscriber
+         */
+        Config DEFAULT = new Config() {};
+        
+        /**
+         * @return the directory of the segments, it is created if missing
+         */
+        default Path directory() {
+            return Path.of("logs");
+        }
+        
+        /**
+         * Segments are named prefix-number suffix, for example metalog-000001.log.
+         * The numbering continues after the segments already in the directory.
+         * @return the file name prefix of the segments
+         */
+        default String prefix() {
+            return "metalog";
+        }
+        
+        /**
+         * @return the file name suffix of the segments
+         */
+        default String suffix() {
+            return ".log";
+        }
+        
+        /**
+         * A log message that does not fit in an empty segment is dropped.
+         * @return the size of each segment in bytes
+         */
+        default int segmentSize() {
+            return 64 * 1024 * 1024;
+        }
+        
+        /**
+         * @return the contract for the encoders that render the log messages, for example {@link JsonEncoder#FACTORY}
+         */
+        default Contract<? extends Supplier<? extends Encoder>> encoderFactory() {
+            return Encoder.TEXT_FACTORY;
+        }
+        
+        interface Builder extends Config {
+            Builder directory(Path directory);
+            Builder prefix(String prefix);
+            Builder suffix(String suffix);
+            Builder segmentSize(int segmentSize);
+            Builder encoderFactory(Contract<? extends Supplier<? extends Encoder>> encoderFactory);
+        }
+    }
+}
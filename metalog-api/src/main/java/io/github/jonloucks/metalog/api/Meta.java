@@ -188,5 +188,18 @@ public interface Meta extends Entity {
          * @return this builder
          */
         B copy(Meta meta);
+        
+        /**
+         * Freeze this builder into an immutable template for many log messages that share most of their Meta.
+         * Copying a template into a builder shares its correlations instead of adding them one by one,
+         * the builder only keeps what is added or changed afterward.
+         * Note: Changing this builder afterward does not change the template.
+         * The default implementation, for implementations that predate this method, returns an immutable copy
+         * that takes the text when it is made and whose correlations are copied one by one instead of shared.
+         * @return the template, pass it to {@link #copy(Meta)}
+         */
+        default Meta template() {
+            return new CopiedMeta(this);
+        }
     }
 }
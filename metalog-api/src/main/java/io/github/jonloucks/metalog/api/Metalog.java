@@ -23,6 +23,47 @@ public interface Metalog extends Publisher, Filterable, AutoOpen {
      */
     AutoClose subscribe(Subscriber subscriber);
     
+    /**
+     * Check if log messages on a channel are received by anyone, before doing the work to build them.
+     * For example, skipping an expensive debug message when nothing subscribes to "debug".
+     * The decision is cached until a filter or subscription is added or removed.
+     * The default implementation, for implementations that predate this method, always returns true.
+     * <p>
+     * Note: The filters and subscribers decide on a Meta with only the channel,
+     * a decision that depends on other meta information is not seen here.
+     * A filter or subscriber whose answer changes without being added or removed,
+     * for example one that reads a level from a mutable field, may get a stale decision.
+     * For the same reasons publishing does not use the cached decisions, every publish is decided
+     * on its full Meta.
+     * </p>
+     * @param channel the channel
+     * @return true if a log message on the channel could be received
+     */
+    default boolean isEnabled(String channel) {
+        return true;
+    }
+    
+    /**
+     * Check if keyed log messages on a channel are received by anyone, before doing the work to build them.
+     * The default implementation ignores the key.
+     * @param channel the channel
+     * @param key the key
+     * @return true if a log message on the channel with the key could be received
+     * @see #isEnabled(String)
+     */
+    default boolean isEnabled(String channel, String key) {
+        return isEnabled(channel);
+    }
+    
+    /**
+     * Take a snapshot of the statistics, publishing continues while it is taken.
+     * The default implementation, for implementations that predate this method, returns {@link Statistics#EMPTY}.
+     * @return the statistics
+     */
+    default Statistics getStatistics() {
+        return Statistics.EMPTY;
+    }
+    
     /**
      * The configuration used to create a new Metalog instance.
      */
@@ -80,6 +121,88 @@ public interface Metalog extends Publisher, Filterable, AutoOpen {
             return 1_000;
         }
         
+        /**
+         * If true, keyed log messages are queued in a lock-free, preallocated ring buffer
+         * instead of a lock based blocking queue. The ring buffer has the same {@link #keyedQueueLimit()},
+         * and scales better when many threads publish to the same key.
+         * @return true to use the ring buffer for keyed queues
+         */
+        default boolean useKeyedRingBuffer() {
+            return false;
+        }
+        
+        /**
+         * What happens when a keyed log message is published and its queue is full.
+         * @return the overflow policy used for channels without their own policy
+         * @see #keyedOverflowPolicy(String)
+         */
+        default OverflowPolicy keyedOverflowPolicy() {
+            return OverflowPolicy.BLOCK;
+        }
+        
+        /**
+         * What happens when a keyed log message on the given channel is published and its queue is full.
+         * For example, an "error" channel might block while a "debug" channel drops.
+         * @param channel the channel of the log message
+         * @return the overflow policy for the channel
+         */
+        default OverflowPolicy keyedOverflowPolicy(String channel) {
+            return keyedOverflowPolicy();
+        }
+        
+        /**
+         * How long to wait for room in a full keyed queue with {@link OverflowPolicy#BLOCK_WITH_TIMEOUT}
+         * @return the overflow timeout
+         */
+        default Duration keyedOverflowTimeout() {
+            return Duration.ofSeconds(1);
+        }
+        
+        /**
+         * The maximum number of queued keyed log messages a worker drains and processes as one batch.
+         * A {@link BatchSubscriber} receives each batch in one call, other subscribers still
+         * receive the log messages one at a time.
+         * @return the batch limit, 1 disables batching
+         */
+        default int keyedBatchLimit() {
+            return 256;
+        }
+        
+        /**
+         * The number of worker threads shared by all keyed log messages.
+         * When zero, every distinct key gets a dedicated worker thread.
+         * When positive, keys are hashed onto this many workers, the messages for one key
+         * are still processed in FIFO order, and the thread count no longer grows with the
+         * number of keys. A good starting point is twice the number of available processors.
+         * @return the number of keyed stripes, zero for a dedicated worker per key
+         */
+        default int keyedStripeCount() {
+            return 0;
+        }
+        
+        /**
+         * How long a dedicated keyed dispatcher may sit idle before it is closed and removed.
+         * A dispatcher is idle when nothing is queued or running for its key.
+         * If the key is published again later, a new dispatcher is created and ordering is preserved.
+         * Only applies when {@link #keyedStripeCount()} is zero.
+         * @return the idle timeout, zero or negative never removes idle dispatchers
+         */
+        default Duration keyedIdleTimeout() {
+            return Duration.ZERO;
+        }
+        
+        /**
+         * The maximum number of dedicated keyed dispatchers alive at once.
+         * When the limit is reached, the least recently used of a small sample of dispatchers
+         * is removed to make room, and closed in the background.
+         * The limit is soft, a dispatcher that is being published to or still has queued work is not evicted.
+         * Only applies when {@link #keyedStripeCount()} is zero.
+         * @return the limit on live keyed dispatchers
+         */
+        default int keyedDispatcherLimit() {
+            return Integer.MAX_VALUE;
+        }
+        
         /**
          * The maximum number of background threads dispatching log messages to subscribers.
          * @return the maximum number of background threads
@@ -96,6 +219,56 @@ public interface Metalog extends Publisher, Filterable, AutoOpen {
             return false;
         }
         
+        /**
+         * If true, the keyed dispatcher workers and the unkeyed dispatcher threads are virtual threads,
+         * when the running JDK supports them. Platform threads are used otherwise.
+         * Virtual threads make a worker per key cheap and keep subscribers that block on I/O
+         * from holding on to scarce platform threads.
+         * @return true if virtual threads should be used when available
+         */
+        default boolean useVirtualThreads() {
+            return false;
+        }
+        
+        /**
+         * If true, the Console encodes log messages into a reusable direct buffer and writes it to the
+         * standard output and error file descriptors, instead of a println to System out or System err per message.
+         * The buffer is written at the end of each batch, when it is full, after {@link #consoleLinger()},
+         * and right away for the error channels.
+         * <p>
+         * Note: Writing to the file descriptors bypasses {@link System#setOut} and {@link System#setErr},
+         * output redirected that way, including by test frameworks capturing the console, does not see these lines.
+         * A shutdown hook flushes the buffers when the JVM exits without closing Metalog,
+         * output is only lost if the JVM halts or crashes before it runs.
+         * </p>
+         * @return true if console output is buffered
+         */
+        default boolean consoleBuffered() {
+            return false;
+        }
+        
+        /**
+         * The longest buffered console output waits before it is written, see {@link #consoleBuffered()}.
+         * @return the linger, zero or negative writes every log message right away
+         */
+        default Duration consoleLinger() {
+            return Duration.ofMillis(20);
+        }
+        
+        /**
+         * If true, each dispatched log message is stamped when published, when its dispatcher starts delivering it,
+         * and when each subscriber has received it. The measurements are in {@link Statistics#getLatency()},
+         * for each dispatcher in {@link Statistics.Queue#getLatency()} and for each subscriber in
+         * {@link Statistics#getSubscriptions()}. Log messages delivered on the publishing thread are not measured.
+         * <p>
+         * Note: Each histogram takes a few kilobytes, with a dedicated keyed dispatcher per key that is one per key.
+         * </p>
+         * @return true if the latency is measured
+         */
+        default boolean measureLatency() {
+            return false;
+        }
+        
         /**
          * How long to wait for logging to shut down before giving up
          * @return the timeout duration
@@ -111,8 +284,20 @@ public interface Metalog extends Publisher, Filterable, AutoOpen {
             Builder useServiceLoader(boolean useServiceLoader);
             Builder contracts(Contracts contracts);
             Builder keyedQueueLimit(int keyedQueueLimit);
+            Builder useKeyedRingBuffer(boolean useKeyedRingBuffer);
+            Builder keyedBatchLimit(int keyedBatchLimit);
+            Builder keyedOverflowPolicy(OverflowPolicy keyedOverflowPolicy);
+            Builder keyedOverflowPolicy(String channel, OverflowPolicy keyedOverflowPolicy);
+            Builder keyedOverflowTimeout(Duration keyedOverflowTimeout);
+            Builder keyedStripeCount(int keyedStripeCount);
+            Builder keyedIdleTimeout(Duration keyedIdleTimeout);
+            Builder keyedDispatcherLimit(int keyedDispatcherLimit);
             Builder unkeyedThreadCount(int unkeyedThreadCount);
             Builder unkeyedFairness(boolean unkeyedFairness);
+            Builder useVirtualThreads(boolean useVirtualThreads);
+            Builder consoleBuffered(boolean consoleBuffered);
+            Builder consoleLinger(Duration consoleLinger);
+            Builder measureLatency(boolean measureLatency);
             Builder shutdownTimeout(Duration shutdownTimeout);
             Builder reflectionClassName(String reflectionClassName);
             Builder serviceLoaderClass(Class<? extends MetalogFactory> serviceLoaderClass);
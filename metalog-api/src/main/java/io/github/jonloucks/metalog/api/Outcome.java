@@ -19,5 +19,20 @@ public enum Outcome {
     /**
      * The publisher can't fulfill the request, for example during shutdown
      */
-    REJECTED
+    REJECTED,
+    /**
+     * Dropped because the queue was full
+     * @see OverflowPolicy#DROP_NEWEST
+     */
+    DROPPED,
+    /**
+     * Dispatched after dropping the oldest queued log message to make room
+     * @see OverflowPolicy#DROP_OLDEST
+     */
+    DISPLACED,
+    /**
+     * Dropped because the queue was still full when the overflow timeout expired
+     * @see OverflowPolicy#BLOCK_WITH_TIMEOUT
+     */
+    EXPIRED
 }
@@ -0,0 +1,32 @@
+package io.github.jonloucks.metalog.api;
+
+/**
+ * What happens to a keyed log message when its queue is full
+ *
+ * @see Metalog.Config#keyedOverflowPolicy(String)
+ */
+public enum OverflowPolicy {
+    /**
+     * Wait until there is room, the outcome is {@link Outcome#DISPATCHED}
+     */
+    BLOCK,
+    /**
+     * Wait up to {@link Metalog.Config#keyedOverflowTimeout()}, the outcome is {@link Outcome#EXPIRED}
+     * if there is still no room.
+     */
+    BLOCK_WITH_TIMEOUT,
+    /**
+     * Drop the log message being published, the outcome is {@link Outcome#DROPPED}
+     */
+    DROP_NEWEST,
+    /**
+     * Drop the oldest queued log message to make room, the outcome is {@link Outcome#DISPLACED}.
+     * If every queued log message is already being processed, the outcome is {@link Outcome#DROPPED}
+     */
+    DROP_OLDEST,
+    /**
+     * Process the log message on the publishing thread, the outcome is {@link Outcome#CONSUMED}.
+     * Note: the log message may be processed before older log messages with the same key.
+     */
+    CALLER_RUNS
+}
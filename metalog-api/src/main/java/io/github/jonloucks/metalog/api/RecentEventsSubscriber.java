@@ -0,0 +1,93 @@
+package io.github.jonloucks.metalog.api;
+
+import io.github.jonloucks.contracts.api.Contract;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * A Subscriber that keeps the most recent log messages off heap, for context after something went wrong.
+ * Each log message is written with the binary encoder into a circular arena of direct memory, and its place
+ * is kept in an index of fixed size slots, also in direct memory. When either is full the oldest log messages are forgotten.
+ * Nothing is kept on the heap per log message, so a large arena adds no work for the garbage collector.
+ * <p>
+ * Usage: subscribe it with {@link Metalog#subscribe(Subscriber)}, later iterate it to read the log messages back.
+ * </p>
+ */
+public interface RecentEventsSubscriber extends Subscriber, Filterable, Iterable<Event> {
+    
+    /**
+     * Creates new recent events subscribers
+     */
+    Contract<Factory> FACTORY = Contract.create(Factory.class);
+    
+    /**
+     * Iterate the kept log messages, oldest first.
+     * Each log message is decoded straight from the arena when it is reached, not before.
+     * A log message forgotten while iterating is skipped.
+     *
+     * @return the new iterator
+     */
+    @Override
+    Iterator<Event> iterator();
+    
+    /**
+     * @return the number of log messages kept
+     */
+    int size();
+    
+    /**
+     * Forget all the kept log messages
+     */
+    void clear();
+    
+    /**
+     * Creates new recent events subscribers
+     */
+    interface Factory {
+        
+        /**
+         * @param config the configuration
+         * @return the new subscriber
+         */
+        RecentEventsSubscriber create(Config config);
+        
+        /**
+         * @param builderConsumer configures the new subscriber
+         * @return the new subscriber
+         */
+        RecentEventsSubscriber create(Consumer<Config.Builder> builderConsumer);
+    }
+    
+    /**
+     * The configuration used to create a new recent events subscriber
+     */
+    interface Config {
+        
+        /**
+         * The default configuration used when creating a new recent events subscriber
+         */
+        Config DEFAULT = new Config() {};
+        
+        /**
+         * A log message that does not fit in the arena is skipped.
+         * @return the size of the arena in bytes
+         */
+        default int arenaSize() {
+            return 16 * 1024 * 1024;
+        }
+        
+        /**
+         * Each slot takes 8 bytes of direct memory.
+         * @return the number of index slots, the most log messages kept at once
+         */
+        default int capacity() {
+            return 64 * 1024;
+        }
+        
+        interface Builder extends Config {
+            Builder arenaSize(int arenaSize);
+            Builder capacity(int capacity);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package io.github.jonloucks.metalog.api;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * A point in time snapshot of what a Metalog has done, taken without stopping the publishers.
+ * Each number is read on its own while log messages are still being published,
+ * so the numbers are not guaranteed to add up exactly.
+ *
+ * @see Metalog#getStatistics()
+ */
+public interface Statistics {
+    
+    /**
+     * Statistics of a Metalog that has done nothing, or does not keep them
+     */
+    Statistics EMPTY = new Statistics() {
+        @Override
+        public long getCount(Outcome outcome) {
+            return 0;
+        }
+        
+        @Override
+        public int getDispatcherCount() {
+            return 0;
+        }
+        
+        @Override
+        public List<Queue> getQueues() {
+            return List.of();
+        }
+        
+        @Override
+        public long getCallerRuns() {
+            return 0;
+        }
+        
+        @Override
+        public Histogram getLatency() {
+            return Histogram.EMPTY;
+        }
+        
+        @Override
+        public List<Subscription> getSubscriptions() {
+            return List.of();
+        }
+    };
+    
+    /**
+     * @param outcome the outcome
+     * @return how many publishes had the outcome
+     */
+    long getCount(Outcome outcome);
+    
+    /**
+     * @return the number of live dispatchers, the unkeyed dispatcher and each keyed worker
+     */
+    int getDispatcherCount();
+    
+    /**
+     * @return the queues of the live dispatchers that report them
+     */
+    List<Queue> getQueues();
+    
+    /**
+     * @return how many log messages the unkeyed dispatcher ran on the publishing thread because all its threads were busy
+     */
+    long getCallerRuns();
+    
+    /**
+     * @return the time from publish until a dispatcher starts delivering,
+     * nothing is recorded unless {@link Metalog.Config#measureLatency()}
+     */
+    Histogram getLatency();
+    
+    /**
+     * @return the current subscribers, in subscription order, empty unless {@link Metalog.Config#measureLatency()}
+     */
+    List<Subscription> getSubscriptions();
+    
+    /**
+     * The queue of a dispatcher
+     */
+    interface Queue {
+        
+        /**
+         * @return the name of the dispatcher, for a dedicated keyed dispatcher it ends with the key
+         */
+        String getName();
+        
+        /**
+         * @return the number of log messages queued or being delivered.
+         * For the unkeyed dispatcher, which hands log messages straight to a thread, the number of busy threads.
+         */
+        int getDepth();
+        
+        /**
+         * @return the largest depth seen since the dispatcher was created
+         */
+        int getHighWaterMark();
+        
+        /**
+         * @return the time from publish until this dispatcher starts delivering,
+         * nothing is recorded unless {@link Metalog.Config#measureLatency()}
+         */
+        Histogram getLatency();
+    }
+    
+    /**
+     * How long the dispatched log messages took to reach a subscriber, and how long it took to receive them
+     */
+    interface Subscription {
+        
+        /**
+         * @return the subscriber
+         */
+        Subscriber getSubscriber();
+        
+        /**
+         * @return the time from publish until the subscriber starts receiving,
+         * for a {@link BatchSubscriber} until the batch holding the log message starts
+         */
+        Histogram getLatency();
+        
+        /**
+         * @return how long each receive took, for a {@link BatchSubscriber} each batch
+         */
+        Histogram getReceiveTime();
+    }
+    
+    /**
+     * A distribution of durations, each recorded duration is kept within a few percent
+     */
+    interface Histogram {
+        
+        /**
+         * A histogram without any recorded durations
+         */
+        Histogram EMPTY = new Histogram() {
+            @Override
+            public long getCount() {
+                return 0;
+            }
+            
+            @Override
+            public Duration getMax() {
+                return Duration.ZERO;
+            }
+            
+            @Override
+            public Duration getPercentile(double percentile) {
+                return Duration.ZERO;
+            }
+        };
+        
+        /**
+         * @return the number of recorded durations
+         */
+        long getCount();
+        
+        /**
+         * @return the longest recorded duration, zero if there are none
+         */
+        Duration getMax();
+        
+        /**
+         * @param percentile the percentile from 0 to 100, for example 99.99
+         * @return the duration that percentile of the recorded durations are at or below, zero if there are none
+         */
+        Duration getPercentile(double percentile);
+    }
+}
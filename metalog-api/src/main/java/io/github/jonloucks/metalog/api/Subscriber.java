@@ -1,5 +1,7 @@
 package io.github.jonloucks.metalog.api;
 
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Predicate;
 
 /**
@@ -10,6 +12,7 @@ public interface Subscriber extends Predicate<Meta> {
     
     /**
      * Invoked for each published log message
+     * A meta built by publish is an immutable snapshot and may be kept.
      *
      * @param log the log message
      * @param meta the meta information
@@ -17,6 +20,16 @@ public interface Subscriber extends Predicate<Meta> {
      */
     Outcome receive(Log log, Meta meta);
     
+    /**
+     * The channels this subscriber is interested in.
+     * Log messages on other channels are routed past this subscriber without calling {@link #test(Meta)}.
+     * Note: The channels are read once when subscribing, later changes are not seen.
+     * @return the channels, empty for all channels
+     */
+    default Optional<Set<String>> getChannels() {
+        return Optional.empty();
+    }
+    
     /**
      * Used to short circuit needless processing
      * @param meta the Meta to check
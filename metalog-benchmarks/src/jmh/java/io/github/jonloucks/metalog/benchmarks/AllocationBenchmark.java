@@ -0,0 +1,131 @@
+package io.github.jonloucks.metalog.benchmarks;
+
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.metalog.api.Log;
+import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.api.Metalog;
+import io.github.jonloucks.metalog.api.Outcome;
+import io.github.jonloucks.metalog.impl.MetalogFactoryImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bytes allocated per published log message in steady state, with the default keyed queue and the ring buffer.
+ * A synchronous publish should only allocate its once-only Log, a dispatched publish only the envelope it queues.
+ * Run main to fail when a publish path goes over its budget, it runs with the gc profiler.
+ * Each budget is the expected allocation plus less than the smallest object, so any new allocation per publish fails.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AllocationBenchmark {
+    
+    public static void main(String[] args) throws RunnerException {
+        final OptionsBuilder options = new OptionsBuilder();
+        options.include(AllocationBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).shouldFailOnError(true);
+        
+        boolean overBudget = false;
+        for (RunResult result : new Runner(options.build()).run()) {
+            final String benchmark = result.getParams().getBenchmark();
+            final boolean ringBuffer = Boolean.parseBoolean(result.getParams().getParam("useKeyedRingBuffer"));
+            final double allocated = allocatedBytesPerOp(result);
+            final double budget = HEADROOM + (benchmark.endsWith("publish_Blocking") ? BLOCKING_EXPECTED
+                : ringBuffer ? RING_DISPATCHED_EXPECTED : BLOCKING_QUEUE_DISPATCHED_EXPECTED);
+            System.out.printf("%s useKeyedRingBuffer=%s allocated %.1f bytes/op, budget %.1f%n",
+                benchmark, ringBuffer, allocated, budget);
+            overBudget |= allocated > budget;
+        }
+        if (overBudget) {
+            throw new IllegalStateException("Publishing allocated more than its budget.");
+        }
+    }
+    
+    @Param({"false", "true"})
+    public boolean useKeyedRingBuffer;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        metalog = new MetalogFactoryImpl().create(b -> b.useKeyedRingBuffer(useKeyedRingBuffer));
+        closeMetalog = metalog.open();
+        closeSubscription = metalog.subscribe((log, meta) -> log.get().length() > 0 ? Outcome.CONSUMED : Outcome.SKIPPED);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        closeSubscription.close();
+        closeMetalog.close();
+    }
+    
+    @Benchmark
+    public Outcome publish_Blocking() {
+        return metalog.publish(LOG, BLOCKING);
+    }
+    
+    @Benchmark
+    public Outcome publish_Keyed() {
+        return metalog.publish(LOG, KEYED);
+    }
+    
+    private static double allocatedBytesPerOp(RunResult result) {
+        // the label has had a prefix in some JMH versions
+        for (Map.Entry<String, Result> entry : result.getSecondaryResults().entrySet()) {
+            if (entry.getKey().endsWith("gc.alloc.rate.norm")) {
+                return entry.getValue().getScore();
+            }
+        }
+        throw new IllegalStateException("The gc profiler did not report allocations.");
+    }
+    
+    // the once-only Log, subscribers may keep it
+    private static final double BLOCKING_EXPECTED = 24.0;
+    // the envelope, the ring parks its worker without allocating
+    private static final double RING_DISPATCHED_EXPECTED = 48.0;
+    // the envelope, plus at most one condition wait node each time the worker empties the queue
+    private static final double BLOCKING_QUEUE_DISPATCHED_EXPECTED = 48.0 + 32.0;
+    // less than the smallest object, plus rounding noise from the profiler
+    private static final double HEADROOM = 15.0;
+    
+    private static final Log LOG = () -> "Hello World";
+    
+    private static final Meta BLOCKING = new Meta() {
+        @Override
+        public boolean isBlocking() {
+            return true;
+        }
+        
+        @Override
+        public CharSequence get() {
+            return "blocking";
+        }
+    };
+    
+    private static final Optional<String> HOT_KEY = Optional.of("hot");
+    
+    private static final Meta KEYED = new Meta() {
+        @Override
+        public Optional<String> getKey() {
+            return HOT_KEY;
+        }
+        
+        @Override
+        public CharSequence get() {
+            return "keyed";
+        }
+    };
+    
+    private Metalog metalog;
+    private AutoClose closeMetalog;
+    private AutoClose closeSubscription;
+}
@@ -0,0 +1,79 @@
+package io.github.jonloucks.metalog.benchmarks;
+
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.contracts.api.GlobalContracts;
+import io.github.jonloucks.metalog.api.Console;
+import io.github.jonloucks.metalog.api.Log;
+import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.api.Metalog;
+import io.github.jonloucks.metalog.api.Outcome;
+import io.github.jonloucks.metalog.impl.MetalogFactoryImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares console output printed to System out per log message with the buffered console.
+ * The benchmark writes to standard output, run it with the output redirected and read the results file:
+ * ./gradlew :metalog-benchmarks:jmh -PjmhIncludes=ConsoleBenchmark > /dev/null
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsoleBenchmark {
+    
+    @Param({"false", "true"})
+    public boolean consoleBuffered;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        metalog = new MetalogFactoryImpl().create(b -> b.consoleBuffered(consoleBuffered));
+        closeMetalog = metalog.open();
+        console = GlobalContracts.getInstance().claim(Console.CONTRACT);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        closeMetalog.close();
+    }
+    
+    @Benchmark
+    @Threads(1)
+    public Outcome output_1() {
+        return console.output(LOG);
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public Outcome output_4() {
+        return console.output(LOG);
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public Outcome systemOut_4() {
+        // unkeyed, delivered one log message at a time by the unkeyed dispatcher threads
+        return metalog.publish(LOG, SYSTEM_OUT);
+    }
+    
+    private static final Log LOG = () -> "2025-01-01T00:00:00Z INFO Hello World from the console benchmark";
+    
+    private static final Meta SYSTEM_OUT = new Meta() {
+        @Override
+        public String getChannel() {
+            return "System.out";
+        }
+        
+        @Override
+        public CharSequence get() {
+            return "System.out";
+        }
+    };
+    
+    private Metalog metalog;
+    private AutoClose closeMetalog;
+    private Console console;
+}
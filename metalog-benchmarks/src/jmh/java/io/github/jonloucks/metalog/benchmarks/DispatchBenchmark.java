@@ -0,0 +1,101 @@
+package io.github.jonloucks.metalog.benchmarks;
+
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.metalog.api.Log;
+import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.api.Metalog;
+import io.github.jonloucks.metalog.api.Outcome;
+import io.github.jonloucks.metalog.impl.MetalogFactoryImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of handing a log message to a dispatcher, keyed with 1, 64 and 4096 distinct keys, and unkeyed.
+ * Four producer threads publish, each one cycling through the keys, and one subscriber consumes.
+ * Reports throughput, the average and the sample percentiles, add the gc profiler for the bytes per publish.
+ * With a single key the worker is the bottleneck, so comparing measureLatency shows what stamping and recording
+ * the latency costs per log message.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class DispatchBenchmark {
+    
+    @Param({"1", "64", "4096"})
+    public int keyCount;
+    
+    @Param({"false", "true"})
+    public boolean measureLatency;
+    
+    /**
+     * The next key of each producer thread
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        metalog = new MetalogFactoryImpl().create(b -> b.measureLatency(measureLatency));
+        closeMetalog = metalog.open();
+        closeSubscription = metalog.subscribe((log, meta) -> log.get().length() > 0 ? Outcome.CONSUMED : Outcome.SKIPPED);
+        keyed = new Meta[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keyed[i] = keyedMeta("key-" + i);
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        closeSubscription.close();
+        closeMetalog.close();
+    }
+    
+    @Benchmark
+    public Outcome publish_Keyed(Cursor cursor) {
+        final int index = cursor.next;
+        cursor.next = index + 1 == keyed.length ? 0 : index + 1;
+        return metalog.publish(LOG, keyed[index]);
+    }
+    
+    @Benchmark
+    public Outcome publish_Unkeyed() {
+        return metalog.publish(LOG, UNKEYED);
+    }
+    
+    private static Meta keyedMeta(String key) {
+        final Optional<String> optionalKey = Optional.of(key);
+        return new Meta() {
+            @Override
+            public Optional<String> getKey() {
+                return optionalKey;
+            }
+            
+            @Override
+            public CharSequence get() {
+                return key;
+            }
+        };
+    }
+    
+    private static final Log LOG = () -> "Hello World";
+    
+    private static final Meta UNKEYED = new Meta() {
+        @Override
+        public CharSequence get() {
+            return "unkeyed";
+        }
+    };
+    
+    private Metalog metalog;
+    private AutoClose closeMetalog;
+    private AutoClose closeSubscription;
+    private Meta[] keyed;
+}
@@ -0,0 +1,108 @@
+package io.github.jonloucks.metalog.benchmarks;
+
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.contracts.api.GlobalContracts;
+import io.github.jonloucks.metalog.api.DurableFileSubscriber;
+import io.github.jonloucks.metalog.api.FsyncPolicy;
+import io.github.jonloucks.metalog.api.Log;
+import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.api.Metalog;
+import io.github.jonloucks.metalog.api.Outcome;
+import io.github.jonloucks.metalog.impl.MetalogFactoryImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Compares blocking log messages written by the durable file subscriber with a write and force per log message.
+ * The files are written to a temporary directory, which should be on the disk being measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DurableFileBenchmark {
+    
+    @Param({"NEVER", "INTERVAL", "BATCH"})
+    public FsyncPolicy fsyncPolicy;
+    
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("metalog-durable");
+        metalog = new MetalogFactoryImpl().create(b -> {});
+        closeMetalog = metalog.open();
+        subscriber = GlobalContracts.getInstance().claim(DurableFileSubscriber.FACTORY)
+            .create(b -> b.file(directory.resolve("durable.log")).fsyncPolicy(fsyncPolicy));
+        closeSubscriber = subscriber.open();
+        channel = FileChannel.open(directory.resolve("force.log"), CREATE, WRITE, APPEND);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        closeSubscriber.close();
+        closeMetalog.close();
+        channel.close();
+    }
+    
+    @Benchmark
+    @Threads(1)
+    public Outcome durable_1() {
+        return subscriber.receive(LOG, BLOCKING);
+    }
+    
+    @Benchmark
+    @Threads(16)
+    public Outcome durable_16() {
+        return subscriber.receive(LOG, BLOCKING);
+    }
+    
+    @Benchmark
+    @Threads(16)
+    public void forceEach_16() throws IOException {
+        // the baseline, what a blocking log message costs without group commit
+        synchronized (channel) {
+            channel.write(ByteBuffer.wrap(LINE));
+            channel.force(false);
+        }
+    }
+    
+    private static final Log LOG = () -> "2025-01-01T00:00:00Z AUDIT user=alice action=login outcome=success";
+    
+    private static final byte[] LINE = ("audit " + LOG.get() + "\n").getBytes(StandardCharsets.UTF_8);
+    
+    private static final Meta BLOCKING = new Meta() {
+        @Override
+        public boolean isBlocking() {
+            return true;
+        }
+        
+        @Override
+        public String getChannel() {
+            return "audit";
+        }
+        
+        @Override
+        public CharSequence get() {
+            return "audit";
+        }
+    };
+    
+    private Path directory;
+    private Metalog metalog;
+    private AutoClose closeMetalog;
+    private DurableFileSubscriber subscriber;
+    private AutoClose closeSubscriber;
+    private FileChannel channel;
+}
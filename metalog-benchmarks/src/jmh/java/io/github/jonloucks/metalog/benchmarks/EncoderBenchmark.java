@@ -0,0 +1,87 @@
+package io.github.jonloucks.metalog.benchmarks;
+
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.contracts.api.Contract;
+import io.github.jonloucks.contracts.api.GlobalContracts;
+import io.github.jonloucks.metalog.api.Encoder;
+import io.github.jonloucks.metalog.api.JsonEncoder;
+import io.github.jonloucks.metalog.api.Log;
+import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.impl.MetalogFactoryImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The cost and size of rendering a published log message with each encoder.
+ * The bytes counter is the size of each log message written, divide it by the operations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EncoderBenchmark {
+    
+    @Param({"TEXT", "BINARY", "JSON"})
+    public String encoderType;
+    
+    /**
+     * Counts the bytes written
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Written {
+        public long bytes;
+    }
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        closeMetalog = new MetalogFactoryImpl().create(b -> {}).open();
+        encoder = GlobalContracts.getInstance().claim(factoryOf(encoderType)).get();
+        meta = GlobalContracts.getInstance().claim(Meta.Builder.FACTORY).get()
+            .channel("info")
+            .time()
+            .thread()
+            .correlation(b -> b.name("tenant").value("acme"))
+            .correlation(b -> b.name("requestId").value(123_456_789L))
+            .template();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        closeMetalog.close();
+    }
+    
+    @Benchmark
+    public boolean encode(Written written) {
+        if (buffer.remaining() < 1024) {
+            buffer.clear();
+        }
+        final int start = buffer.position();
+        final boolean encoded = encoder.encode(LOG, meta, buffer);
+        written.bytes += buffer.position() - start;
+        return encoded;
+    }
+    
+    private static Contract<? extends Supplier<? extends Encoder>> factoryOf(String encoderType) {
+        switch (encoderType) {
+            case "BINARY":
+                return Encoder.BINARY_FACTORY;
+            case "JSON":
+                return JsonEncoder.FACTORY;
+            default:
+                return Encoder.TEXT_FACTORY;
+        }
+    }
+    
+    private static final Log LOG = () -> "User logged in";
+    
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1024 * 1024);
+    private AutoClose closeMetalog;
+    private Encoder encoder;
+    private Meta meta;
+}
@@ -0,0 +1,73 @@
+package io.github.jonloucks.metalog.benchmarks;
+
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.contracts.api.GlobalContracts;
+import io.github.jonloucks.metalog.api.Entities;
+import io.github.jonloucks.metalog.api.Entity;
+import io.github.jonloucks.metalog.impl.MetalogFactoryImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The cost of building Entities of 1, 8 and 32 entities, and of finding in them by name.
+ * The name looked up is the last one added, the worst case for a search in order.
+ * Reports throughput, the average and the sample percentiles, add the gc profiler for the bytes per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntitiesBenchmark {
+    
+    @Param({"1", "8", "32"})
+    public int entityCount;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        closeMetalog = new MetalogFactoryImpl().create(b -> {}).open();
+        entitiesFactory = GlobalContracts.getInstance().claim(Entities.Builder.FACTORY);
+        final Supplier<Entity.Builder<?>> entityFactory = GlobalContracts.getInstance().claim(Entity.Builder.FACTORY);
+        entities = new Entity[entityCount];
+        for (int i = 0; i < entityCount; i++) {
+            entities[i] = entityFactory.get().name("entity" + i).value(i);
+        }
+        built = build();
+        lastName = "entity" + (entityCount - 1);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        closeMetalog.close();
+    }
+    
+    @Benchmark
+    public Entities build() {
+        final Entities.Builder<?> builder = entitiesFactory.get();
+        for (Entity entity : entities) {
+            builder.entity(entity);
+        }
+        return builder;
+    }
+    
+    @Benchmark
+    public Optional<Entity> findFirstIf() {
+        return built.findFirstIf(entity -> entity.getName().filter(lastName::equals).isPresent());
+    }
+    
+    @Benchmark
+    public List<Entity> findAllIf() {
+        return built.findAllIf(entity -> entity.getName().filter(lastName::equals).isPresent());
+    }
+    
+    private AutoClose closeMetalog;
+    private Supplier<Entities.Builder<?>> entitiesFactory;
+    private Entity[] entities;
+    private Entities built;
+    private String lastName;
+}
@@ -0,0 +1,58 @@
+package io.github.jonloucks.metalog.benchmarks;
+
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.api.Metalog;
+import io.github.jonloucks.metalog.api.Outcome;
+import io.github.jonloucks.metalog.impl.MetalogFactoryImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of testing a Meta against 0, 1, 4 and 16 filters, every one of them passing, so all are evaluated.
+ * One subscriber takes every channel, without one the filters are not reached.
+ * Reports throughput, the average and the sample percentiles, add the gc profiler for the bytes per test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FiltersBenchmark {
+    
+    @Param({"0", "1", "4", "16"})
+    public int filterCount;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        metalog = new MetalogFactoryImpl().create(b -> {});
+        closeMetalog = metalog.open();
+        closeSubscription = metalog.subscribe((log, meta) -> Outcome.CONSUMED);
+        for (int i = 0; i < filterCount; i++) {
+            final String channel = "channel-" + i;
+            closeFilters.add(metalog.addFilter(meta -> !channel.equals(meta.getChannel())));
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        closeFilters.forEach(AutoClose::close);
+        closeFilters.clear();
+        closeSubscription.close();
+        closeMetalog.close();
+    }
+    
+    @Benchmark
+    public boolean test() {
+        return metalog.test(Meta.DEFAULT);
+    }
+    
+    private final List<AutoClose> closeFilters = new ArrayList<>();
+    private Metalog metalog;
+    private AutoClose closeMetalog;
+    private AutoClose closeSubscription;
+}
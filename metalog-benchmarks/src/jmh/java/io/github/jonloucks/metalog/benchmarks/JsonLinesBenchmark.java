@@ -0,0 +1,105 @@
+package io.github.jonloucks.metalog.benchmarks;
+
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.contracts.api.GlobalContracts;
+import io.github.jonloucks.metalog.api.Entity;
+import io.github.jonloucks.metalog.api.JsonEncoder;
+import io.github.jonloucks.metalog.api.Log;
+import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.impl.MetalogFactoryImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JSON encoder with the JSON line formatter most applications write for themselves,
+ * walking the meta information with String.format and escaping with replace.
+ * Run with -prof gc to compare the allocations per line.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonLinesBenchmark {
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        closeMetalog = new MetalogFactoryImpl().create(b -> {}).open();
+        encoder = GlobalContracts.getInstance().claim(JsonEncoder.FACTORY).get();
+        meta = GlobalContracts.getInstance().claim(Meta.Builder.FACTORY).get()
+            .channel("info")
+            .key("request-42")
+            .time()
+            .correlation(b -> b.name("tenant").value("acme"))
+            .correlation(b -> b.name("latencyMillis").value(12L))
+            .correlation(b -> b.name("user").value("alice").correlation(c -> c.name("admin").value(false)))
+            .template();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        closeMetalog.close();
+    }
+    
+    @Benchmark
+    public boolean encoder_buffer() {
+        buffer.clear();
+        return encoder.encode(LOG, meta, buffer);
+    }
+    
+    @Benchmark
+    public int encoder_appendable() {
+        builder.setLength(0);
+        encoder.append(LOG, meta, builder);
+        return builder.length();
+    }
+    
+    @Benchmark
+    public boolean naive_stringFormat() {
+        buffer.clear();
+        final StringBuilder correlations = new StringBuilder();
+        meta.getCorrelations().ifPresent(entities -> entities.visitEach(entity -> {
+            appendNaive(correlations, entity);
+            return true;
+        }));
+        final String line = String.format("{\"time\":\"%s\",\"channel\":\"%s\",\"key\":\"%s\",\"message\":\"%s\",\"correlations\":[%s]}%n",
+            meta.getTime().map(Object::toString).orElse(""),
+            escapeNaive(meta.getChannel()),
+            escapeNaive(meta.getKey().orElse("")),
+            escapeNaive(LOG.get().toString()),
+            correlations);
+        buffer.put(line.getBytes(StandardCharsets.UTF_8));
+        return true;
+    }
+    
+    private static void appendNaive(StringBuilder builder, Entity entity) {
+        if (builder.length() > 0) {
+            builder.append(',');
+        }
+        final StringBuilder nested = new StringBuilder();
+        entity.getCorrelations().ifPresent(entities -> entities.visitEach(correlation -> {
+            appendNaive(nested, correlation);
+            return true;
+        }));
+        builder.append(String.format("{\"name\":\"%s\",\"value\":\"%s\",\"correlations\":[%s]}",
+            escapeNaive(entity.getName().orElse("")),
+            escapeNaive(entity.get().toString()),
+            nested));
+    }
+    
+    private static String escapeNaive(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+    
+    private static final Log LOG = () -> "Request \"checkout\" completed";
+    
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+    private final StringBuilder builder = new StringBuilder(1024);
+    private AutoClose closeMetalog;
+    private JsonEncoder encoder;
+    private Meta meta;
+}
@@ -0,0 +1,88 @@
+package io.github.jonloucks.metalog.benchmarks;
+
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.metalog.api.Log;
+import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.api.Metalog;
+import io.github.jonloucks.metalog.api.Outcome;
+import io.github.jonloucks.metalog.impl.MetalogFactoryImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the blocking keyed queue with the lock-free ring buffer.
+ * Every producer thread publishes with the same key, so all of them contend on a single keyed queue.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeyedQueueBenchmark {
+    
+    @Param({"false", "true"})
+    public boolean useKeyedRingBuffer;
+    
+    @Param({"1024"})
+    public int keyedQueueLimit;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        metalog = new MetalogFactoryImpl().create(b -> b
+            .useKeyedRingBuffer(useKeyedRingBuffer)
+            .keyedQueueLimit(keyedQueueLimit));
+        closeMetalog = metalog.open();
+        closeSubscription = metalog.subscribe((log, meta) -> log.get().length() > 0 ? Outcome.CONSUMED : Outcome.SKIPPED);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        closeSubscription.close();
+        closeMetalog.close();
+    }
+    
+    @Benchmark
+    @Threads(1)
+    public Outcome producers_1() {
+        return metalog.publish(LOG, HOT_KEY);
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public Outcome producers_4() {
+        return metalog.publish(LOG, HOT_KEY);
+    }
+    
+    @Benchmark
+    @Threads(16)
+    public Outcome producers_16() {
+        return metalog.publish(LOG, HOT_KEY);
+    }
+    
+    @Benchmark
+    @Threads(64)
+    public Outcome producers_64() {
+        return metalog.publish(LOG, HOT_KEY);
+    }
+    
+    private static final Log LOG = () -> "Hello World";
+    
+    private static final Meta HOT_KEY = new Meta() {
+        @Override
+        public Optional<String> getKey() {
+            return Optional.of("hot");
+        }
+    
+        @Override
+        public CharSequence get() {
+            return "hot";
+        }
+    };
+    
+    private Metalog metalog;
+    private AutoClose closeMetalog;
+    private AutoClose closeSubscription;
+}
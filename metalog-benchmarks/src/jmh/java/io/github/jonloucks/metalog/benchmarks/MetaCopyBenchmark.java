@@ -0,0 +1,60 @@
+package io.github.jonloucks.metalog.benchmarks;
+
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.contracts.api.GlobalContracts;
+import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.impl.MetalogFactoryImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The cost of copying a Meta with 0, 3 and 10 correlations into a new builder,
+ * from another builder, which copies each correlation, and from a template, which shares them.
+ * Reports throughput, the average and the sample percentiles, add the gc profiler for the bytes per copy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetaCopyBenchmark {
+    
+    @Param({"0", "3", "10"})
+    public int correlations;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        closeMetalog = new MetalogFactoryImpl().create(b -> {}).open();
+        metaFactory = GlobalContracts.getInstance().claim(Meta.Builder.FACTORY);
+        final Meta.Builder<?> builder = metaFactory.get().channel("info").key("request-42").id("id-1");
+        for (int i = 0; i < correlations; i++) {
+            final int value = i;
+            builder.correlation(b -> b.name("correlation" + value).value(value));
+        }
+        source = builder;
+        template = builder.template();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        closeMetalog.close();
+    }
+    
+    @Benchmark
+    public Meta copy() {
+        return metaFactory.get().copy(source);
+    }
+    
+    @Benchmark
+    public Meta copyTemplate() {
+        return metaFactory.get().copy(template);
+    }
+    
+    private AutoClose closeMetalog;
+    private Supplier<Meta.Builder<?>> metaFactory;
+    private Meta source;
+    private Meta template;
+}
@@ -0,0 +1,73 @@
+package io.github.jonloucks.metalog.benchmarks;
+
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.contracts.api.GlobalContracts;
+import io.github.jonloucks.metalog.api.Entity;
+import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.api.Metalog;
+import io.github.jonloucks.metalog.impl.MetalogFactoryImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bytes per Meta with 0, 3 and 10 correlations.
+ * The correlations are created once, so only the Meta and how it holds them is counted.
+ * A Meta copied from a template shares the template's correlations, so its cost should not grow with them.
+ * Run with the gc profiler and read gc.alloc.rate.norm:
+ * ./gradlew :metalog-benchmarks:jmh -PjmhIncludes=MetaFootprintBenchmark -PjmhProfilers=gc
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetaFootprintBenchmark {
+    
+    @Param({"0", "3", "10"})
+    public int correlations;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        metalog = new MetalogFactoryImpl().create(b -> {});
+        closeMetalog = metalog.open();
+        metaFactory = GlobalContracts.getInstance().claim(Meta.Builder.FACTORY);
+        final Supplier<Entity.Builder<?>> entityFactory = GlobalContracts.getInstance().claim(Entity.Builder.FACTORY);
+        entities = new Entity[correlations];
+        for (int i = 0; i < correlations; i++) {
+            entities[i] = entityFactory.get().name("correlation" + i).value(i);
+        }
+        final Meta.Builder<?> templateBuilder = metaFactory.get();
+        for (Entity entity : entities) {
+            templateBuilder.correlation(entity);
+        }
+        template = templateBuilder.template();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        closeMetalog.close();
+    }
+    
+    @Benchmark
+    public Meta meta() {
+        final Meta.Builder<?> builder = metaFactory.get();
+        for (Entity entity : entities) {
+            builder.correlation(entity);
+        }
+        return builder;
+    }
+    
+    @Benchmark
+    public Meta metaFromTemplate() {
+        return metaFactory.get().copy(template).id("event");
+    }
+    
+    private Metalog metalog;
+    private AutoClose closeMetalog;
+    private Supplier<Meta.Builder<?>> metaFactory;
+    private Entity[] entities;
+    private Meta template;
+}
@@ -0,0 +1,89 @@
+package io.github.jonloucks.metalog.benchmarks;
+
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.metalog.api.Log;
+import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.api.Metalog;
+import io.github.jonloucks.metalog.api.Outcome;
+import io.github.jonloucks.metalog.impl.MetalogFactoryImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of a publish the Metalog filters skip, and of a blocking publish delivered on the caller thread
+ * to 1, 5 and 20 subscribers. The skipped publish should not depend on the number of subscribers.
+ * Reports throughput, the average and the sample percentiles, add the gc profiler for the bytes per publish.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PublishBenchmark {
+    
+    @Param({"1", "5", "20"})
+    public int subscriberCount;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        metalog = new MetalogFactoryImpl().create(b -> {});
+        closeMetalog = metalog.open();
+        closeFilter = metalog.addFilter(meta -> !"debug".equals(meta.getChannel()));
+        for (int i = 0; i < subscriberCount; i++) {
+            closeSubscriptions.add(metalog.subscribe((log, meta) -> log.get().length() > 0 ? Outcome.CONSUMED : Outcome.SKIPPED));
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        closeSubscriptions.forEach(AutoClose::close);
+        closeSubscriptions.clear();
+        closeFilter.close();
+        closeMetalog.close();
+    }
+    
+    @Benchmark
+    public Outcome publish_Skipped() {
+        return metalog.publish(LOG, DEBUG);
+    }
+    
+    @Benchmark
+    public Outcome publish_Blocking() {
+        return metalog.publish(LOG, BLOCKING);
+    }
+    
+    private static final Log LOG = () -> "Hello World";
+    
+    private static final Meta DEBUG = new Meta() {
+        @Override
+        public String getChannel() {
+            return "debug";
+        }
+        
+        @Override
+        public CharSequence get() {
+            return "debug";
+        }
+    };
+    
+    private static final Meta BLOCKING = new Meta() {
+        @Override
+        public boolean isBlocking() {
+            return true;
+        }
+        
+        @Override
+        public CharSequence get() {
+            return "blocking";
+        }
+    };
+    
+    private final List<AutoClose> closeSubscriptions = new ArrayList<>();
+    private Metalog metalog;
+    private AutoClose closeMetalog;
+    private AutoClose closeFilter;
+}
@@ -0,0 +1,67 @@
+package io.github.jonloucks.metalog.benchmarks;
+
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.contracts.api.GlobalContracts;
+import io.github.jonloucks.metalog.api.FlightRecorder;
+import io.github.jonloucks.metalog.api.Log;
+import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.api.Outcome;
+import io.github.jonloucks.metalog.api.RecentEventsSubscriber;
+import io.github.jonloucks.metalog.api.Subscriber;
+import io.github.jonloucks.metalog.impl.MetalogFactoryImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares keeping the most recent log messages off heap with keeping them on heap in a flight recorder.
+ * Both keep about the same number of log messages, run with -prof gc to compare the collections.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx512m"})
+public class RecentEventsBenchmark {
+    
+    @Param({"OFF_HEAP", "ON_HEAP"})
+    public String store;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        closeMetalog = new MetalogFactoryImpl().create(b -> {}).open();
+        if ("OFF_HEAP".equals(store)) {
+            subscriber = GlobalContracts.getInstance().claim(RecentEventsSubscriber.FACTORY)
+                .create(b -> b.arenaSize(128 * 1024 * 1024).capacity(KEPT));
+        } else {
+            subscriber = GlobalContracts.getInstance().claim(FlightRecorder.FACTORY)
+                .create(b -> b.capacity(KEPT).errorChannels(Set.of()));
+        }
+        meta = GlobalContracts.getInstance().claim(Meta.Builder.FACTORY).get()
+            .channel("debug")
+            .key("request-42")
+            .time()
+            .correlation(b -> b.name("tenant").value("acme"))
+            .template();
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        closeMetalog.close();
+    }
+    
+    @Benchmark
+    public Outcome receive() {
+        return subscriber.receive(LOG, meta);
+    }
+    
+    private static final int KEPT = 1024 * 1024;
+    
+    private static final Log LOG = () -> "Cache lookup for user profile took 3 ms";
+    
+    private AutoClose closeMetalog;
+    private Subscriber subscriber;
+    private Meta meta;
+}
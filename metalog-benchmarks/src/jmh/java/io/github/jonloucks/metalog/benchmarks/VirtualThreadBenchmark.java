@@ -0,0 +1,94 @@
+package io.github.jonloucks.metalog.benchmarks;
+
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.metalog.api.Log;
+import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.api.Metalog;
+import io.github.jonloucks.metalog.api.Outcome;
+import io.github.jonloucks.metalog.impl.MetalogFactoryImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares platform and virtual threads backing the keyed dispatchers at high key cardinality.
+ * Every distinct key gets a dedicated keyed worker, so at 10k+ keys the thread model dominates.
+ * Note: on JDKs without virtual threads the "virtual" runs fall back to platform threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VirtualThreadBenchmark {
+    
+    @Param({"false", "true"})
+    public boolean useVirtualThreads;
+    
+    @Param({"10000", "50000"})
+    public int keyCount;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        metalog = new MetalogFactoryImpl().create(b -> b
+            .useVirtualThreads(useVirtualThreads)
+            .keyedQueueLimit(100));
+        closeMetalog = metalog.open();
+        closeSubscription = metalog.subscribe((log, meta) -> log.get().length() > 0 ? Outcome.CONSUMED : Outcome.SKIPPED);
+        keyedMetas = new Meta[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            final String key = "key-" + i;
+            keyedMetas[i] = new Meta() {
+                @Override
+                public Optional<String> getKey() {
+                    return Optional.of(key);
+                }
+                
+                @Override
+                public CharSequence get() {
+                    return key;
+                }
+            };
+            // warm every key so the trial measures dispatch, not worker creation
+            metalog.publish(LOG, keyedMetas[i]);
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        closeSubscription.close();
+        closeMetalog.close();
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public Outcome publishKeyed(PublisherState publisher) {
+        return metalog.publish(LOG, keyedMetas[publisher.nextIndex(keyCount)]);
+    }
+    
+    @State(Scope.Thread)
+    public static class PublisherState {
+        @Setup(Level.Trial)
+        public void setup() {
+            // spread the publisher threads over the keys
+            index = ThreadLocalRandom.current().nextInt(1 << 16);
+        }
+        
+        int nextIndex(int bound) {
+            index = index + 1 >= bound ? 0 : index + 1;
+            return index;
+        }
+        
+        private int index;
+    }
+    
+    private static final Log LOG = () -> "Hello World";
+    
+    private Metalog metalog;
+    private Meta[] keyedMetas;
+    private AutoClose closeMetalog;
+    private AutoClose closeSubscription;
+}
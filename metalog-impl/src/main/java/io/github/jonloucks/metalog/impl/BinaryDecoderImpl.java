@@ -0,0 +1,287 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.metalog.api.Decoder;
+import io.github.jonloucks.metalog.api.Entity;
+import io.github.jonloucks.metalog.api.Event;
+import io.github.jonloucks.metalog.api.Log;
+import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.api.MetalogException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static io.github.jonloucks.contracts.api.Checks.nullCheck;
+import static io.github.jonloucks.metalog.impl.BinaryFormat.*;
+import static io.github.jonloucks.metalog.impl.Encoders.MAX_DEPTH;
+
+/**
+ * Reads the records written by {@link BinaryEncoderImpl}, see {@link BinaryFormat} for the layout.
+ * Fields after the ones this version knows are skipped, so newer records with more fields can still be read.
+ */
+final class BinaryDecoderImpl implements Decoder {
+    
+    @Override
+    public Optional<Event> decode(ByteBuffer buffer) {
+        final ByteBuffer validBuffer = nullCheck(buffer, "Buffer must be present.");
+        final int start = validBuffer.position();
+        final long length = readLength(validBuffer);
+        if (length < 0 || length > validBuffer.remaining()) {
+            validBuffer.position(start);
+            return Optional.empty();
+        }
+        final int end = validBuffer.position() + (int) length;
+        final int limit = validBuffer.limit();
+        validBuffer.limit(end);
+        try {
+            return Optional.of(readRecord(validBuffer));
+        } catch (BufferUnderflowException | IllegalArgumentException | DateTimeException | ArithmeticException thrown) {
+            throw new MetalogException("Binary record is malformed.", thrown);
+        } finally {
+            validBuffer.limit(limit);
+            validBuffer.position(end);
+        }
+    }
+    
+    @Override
+    public void reset() {
+        names.clear();
+        lastTime = 0;
+    }
+    
+    BinaryDecoderImpl() {
+    }
+    
+    private Event readRecord(ByteBuffer buffer) {
+        final byte version = buffer.get();
+        if (VERSION != version) {
+            throw new MetalogException("Binary record version " + version + " is not supported.");
+        }
+        final DecodedMeta meta = new DecodedMeta();
+        final int flags = (int) readVarint(buffer);
+        if (has(flags, META_RESET)) {
+            // written by a new or reset encoder, nothing before it is referenced
+            reset();
+        }
+        meta.channel = readName(buffer);
+        meta.key = has(flags, META_KEY) ? Optional.of(readName(buffer)) : Optional.empty();
+        meta.id = has(flags, META_ID) ? readString(buffer) : null;
+        meta.name = has(flags, META_NAME) ? readName(buffer) : null;
+        meta.value = has(flags, META_VALUE) ? readValue(buffer) : null;
+        meta.unique = has(flags, META_UNIQUE);
+        meta.block = has(flags, META_BLOCK);
+        if (has(flags, META_TIME)) {
+            lastTime += unzigzag(readVarint(buffer));
+            meta.time = Instant.ofEpochSecond(Math.floorDiv(lastTime, NANOS_PER_SECOND), Math.floorMod(lastTime, NANOS_PER_SECOND));
+        }
+        meta.timeText = has(flags, META_TIME_TEXT) ? readString(buffer) : null;
+        if (has(flags, META_THREAD)) {
+            meta.threadId = readVarint(buffer);
+            meta.threadName = readName(buffer);
+        }
+        meta.thrownText = has(flags, META_THROWN) ? readString(buffer) : null;
+        meta.text = has(flags, META_TEXT) ? readString(buffer) : null;
+        final String text = readString(buffer);
+        meta.correlations = has(flags, META_CORRELATIONS) ? readEntities(buffer, 1) : NO_ENTITIES;
+        return new DecodedEvent(text, meta);
+    }
+    
+    private Entity[] readEntities(ByteBuffer buffer, int depth) {
+        final long count = readVarint(buffer);
+        // every entity takes at least a byte
+        if (count < 0 || count > buffer.remaining() || depth > MAX_DEPTH) {
+            throw new MetalogException("Binary record has too many correlations.");
+        }
+        final Entity[] entities = new Entity[(int) count];
+        for (int i = 0; i < entities.length; i++) {
+            entities[i] = readEntity(buffer, depth);
+        }
+        return entities;
+    }
+    
+    private Entity readEntity(ByteBuffer buffer, int depth) {
+        final int flags = buffer.get();
+        final EntityImpl entity = new EntityImpl();
+        if (has(flags, ENTITY_NAME)) {
+            entity.name(readName(buffer));
+        }
+        if (has(flags, ENTITY_ID)) {
+            entity.id(readString(buffer));
+        }
+        if (has(flags, ENTITY_VALUE)) {
+            entity.value(readValue(buffer));
+        }
+        entity.unique(has(flags, ENTITY_UNIQUE));
+        if (has(flags, ENTITY_TEXT)) {
+            final String text = readString(buffer);
+            entity.text(() -> text);
+        }
+        if (has(flags, ENTITY_CORRELATIONS)) {
+            for (Entity correlation : readEntities(buffer, depth + 1)) {
+                entity.correlation(correlation);
+            }
+        }
+        return entity;
+    }
+    
+    private Object readValue(ByteBuffer buffer) {
+        final byte tag = buffer.get();
+        switch (tag) {
+            case TAG_STRING:
+                return readString(buffer);
+            case TAG_TRUE:
+                return Boolean.TRUE;
+            case TAG_FALSE:
+                return Boolean.FALSE;
+            case TAG_INT:
+                return (int) unzigzag(readVarint(buffer));
+            case TAG_LONG:
+                return unzigzag(readVarint(buffer));
+            case TAG_DOUBLE:
+                return Double.longBitsToDouble(readFixed(buffer, Long.BYTES));
+            case TAG_FLOAT:
+                return Float.intBitsToFloat((int) readFixed(buffer, Integer.BYTES));
+            case TAG_SHORT:
+                return (short) unzigzag(readVarint(buffer));
+            case TAG_BYTE:
+                return buffer.get();
+            case TAG_CHAR:
+                return (char) readVarint(buffer);
+            case TAG_INSTANT:
+                return Instant.ofEpochSecond(unzigzag(readVarint(buffer)), readVarint(buffer));
+            default:
+                throw new MetalogException("Binary record value type " + tag + " is not supported.");
+        }
+    }
+    
+    private String readName(ByteBuffer buffer) {
+        final long reference = readVarint(buffer);
+        if (NAME_LITERAL == reference) {
+            return readString(buffer);
+        }
+        final long index = (reference & 1) == 1 ? reference >>> 1 : (reference >>> 1) - 1;
+        if (index >= MAX_NAMES) {
+            throw new MetalogException("Binary record name " + index + " is out of range.");
+        }
+        if ((reference & 1) == 1) {
+            final String name = readString(buffer);
+            while (names.size() <= index) {
+                names.add(null);
+            }
+            names.set((int) index, name);
+            return name;
+        }
+        final String name = index < names.size() ? names.get((int) index) : null;
+        if (null == name) {
+            throw new MetalogException("Binary record name " + index + " was not defined.");
+        }
+        return name;
+    }
+    
+    private String readString(ByteBuffer buffer) {
+        final long length = readVarint(buffer);
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        final int byteLength = (int) length;
+        final String text;
+        if (buffer.hasArray()) {
+            text = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), byteLength, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + byteLength);
+        } else {
+            if (bytes.length < byteLength) {
+                bytes = new byte[Math.max(byteLength, bytes.length * 2)];
+            }
+            buffer.get(bytes, 0, byteLength);
+            text = new String(bytes, 0, byteLength, StandardCharsets.UTF_8);
+        }
+        return text;
+    }
+    
+    private static long readLength(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            final byte next = buffer.get();
+            value |= (long) (next & 0x7F) << shift;
+            if (next >= 0 && value <= Integer.MAX_VALUE) {
+                return value;
+            }
+            if (next >= 0) {
+                break;
+            }
+        }
+        throw new MetalogException("Binary record length is malformed.");
+    }
+    
+    private static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            final byte next = buffer.get();
+            value |= (long) (next & 0x7F) << shift;
+            if (next >= 0) {
+                return value;
+            }
+        }
+        throw new MetalogException("Binary record number is malformed.");
+    }
+    
+    private static long readFixed(ByteBuffer buffer, int byteCount) {
+        long value = 0;
+        for (int i = 0; i < byteCount; i++) {
+            value |= (buffer.get() & 0xFFL) << (i * 8);
+        }
+        return value;
+    }
+    
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    private static boolean has(int flags, int flag) {
+        return (flags & flag) != 0;
+    }
+    
+    /**
+     * A log message read back, with its text and meta information
+     */
+    private static final class DecodedEvent implements Event, Log {
+        
+        @Override
+        public Log getLog() {
+            return this;
+        }
+        
+        @Override
+        public Meta getMeta() {
+            return meta;
+        }
+        
+        @Override
+        public CharSequence get() {
+            return text;
+        }
+        
+        private DecodedEvent(String text, Meta meta) {
+            this.text = text;
+            this.meta = meta;
+        }
+        
+        private final String text;
+        private final Meta meta;
+    }
+    
+    private static final Entity[] NO_ENTITIES = new Entity[0];
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    
+    private final List<String> names = new ArrayList<>();
+    private byte[] bytes = new byte[256];
+    private long lastTime;
+}
@@ -0,0 +1,312 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.metalog.api.Encoder;
+import io.github.jonloucks.metalog.api.Entities;
+import io.github.jonloucks.metalog.api.Entity;
+import io.github.jonloucks.metalog.api.Log;
+import io.github.jonloucks.metalog.api.Meta;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static io.github.jonloucks.contracts.api.Checks.nullCheck;
+import static io.github.jonloucks.metalog.impl.BinaryFormat.*;
+import static io.github.jonloucks.metalog.impl.Encoders.*;
+import static io.github.jonloucks.metalog.impl.Internal.logCheck;
+import static io.github.jonloucks.metalog.impl.Internal.metaCheck;
+import static java.time.temporal.ChronoField.INSTANT_SECONDS;
+import static java.time.temporal.ChronoField.NANO_OF_SECOND;
+
+/**
+ * Writes a binary record per log message, see {@link BinaryFormat} for the layout.
+ * The record is built in a reusable array and copied to the destination once its length is known.
+ * The names it defines and the time the next record is relative to are taken back if the record does not fit
+ * or anything it reads throws.
+ * A new or reset encoder marks its first record, so the decoder starts over at it.
+ */
+final class BinaryEncoderImpl implements Encoder {
+    
+    @Override
+    public boolean encode(Log log, Meta meta, ByteBuffer buffer) {
+        final Log validLog = logCheck(log);
+        final Meta validMeta = metaCheck(meta);
+        final ByteBuffer validBuffer = nullCheck(buffer, "Buffer must be present.");
+        final int previousNameCount = definedNames.size();
+        final long previousTime = lastTime;
+        
+        boolean written = false;
+        
+        size = 0;
+        try {
+            // the meta, its correlations and the log can throw partway through
+            putMeta(validLog, validMeta);
+            if (varintSize(size) + size <= validBuffer.remaining()) {
+                putVarint(validBuffer, size);
+                validBuffer.put(bytes, 0, size);
+                restarted = false;
+                written = true;
+            }
+        } finally {
+            if (!written) {
+                forgetNamesAfter(previousNameCount);
+                lastTime = previousTime;
+            }
+            bytes = trim(bytes);
+        }
+        return written;
+    }
+    
+    @Override
+    public void reset() {
+        forgetNamesAfter(0);
+        lastTime = 0;
+        restarted = true;
+    }
+    
+    BinaryEncoderImpl() {
+    }
+    
+    private void putMeta(Log log, Meta meta) {
+        final Optional<String> key = meta.getKey();
+        final Optional<String> id = meta.getId();
+        final Optional<String> name = meta.getName();
+        final Optional<Object> value = meta.getValue();
+        final Temporal time = meta.getTime().orElse(null);
+        final Thread thread = meta.getThread().orElse(null);
+        final Throwable thrown = meta.getThrown().orElse(null);
+        final CharSequence metaText = textOf(meta, value);
+        final List<Entity> correlations = correlationsOf(meta, time, thread, thrown);
+        final boolean hasEpochNanos = null != time && hasEpochNanos(time);
+        
+        int flags = 0;
+        flags |= key.isPresent() ? META_KEY : 0;
+        flags |= id.isPresent() ? META_ID : 0;
+        flags |= name.isPresent() ? META_NAME : 0;
+        flags |= value.isPresent() ? META_VALUE : 0;
+        flags |= meta.isUnique() ? META_UNIQUE : 0;
+        flags |= meta.isBlocking() ? META_BLOCK : 0;
+        flags |= hasEpochNanos ? META_TIME : 0;
+        flags |= null != time && !hasEpochNanos ? META_TIME_TEXT : 0;
+        flags |= null != thread ? META_THREAD : 0;
+        flags |= null != thrown ? META_THROWN : 0;
+        flags |= null != metaText ? META_TEXT : 0;
+        flags |= correlations.isEmpty() ? 0 : META_CORRELATIONS;
+        flags |= restarted ? META_RESET : 0;
+        
+        putByte(VERSION);
+        putVarint(flags);
+        putName(meta.getChannel());
+        key.ifPresent(this::putName);
+        id.ifPresent(this::putString);
+        name.ifPresent(this::putName);
+        value.ifPresent(this::putValue);
+        if (hasEpochNanos) {
+            final long epochNanos = toEpochNanos(time);
+            putVarint(zigzag(epochNanos - lastTime));
+            lastTime = epochNanos;
+        } else if (null != time) {
+            putString(time.toString());
+        }
+        if (null != thread) {
+            putVarint(threadIdOf(thread));
+            putName(thread.getName());
+        }
+        if (null != thrown) {
+            putString(thrown.toString());
+        }
+        if (null != metaText) {
+            putString(metaText);
+        }
+        putString(log.get());
+        if (!correlations.isEmpty()) {
+            putEntities(correlations, 1);
+        }
+    }
+    
+    private void putEntities(List<Entity> entities, int depth) {
+        putVarint(entities.size());
+        for (int i = 0, n = entities.size(); i < n; i++) {
+            putEntity(entities.get(i), depth);
+        }
+    }
+    
+    private void putEntity(Entity entity, int depth) {
+        final Optional<String> name = entity.getName();
+        final Optional<String> id = entity.getId();
+        final Optional<Object> value = entity.getValue();
+        final CharSequence text = textOf(entity, value);
+        // deeper correlations are left out, they could be a cycle
+        final List<Entity> correlations = depth < MAX_DEPTH
+            ? entity.getCorrelations().map(Entities::asList).orElse(NO_ENTITIES) : NO_ENTITIES;
+        
+        int flags = 0;
+        flags |= name.isPresent() ? ENTITY_NAME : 0;
+        flags |= id.isPresent() ? ENTITY_ID : 0;
+        flags |= value.isPresent() ? ENTITY_VALUE : 0;
+        flags |= entity.isUnique() ? ENTITY_UNIQUE : 0;
+        flags |= null != text ? ENTITY_TEXT : 0;
+        flags |= correlations.isEmpty() ? 0 : ENTITY_CORRELATIONS;
+        
+        putByte((byte) flags);
+        name.ifPresent(this::putName);
+        id.ifPresent(this::putString);
+        value.ifPresent(this::putValue);
+        if (null != text) {
+            putString(text);
+        }
+        if (!correlations.isEmpty()) {
+            putEntities(correlations, depth + 1);
+        }
+    }
+    
+    private void putValue(Object value) {
+        if (value instanceof String) {
+            putByte(TAG_STRING);
+            putString((String) value);
+        } else if (value instanceof Boolean) {
+            putByte((Boolean) value ? TAG_TRUE : TAG_FALSE);
+        } else if (value instanceof Integer) {
+            putByte(TAG_INT);
+            putVarint(zigzag((Integer) value));
+        } else if (value instanceof Long) {
+            putByte(TAG_LONG);
+            putVarint(zigzag((Long) value));
+        } else if (value instanceof Double) {
+            putByte(TAG_DOUBLE);
+            putFixed(Double.doubleToRawLongBits((Double) value), Long.BYTES);
+        } else if (value instanceof Float) {
+            putByte(TAG_FLOAT);
+            putFixed(Float.floatToRawIntBits((Float) value), Integer.BYTES);
+        } else if (value instanceof Short) {
+            putByte(TAG_SHORT);
+            putVarint(zigzag((Short) value));
+        } else if (value instanceof Byte) {
+            putByte(TAG_BYTE);
+            putByte((Byte) value);
+        } else if (value instanceof Character) {
+            putByte(TAG_CHAR);
+            putVarint((Character) value);
+        } else if (value instanceof Instant) {
+            putByte(TAG_INSTANT);
+            putVarint(zigzag(((Instant) value).getEpochSecond()));
+            putVarint(((Instant) value).getNano());
+        } else {
+            putByte(TAG_STRING);
+            putString(value.toString());
+        }
+    }
+    
+    private void putName(String name) {
+        final Integer known = names.get(name);
+        if (null != known) {
+            putVarint((known + 1L) << 1);
+        } else if (definedNames.size() < MAX_NAMES && name.length() <= MAX_NAME_LENGTH) {
+            final int defined = definedNames.size();
+            names.put(name, defined);
+            definedNames.add(name);
+            putVarint(((long) defined << 1) | 1);
+            putString(name);
+        } else {
+            putVarint(NAME_LITERAL);
+            putString(name);
+        }
+    }
+    
+    private void forgetNamesAfter(int count) {
+        for (int i = definedNames.size() - 1; i >= count; i--) {
+            names.remove(definedNames.remove(i));
+        }
+    }
+    
+    private void putString(CharSequence text) {
+        final int byteLength = utf8Length(text);
+        putVarint(byteLength);
+        ensure(byteLength);
+        size = putUtf8(text, bytes, size);
+    }
+    
+    private void putByte(byte value) {
+        ensure(1);
+        bytes[size++] = value;
+    }
+    
+    private void putVarint(long value) {
+        ensure(MAX_VARINT_SIZE);
+        long rest = value;
+        while ((rest & ~0x7FL) != 0) {
+            bytes[size++] = (byte) ((rest & 0x7F) | 0x80);
+            rest >>>= 7;
+        }
+        bytes[size++] = (byte) rest;
+    }
+    
+    private void putFixed(long value, int byteCount) {
+        ensure(byteCount);
+        for (int i = 0; i < byteCount; i++) {
+            bytes[size++] = (byte) (value >>> (i * 8));
+        }
+    }
+    
+    private void ensure(int more) {
+        if (size + more > bytes.length) {
+            final byte[] grown = new byte[Math.max(bytes.length * 2, size + more)];
+            System.arraycopy(bytes, 0, grown, 0, size);
+            bytes = grown;
+        }
+    }
+    
+    private static void putVarint(ByteBuffer buffer, int value) {
+        int rest = value;
+        while ((rest & ~0x7F) != 0) {
+            buffer.put((byte) ((rest & 0x7F) | 0x80));
+            rest >>>= 7;
+        }
+        buffer.put((byte) rest);
+    }
+    
+    private static int varintSize(int value) {
+        int count = 1;
+        for (int rest = value >>> 7; rest != 0; rest >>>= 7) {
+            count++;
+        }
+        return count;
+    }
+    
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private static boolean hasEpochNanos(Temporal time) {
+        if (!time.isSupported(INSTANT_SECONDS) || !time.isSupported(NANO_OF_SECOND)) {
+            return false;
+        }
+        final long seconds = time.getLong(INSTANT_SECONDS);
+        return seconds > -MAX_EPOCH_SECONDS && seconds < MAX_EPOCH_SECONDS;
+    }
+    
+    private static long toEpochNanos(Temporal time) {
+        return time.getLong(INSTANT_SECONDS) * NANOS_PER_SECOND + time.getLong(NANO_OF_SECOND);
+    }
+    
+    @SuppressWarnings("deprecation")
+    private static long threadIdOf(Thread thread) {
+        return thread.getId();
+    }
+    
+    private static final int MAX_VARINT_SIZE = 10;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long MAX_EPOCH_SECONDS = Long.MAX_VALUE / NANOS_PER_SECOND - 1;
+    
+    private final Map<String, Integer> names = new HashMap<>();
+    private final List<String> definedNames = new ArrayList<>();
+    private byte[] bytes = new byte[INITIAL_SIZE];
+    private int size;
+    private long lastTime;
+    private boolean restarted = true;
+}
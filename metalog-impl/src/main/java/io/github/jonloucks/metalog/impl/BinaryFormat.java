@@ -0,0 +1,71 @@
+package io.github.jonloucks.metalog.impl;
+
+/**
+ * The record layout shared by {@link BinaryEncoderImpl} and {@link BinaryDecoderImpl}.
+ * <pre>
+ * record   := length:varint body
+ * body     := VERSION flags:varint channel:name [key:name] [id:string] [name:name] [value]
+ *             [time:zigzag varint, epoch nanos less the time of the previous record] [timeText:string]
+ *             [threadId:varint threadName:name] [thrown:string] [metaText:string] text:string
+ *             [count:varint entity...]
+ * entity   := flags:byte [name:name] [id:string] [value] [text:string] [count:varint entity...]
+ * name     := ref:varint, 0 then a string used once, odd then a string defining name ref/2,
+ *             even then the name (ref/2 - 1) defined earlier
+ * string   := length:varint UTF-8 bytes
+ * value    := tag:byte payload
+ * </pre>
+ * Names (channels, keys, entity and thread names) are written once and referenced after that, until the encoder is reset.
+ * The first record after a reset has {@link #META_RESET}, the decoder forgets its names and time before reading it,
+ * so a file appended to by more than one encoder reads from the start with one decoder.
+ */
+final class BinaryFormat {
+    
+    static final byte VERSION = 1;
+    
+    // meta flags
+    static final int META_KEY = 1;
+    static final int META_ID = 1 << 1;
+    static final int META_NAME = 1 << 2;
+    static final int META_VALUE = 1 << 3;
+    static final int META_UNIQUE = 1 << 4;
+    static final int META_BLOCK = 1 << 5;
+    static final int META_TIME = 1 << 6;
+    static final int META_TIME_TEXT = 1 << 7;
+    static final int META_THREAD = 1 << 8;
+    static final int META_THROWN = 1 << 9;
+    static final int META_TEXT = 1 << 10;
+    static final int META_CORRELATIONS = 1 << 11;
+    static final int META_RESET = 1 << 12;
+    
+    // entity flags
+    static final int ENTITY_NAME = 1;
+    static final int ENTITY_ID = 1 << 1;
+    static final int ENTITY_VALUE = 1 << 2;
+    static final int ENTITY_UNIQUE = 1 << 3;
+    static final int ENTITY_TEXT = 1 << 4;
+    static final int ENTITY_CORRELATIONS = 1 << 5;
+    
+    // value tags, any other type of value is written as its text
+    static final byte TAG_STRING = 0;
+    static final byte TAG_TRUE = 1;
+    static final byte TAG_FALSE = 2;
+    static final byte TAG_INT = 3;
+    static final byte TAG_LONG = 4;
+    static final byte TAG_DOUBLE = 5;
+    static final byte TAG_FLOAT = 6;
+    static final byte TAG_SHORT = 7;
+    static final byte TAG_BYTE = 8;
+    static final byte TAG_CHAR = 9;
+    static final byte TAG_INSTANT = 10;
+    
+    static final int NAME_LITERAL = 0;
+    static final int MAX_NAMES = 4096;
+    static final int MAX_NAME_LENGTH = 128;
+    
+    /**
+     * Utility class instantiation protection
+     */
+    private BinaryFormat() {
+        // see Internal, a private constructor instead of throwing on instantiation
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.jonloucks.metalog.impl;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+import static io.github.jonloucks.metalog.impl.Internal.queueLimitCheck;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Work queue based on an ArrayBlockingQueue.
+ * The limit counts work that is queued or running, permits are only returned once work completes.
+ */
+final class BlockingWorkQueue implements WorkQueue {
+    
+    @Override
+    public void put(Runnable work) {
+        inflightSemaphore.acquireUninterruptibly();
+        // never fails, the permits keep one slot free for the exit signal
+        queue.add(work);
+    }
+    
+    @Override
+    public boolean offer(Runnable work) {
+        if (inflightSemaphore.tryAcquire()) {
+            queue.add(work);
+            return true;
+        }
+        return false;
+    }
+    
+    @Override
+    public boolean offer(Runnable work, long timeoutNanos) {
+        try {
+            if (inflightSemaphore.tryAcquire(timeoutNanos, NANOSECONDS)) {
+                queue.add(work);
+                return true;
+            }
+        } catch (InterruptedException thrown) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+    
+    @Override
+    public Runnable removeOldest() {
+        final Runnable work = poll();
+        if (null != work) {
+            completed();
+        }
+        return work;
+    }
+    
+    @Override
+    public Runnable take() throws InterruptedException {
+        final Runnable work = queue.take();
+        return work == EXIT_SIGNAL ? null : work;
+    }
+    
+    @Override
+    public Runnable poll() {
+        final Runnable work = queue.poll();
+        if (work == EXIT_SIGNAL) {
+            // closing, leave the signal for take()
+            queue.add(EXIT_SIGNAL);
+            return null;
+        }
+        return work;
+    }
+    
+    @Override
+    public void completed() {
+        inflightSemaphore.release();
+    }
+    
+    @Override
+    public boolean isIdle() {
+        return inflightSemaphore.availablePermits() == limit;
+    }
+    
+    @Override
+    public int size() {
+        return limit - inflightSemaphore.availablePermits();
+    }
+    
+    @Override
+    public void close() {
+        queue.add(EXIT_SIGNAL);
+    }
+    
+    BlockingWorkQueue(int limit) {
+        this.limit = queueLimitCheck(limit);
+        this.inflightSemaphore = new Semaphore(limit);
+        this.queue = new ArrayBlockingQueue<>(limit + 1);
+    }
+    
+    private static final Runnable EXIT_SIGNAL = () -> {};
+    
+    private final int limit;
+    private final Semaphore inflightSemaphore;
+    private final ArrayBlockingQueue<Runnable> queue;
+}
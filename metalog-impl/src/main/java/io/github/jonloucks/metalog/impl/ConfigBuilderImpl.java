@@ -3,11 +3,16 @@ package io.github.jonloucks.metalog.impl;
 import io.github.jonloucks.contracts.api.Contracts;
 import io.github.jonloucks.metalog.api.Metalog;
 import io.github.jonloucks.metalog.api.MetalogFactory;
+import io.github.jonloucks.metalog.api.OverflowPolicy;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 
 import static io.github.jonloucks.contracts.api.Checks.contractsCheck;
 import static io.github.jonloucks.contracts.api.Checks.nullCheck;
+import static io.github.jonloucks.metalog.impl.Internal.channelCheck;
+import static io.github.jonloucks.metalog.impl.Internal.dispatcherLimitCheck;
 
 final class ConfigBuilderImpl implements Metalog.Config.Builder {
     @Override
@@ -34,6 +39,55 @@ final class ConfigBuilderImpl implements Metalog.Config.Builder {
         return this;
     }
     
+    @Override
+    public Builder useKeyedRingBuffer(boolean useKeyedRingBuffer) {
+        this.useKeyedRingBuffer = useKeyedRingBuffer;
+        return this;
+    }
+    
+    @Override
+    public Builder keyedBatchLimit(int keyedBatchLimit) {
+        this.keyedBatchLimit = keyedBatchLimit;
+        return this;
+    }
+    
+    @Override
+    public Builder keyedOverflowPolicy(OverflowPolicy keyedOverflowPolicy) {
+        this.keyedOverflowPolicy = nullCheck(keyedOverflowPolicy, "Keyed overflow policy must be present.");
+        return this;
+    }
+    
+    @Override
+    public Builder keyedOverflowPolicy(String channel, OverflowPolicy keyedOverflowPolicy) {
+        channelOverflowPolicies.put(channelCheck(channel),
+            nullCheck(keyedOverflowPolicy, "Keyed overflow policy must be present."));
+        return this;
+    }
+    
+    @Override
+    public Builder keyedOverflowTimeout(Duration keyedOverflowTimeout) {
+        this.keyedOverflowTimeout = nullCheck(keyedOverflowTimeout, "Keyed overflow timeout must be present.");
+        return this;
+    }
+    
+    @Override
+    public Builder keyedStripeCount(int keyedStripeCount) {
+        this.keyedStripeCount = keyedStripeCount;
+        return this;
+    }
+    
+    @Override
+    public Builder keyedIdleTimeout(Duration keyedIdleTimeout) {
+        this.keyedIdleTimeout = nullCheck(keyedIdleTimeout, "Keyed idle timeout must be present.");
+        return this;
+    }
+    
+    @Override
+    public Builder keyedDispatcherLimit(int keyedDispatcherLimit) {
+        this.keyedDispatcherLimit = dispatcherLimitCheck(keyedDispatcherLimit);
+        return this;
+    }
+    
     @Override
     public Builder unkeyedThreadCount(int unkeyedThreadCount) {
         this.unkeyedThreadCount = unkeyedThreadCount;
@@ -46,6 +100,30 @@ final class ConfigBuilderImpl implements Metalog.Config.Builder {
         return this;
     }
     
+    @Override
+    public Builder useVirtualThreads(boolean useVirtualThreads) {
+        this.useVirtualThreads = useVirtualThreads;
+        return this;
+    }
+    
+    @Override
+    public Builder consoleBuffered(boolean consoleBuffered) {
+        this.consoleBuffered = consoleBuffered;
+        return this;
+    }
+    
+    @Override
+    public Builder consoleLinger(Duration consoleLinger) {
+        this.consoleLinger = nullCheck(consoleLinger, "Console linger must be present.");
+        return this;
+    }
+    
+    @Override
+    public Builder measureLatency(boolean measureLatency) {
+        this.measureLatency = measureLatency;
+        return this;
+    }
+    
     @Override
     public Builder shutdownTimeout(Duration shutdownTimeout) {
         this.shutdownTimeout = nullCheck(shutdownTimeout, "Shut down timeout must be present.");
@@ -94,6 +172,46 @@ final class ConfigBuilderImpl implements Metalog.Config.Builder {
         return keyedQueueLimit;
     }
     
+    @Override
+    public boolean useKeyedRingBuffer() {
+        return useKeyedRingBuffer;
+    }
+    
+    @Override
+    public int keyedBatchLimit() {
+        return keyedBatchLimit;
+    }
+    
+    @Override
+    public OverflowPolicy keyedOverflowPolicy() {
+        return keyedOverflowPolicy;
+    }
+    
+    @Override
+    public OverflowPolicy keyedOverflowPolicy(String channel) {
+        return channelOverflowPolicies.getOrDefault(channel, keyedOverflowPolicy);
+    }
+    
+    @Override
+    public Duration keyedOverflowTimeout() {
+        return keyedOverflowTimeout;
+    }
+    
+    @Override
+    public int keyedStripeCount() {
+        return keyedStripeCount;
+    }
+    
+    @Override
+    public Duration keyedIdleTimeout() {
+        return keyedIdleTimeout;
+    }
+    
+    @Override
+    public int keyedDispatcherLimit() {
+        return keyedDispatcherLimit;
+    }
+    
     @Override
     public int unkeyedThreadCount() {
         return unkeyedThreadCount;
@@ -104,6 +222,26 @@ final class ConfigBuilderImpl implements Metalog.Config.Builder {
         return unkeyedFairness;
     }
     
+    @Override
+    public boolean useVirtualThreads() {
+        return useVirtualThreads;
+    }
+    
+    @Override
+    public boolean consoleBuffered() {
+        return consoleBuffered;
+    }
+    
+    @Override
+    public Duration consoleLinger() {
+        return consoleLinger;
+    }
+    
+    @Override
+    public boolean measureLatency() {
+        return measureLatency;
+    }
+    
     @Override
     public Duration shutdownTimeout() {
         return shutdownTimeout;
@@ -117,8 +255,20 @@ final class ConfigBuilderImpl implements Metalog.Config.Builder {
     private boolean useServiceLoader = DEFAULT.useServiceLoader();
     private Contracts contracts = DEFAULT.contracts();
     private int keyedQueueLimit = DEFAULT.keyedQueueLimit();
+    private boolean useKeyedRingBuffer = DEFAULT.useKeyedRingBuffer();
+    private int keyedBatchLimit = DEFAULT.keyedBatchLimit();
+    private OverflowPolicy keyedOverflowPolicy = DEFAULT.keyedOverflowPolicy();
+    private final Map<String, OverflowPolicy> channelOverflowPolicies = new HashMap<>();
+    private Duration keyedOverflowTimeout = DEFAULT.keyedOverflowTimeout();
+    private int keyedStripeCount = DEFAULT.keyedStripeCount();
+    private Duration keyedIdleTimeout = DEFAULT.keyedIdleTimeout();
+    private int keyedDispatcherLimit = DEFAULT.keyedDispatcherLimit();
     private int unkeyedThreadCount = DEFAULT.unkeyedThreadCount();
     private boolean unkeyedFairness = DEFAULT.unkeyedFairness();
+    private boolean useVirtualThreads = DEFAULT.useVirtualThreads();
+    private boolean consoleBuffered = DEFAULT.consoleBuffered();
+    private Duration consoleLinger = DEFAULT.consoleLinger();
+    private boolean measureLatency = DEFAULT.measureLatency();
     private Duration shutdownTimeout = DEFAULT.shutdownTimeout();
     private String reflectionClassName = DEFAULT.reflectionClassName();
     private Class<? extends MetalogFactory> serviceLoaderClass = DEFAULT.serviceLoaderClass();
@@ -0,0 +1,100 @@
+package io.github.jonloucks.metalog.impl;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Encodes console lines into a reusable direct buffer and writes them with one channel write per flush.
+ * Lines can be appended from any thread, the methods are synchronized.
+ * Like a PrintStream, write errors are not thrown, the lines that could not be written are dropped.
+ */
+final class ConsoleBuffer {
+    
+    /**
+     * @param fileDescriptor the file descriptor to write to, it is never closed
+     */
+    ConsoleBuffer(FileDescriptor fileDescriptor) {
+        this(new FileOutputStream(fileDescriptor).getChannel());
+    }
+    
+    /**
+     * @param channel the channel to write to, it is never closed
+     */
+    ConsoleBuffer(WritableByteChannel channel) {
+        this.channel = channel;
+        this.encoder = Charset.defaultCharset().newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+    
+    /**
+     * Encode the text and a line separator, writing the buffer only when it fills up
+     * @param text the text of the line
+     */
+    synchronized void appendLine(CharSequence text) {
+        encoder.reset();
+        put(text);
+        put(LINE_SEPARATOR);
+        chars.flip();
+        encodeChars(true);
+        while (encoder.flush(bytes).isOverflow()) {
+            write();
+        }
+        chars.clear();
+    }
+    
+    /**
+     * Write everything buffered so far
+     */
+    synchronized void flush() {
+        if (bytes.position() > 0) {
+            write();
+        }
+    }
+    
+    private void put(CharSequence text) {
+        for (int i = 0, n = text.length(); i < n; i++) {
+            if (!chars.hasRemaining()) {
+                chars.flip();
+                encodeChars(false);
+                // keeps the high half of a surrogate pair split across chunks
+                chars.compact();
+            }
+            chars.put(text.charAt(i));
+        }
+    }
+    
+    private void encodeChars(boolean endOfInput) {
+        while (encoder.encode(chars, bytes, endOfInput).isOverflow()) {
+            write();
+        }
+    }
+    
+    private void write() {
+        bytes.flip();
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } catch (IOException ignore) {
+            
+        }
+        bytes.clear();
+    }
+    
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int CHUNK_SIZE = 1024;
+    
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder;
+    private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE);
+}
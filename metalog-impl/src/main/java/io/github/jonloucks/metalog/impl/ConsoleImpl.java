@@ -6,10 +6,16 @@ import io.github.jonloucks.contracts.api.AutoClose;
 import io.github.jonloucks.contracts.api.AutoOpen;
 import io.github.jonloucks.metalog.api.*;
 
+import java.io.FileDescriptor;
 import java.io.PrintStream;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -21,8 +27,17 @@ import static io.github.jonloucks.contracts.api.Checks.builderConsumerCheck;
 import static io.github.jonloucks.contracts.api.Checks.configCheck;
 import static io.github.jonloucks.metalog.impl.Internal.logCheck;
 import static io.github.jonloucks.metalog.impl.Internal.metaCheck;
+import static io.github.jonloucks.metalog.impl.Internal.runWithIgnore;
 import static java.util.Optional.ofNullable;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
+/**
+ * Prints console log messages to System out and System err.
+ * When {@link Metalog.Config#consoleBuffered()}, the lines are encoded into direct buffers instead,
+ * and written to the standard file descriptors at the end of each batch, after the linger,
+ * and right away for the error channels.
+ * Only then is it subscribed as a {@link BatchSubscriber}, otherwise each line is printed as soon as it is received.
+ */
 final class ConsoleImpl implements Console, AutoOpen {
     
     @Override
@@ -65,14 +80,60 @@ final class ConsoleImpl implements Console, AutoOpen {
     
     @Override
     public Outcome receive(Log log, Meta meta) {
+        final Outcome outcome = receiveLine(log, meta);
+        if (buffered && !lingering) {
+            // nothing else will write it, for example after the console has been closed
+            flushBuffers();
+        }
+        return outcome;
+    }
+    
+    private Outcome receiveBatch(List<Event> events) {
+        Outcome outcome = Outcome.SKIPPED;
+        for (int i = 0, n = events.size(); i < n; i++) {
+            final Event event = events.get(i);
+            if (receiveLine(event.getLog(), event.getMeta()) == Outcome.CONSUMED) {
+                outcome = Outcome.CONSUMED;
+            }
+        }
+        flushBuffers();
+        return outcome;
+    }
+    
+    private Outcome receiveLine(Log log, Meta meta) {
         final Log validLog = logCheck(log);
         final Meta validMeta = metaCheck(meta);
         if (test(validMeta)) {
+            if (buffered) {
+                return toBuffer(validLog, validMeta);
+            }
             return getPrintStream(validMeta).map(toPrint(validLog)).orElse(Outcome.SKIPPED);
         }
         return Outcome.SKIPPED;
     }
     
+    private Outcome toBuffer(Log log, Meta meta) {
+        final ConsoleBuffer buffer = channelBufferMap.get(meta.getChannel());
+        if (null == buffer) {
+            return Outcome.SKIPPED;
+        }
+        final CharSequence text = log.get();
+        if (buffer == errorBuffer) {
+            // the output before it is written first, so the two stay in order on a terminal
+            outputBuffer.flush();
+            errorBuffer.appendLine(text);
+            errorBuffer.flush();
+        } else {
+            buffer.appendLine(text);
+        }
+        return Outcome.CONSUMED;
+    }
+    
+    private void flushBuffers() {
+        outputBuffer.flush();
+        errorBuffer.flush();
+    }
+    
     private static Function<PrintStream, Outcome> toPrint(Log log) {
         return printStream -> {
             printStream.println(log.get());
@@ -84,6 +145,11 @@ final class ConsoleImpl implements Console, AutoOpen {
         return ofNullable(channelPrintStreamMap.get(meta.getChannel()));
     }
   
+    @Override
+    public Optional<Set<String>> getChannels() {
+        return Optional.of(Collections.unmodifiableSet(channelPrintStreamMap.keySet()));
+    }
+    
     @Override
     public AutoClose addFilter(Predicate<Meta> filter) {
         return filters.addFilter(filter);
@@ -105,7 +171,14 @@ final class ConsoleImpl implements Console, AutoOpen {
         this.metaFactory = config.contracts().claim(Meta.Builder.FACTORY);
         this.errorMeta = metaFactory.get().key(CONSOLE_KEY).channel(CONSOLE_ERROR_CHANNEL);
         this.outputMeta = metaFactory.get().key(CONSOLE_KEY).channel(CONSOLE_OUTPUT_CHANNEL);
+        this.buffered = config.consoleBuffered();
+        this.lingerNanos = config.consoleLinger().toNanos();
+        this.outputBuffer = buffered ? new ConsoleBuffer(FileDescriptor.out) : null;
+        this.errorBuffer = buffered ? new ConsoleBuffer(FileDescriptor.err) : null;
         fillChannelPrintStreamMap();
+        if (buffered) {
+            fillChannelBufferMap();
+        }
     }
     
     private void fillChannelPrintStreamMap() {
@@ -115,27 +188,89 @@ final class ConsoleImpl implements Console, AutoOpen {
         channelPrintStreamMap.put(CONSOLE_ERROR_CHANNEL, System.err);
     }
     
+    private void fillChannelBufferMap() {
+        channelBufferMap.put(SYSTEM_OUT_CHANNEL, outputBuffer);
+        channelBufferMap.put(SYSTEM_ERR_CHANNEL, errorBuffer);
+        channelBufferMap.put(CONSOLE_OUTPUT_CHANNEL, outputBuffer);
+        channelBufferMap.put(CONSOLE_ERROR_CHANNEL, errorBuffer);
+    }
+    
     private AutoClose realOpen() {
         metalog = config.contracts().claim(Metalog.CONTRACT);
-        closeSubscription = config.contracts().claim(Metalog.CONTRACT).subscribe(this);
+        closeSubscription = config.contracts().claim(Metalog.CONTRACT).subscribe(buffered ? new BatchedConsole() : this);
+        if (buffered && lingerNanos > 0) {
+            lingerTimer = Executors.newSingleThreadScheduledExecutor(ConsoleImpl::newLingerThread);
+            lingerTimer.scheduleWithFixedDelay(this::flushBuffers, lingerNanos, lingerNanos, NANOSECONDS);
+            lingering = true;
+        }
+        if (buffered) {
+            // the linger thread is a daemon, without the hook lines still buffered at exit are lost
+            flushOnExit = new Thread(this::flushBuffers, "Metalog Console Flush");
+            Runtime.getRuntime().addShutdownHook(flushOnExit);
+        }
         return this::close;
     }
     
     private void close() {
         withClose(stateMachine, this::realClose);
     }
-       
-   private void realClose() {
+    
+    private void realClose() {
         ofNullable(closeSubscription).ifPresent(close -> {
             closeSubscription = null;
             close.close();
         });
+        if (null != lingerTimer) {
+            lingering = false;
+            lingerTimer.shutdownNow();
+        }
+        if (null != flushOnExit) {
+            final Thread hook = flushOnExit;
+            flushOnExit = null;
+            // throws when the JVM is already shutting down, the hook flushes then
+            runWithIgnore(() -> Runtime.getRuntime().removeShutdownHook(hook));
+        }
+        if (buffered) {
+            flushBuffers();
+        }
+    }
+    
+    private static Thread newLingerThread(Runnable runnable) {
+        final Thread thread = new Thread(runnable, "Metalog Console Linger");
+        thread.setDaemon(true);
+        return thread;
     }
     
     private boolean isSupported(Meta meta) {
         return channelPrintStreamMap.containsKey(meta.getChannel());
     }
     
+    /**
+     * The buffered console as subscribed, so the buffers are written once per batch instead of per line
+     */
+    private final class BatchedConsole implements BatchSubscriber {
+        
+        @Override
+        public Outcome receive(List<Event> events) {
+            return receiveBatch(events);
+        }
+        
+        @Override
+        public Outcome receive(Log log, Meta meta) {
+            return ConsoleImpl.this.receive(log, meta);
+        }
+        
+        @Override
+        public Optional<Set<String>> getChannels() {
+            return ConsoleImpl.this.getChannels();
+        }
+        
+        @Override
+        public boolean test(Meta meta) {
+            return ConsoleImpl.this.test(meta);
+        }
+    }
+    
     private static final String CONSOLE_KEY = "Console";
     private static final String CONSOLE_OUTPUT_CHANNEL = "Console.output";
     private static final String CONSOLE_ERROR_CHANNEL = "Console.error";
@@ -143,6 +278,7 @@ final class ConsoleImpl implements Console, AutoOpen {
     private static final String SYSTEM_OUT_CHANNEL = "System.out";
     
     private final Map<String, PrintStream> channelPrintStreamMap = new HashMap<>();
+    private final Map<String, ConsoleBuffer> channelBufferMap = new HashMap<>();
     private final Filterable filters = new FiltersImpl();
     private final StateMachine<Idempotent> stateMachine;
     private final Metalog.Config config;
@@ -151,4 +287,11 @@ final class ConsoleImpl implements Console, AutoOpen {
     private Metalog metalog;
     private AutoClose closeSubscription;
     private final Supplier<Meta.Builder<?>> metaFactory;
+    private final boolean buffered;
+    private final long lingerNanos;
+    private final ConsoleBuffer outputBuffer;
+    private final ConsoleBuffer errorBuffer;
+    private ScheduledExecutorService lingerTimer;
+    private Thread flushOnExit;
+    private volatile boolean lingering;
 }
@@ -0,0 +1,79 @@
+package io.github.jonloucks.metalog.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caches "is enabled" decisions by channel and key.
+ * Every decision remembers the generation it was made in, invalidating bumps the generation
+ * so stale decisions are made again the next time they are asked for.
+ * <p>
+ * Only answers {@link io.github.jonloucks.metalog.api.Metalog#isEnabled(String, String)}.
+ * Publishing cannot use it, the filters and subscribers may decide on any part of the Meta,
+ * such as the thread or the value, not just the channel and key. Filters with internal state
+ * that changes never invalidate, so their cached decisions can be stale.
+ * </p>
+ */
+final class DecisionCache {
+    
+    /**
+     * Makes a decision on a cache miss
+     */
+    @FunctionalInterface
+    interface Decider {
+        boolean decide(String channel, String key);
+    }
+    
+    DecisionCache(Decider decider) {
+        this.decider = decider;
+    }
+    
+    boolean isEnabled(String channel, String key) {
+        // read before deciding, so a decision racing an invalidate is already stale
+        final int current = generation.get();
+        final Map<String, Decision> keyDecisions = getKeyDecisions(channel);
+        final Decision cached = keyDecisions.get(key);
+        if (null != cached && cached.generation == current) {
+            return cached.enabled;
+        }
+        final boolean enabled = decider.decide(channel, key);
+        if (keyDecisions.size() >= MAX_ENTRIES) {
+            // many distinct keys, start over instead of growing without bound
+            keyDecisions.clear();
+        }
+        keyDecisions.put(key, new Decision(current, enabled));
+        return enabled;
+    }
+    
+    void invalidate() {
+        generation.incrementAndGet();
+    }
+    
+    private Map<String, Decision> getKeyDecisions(String channel) {
+        final Map<String, Decision> keyDecisions = channelDecisions.get(channel);
+        if (null != keyDecisions) {
+            return keyDecisions;
+        }
+        if (channelDecisions.size() >= MAX_ENTRIES) {
+            channelDecisions.clear();
+        }
+        return channelDecisions.computeIfAbsent(channel, c -> new ConcurrentHashMap<>());
+    }
+    
+    private static final class Decision {
+        private Decision(int generation, boolean enabled) {
+            this.generation = generation;
+            this.enabled = enabled;
+        }
+        
+        private final int generation;
+        private final boolean enabled;
+    }
+    
+    private static final int MAX_ENTRIES = 1_024;
+    
+    private final Decider decider;
+    private final Map<String, Map<String, Decision>> channelDecisions = new ConcurrentHashMap<>();
+    private final AtomicInteger generation = new AtomicInteger();
+}
@@ -0,0 +1,117 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.metalog.api.Entities;
+import io.github.jonloucks.metalog.api.Entity;
+import io.github.jonloucks.metalog.api.Meta;
+
+import java.time.Instant;
+import java.time.temporal.Temporal;
+import java.util.Optional;
+
+import static io.github.jonloucks.metalog.impl.Encoders.THREAD_ENTITY_NAME;
+import static io.github.jonloucks.metalog.impl.Encoders.THROWN_ENTITY_NAME;
+import static io.github.jonloucks.metalog.impl.Encoders.TIME_ENTITY_NAME;
+import static java.util.Optional.ofNullable;
+
+/**
+ * Meta information read back by {@link BinaryDecoderImpl}.
+ * The fields are set by the decoder before it is handed out and never change after that.
+ * There is no Thread or Throwable to give back, the thread and thrown are correlations with their text,
+ * the same way {@link MetaImpl} makes correlations for the time, thread and thrown.
+ */
+final class DecodedMeta implements Meta {
+    
+    @Override
+    public CharSequence get() {
+        if (null != text) {
+            return text;
+        }
+        return null == value ? "" : value.toString();
+    }
+    
+    @Override
+    public String getChannel() {
+        return channel;
+    }
+    
+    @Override
+    public Optional<String> getKey() {
+        return key;
+    }
+    
+    @Override
+    public boolean isBlocking() {
+        return block;
+    }
+    
+    @Override
+    public Optional<Temporal> getTime() {
+        return ofNullable(time);
+    }
+    
+    @Override
+    public Optional<String> getId() {
+        return ofNullable(id);
+    }
+    
+    @Override
+    public Optional<String> getName() {
+        return ofNullable(name);
+    }
+    
+    @Override
+    public Optional<Object> getValue() {
+        return ofNullable(value);
+    }
+    
+    @Override
+    public boolean isUnique() {
+        return unique;
+    }
+    
+    @Override
+    public Optional<Entities> getCorrelations() {
+        if (correlations.length == 0 && null == time && null == timeText && null == threadName && null == thrownText) {
+            return Optional.empty();
+        }
+        // a new builder each time, so changing it can't change what was read
+        final EntitiesImpl entities = new EntitiesImpl();
+        for (Entity correlation : correlations) {
+            entities.entity(correlation);
+        }
+        if (null != time) {
+            entities.entity(newSlotEntity(TIME_ENTITY_NAME).value(time));
+        } else if (null != timeText) {
+            entities.entity(newSlotEntity(TIME_ENTITY_NAME).text(() -> timeText));
+        }
+        if (null != threadName) {
+            entities.entity(newSlotEntity(THREAD_ENTITY_NAME).id(String.valueOf(threadId)).text(() -> threadName));
+        }
+        if (null != thrownText) {
+            entities.entity(newSlotEntity(THROWN_ENTITY_NAME).text(() -> thrownText));
+        }
+        return Optional.of(entities);
+    }
+    
+    DecodedMeta() {
+    }
+    
+    private static EntityImpl newSlotEntity(String name) {
+        return new EntityImpl().unique(true).name(name);
+    }
+    
+    String channel;
+    Optional<String> key = Optional.empty();
+    String id;
+    String name;
+    Object value;
+    boolean unique;
+    boolean block;
+    Instant time;
+    String timeText;
+    long threadId;
+    String threadName;
+    String thrownText;
+    String text;
+    Entity[] correlations;
+}
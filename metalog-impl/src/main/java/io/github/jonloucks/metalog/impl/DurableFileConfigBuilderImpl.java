@@ -0,0 +1,79 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.contracts.api.Contract;
+import io.github.jonloucks.metalog.api.DurableFileSubscriber;
+import io.github.jonloucks.metalog.api.Encoder;
+import io.github.jonloucks.metalog.api.FsyncPolicy;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import static io.github.jonloucks.contracts.api.Checks.nullCheck;
+
+final class DurableFileConfigBuilderImpl implements DurableFileSubscriber.Config.Builder {
+    @Override
+    public Builder file(Path file) {
+        this.file = nullCheck(file, "File must be present.");
+        return this;
+    }
+    
+    @Override
+    public Builder fsyncPolicy(FsyncPolicy fsyncPolicy) {
+        this.fsyncPolicy = nullCheck(fsyncPolicy, "Fsync policy must be present.");
+        return this;
+    }
+    
+    @Override
+    public Builder fsyncInterval(Duration fsyncInterval) {
+        this.fsyncInterval = nullCheck(fsyncInterval, "Fsync interval must be present.");
+        return this;
+    }
+    
+    @Override
+    public Builder queueLimit(int queueLimit) {
+        this.queueLimit = queueLimit;
+        return this;
+    }
+    
+    @Override
+    public Builder encoderFactory(Contract<? extends Supplier<? extends Encoder>> encoderFactory) {
+        this.encoderFactory = nullCheck(encoderFactory, "Encoder factory must be present.");
+        return this;
+    }
+    
+    @Override
+    public Path file() {
+        return file;
+    }
+    
+    @Override
+    public FsyncPolicy fsyncPolicy() {
+        return fsyncPolicy;
+    }
+    
+    @Override
+    public Duration fsyncInterval() {
+        return fsyncInterval;
+    }
+    
+    @Override
+    public int queueLimit() {
+        return queueLimit;
+    }
+    
+    @Override
+    public Contract<? extends Supplier<? extends Encoder>> encoderFactory() {
+        return encoderFactory;
+    }
+    
+    DurableFileConfigBuilderImpl() {
+        
+    }
+    
+    private Path file = DEFAULT.file();
+    private FsyncPolicy fsyncPolicy = DEFAULT.fsyncPolicy();
+    private Duration fsyncInterval = DEFAULT.fsyncInterval();
+    private int queueLimit = DEFAULT.queueLimit();
+    private Contract<? extends Supplier<? extends Encoder>> encoderFactory = DEFAULT.encoderFactory();
+}
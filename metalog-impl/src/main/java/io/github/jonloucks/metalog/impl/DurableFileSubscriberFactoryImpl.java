@@ -0,0 +1,33 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.metalog.api.DurableFileSubscriber;
+import io.github.jonloucks.metalog.api.Metalog;
+
+import java.util.function.Consumer;
+
+import static io.github.jonloucks.contracts.api.Checks.builderConsumerCheck;
+import static io.github.jonloucks.contracts.api.Checks.configCheck;
+
+final class DurableFileSubscriberFactoryImpl implements DurableFileSubscriber.Factory {
+    
+    @Override
+    public DurableFileSubscriber create(DurableFileSubscriber.Config config) {
+        return new DurableFileSubscriberImpl(metalogConfig, configCheck(config));
+    }
+    
+    @Override
+    public DurableFileSubscriber create(Consumer<DurableFileSubscriber.Config.Builder> builderConsumer) {
+        final Consumer<DurableFileSubscriber.Config.Builder> validBuilderConsumer = builderConsumerCheck(builderConsumer);
+        final DurableFileConfigBuilderImpl builder = new DurableFileConfigBuilderImpl();
+        
+        validBuilderConsumer.accept(builder);
+        
+        return create(builder);
+    }
+    
+    DurableFileSubscriberFactoryImpl(Metalog.Config metalogConfig) {
+        this.metalogConfig = configCheck(metalogConfig);
+    }
+    
+    private final Metalog.Config metalogConfig;
+}
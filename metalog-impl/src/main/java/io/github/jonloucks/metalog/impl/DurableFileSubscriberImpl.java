@@ -0,0 +1,412 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.concurrency.api.Idempotent;
+import io.github.jonloucks.concurrency.api.StateMachine;
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.contracts.api.Contracts;
+import io.github.jonloucks.metalog.api.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+import static io.github.jonloucks.concurrency.api.Idempotent.withClose;
+import static io.github.jonloucks.concurrency.api.Idempotent.withOpen;
+import static io.github.jonloucks.contracts.api.Checks.configCheck;
+import static io.github.jonloucks.contracts.api.Checks.nullCheck;
+import static io.github.jonloucks.metalog.impl.Internal.logCheck;
+import static io.github.jonloucks.metalog.impl.Internal.metaCheck;
+import static io.github.jonloucks.metalog.impl.Internal.queueLimitCheck;
+import static io.github.jonloucks.metalog.impl.Internal.runWithIgnore;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Appends log messages to a file with group commit.
+ * Each received log message takes a ticket, its sequence number. The writer thread swaps out every pending log message
+ * as one batch, writes it, forces it according to the policy and then moves the committed sequence past the batch.
+ * A blocking log message waits until the committed sequence reaches its ticket, a failure to write or force it
+ * is kept on the log message itself so a later batch can't hide it.
+ * A log message larger than the buffer is encoded on its own and written straight to the file.
+ */
+final class DurableFileSubscriberImpl implements DurableFileSubscriber {
+    
+    @Override
+    public Outcome receive(Log log, Meta meta) {
+        final Log validLog = logCheck(log);
+        final Meta validMeta = metaCheck(meta);
+        if (stateMachine.getState().isRejecting()) {
+            return Outcome.REJECTED;
+        }
+        // the text is taken on the thread that receives it, a Metalog dispatcher worker for a dispatched publish,
+        // before the log message is queued again for the writer thread, which never runs the Log
+        final Pending entry = new Pending(validLog.get(), MetalogImpl.freeze(validMeta));
+        if (!append(entry)) {
+            return Outcome.REJECTED;
+        }
+        if (validMeta.isBlocking()) {
+            awaitCommit(entry);
+            return Outcome.CONSUMED;
+        }
+        return Outcome.DISPATCHED;
+    }
+    
+    @Override
+    public boolean test(Meta meta) {
+        return filters.test(metaCheck(meta));
+    }
+    
+    @Override
+    public AutoClose addFilter(Predicate<Meta> filter) {
+        return filters.addFilter(filter);
+    }
+    
+    @Override
+    public AutoClose open() {
+        return withOpen(stateMachine, this::realOpen);
+    }
+    
+    DurableFileSubscriberImpl(Metalog.Config metalogConfig, Config config) {
+        this.config = configCheck(config);
+        this.file = nullCheck(config.file(), "File must be present.");
+        this.fsyncPolicy = nullCheck(config.fsyncPolicy(), "Fsync policy must be present.");
+        this.fsyncIntervalNanos = config.fsyncInterval().toNanos();
+        this.queueLimit = queueLimitCheck(config.queueLimit());
+        this.contracts = metalogConfig.contracts();
+        this.shutdownTimeout = metalogConfig.shutdownTimeout();
+        this.stateMachine = Idempotent.createStateMachine(contracts);
+        this.writerThread = ThreadFactories.workerThreadFactory(metalogConfig).newThread(this::writeLoop);
+    }
+    
+    private AutoClose realOpen() {
+        encoder = contracts.claim(config.encoderFactory()).get();
+        // the file may already end with records of an earlier encoder, what follows must not depend on them
+        encoder.reset();
+        channel = openChannel();
+        writerThread.start();
+        return this::close;
+    }
+    
+    private void close() {
+        withClose(stateMachine, this::realClose);
+    }
+    
+    private void realClose() {
+        lock.lock();
+        try {
+            closing = true;
+            hasPending.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        runWithIgnore(() -> {
+            writerThread.join(shutdownTimeout.toMillis());
+            if (writerThread.isAlive()) {
+                writerThread.interrupt();
+                writerThread.join(shutdownTimeout.toMillis());
+            }
+        });
+        runWithIgnore(channel::close);
+    }
+    
+    private FileChannel openChannel() {
+        try {
+            final Path directory = file.toAbsolutePath().getParent();
+            if (null != directory) {
+                Files.createDirectories(directory);
+            }
+            return FileChannel.open(file, CREATE, WRITE, APPEND);
+        } catch (IOException thrown) {
+            throw new UncheckedIOException(thrown);
+        }
+    }
+    
+    private boolean append(Pending entry) {
+        lock.lock();
+        try {
+            while (pending.size() >= queueLimit && !closing) {
+                notFull.awaitUninterruptibly();
+            }
+            if (closing) {
+                return false;
+            }
+            entry.ticket = ++appended;
+            pending.add(entry);
+            if (pending.size() == 1) {
+                hasPending.signal();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void awaitCommit(Pending entry) {
+        lock.lock();
+        try {
+            while (committed < entry.ticket) {
+                committedChanged.awaitUninterruptibly();
+            }
+            if (null != entry.failure) {
+                throw new MetalogException("Log message could not be written to " + file + ".", entry.failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void writeLoop() {
+        try {
+            while (takeBatch()) {
+                writeBatch();
+                if (isForceDue()) {
+                    force();
+                }
+            }
+            if (fsyncPolicy != FsyncPolicy.NEVER) {
+                force();
+            }
+        } finally {
+            // nothing more will be written, waiting publishers must not hang
+            abandon(new MetalogException("Durable file subscriber was closed first."));
+        }
+    }
+    
+    /**
+     * Wait for pending log messages and swap them into the batch
+     * @return false when closing and everything has been taken
+     */
+    private boolean takeBatch() {
+        lock.lock();
+        try {
+            while (pending.isEmpty()) {
+                if (closing) {
+                    return false;
+                }
+                if (writtenThrough > committed) {
+                    // only with the interval policy, written but not yet forced
+                    final long waitNanos = nextForceNanos - System.nanoTime();
+                    if (waitNanos <= 0 || !awaitPending(waitNanos)) {
+                        return true;
+                    }
+                } else {
+                    hasPending.awaitUninterruptibly();
+                }
+            }
+            final List<Pending> taken = pending;
+            pending = batch;
+            batch = taken;
+            batchThrough = appended;
+            notFull.signalAll();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private boolean awaitPending(long waitNanos) {
+        try {
+            hasPending.awaitNanos(waitNanos);
+            return true;
+        } catch (InterruptedException thrown) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    private void writeBatch() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            for (int i = 0, n = batch.size(); i < n; i++) {
+                final Pending entry = batch.get(i);
+                if (!encoder.encode(entry, entry.meta, buffer)) {
+                    writeBuffer(buffer);
+                    if (!encoder.encode(entry, entry.meta, buffer)) {
+                        writeLarge(entry);
+                    }
+                }
+            }
+            writeBuffer(buffer);
+        } catch (IOException | RuntimeException thrown) {
+            // how much of the batch reached the file is unknown, all of it is failed
+            // and the next record must not depend on names or a time that may be missing
+            buffer.clear();
+            encoder.reset();
+            fail(batch, thrown);
+        }
+        if (fsyncPolicy == FsyncPolicy.NEVER) {
+            writtenThrough = batchThrough;
+            commit(writtenThrough);
+        } else {
+            for (int i = 0, n = batch.size(); i < n; i++) {
+                if (batch.get(i).meta.isBlocking()) {
+                    unforced.add(batch.get(i));
+                }
+            }
+            writtenThrough = batchThrough;
+        }
+        batch.clear();
+    }
+    
+    /**
+     * Encodes a log message that does not fit the buffer into a larger one of its own and writes it
+     */
+    private void writeLarge(Pending entry) throws IOException {
+        for (int size = BUFFER_SIZE * 2; size <= MAX_RECORD_SIZE; size *= 2) {
+            final ByteBuffer large = ByteBuffer.allocate(size);
+            if (encoder.encode(entry, entry.meta, large)) {
+                writeBuffer(large);
+                return;
+            }
+        }
+        fail(List.of(entry), new MetalogException("Log message is larger than " + MAX_RECORD_SIZE + " bytes."));
+    }
+    
+    private void writeBuffer(ByteBuffer source) throws IOException {
+        source.flip();
+        try {
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        } finally {
+            source.clear();
+        }
+    }
+    
+    private boolean isForceDue() {
+        switch (fsyncPolicy) {
+            case BATCH:
+                return true;
+            case INTERVAL:
+                return System.nanoTime() - nextForceNanos >= 0;
+            default:
+                return false;
+        }
+    }
+    
+    private void force() {
+        if (writtenThrough <= committed) {
+            return;
+        }
+        final long through = writtenThrough;
+        try {
+            channel.force(false);
+        } catch (IOException thrown) {
+            fail(unforced, thrown);
+        }
+        unforced.clear();
+        commit(through);
+        nextForceNanos = System.nanoTime() + fsyncIntervalNanos;
+    }
+    
+    private void commit(long through) {
+        lock.lock();
+        try {
+            committed = Math.max(committed, through);
+            committedChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Keeps the failure on each log message that hasn't got one yet, it is thrown once it is committed
+     */
+    private void fail(List<Pending> entries, Throwable thrown) {
+        lock.lock();
+        try {
+            for (int i = 0, n = entries.size(); i < n; i++) {
+                if (null == entries.get(i).failure) {
+                    entries.get(i).failure = thrown;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void abandon(Throwable thrown) {
+        lock.lock();
+        try {
+            closing = true;
+            fail(pending, thrown);
+            fail(batch, thrown);
+            fail(unforced, thrown);
+            pending.clear();
+            if (committed < appended) {
+                commit(appended);
+            }
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * A received log message waiting for the writer, with the text it had when received
+     */
+    private static final class Pending implements Log {
+        
+        @Override
+        public CharSequence get() {
+            return text;
+        }
+        
+        private Pending(CharSequence text, Meta meta) {
+            this.text = text;
+            this.meta = meta;
+        }
+        
+        private final CharSequence text;
+        private final Meta meta;
+        // guarded by the lock
+        private long ticket;
+        private Throwable failure;
+    }
+    
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+    
+    private final Config config;
+    private final Path file;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final int queueLimit;
+    private final Contracts contracts;
+    private final Duration shutdownTimeout;
+    private final StateMachine<Idempotent> stateMachine;
+    private final Thread writerThread;
+    private final Filterable filters = new FiltersImpl();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition hasPending = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition committedChanged = lock.newCondition();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private Encoder encoder;
+    private FileChannel channel;
+    // guarded by the lock
+    private List<Pending> pending = new ArrayList<>();
+    private long appended;
+    private long committed;
+    private boolean closing;
+    // only used by the writer thread, except the batch swap under the lock
+    private List<Pending> batch = new ArrayList<>();
+    // blocking log messages written but not yet forced
+    private final List<Pending> unforced = new ArrayList<>();
+    private long batchThrough;
+    private long writtenThrough;
+    private long nextForceNanos = System.nanoTime();
+}
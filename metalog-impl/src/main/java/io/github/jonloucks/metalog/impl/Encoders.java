@@ -0,0 +1,144 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.metalog.api.Entities;
+import io.github.jonloucks.metalog.api.Entity;
+import io.github.jonloucks.metalog.api.Meta;
+
+import java.time.temporal.Temporal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Shared by the encoders that write a log message into a reusable array: what part of the meta to write,
+ * UTF-8 without allocating and how much of the reusable state to keep between log messages.
+ */
+final class Encoders {
+    
+    /**
+     * Utility class instantiation protection
+     * Test coverage not possible, java module protections in place
+     */
+    private Encoders() {
+    }
+    
+    // how deep correlations of correlations are written and read
+    static final int MAX_DEPTH = 16;
+    
+    // the correlations made for the time, thread and thrown of a Meta
+    static final String TIME_ENTITY_NAME = "time";
+    static final String THREAD_ENTITY_NAME = "thread";
+    static final String THROWN_ENTITY_NAME = "thrown";
+    
+    static final List<Entity> NO_ENTITIES = List.of();
+    static final int INITIAL_SIZE = 1024;
+    
+    /**
+     * @return the text of an entity when it can't be worked out from its value, otherwise null
+     */
+    static CharSequence textOf(Entity entity, Optional<Object> value) {
+        final CharSequence text = entity.get();
+        final String valueText = value.map(Object::toString).orElse("");
+        return null == text || valueText.contentEquals(text) ? null : text;
+    }
+    
+    /**
+     * @return the correlations to write, without the ones made for the time, thread and thrown written on their own
+     */
+    static List<Entity> correlationsOf(Meta meta, Temporal time, Thread thread, Throwable thrown) {
+        if (meta instanceof FrozenMeta) {
+            return List.of(((FrozenMeta) meta).getCorrelationArray());
+        }
+        final Optional<Entities> correlations = meta.getCorrelations();
+        if (!correlations.isPresent()) {
+            return NO_ENTITIES;
+        }
+        final List<Entity> list = correlations.get().asList();
+        list.removeIf(entity -> isSlotEntity(entity, TIME_ENTITY_NAME, time)
+            || isSlotEntity(entity, THREAD_ENTITY_NAME, thread)
+            || isSlotEntity(entity, THROWN_ENTITY_NAME, thrown));
+        return list;
+    }
+    
+    /**
+     * @return the number of bytes the text is in UTF-8, an unpaired surrogate is one byte
+     */
+    static int utf8Length(CharSequence text) {
+        final int length = text.length();
+        int byteLength = length;
+        for (int i = 0; i < length; i++) {
+            final char c = text.charAt(i);
+            if (c >= 0x800 && Character.isSurrogate(c)) {
+                if (isPair(text, i)) {
+                    byteLength += 2;
+                    i++;
+                }
+            } else if (c >= 0x800) {
+                byteLength += 2;
+            } else if (c >= 0x80) {
+                byteLength += 1;
+            }
+        }
+        return byteLength;
+    }
+    
+    /**
+     * Writes the text as UTF-8, the array must have room for it, see {@link #utf8Length(CharSequence)}
+     * @return the index after the last byte written
+     */
+    static int putUtf8(CharSequence text, byte[] to, int from) {
+        final int length = text.length();
+        int at = from;
+        for (int i = 0; i < length; i++) {
+            final char c = text.charAt(i);
+            if (c < 0x80) {
+                to[at++] = (byte) c;
+            } else if (c < 0x800) {
+                to[at++] = (byte) (0xC0 | (c >> 6));
+                to[at++] = (byte) (0x80 | (c & 0x3F));
+            } else if (!Character.isSurrogate(c)) {
+                to[at++] = (byte) (0xE0 | (c >> 12));
+                to[at++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                to[at++] = (byte) (0x80 | (c & 0x3F));
+            } else if (isPair(text, i)) {
+                final int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                to[at++] = (byte) (0xF0 | (codePoint >> 18));
+                to[at++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                to[at++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                to[at++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                to[at++] = UNPAIRED_REPLACEMENT;
+            }
+        }
+        return at;
+    }
+    
+    /**
+     * @return the array to keep for the next log message, a new small one if it grew for a large log message
+     */
+    static byte[] trim(byte[] bytes) {
+        return bytes.length > MAX_KEPT_SIZE ? new byte[INITIAL_SIZE] : bytes;
+    }
+    
+    /**
+     * @return the builder to keep for the next log message, a new small one if it grew for a large log message
+     */
+    static StringBuilder trim(StringBuilder builder) {
+        return builder.capacity() > MAX_KEPT_SIZE ? new StringBuilder(INITIAL_SIZE) : builder;
+    }
+    
+    private static boolean isPair(CharSequence text, int index) {
+        return Character.isHighSurrogate(text.charAt(index))
+            && index + 1 < text.length()
+            && Character.isLowSurrogate(text.charAt(index + 1));
+    }
+    
+    private static boolean isSlotEntity(Entity entity, String name, Object slot) {
+        return null != slot
+            && entity.isUnique()
+            && entity.getName().filter(name::equals).isPresent()
+            && entity.getValue().filter(value -> value == slot).isPresent();
+    }
+    
+    private static final int MAX_KEPT_SIZE = 64 * 1024;
+    private static final byte UNPAIRED_REPLACEMENT = '?';
+}
@@ -5,21 +5,24 @@ import io.github.jonloucks.metalog.api.Entity;
 import io.github.jonloucks.metalog.api.Visitor;
 
 import java.util.*;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 import static io.github.jonloucks.contracts.api.Checks.*;
 import static io.github.jonloucks.metalog.impl.Internal.*;
 
+/**
+ * Keeps the first few entities in fields and only moves them to an array after that.
+ * Most Meta have a handful of correlations such as time, thread and thrown, so those
+ * cost no list nodes and no backing array.
+ */
 final class EntitiesImpl implements Entities.Builder<EntitiesImpl> {
 
     @Override
     public void visitEach(Visitor<? super Entity> visitor) {
         final Visitor<? super Entity> validVisitor = visitorCheck(visitor);
-        for (Entity entity : entityList) {
-            if (!validVisitor.visit(entity)) {
+        for (int i = 0; i < size; i++) {
+            if (!validVisitor.visit(get(i))) {
                 return;
             }
         }
@@ -27,12 +30,27 @@ final class EntitiesImpl implements Entities.Builder<EntitiesImpl> {
 
     @Override
     public Optional<Entity> findFirstIf(Predicate<? super Entity> filter) {
-        return entityList.stream().filter(filterCheck(filter)).findFirst();
+        final Predicate<? super Entity> validFilter = filterCheck(filter);
+        for (int i = 0; i < size; i++) {
+            final Entity entity = get(i);
+            if (validFilter.test(entity)) {
+                return Optional.of(entity);
+            }
+        }
+        return Optional.empty();
     }
 
     @Override
     public List<Entity> findAllIf(Predicate<? super Entity> filter) {
-        return entityList.stream().filter(filterCheck(filter)).collect(Collectors.toList());
+        final Predicate<? super Entity> validFilter = filterCheck(filter);
+        final List<Entity> matchedList = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            final Entity entity = get(i);
+            if (validFilter.test(entity)) {
+                matchedList.add(entity);
+            }
+        }
+        return matchedList;
     }
     
     @Override
@@ -41,11 +59,9 @@ final class EntitiesImpl implements Entities.Builder<EntitiesImpl> {
         final Entity validEntity = entityCheck(replacement);
         int replacedEntities = 0;
         
-        final ListIterator<Entity> iterator = entityList.listIterator();
-        while (iterator.hasNext()) {
-            final Entity nextEntity = iterator.next();
-            if (validFilter.test(nextEntity)) {
-                iterator.set(validEntity);
+        for (int i = 0; i < size; i++) {
+            if (validFilter.test(get(i))) {
+                set(i, validEntity);
                 ++replacedEntities;
             }
         }
@@ -54,17 +70,38 @@ final class EntitiesImpl implements Entities.Builder<EntitiesImpl> {
     
     @Override
     public boolean removeIf(Predicate<? super Entity> filter) {
-        return entityList.removeIf(filterCheck(filter));
+        final Predicate<? super Entity> validFilter = filterCheck(filter);
+        final int oldSize = size;
+        int kept = 0;
+        int i = 0;
+        try {
+            for (; i < oldSize; i++) {
+                final Entity entity = get(i);
+                if (!validFilter.test(entity)) {
+                    set(kept++, entity);
+                }
+            }
+        } finally {
+            // a failing filter keeps the entities it did not get to
+            for (; i < oldSize; i++) {
+                set(kept++, get(i));
+            }
+            for (int j = kept; j < oldSize; j++) {
+                set(j, null);
+            }
+            size = kept;
+        }
+        return kept < oldSize;
     }
     
     @Override
     public boolean isEmpty() {
-        return entityList.isEmpty();
+        return size == 0;
     }
     
     @Override
     public int size() {
-        return entityList.size();
+        return size;
     }
 
     @Override
@@ -86,62 +123,142 @@ final class EntitiesImpl implements Entities.Builder<EntitiesImpl> {
                 }
             }
         }
-        entityList.addLast(validEntity);
+        add(validEntity);
         return this;
     }
   
     @Override
     public List<Entity> asList() {
-        return new ArrayList<>(entityList);
+        final List<Entity> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(get(i));
+        }
+        return list;
     }
     
     @Override
     public <T> Optional<T> findFirstValueWithType(Predicate<? super Entity> filter, Class<T> type) {
         final Predicate<? super Entity> validFilter = filterCheck(filter);
         final Class<T> validType = typeCheck(type);
-        final AtomicReference<T> result = new AtomicReference<>();
         
-        visitEach( entity -> {
-            final Optional<Object> optionalValue = entity.getValue();
+        for (int i = 0; i < size; i++) {
+            final Entity entity = get(i);
             if (validFilter.test(entity)) {
+                final Optional<Object> optionalValue = entity.getValue();
                 if (optionalValue.isPresent()) {
                     final Object value = optionalValue.get();
                     if (validType.isInstance(value)) {
-                        result.set(validType.cast(value));
-                        return false;
+                        return Optional.of(validType.cast(value));
                     }
                 }
             }
-            return true;
-        });
-        
-        return Optional.ofNullable(result.get());
+        }
+        return Optional.empty();
     }
     
     @Override
     public <T> List<T> findAllValuesWithType(Predicate<? super Entity> filter, Class<T> type) {
         final Predicate<? super Entity> validFilter = filterCheck(filter);
         final Class<T> validType = typeCheck(type);
-        final LinkedList<T> matchedList = new LinkedList<>();
+        List<T> matchedList = null;
         
-        visitEach( entity -> {
-            final Optional<Object> optionalValue = entity.getValue();
+        for (int i = 0; i < size; i++) {
+            final Entity entity = get(i);
             if (validFilter.test(entity)) {
+                final Optional<Object> optionalValue = entity.getValue();
                 if (optionalValue.isPresent()) {
                     final Object value = optionalValue.get();
                     if (validType.isInstance(value)) {
+                        if (null == matchedList) {
+                            matchedList = new ArrayList<>();
+                        }
                         matchedList.add(validType.cast(value));
                     }
                 }
             }
-            return true;
-        });
-        return matchedList.isEmpty() ? Collections.emptyList() : matchedList;
+        }
+        return null == matchedList ? Collections.emptyList() : matchedList;
     }
 
     EntitiesImpl() {
     
     }
-  
-    private final LinkedList<Entity> entityList = new LinkedList<>();
+    
+    /**
+     * @return a copy of the entities in order
+     */
+    Entity[] toArray() {
+        if (size == 0) {
+            return NO_ENTITIES;
+        }
+        final Entity[] array = new Entity[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = get(i);
+        }
+        return array;
+    }
+    
+    void clear() {
+        inline0 = inline1 = inline2 = inline3 = null;
+        spilled = null;
+        size = 0;
+    }
+    
+    private Entity get(int index) {
+        if (null != spilled) {
+            return spilled[index];
+        }
+        switch (index) {
+            case 0: return inline0;
+            case 1: return inline1;
+            case 2: return inline2;
+            default: return inline3;
+        }
+    }
+    
+    private void set(int index, Entity entity) {
+        if (null != spilled) {
+            spilled[index] = entity;
+            return;
+        }
+        switch (index) {
+            case 0: inline0 = entity; break;
+            case 1: inline1 = entity; break;
+            case 2: inline2 = entity; break;
+            default: inline3 = entity; break;
+        }
+    }
+    
+    private void add(Entity entity) {
+        if (null == spilled) {
+            if (size < INLINE_CAPACITY) {
+                set(size++, entity);
+                return;
+            }
+            spill();
+        } else if (size == spilled.length) {
+            spilled = Arrays.copyOf(spilled, size * 2);
+        }
+        spilled[size++] = entity;
+    }
+    
+    private void spill() {
+        final Entity[] array = new Entity[INLINE_CAPACITY * 2];
+        for (int i = 0; i < size; i++) {
+            array[i] = get(i);
+        }
+        inline0 = inline1 = inline2 = inline3 = null;
+        spilled = array;
+    }
+    
+    private static final int INLINE_CAPACITY = 4;
+    private static final Entity[] NO_ENTITIES = new Entity[0];
+    
+    private int size;
+    private Entity inline0;
+    private Entity inline1;
+    private Entity inline2;
+    private Entity inline3;
+    // once more than the inline capacity is needed every entity lives here
+    private Entity[] spilled;
 }
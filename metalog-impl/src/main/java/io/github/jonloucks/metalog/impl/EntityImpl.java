@@ -124,6 +124,24 @@ final class EntityImpl implements Entity, Entity.Builder<EntityImpl> {
     EntityImpl() {
     
     }
+    
+    Supplier<CharSequence> getTextSupplier() {
+        return textSupplier;
+    }
+    
+    Entity[] correlationsToArray() {
+        return entityList.toArray();
+    }
+    
+    void reset() {
+        id = null;
+        name = null;
+        unique = false;
+        textSupplier = null;
+        value = null;
+        text = null;
+        entityList.clear();
+    }
 
     private String id;
     private String name;
@@ -0,0 +1,95 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.metalog.api.BatchSubscriber;
+import io.github.jonloucks.metalog.api.Event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static io.github.jonloucks.metalog.impl.Internal.runWithIgnore;
+
+/**
+ * Collects the events for batch subscribers while a dispatcher worker runs a batch of jobs.
+ * The scope is per thread, jobs run outside a scope deliver immediately.
+ */
+final class EventBatch {
+    
+    /**
+     * Start collecting events on the current thread
+     * @return true if a new scope was started, false if one was already active
+     */
+    static boolean begin() {
+        final EventBatch batch = CURRENT.get();
+        if (batch.active) {
+            return false;
+        }
+        batch.active = true;
+        return true;
+    }
+    
+    /**
+     * Add an event to the current scope
+     * @param subscriber the batch subscriber receiving the event
+     * @param event the event
+     * @param receiver invoked with the subscriber and its collected events when the scope ends
+     * @return false if there is no active scope and the caller must deliver the event itself
+     */
+    static boolean offer(BatchSubscriber subscriber, Event event, BiConsumer<BatchSubscriber, List<Event>> receiver) {
+        final EventBatch batch = CURRENT.get();
+        if (!batch.active) {
+            return false;
+        }
+        batch.add(subscriber, event, receiver);
+        return true;
+    }
+    
+    /**
+     * End the scope on the current thread, each subscriber receives its events in order
+     */
+    static void end() {
+        final EventBatch batch = CURRENT.get();
+        batch.active = false;
+        batch.flush();
+    }
+    
+    private EventBatch() {
+    }
+    
+    private void add(BatchSubscriber subscriber, Event event, BiConsumer<BatchSubscriber, List<Event>> receiver) {
+        for (int i = 0, n = pending.size(); i < n; i++) {
+            final Pending candidate = pending.get(i);
+            if (candidate.subscriber == subscriber) {
+                candidate.events.add(event);
+                return;
+            }
+        }
+        pending.add(new Pending(subscriber, event, receiver));
+    }
+    
+    private void flush() {
+        for (int i = 0, n = pending.size(); i < n; i++) {
+            final Pending flushing = pending.get(i);
+            runWithIgnore(() -> flushing.receiver.accept(flushing.subscriber, Collections.unmodifiableList(flushing.events)));
+        }
+        pending.clear();
+    }
+    
+    private static final class Pending {
+        private Pending(BatchSubscriber subscriber, Event event, BiConsumer<BatchSubscriber, List<Event>> receiver) {
+            this.subscriber = subscriber;
+            this.receiver = receiver;
+            events.add(event);
+        }
+        
+        private final BatchSubscriber subscriber;
+        private final BiConsumer<BatchSubscriber, List<Event>> receiver;
+        private final List<Event> events = new ArrayList<>();
+    }
+    
+    private static final ThreadLocal<EventBatch> CURRENT = ThreadLocal.withInitial(EventBatch::new);
+    
+    private final List<Pending> pending = new ArrayList<>();
+    private boolean active;
+}
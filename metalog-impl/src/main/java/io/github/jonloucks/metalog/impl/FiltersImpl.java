@@ -23,10 +23,12 @@ final class FiltersImpl implements Filterable {
     
     @Override
     public boolean test(Meta meta) {
-        if (filters.isEmpty()) {
-            return true;
+        for (Predicate<Meta> filter : filters) {
+            if (!filter.test(meta)) {
+                return false;
+            }
         }
-        return filters.stream().allMatch(filter -> filter.test(meta));
+        return true;
     }
     
     private final List<Predicate<Meta>> filters = new CopyOnWriteArrayList<>();
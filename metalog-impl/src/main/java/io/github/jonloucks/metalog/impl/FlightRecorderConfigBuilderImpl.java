@@ -0,0 +1,76 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.metalog.api.FlightRecorder;
+import io.github.jonloucks.metalog.api.Subscriber;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static io.github.jonloucks.contracts.api.Checks.nullCheck;
+
+final class FlightRecorderConfigBuilderImpl implements FlightRecorder.Config.Builder {
+    @Override
+    public Builder capacity(int capacity) {
+        this.capacity = capacity;
+        return this;
+    }
+    
+    @Override
+    public Builder perKey(boolean perKey) {
+        this.perKey = perKey;
+        return this;
+    }
+    
+    @Override
+    public Builder maxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+        return this;
+    }
+    
+    @Override
+    public Builder errorChannels(Set<String> errorChannels) {
+        this.errorChannels = Set.copyOf(nullCheck(errorChannels, "Error channels must be present."));
+        return this;
+    }
+    
+    @Override
+    public Builder sink(Subscriber sink) {
+        this.sink = Optional.of(nullCheck(sink, "Sink must be present."));
+        return this;
+    }
+    
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+    
+    @Override
+    public boolean perKey() {
+        return perKey;
+    }
+    
+    @Override
+    public int maxKeys() {
+        return maxKeys;
+    }
+    
+    @Override
+    public Set<String> errorChannels() {
+        return errorChannels;
+    }
+    
+    @Override
+    public Optional<Subscriber> sink() {
+        return sink;
+    }
+    
+    FlightRecorderConfigBuilderImpl() {
+        
+    }
+    
+    private int capacity = DEFAULT.capacity();
+    private boolean perKey = DEFAULT.perKey();
+    private int maxKeys = DEFAULT.maxKeys();
+    private Set<String> errorChannels = DEFAULT.errorChannels();
+    private Optional<Subscriber> sink = DEFAULT.sink();
+}
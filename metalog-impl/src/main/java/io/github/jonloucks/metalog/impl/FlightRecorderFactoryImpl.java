@@ -0,0 +1,33 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.metalog.api.FlightRecorder;
+import io.github.jonloucks.metalog.api.Metalog;
+
+import java.util.function.Consumer;
+
+import static io.github.jonloucks.contracts.api.Checks.builderConsumerCheck;
+import static io.github.jonloucks.contracts.api.Checks.configCheck;
+
+final class FlightRecorderFactoryImpl implements FlightRecorder.Factory {
+    
+    @Override
+    public FlightRecorder create(FlightRecorder.Config config) {
+        return new FlightRecorderImpl(metalogConfig, configCheck(config));
+    }
+    
+    @Override
+    public FlightRecorder create(Consumer<FlightRecorder.Config.Builder> builderConsumer) {
+        final Consumer<FlightRecorder.Config.Builder> validBuilderConsumer = builderConsumerCheck(builderConsumer);
+        final FlightRecorderConfigBuilderImpl builder = new FlightRecorderConfigBuilderImpl();
+        
+        validBuilderConsumer.accept(builder);
+        
+        return create(builder);
+    }
+    
+    FlightRecorderFactoryImpl(Metalog.Config metalogConfig) {
+        this.metalogConfig = configCheck(metalogConfig);
+    }
+    
+    private final Metalog.Config metalogConfig;
+}
@@ -0,0 +1,245 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.metalog.api.*;
+
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+import static io.github.jonloucks.contracts.api.Checks.configCheck;
+import static io.github.jonloucks.contracts.api.Checks.nullCheck;
+import static io.github.jonloucks.metalog.impl.Internal.capacityCheck;
+import static io.github.jonloucks.metalog.impl.Internal.logCheck;
+import static io.github.jonloucks.metalog.impl.Internal.maxKeysCheck;
+import static io.github.jonloucks.metalog.impl.Internal.metaCheck;
+import static io.github.jonloucks.metalog.impl.Internal.runWithIgnore;
+
+/**
+ * Keeps the most recent log messages in rings of references.
+ * A dispatched log message is kept as the envelope it arrived in, so recording it is a sequence increment and two stores.
+ * The envelope is not rendered until it is dumped: it keeps the publisher's Log until then and the Log runs,
+ * at most once, on the thread that dumps. A log message that is overwritten first is never rendered.
+ * Any other log message has its text taken and kept with its meta, so the Log is not kept.
+ */
+final class FlightRecorderImpl implements FlightRecorder {
+    
+    @Override
+    public Outcome receive(Log log, Meta meta) {
+        final Log validLog = logCheck(log);
+        final Meta validMeta = metaCheck(meta);
+        final Ring ring = ringFor(validMeta);
+        
+        ring.record(keep(validLog, validMeta));
+        if (isError(validMeta)) {
+            ring.dumpTo(sink);
+        }
+        return Outcome.CONSUMED;
+    }
+    
+    @Override
+    public int dump() {
+        int dumped = ring.dumpTo(sink);
+        for (Ring keyRing : keyRings.values()) {
+            dumped += keyRing.dumpTo(sink);
+        }
+        return dumped;
+    }
+    
+    @Override
+    public boolean test(Meta meta) {
+        return filters.test(metaCheck(meta));
+    }
+    
+    @Override
+    public AutoClose addFilter(Predicate<Meta> filter) {
+        return filters.addFilter(filter);
+    }
+    
+    FlightRecorderImpl(Metalog.Config metalogConfig, Config config) {
+        final Config validConfig = configCheck(config);
+        this.capacity = capacityCheck(validConfig.capacity());
+        this.perKey = validConfig.perKey();
+        this.maxKeys = maxKeysCheck(validConfig.maxKeys());
+        this.errorChannels = nullCheck(validConfig.errorChannels(), "Error channels must be present.");
+        this.sink = nullCheck(validConfig.sink(), "Sink must be present.")
+            .orElseGet(() -> new TextSink(metalogConfig.contracts().claim(Encoder.TEXT_FACTORY).get(), System.err));
+        this.ring = new Ring(capacity);
+    }
+    
+    private Ring ringFor(Meta meta) {
+        if (!perKey) {
+            return ring;
+        }
+        final Optional<String> key = meta.getKey();
+        if (!key.isPresent()) {
+            return ring;
+        }
+        final Ring keyRing = keyRings.get(key.get());
+        if (null != keyRing) {
+            return keyRing;
+        }
+        // the map is only ever allowed to grow to the maximum, after that keys share the one ring
+        if (keyRings.size() >= maxKeys) {
+            return ring;
+        }
+        return keyRings.computeIfAbsent(key.get(), k -> new Ring(capacity));
+    }
+    
+    private boolean isError(Meta meta) {
+        return errorChannels.contains(meta.getChannel()) || meta.getThrown().isPresent();
+    }
+    
+    private static Event keep(Log log, Meta meta) {
+        final Event envelope = MetalogImpl.keepableEvent(log);
+        if (null != envelope) {
+            return envelope;
+        }
+        return new Recorded(String.valueOf(log.get()), MetalogImpl.freeze(meta));
+    }
+    
+    /**
+     * A fixed size ring of the most recent log messages.
+     * Writers claim a sequence number, store the log message into its slot and then publish the sequence of the slot,
+     * the same way {@link RingWorkQueue} publishes its slots.
+     * A dump only takes a log message whose slot has the sequence it expects before and after reading it,
+     * so a writer that has claimed a sequence but not published it yet is skipped instead of dumping the previous lap.
+     * A log message is dumped at most once, and a dump is never interleaved with another.
+     */
+    private static final class Ring {
+        
+        private Ring(int capacity) {
+            this.slots = new AtomicReferenceArray<>(capacity);
+            this.sequences = new AtomicLongArray(capacity);
+            for (int i = 0; i < capacity; i++) {
+                sequences.set(i, UNPUBLISHED);
+            }
+        }
+        
+        private void record(Event event) {
+            final long sequence = next.getAndIncrement();
+            final int index = (int) (sequence % slots.length());
+            slots.lazySet(index, event);
+            // ordered after the store, a dump seeing the sequence sees the log message
+            sequences.lazySet(index, sequence);
+        }
+        
+        private synchronized int dumpTo(Subscriber sink) {
+            final long end = next.get();
+            final int length = slots.length();
+            final List<Event> events = new ArrayList<>();
+            for (long sequence = Math.max(0, end - length); sequence < end; sequence++) {
+                final int index = (int) (sequence % length);
+                if (sequences.get(index) != sequence) {
+                    continue;
+                }
+                final Event event = slots.get(index);
+                // a writer of the next lap may have stored since the sequence was read
+                if (null != event && sequences.get(index) == sequence && slots.compareAndSet(index, event, null)) {
+                    events.add(event);
+                }
+            }
+            deliver(sink, events);
+            return events.size();
+        }
+        
+        private static final long UNPUBLISHED = -1;
+        
+        private final AtomicReferenceArray<Event> slots;
+        private final AtomicLongArray sequences;
+        private final AtomicLong next = new AtomicLong();
+    }
+    
+    private static void deliver(Subscriber sink, List<Event> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (sink instanceof BatchSubscriber) {
+            ((BatchSubscriber) sink).receive(events);
+            return;
+        }
+        for (Event event : events) {
+            // one failing log message must not keep the rest from the sink
+            runWithIgnore(() -> {
+                if (sink.test(event.getMeta())) {
+                    sink.receive(event.getLog(), event.getMeta());
+                }
+            });
+        }
+    }
+    
+    /**
+     * A log message that could not be kept as it was received, with the text it had then
+     */
+    private static final class Recorded implements Event, Log {
+        
+        @Override
+        public Log getLog() {
+            return this;
+        }
+        
+        @Override
+        public Meta getMeta() {
+            return meta;
+        }
+        
+        @Override
+        public CharSequence get() {
+            return text;
+        }
+        
+        private Recorded(CharSequence text, Meta meta) {
+            this.text = text;
+            this.meta = meta;
+        }
+        
+        private final CharSequence text;
+        private final Meta meta;
+    }
+    
+    /**
+     * The sink when none is configured, prints the dumped log messages as text lines
+     */
+    private static final class TextSink implements Subscriber {
+        
+        @Override
+        public synchronized Outcome receive(Log log, Meta meta) {
+            buffer.clear();
+            if (!encoder.encode(log, meta, buffer)) {
+                return Outcome.SKIPPED;
+            }
+            out.write(buffer.array(), 0, buffer.position());
+            out.flush();
+            return Outcome.CONSUMED;
+        }
+        
+        private TextSink(Encoder encoder, PrintStream out) {
+            this.encoder = encoder;
+            this.out = out;
+        }
+        
+        private final Encoder encoder;
+        private final PrintStream out;
+        private final ByteBuffer buffer = ByteBuffer.allocate(TEXT_SINK_BUFFER_SIZE);
+    }
+    
+    private static final int TEXT_SINK_BUFFER_SIZE = 64 * 1024;
+    
+    private final int capacity;
+    private final boolean perKey;
+    private final int maxKeys;
+    private final Set<String> errorChannels;
+    private final Subscriber sink;
+    private final Ring ring;
+    private final Map<String, Ring> keyRings = new ConcurrentHashMap<>();
+    private final Filterable filters = new FiltersImpl();
+}
@@ -0,0 +1,152 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.metalog.api.Entities;
+import io.github.jonloucks.metalog.api.Entity;
+import io.github.jonloucks.metalog.api.Meta;
+
+import java.time.temporal.Temporal;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Immutable snapshot of a Meta builder taken when it is published or made into a template.
+ * The dispatchers and subscribers read it from other threads while the builder is reset and reused.
+ */
+final class FrozenMeta implements Meta {
+    
+    @Override
+    public CharSequence get() {
+        CharSequence current = text;
+        if (null == current) {
+            // racing threads compute the same text, so the first one to finish is as good as any
+            if (null != textSupplier) {
+                current = textSupplier.get();
+            } else if (null != value) {
+                current = value.toString();
+            }
+            current = null == current ? "" : current;
+            text = current;
+        }
+        return current;
+    }
+    
+    @Override
+    public String getChannel() {
+        return channel;
+    }
+    
+    @Override
+    public Optional<String> getKey() {
+        return key;
+    }
+    
+    @Override
+    public boolean isBlocking() {
+        return block;
+    }
+    
+    @Override
+    public Optional<Temporal> getTime() {
+        return ofNullable(time);
+    }
+    
+    @Override
+    public Optional<Throwable> getThrown() {
+        return ofNullable(thrown);
+    }
+    
+    @Override
+    public Optional<Thread> getThread() {
+        return ofNullable(thread);
+    }
+    
+    @Override
+    public Optional<String> getId() {
+        return ofNullable(id);
+    }
+    
+    @Override
+    public Optional<String> getName() {
+        return ofNullable(name);
+    }
+    
+    @Override
+    public Optional<Object> getValue() {
+        return ofNullable(value);
+    }
+    
+    @Override
+    public boolean isUnique() {
+        return unique;
+    }
+    
+    @Override
+    public Optional<Entities> getCorrelations() {
+        if (correlations.length == 0 && null == time && null == thread && null == thrown) {
+            return Optional.empty();
+        }
+        // a new builder each time, so changing it can't change the snapshot
+        final EntitiesImpl entities = new EntitiesImpl();
+        for (Entity correlation : correlations) {
+            entities.entity(correlation);
+        }
+        MetaImpl.addSlotEntities(entities, time, thread, thrown);
+        return Optional.of(entities);
+    }
+    
+    /**
+     * @return the correlations, shared and must not be modified
+     */
+    Entity[] getCorrelationArray() {
+        return correlations;
+    }
+    
+    /**
+     * @return true if a correlation is named like one of the fields of {@link MetaImpl}
+     */
+    boolean hasSlotName() {
+        int current = slotNamed;
+        if (UNKNOWN == current) {
+            // worked out once per template instead of on every copy
+            current = MetaImpl.hasSlotName(correlations) ? YES : NO;
+            slotNamed = current;
+        }
+        return YES == current;
+    }
+    
+    FrozenMeta(Meta meta, Supplier<CharSequence> textSupplier, Entity[] correlations, Temporal time, Thread thread, Throwable thrown) {
+        this.channel = meta.getChannel();
+        this.key = meta.getKey();
+        this.block = meta.isBlocking();
+        this.id = meta.getId().orElse(null);
+        this.name = meta.getName().orElse(null);
+        this.value = meta.getValue().orElse(null);
+        this.unique = meta.isUnique();
+        this.textSupplier = textSupplier;
+        this.correlations = correlations;
+        this.time = time;
+        this.thread = thread;
+        this.thrown = thrown;
+    }
+    
+    private final String channel;
+    private final Optional<String> key;
+    private final boolean block;
+    private final String id;
+    private final String name;
+    private final Object value;
+    private final boolean unique;
+    private final Supplier<CharSequence> textSupplier;
+    private final Entity[] correlations;
+    private final Temporal time;
+    private final Thread thread;
+    private final Throwable thrown;
+    private volatile CharSequence text;
+    private volatile int slotNamed = UNKNOWN;
+    
+    private static final int UNKNOWN = 0;
+    private static final int NO = 1;
+    private static final int YES = 2;
+}
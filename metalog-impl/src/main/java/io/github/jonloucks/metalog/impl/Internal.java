@@ -39,6 +39,10 @@ final class Internal {
         return nullCheck(name, "Channel must be present.");
     }
     
+    static String keyCheck(String key) {
+        return nullCheck(key, "Key must be present.");
+    }
+    
     static <T> Visitor<T> visitorCheck(Visitor<T> visitor) {
         return nullCheck(visitor, "Visitor must be present.");
     }
@@ -47,6 +51,69 @@ final class Internal {
         return nullCheck(command, "Command must be present.");
     }
     
+    static int stripeCountCheck(int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Stripe count must be positive.");
+        }
+        return stripeCount;
+    }
+    
+    static int queueLimitCheck(int queueLimit) {
+        if (queueLimit < 1) {
+            throw new IllegalArgumentException("Queue limit must be positive.");
+        }
+        return queueLimit;
+    }
+    
+    static int dispatcherLimitCheck(int dispatcherLimit) {
+        if (dispatcherLimit < 1) {
+            throw new IllegalArgumentException("Dispatcher limit must be positive.");
+        }
+        return dispatcherLimit;
+    }
+    
+    static int batchLimitCheck(int batchLimit) {
+        if (batchLimit < 1) {
+            throw new IllegalArgumentException("Batch limit must be positive.");
+        }
+        return batchLimit;
+    }
+    
+    static int segmentSizeCheck(int segmentSize) {
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("Segment size must be positive.");
+        }
+        return segmentSize;
+    }
+    
+    static int arenaSizeCheck(int arenaSize) {
+        if (arenaSize < 1) {
+            throw new IllegalArgumentException("Arena size must be positive.");
+        }
+        return arenaSize;
+    }
+    
+    static int capacityCheck(int capacity) {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be positive and at most " + MAX_CAPACITY + ".");
+        }
+        return capacity;
+    }
+    
+    static int maxKeysCheck(int maxKeys) {
+        if (maxKeys < 0) {
+            throw new IllegalArgumentException("Maximum keys must not be negative.");
+        }
+        return maxKeys;
+    }
+    
+    static double percentileCheck(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be from 0 to 100.");
+        }
+        return percentile;
+    }
+    
     static Subscriber subscriberCheck(Subscriber subscriber) {
         return nullCheck(subscriber, "Subscribers must be present.");
     }
@@ -71,4 +138,6 @@ final class Internal {
         
         }
     }
+    
+    private static final int MAX_CAPACITY = 1 << 24;
 }
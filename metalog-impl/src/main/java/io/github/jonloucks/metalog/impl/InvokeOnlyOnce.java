@@ -4,9 +4,12 @@ import io.github.jonloucks.metalog.api.Log;
 
 import static io.github.jonloucks.metalog.impl.Internal.logCheck;
 
+/**
+ * Invokes the referent Log at most once for all the subscribers of a synchronous publish.
+ * One is made per publish, subscribers may keep it after receive returns.
+ */
 final class InvokeOnlyOnce implements Log {
-    private final Log referent;
-    private boolean firstTime = true;
+    private Log referent;
     
     InvokeOnlyOnce(Log referent) {
         this.referent = logCheck(referent);
@@ -14,12 +17,14 @@ final class InvokeOnlyOnce implements Log {
     
     @Override
     public synchronized CharSequence get() {
-        if (firstTime) {
-            firstTime = false;
-            cachedText = referent.get();
+        final Log firstTime = referent;
+        if (null != firstTime) {
+            // dropped once invoked, a kept instance does not keep what the publisher captured
+            referent = null;
+            cachedText = firstTime.get();
         }
         return cachedText;
     }
     
-    private volatile CharSequence cachedText;
+    private CharSequence cachedText;
 }
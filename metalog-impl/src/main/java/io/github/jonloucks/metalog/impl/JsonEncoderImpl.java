@@ -0,0 +1,248 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.metalog.api.Entities;
+import io.github.jonloucks.metalog.api.Entity;
+import io.github.jonloucks.metalog.api.JsonEncoder;
+import io.github.jonloucks.metalog.api.Log;
+import io.github.jonloucks.metalog.api.Meta;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.temporal.Temporal;
+import java.util.List;
+import java.util.Optional;
+
+import static io.github.jonloucks.contracts.api.Checks.nullCheck;
+import static io.github.jonloucks.metalog.impl.Encoders.*;
+import static io.github.jonloucks.metalog.impl.Internal.logCheck;
+import static io.github.jonloucks.metalog.impl.Internal.metaCheck;
+
+/**
+ * Renders a line of JSON per log message into a reusable builder, then copies it to the destination.
+ * Text is escaped character by character into the builder, numbers are appended as digits,
+ * so nothing is allocated per log message beyond what the time and thrown need to become text.
+ * For a buffer the line is encoded to UTF-8 by hand into a reusable array and copied in one put, so a line that does not fit leaves nothing behind.
+ */
+final class JsonEncoderImpl implements JsonEncoder {
+    
+    @Override
+    public boolean encode(Log log, Meta meta, ByteBuffer buffer) {
+        final Log validLog = logCheck(log);
+        final Meta validMeta = metaCheck(meta);
+        final ByteBuffer validBuffer = nullCheck(buffer, "Buffer must be present.");
+        
+        renderLine(validLog, validMeta);
+        final int size = toUtf8(line);
+        final boolean fits = size <= validBuffer.remaining();
+        if (fits) {
+            validBuffer.put(bytes, 0, size);
+        }
+        trim();
+        return fits;
+    }
+    
+    @Override
+    public void append(Log log, Meta meta, Appendable out) {
+        final Log validLog = logCheck(log);
+        final Meta validMeta = metaCheck(meta);
+        final Appendable validOut = nullCheck(out, "Appendable must be present.");
+        
+        renderLine(validLog, validMeta);
+        try {
+            validOut.append(line);
+        } catch (IOException thrown) {
+            throw new UncheckedIOException(thrown);
+        } finally {
+            trim();
+        }
+    }
+    
+    JsonEncoderImpl() {
+    }
+    
+    private void renderLine(Log log, Meta meta) {
+        final Optional<Object> value = meta.getValue();
+        final Temporal time = meta.getTime().orElse(null);
+        final Thread thread = meta.getThread().orElse(null);
+        final Throwable thrown = meta.getThrown().orElse(null);
+        final CharSequence metaText = textOf(meta, value);
+        
+        line.setLength(0);
+        line.append('{');
+        final int start = line.length();
+        if (null != time) {
+            appendMember(start, "time", time.toString());
+        }
+        appendMember(start, "channel", meta.getChannel());
+        appendMember(start, "key", meta.getKey());
+        appendMember(start, "id", meta.getId());
+        appendMember(start, "name", meta.getName());
+        if (value.isPresent()) {
+            member(start, "value");
+            appendValue(value.get());
+        }
+        if (null != metaText) {
+            appendMember(start, "text", metaText);
+        }
+        if (null != thread) {
+            appendMember(start, "thread", thread.getName());
+        }
+        appendMember(start, "message", log.get());
+        if (null != thrown) {
+            appendMember(start, "thrown", thrown.toString());
+        }
+        final List<Entity> correlations = correlationsOf(meta, time, thread, thrown);
+        if (!correlations.isEmpty()) {
+            member(start, "correlations");
+            appendEntities(correlations, 1);
+        }
+        line.append("}\n");
+    }
+    
+    private void appendEntities(List<Entity> entities, int depth) {
+        line.append('[');
+        for (int i = 0, n = entities.size(); i < n; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            appendEntity(entities.get(i), depth);
+        }
+        line.append(']');
+    }
+    
+    private void appendEntity(Entity entity, int depth) {
+        final Optional<Object> value = entity.getValue();
+        final CharSequence text = textOf(entity, value);
+        // deeper correlations are left out, they could be a cycle
+        final List<Entity> correlations = depth < MAX_DEPTH
+            ? entity.getCorrelations().map(Entities::asList).orElse(NO_ENTITIES) : NO_ENTITIES;
+        
+        line.append('{');
+        final int start = line.length();
+        appendMember(start, "name", entity.getName());
+        appendMember(start, "id", entity.getId());
+        if (value.isPresent()) {
+            member(start, "value");
+            appendValue(value.get());
+        }
+        if (null != text) {
+            appendMember(start, "text", text);
+        }
+        if (entity.isUnique()) {
+            member(start, "unique");
+            line.append(true);
+        }
+        if (!correlations.isEmpty()) {
+            member(start, "correlations");
+            appendEntities(correlations, depth + 1);
+        }
+        line.append('}');
+    }
+    
+    private void appendValue(Object value) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            line.append(((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            line.append(((Boolean) value).booleanValue());
+        } else if (value instanceof Double && Double.isFinite((Double) value)) {
+            line.append(((Double) value).doubleValue());
+        } else if (value instanceof Float && Float.isFinite((Float) value)) {
+            line.append(((Float) value).floatValue());
+        } else if (value instanceof Character) {
+            line.append('"');
+            appendEscaped((Character) value);
+            line.append('"');
+        } else if (value instanceof CharSequence) {
+            appendString((CharSequence) value);
+        } else {
+            // JSON has no number for NaN or the infinities, they are written as text like anything else
+            appendString(value.toString());
+        }
+    }
+    
+    // members after the first one of an object, which starts at the given length, are separated by a comma
+    private void member(int start, String name) {
+        if (line.length() > start) {
+            line.append(',');
+        }
+        line.append('"').append(name).append("\":");
+    }
+    
+    private void appendMember(int start, String name, CharSequence text) {
+        member(start, name);
+        appendString(text);
+    }
+    
+    private void appendMember(int start, String name, Optional<String> text) {
+        if (text.isPresent()) {
+            appendMember(start, name, text.get());
+        }
+    }
+    
+    private void appendString(CharSequence text) {
+        line.append('"');
+        appendEscaped(text);
+        line.append('"');
+    }
+    
+    private void appendEscaped(CharSequence text) {
+        for (int i = 0, n = text.length(); i < n; i++) {
+            appendEscaped(text.charAt(i));
+        }
+    }
+    
+    private void appendEscaped(char c) {
+        if (c >= 0x20 && c != '"' && c != '\\' && c != '\u2028' && c != '\u2029') {
+            line.append(c);
+            return;
+        }
+        switch (c) {
+            case '"':
+                line.append("\\\"");
+                break;
+            case '\\':
+                line.append("\\\\");
+                break;
+            case '\n':
+                line.append("\\n");
+                break;
+            case '\r':
+                line.append("\\r");
+                break;
+            case '\t':
+                line.append("\\t");
+                break;
+            default:
+                // the other control characters, and the line separators some JavaScript readers stop at
+                line.append("\\u")
+                    .append(HEX_DIGITS[(c >> 12) & 0xF])
+                    .append(HEX_DIGITS[(c >> 8) & 0xF])
+                    .append(HEX_DIGITS[(c >> 4) & 0xF])
+                    .append(HEX_DIGITS[c & 0xF]);
+                break;
+        }
+    }
+    
+    private void trim() {
+        line = Encoders.trim(line);
+        bytes = Encoders.trim(bytes);
+    }
+    
+    /**
+     * @return the number of bytes the text became, at the start of the reusable array
+     */
+    private int toUtf8(CharSequence text) {
+        final int length = text.length();
+        // at most three bytes for each char, a pair of surrogates is four bytes for two chars
+        if (bytes.length < length * 3) {
+            bytes = new byte[length * 3];
+        }
+        return putUtf8(text, bytes, 0);
+    }
+    
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    
+    private StringBuilder line = new StringBuilder(INITIAL_SIZE);
+    private byte[] bytes = new byte[INITIAL_SIZE * 3];
+}
@@ -10,16 +10,17 @@ import io.github.jonloucks.metalog.api.Metalog;
 import io.github.jonloucks.metalog.api.Outcome;
 
 import java.time.Duration;
-import java.util.concurrent.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static io.github.jonloucks.concurrency.api.Idempotent.withClose;
 import static io.github.jonloucks.concurrency.api.Idempotent.withOpen;
+import static io.github.jonloucks.metalog.impl.Internal.batchLimitCheck;
 import static io.github.jonloucks.metalog.impl.Internal.commandCheck;
 import static io.github.jonloucks.metalog.impl.Internal.runWithIgnore;
-import static java.util.Optional.ofNullable;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
-final class KeyedDispatcherImpl implements Dispatcher, AutoOpen {
+final class KeyedDispatcherImpl implements Dispatcher, AutoOpen, ObservedDispatcher {
     
     @Override
     public AutoClose open() {
@@ -33,23 +34,42 @@ final class KeyedDispatcherImpl implements Dispatcher, AutoOpen {
             validCommand.run();
             return Outcome.CONSUMED;
         }
-        inflightSemaphore.acquireUninterruptibly();
-        try {
-            workQueue.put(validCommand);
-        } catch (InterruptedException ignored) {
-            inflightSemaphore.release();
+        if (null != latency && validCommand instanceof MeasuredWork) {
+            ((MeasuredWork) validCommand).measuredBy(latency);
+        }
+        if (workQueue.offer(validCommand)) {
+            noteDepth(workQueue.size());
+            return Outcome.DISPATCHED;
         }
-        return Outcome.DISPATCHED;
+        noteDepth(workQueue.size());
+        return overflow(meta, validCommand);
+    }
+    
+    @Override
+    public void observe(String name, StatisticsImpl statistics) {
+        statistics.addQueue(name, workQueue.size(), highWaterMark.get(), latency);
     }
     
     KeyedDispatcherImpl(Metalog.Config config) {
-        this.inflightSemaphore = new Semaphore(config.keyedQueueLimit());
-        this.workQueue = new ArrayBlockingQueue<>(config.keyedQueueLimit());
-        this.workerThread = new Thread(this::consumeLoop);
+        this.workQueue = config.useKeyedRingBuffer()
+            ? new RingWorkQueue(config.keyedQueueLimit())
+            : new BlockingWorkQueue(config.keyedQueueLimit());
+        this.batchLimit = batchLimitCheck(config.keyedBatchLimit());
+        this.workerThread = ThreadFactories.workerThreadFactory(config).newThread(this::consumeLoop);
         this.shutdownTimeout = config.shutdownTimeout();
+        this.overflowTimeoutNanos = config.keyedOverflowTimeout().toNanos();
+        this.latency = config.measureLatency() ? new LatencyHistogram() : null;
+        this.config = config;
         this.stateMachine = Idempotent.createStateMachine(config.contracts());
     }
     
+    /**
+     * @return true if nothing is queued or running
+     */
+    boolean isIdle() {
+        return workQueue.isIdle();
+    }
+    
     private AutoClose realOpen() {
         workerThread.start();
         return this::close;
@@ -60,7 +80,7 @@ final class KeyedDispatcherImpl implements Dispatcher, AutoOpen {
     }
     
     private void realClose() {
-        triggerWorkerExit.countDown();
+        workQueue.close();
         runWithIgnore(() -> {
             if (!workerExitedLatch.await(shutdownTimeout.toMillis(), MILLISECONDS)) {
                 workerThread.interrupt();
@@ -68,39 +88,96 @@ final class KeyedDispatcherImpl implements Dispatcher, AutoOpen {
         });
   
         // taking over emptying the queue
-        while (!workQueue.isEmpty()) {
-            runQueueJob(workQueue.poll());
+        for (Runnable command = workQueue.poll(); null != command; command = workQueue.poll()) {
+            runBatch(command);
+        }
+    }
+    
+    private void noteDepth(int depth) {
+        // only written when a new high is reached, which soon stops happening
+        if (depth > highWaterMark.get()) {
+            highWaterMark.accumulateAndGet(depth, Math::max);
+        }
+    }
+    
+    private Outcome overflow(Meta meta, Runnable command) {
+        switch (config.keyedOverflowPolicy(meta.getChannel())) {
+            case BLOCK_WITH_TIMEOUT:
+                return workQueue.offer(command, overflowTimeoutNanos) ? Outcome.DISPATCHED : Outcome.EXPIRED;
+            case DROP_NEWEST:
+                return Outcome.DROPPED;
+            case DROP_OLDEST:
+                return displaceOldest(command);
+            case CALLER_RUNS:
+                command.run();
+                return Outcome.CONSUMED;
+            case BLOCK:
+            default:
+                workQueue.put(command);
+                return Outcome.DISPATCHED;
         }
     }
     
-    private void runQueueJob(Runnable command) {
-        if (ofNullable(command).isPresent()) {
-            try {
-                runWithIgnore(command::run);
-            } finally {
-                inflightSemaphore.release();
+    private Outcome displaceOldest(Runnable command) {
+        // other publishers may take the room that was made, keep dropping until this one fits
+        do {
+            if (null == workQueue.removeOldest()) {
+                return Outcome.DROPPED;
+            }
+        } while (!workQueue.offer(command));
+        return Outcome.DISPLACED;
+    }
+    
+    private void runBatch(Runnable firstCommand) {
+        final boolean batching = EventBatch.begin();
+        int completedCount = 0;
+        try {
+            // drain what is already queued, the batch subscribers receive it all at the end
+            for (Runnable command = firstCommand; null != command; command = nextInBatch(completedCount)) {
+                // not runWithIgnore, that would wrap every command in a new lambda
+                try {
+                    command.run();
+                } catch (Throwable ignore) {
+                    
+                }
+                completedCount++;
+            }
+        } finally {
+            if (batching) {
+                EventBatch.end();
+            }
+            // queue slots are released after the batch is delivered
+            for (int i = 0; i < completedCount; i++) {
+                workQueue.completed();
             }
         }
     }
     
+    private Runnable nextInBatch(int batchSize) {
+        return batchSize < batchLimit ? workQueue.poll() : null;
+    }
+    
     private void consumeLoop() {
         try {
+            // parked in take() until there is work or the queue is closed
             runWithIgnore(() -> {
-                while (!triggerWorkerExit.await(1, MILLISECONDS)) {
-                    runQueueJob(workQueue.poll(1, MILLISECONDS));
+                for (Runnable command = workQueue.take(); null != command; command = workQueue.take()) {
+                    runBatch(command);
                 }
             });
-
         } finally {
             workerExitedLatch.countDown();
         }
     }
     
+    private final Metalog.Config config;
     private final StateMachine<Idempotent> stateMachine;
     private final Duration shutdownTimeout;
-    private final Semaphore inflightSemaphore;
+    private final int batchLimit;
+    private final long overflowTimeoutNanos;
     private final Thread workerThread;
-    private final ArrayBlockingQueue<Runnable> workQueue;
-    private final CountDownLatch triggerWorkerExit = new CountDownLatch(1);
+    private final WorkQueue workQueue;
     private final CountDownLatch workerExitedLatch = new CountDownLatch(1);
+    private final AtomicInteger highWaterMark = new AtomicInteger();
+    private final LatencyHistogram latency;
 }
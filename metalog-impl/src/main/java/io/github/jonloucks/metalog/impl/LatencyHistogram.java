@@ -0,0 +1,158 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.metalog.api.Statistics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static io.github.jonloucks.metalog.impl.Internal.percentileCheck;
+
+/**
+ * Lock-free log-linear histogram of nanoseconds.
+ * <p>
+ * Each power of two is split into sixteen linear buckets, so a recorded value
+ * is kept within about 6% no matter how large it is, in a fixed array of counters.
+ * Recording is one increment of a counter, plus a CAS only when a new maximum is seen.
+ * </p>
+ * <p>
+ * The counters are striped by thread, so threads recording at the same time rarely touch the same counters.
+ * A stripe is only created once a thread hashing to it records, a histogram recorded by one dispatcher
+ * thread has one stripe. A snapshot adds up the stripes while recording continues.
+ * </p>
+ */
+final class LatencyHistogram {
+    
+    LatencyHistogram() {
+    }
+    
+    /**
+     * @param nanos the duration to record, negative is recorded as zero
+     */
+    void record(long nanos) {
+        final long value = Math.max(0L, nanos);
+        final Stripe stripe = stripeOf(Thread.currentThread());
+        stripe.counts.getAndIncrement(indexOf(value));
+        if (value > stripe.max.get()) {
+            stripe.max.accumulateAndGet(value, Math::max);
+        }
+    }
+    
+    Statistics.Histogram snapshot() {
+        final long[] copy = new long[BUCKET_COUNT];
+        long total = 0;
+        long largest = 0;
+        for (int s = 0; s < STRIPE_COUNT; s++) {
+            final Stripe stripe = stripes.get(s);
+            if (null == stripe) {
+                continue;
+            }
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                final long count = stripe.counts.get(i);
+                copy[i] += count;
+                total += count;
+            }
+            largest = Math.max(largest, stripe.max.get());
+        }
+        return new Snapshot(copy, total, largest);
+    }
+    
+    private Stripe stripeOf(Thread thread) {
+        // spreads the identity hash so threads created one after another land on different stripes
+        final int hash = System.identityHashCode(thread) * 0x9E3779B9;
+        final int index = (hash >>> 16) & (STRIPE_COUNT - 1);
+        final Stripe stripe = stripes.get(index);
+        if (null != stripe) {
+            return stripe;
+        }
+        final Stripe created = new Stripe();
+        return stripes.compareAndSet(index, null, created) ? created : stripes.get(index);
+    }
+    
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) - SUB_BUCKET_COUNT);
+    }
+    
+    /**
+     * @return the largest value recorded in the bucket
+     */
+    private static long highestOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        final long lowest = (long) (SUB_BUCKET_COUNT + (index & (SUB_BUCKET_COUNT - 1))) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+    
+    private static final class Stripe {
+        
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong max = new AtomicLong();
+    }
+    
+    private static final class Snapshot implements Statistics.Histogram {
+        
+        @Override
+        public long getCount() {
+            return count;
+        }
+        
+        @Override
+        public Duration getMax() {
+            return Duration.ofNanos(max);
+        }
+        
+        @Override
+        public Duration getPercentile(double percentile) {
+            final double validPercentile = percentileCheck(percentile);
+            if (0 == count) {
+                return Duration.ZERO;
+            }
+            final long rank = Math.max(1L, (long) Math.ceil(validPercentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    // the bucket holds a range, report its top but never more than was recorded
+                    return Duration.ofNanos(Math.min(highestOf(i), max));
+                }
+            }
+            return Duration.ofNanos(max);
+        }
+        
+        @Override
+        public String toString() {
+            return "count=" + count + " p50=" + getPercentile(50) + " p99=" + getPercentile(99)
+                + " p99.99=" + getPercentile(99.99) + " max=" + getMax();
+        }
+        
+        private Snapshot(long[] counts, long count, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.max = max;
+        }
+        
+        private final long[] counts;
+        private final long count;
+        private final long max;
+    }
+    
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    // linear buckets below SUB_BUCKET_COUNT, then SUB_BUCKET_COUNT buckets for each power of two up to 2^62
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) << SUB_BUCKET_BITS;
+    private static final int MAX_STRIPE_COUNT = 64;
+    // a power of two, at least the number of processors
+    private static final int STRIPE_COUNT = Math.min(MAX_STRIPE_COUNT,
+        Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1));
+    
+    static final Statistics.Histogram EMPTY = new Snapshot(new long[BUCKET_COUNT], 0, 0);
+    
+    private final AtomicReferenceArray<Stripe> stripes = new AtomicReferenceArray<>(STRIPE_COUNT);
+}
@@ -0,0 +1,77 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.contracts.api.Contract;
+import io.github.jonloucks.metalog.api.Encoder;
+import io.github.jonloucks.metalog.api.MappedFileSubscriber;
+
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
+import static io.github.jonloucks.contracts.api.Checks.nullCheck;
+
+final class MappedFileConfigBuilderImpl implements MappedFileSubscriber.Config.Builder {
+    @Override
+    public Builder directory(Path directory) {
+        this.directory = nullCheck(directory, "Directory must be present.");
+        return this;
+    }
+    
+    @Override
+    public Builder prefix(String prefix) {
+        this.prefix = nullCheck(prefix, "Prefix must be present.");
+        return this;
+    }
+    
+    @Override
+    public Builder suffix(String suffix) {
+        this.suffix = nullCheck(suffix, "Suffix must be present.");
+        return this;
+    }
+    
+    @Override
+    public Builder segmentSize(int segmentSize) {
+        this.segmentSize = segmentSize;
+        return this;
+    }
+    
+    @Override
+    public Builder encoderFactory(Contract<? extends Supplier<? extends Encoder>> encoderFactory) {
+        this.encoderFactory = nullCheck(encoderFactory, "Encoder factory must be present.");
+        return this;
+    }
+    
+    @Override
+    public Path directory() {
+        return directory;
+    }
+    
+    @Override
+    public String prefix() {
+        return prefix;
+    }
+    
+    @Override
+    public String suffix() {
+        return suffix;
+    }
+    
+    @Override
+    public int segmentSize() {
+        return segmentSize;
+    }
+    
+    @Override
+    public Contract<? extends Supplier<? extends Encoder>> encoderFactory() {
+        return encoderFactory;
+    }
+    
+    MappedFileConfigBuilderImpl() {
+        
+    }
+    
+    private Path directory = DEFAULT.directory();
+    private String prefix = DEFAULT.prefix();
+    private String suffix = DEFAULT.suffix();
+    private int segmentSize = DEFAULT.segmentSize();
+    private Contract<? extends Supplier<? extends Encoder>> encoderFactory = DEFAULT.encoderFactory();
+}
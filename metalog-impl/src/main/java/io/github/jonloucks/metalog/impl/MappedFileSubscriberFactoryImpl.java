@@ -0,0 +1,33 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.metalog.api.MappedFileSubscriber;
+import io.github.jonloucks.metalog.api.Metalog;
+
+import java.util.function.Consumer;
+
+import static io.github.jonloucks.contracts.api.Checks.builderConsumerCheck;
+import static io.github.jonloucks.contracts.api.Checks.configCheck;
+
+final class MappedFileSubscriberFactoryImpl implements MappedFileSubscriber.Factory {
+    
+    @Override
+    public MappedFileSubscriber create(MappedFileSubscriber.Config config) {
+        return new MappedFileSubscriberImpl(metalogConfig, configCheck(config));
+    }
+    
+    @Override
+    public MappedFileSubscriber create(Consumer<MappedFileSubscriber.Config.Builder> builderConsumer) {
+        final Consumer<MappedFileSubscriber.Config.Builder> validBuilderConsumer = builderConsumerCheck(builderConsumer);
+        final MappedFileConfigBuilderImpl builder = new MappedFileConfigBuilderImpl();
+        
+        validBuilderConsumer.accept(builder);
+        
+        return create(builder);
+    }
+    
+    MappedFileSubscriberFactoryImpl(Metalog.Config metalogConfig) {
+        this.metalogConfig = configCheck(metalogConfig);
+    }
+    
+    private final Metalog.Config metalogConfig;
+}
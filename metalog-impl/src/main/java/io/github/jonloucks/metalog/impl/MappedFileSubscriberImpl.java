@@ -0,0 +1,238 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.concurrency.api.Idempotent;
+import io.github.jonloucks.concurrency.api.StateMachine;
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.contracts.api.Contracts;
+import io.github.jonloucks.metalog.api.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+import static io.github.jonloucks.concurrency.api.Idempotent.withClose;
+import static io.github.jonloucks.concurrency.api.Idempotent.withOpen;
+import static io.github.jonloucks.contracts.api.Checks.configCheck;
+import static io.github.jonloucks.metalog.impl.Internal.logCheck;
+import static io.github.jonloucks.metalog.impl.Internal.metaCheck;
+import static io.github.jonloucks.metalog.impl.Internal.segmentSizeCheck;
+import static java.util.Optional.ofNullable;
+
+/**
+ * Appends log messages to memory-mapped segment files.
+ * Each received log message is handed to a keyed dispatcher of its own, so one worker thread writes the segments,
+ * in the order received. The next segment is created and mapped on a background thread while the current one fills up.
+ */
+final class MappedFileSubscriberImpl implements MappedFileSubscriber {
+    
+    @Override
+    public Outcome receive(Log log, Meta meta) {
+        final Log validLog = logCheck(log);
+        final Meta validMeta = metaCheck(meta);
+        if (stateMachine.getState().isRejecting()) {
+            return Outcome.REJECTED;
+        }
+        // the text is taken on the thread that receives it, a Metalog dispatcher worker for a dispatched publish,
+        // before the log message is queued again for this subscriber's own dispatcher, which never runs the Log
+        return dispatcher.dispatch(validMeta, new Write(validLog.get(), MetalogImpl.freeze(validMeta)));
+    }
+    
+    @Override
+    public boolean test(Meta meta) {
+        return filters.test(metaCheck(meta));
+    }
+    
+    @Override
+    public AutoClose addFilter(Predicate<Meta> filter) {
+        return filters.addFilter(filter);
+    }
+    
+    @Override
+    public Optional<Path> getSegment() {
+        return ofNullable(current).map(MappedSegment::getFile);
+    }
+    
+    @Override
+    public AutoClose open() {
+        return withOpen(stateMachine, this::realOpen);
+    }
+    
+    MappedFileSubscriberImpl(Metalog.Config metalogConfig, Config config) {
+        this.config = configCheck(config);
+        this.segmentSize = segmentSizeCheck(config.segmentSize());
+        this.contracts = metalogConfig.contracts();
+        this.stateMachine = Idempotent.createStateMachine(contracts);
+        // not from the keyed dispatcher contract, a striped dispatcher would spread the writes over many threads
+        this.dispatcher = new KeyedDispatcherImpl(metalogConfig);
+    }
+    
+    private AutoClose realOpen() {
+        encoder = contracts.claim(config.encoderFactory()).get();
+        createDirectory();
+        nextIndex = findLastIndex() + 1;
+        preparer = Executors.newSingleThreadExecutor(MappedFileSubscriberImpl::newPreparerThread);
+        current = MappedSegment.create(nextFile(), segmentSize);
+        next = prepareNext();
+        closeDispatcher = dispatcher.open();
+        return this::close;
+    }
+    
+    private void close() {
+        withClose(stateMachine, this::realClose);
+    }
+    
+    private void realClose() {
+        // writes what is still queued
+        closeDispatcher.close();
+        synchronized (this) {
+            closed = true;
+            if (null != current && current.isEmpty()) {
+                current.discard();
+            } else if (null != current) {
+                current.finish();
+            }
+            current = null;
+            final MappedSegment unused = takeNext();
+            if (null != unused) {
+                unused.discard();
+            }
+            preparer.shutdown();
+        }
+    }
+    
+    // only the dispatcher worker writes, the lock is uncontended unless a job runs on
+    // a caller thread, with the caller runs overflow policy or while closing
+    private synchronized void write(Log log, Meta meta) {
+        if (closed) {
+            return;
+        }
+        if (null != current && (encoder.encode(log, meta, current.getBuffer()) || current.isEmpty())) {
+            // written, or too large for any segment and dropped
+            return;
+        }
+        roll();
+        if (null != current) {
+            encoder.encode(log, meta, current.getBuffer());
+        }
+    }
+    
+    private void roll() {
+        if (null != current) {
+            current.finish();
+        }
+        current = takeNext();
+        next = prepareNext();
+        // each segment can be read on its own
+        encoder.reset();
+    }
+    
+    private Future<MappedSegment> prepareNext() {
+        final Path file = nextFile();
+        return preparer.submit(() -> MappedSegment.create(file, segmentSize));
+    }
+    
+    private MappedSegment takeNext() {
+        try {
+            return next.get();
+        } catch (InterruptedException thrown) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException thrown) {
+            // the segment could not be prepared, it is tried again with the next roll
+        }
+        return null;
+    }
+    
+    private Path nextFile() {
+        return config.directory().resolve(String.format("%s-%06d%s", config.prefix(), nextIndex++, config.suffix()));
+    }
+    
+    private void createDirectory() {
+        try {
+            Files.createDirectories(config.directory());
+        } catch (IOException thrown) {
+            throw new UncheckedIOException(thrown);
+        }
+    }
+    
+    private int findLastIndex() {
+        int last = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(config.directory())) {
+            for (Path file : files) {
+                last = Math.max(last, parseIndex(file.getFileName().toString()));
+            }
+        } catch (IOException thrown) {
+            throw new UncheckedIOException(thrown);
+        }
+        return last;
+    }
+    
+    private int parseIndex(String fileName) {
+        final int start = config.prefix().length() + 1;
+        final int end = fileName.length() - config.suffix().length();
+        if (end <= start || !fileName.startsWith(config.prefix() + "-") || !fileName.endsWith(config.suffix())) {
+            return 0;
+        }
+        for (int i = start; i < end; i++) {
+            if (!Character.isDigit(fileName.charAt(i))) {
+                return 0;
+            }
+        }
+        try {
+            return Integer.parseInt(fileName.substring(start, end));
+        } catch (NumberFormatException thrown) {
+            return 0;
+        }
+    }
+    
+    private static Thread newPreparerThread(Runnable runnable) {
+        final Thread thread = new Thread(runnable, "Metalog Mapped File Preparer");
+        thread.setDaemon(true);
+        return thread;
+    }
+    
+    /**
+     * A received log message waiting for the writer, with the text it had when received
+     */
+    private final class Write implements Runnable, Log {
+        
+        @Override
+        public void run() {
+            write(this, meta);
+        }
+        
+        @Override
+        public CharSequence get() {
+            return text;
+        }
+        
+        private Write(CharSequence text, Meta meta) {
+            this.text = text;
+            this.meta = meta;
+        }
+        
+        private final CharSequence text;
+        private final Meta meta;
+    }
+    
+    private final Config config;
+    private final int segmentSize;
+    private final Contracts contracts;
+    private final StateMachine<Idempotent> stateMachine;
+    private final KeyedDispatcherImpl dispatcher;
+    private final Filterable filters = new FiltersImpl();
+    private AutoClose closeDispatcher;
+    private ExecutorService preparer;
+    private Encoder encoder;
+    private int nextIndex;
+    private boolean closed;
+    private volatile MappedSegment current;
+    private Future<MappedSegment> next;
+}
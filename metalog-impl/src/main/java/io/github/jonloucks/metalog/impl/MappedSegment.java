@@ -0,0 +1,117 @@
+package io.github.jonloucks.metalog.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * One memory-mapped segment file of a {@link MappedFileSubscriberImpl}.
+ * Creating it allocates and maps the whole file, so writing into it later does not touch the file system.
+ */
+final class MappedSegment {
+    
+    /**
+     * Create, allocate and map a new segment file
+     * @param file the file, it must not exist yet
+     * @param size the size of the segment in bytes
+     * @return the new segment
+     */
+    static MappedSegment create(Path file, int size) {
+        try {
+            final FileChannel channel = FileChannel.open(file, CREATE_NEW, READ, WRITE);
+            try {
+                final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                preallocate(buffer);
+                return new MappedSegment(file, channel, buffer);
+            } catch (IOException | RuntimeException thrown) {
+                channel.close();
+                Files.deleteIfExists(file);
+                throw thrown;
+            }
+        } catch (IOException thrown) {
+            throw new UncheckedIOException(thrown);
+        }
+    }
+    
+    /**
+     * @return the file of the segment
+     */
+    Path getFile() {
+        return file;
+    }
+    
+    /**
+     * @return the mapped bytes, the position is where the next log message goes
+     */
+    MappedByteBuffer getBuffer() {
+        return buffer;
+    }
+    
+    /**
+     * @return true if nothing has been written to the segment
+     */
+    boolean isEmpty() {
+        return buffer.position() == 0;
+    }
+    
+    /**
+     * Trim the file to the bytes written and close it.
+     * The mapping itself is released by the garbage collector.
+     */
+    void finish() {
+        try {
+            // can fail on platforms that do not truncate mapped files, the rest of the file is then zeros
+            channel.truncate(buffer.position());
+        } catch (IOException ignore) {
+            
+        } finally {
+            closeChannel();
+        }
+    }
+    
+    /**
+     * Close and delete a segment nothing was written to
+     */
+    void discard() {
+        closeChannel();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignore) {
+            
+        }
+    }
+    
+    private MappedSegment(Path file, FileChannel channel, MappedByteBuffer buffer) {
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+    
+    private static void preallocate(MappedByteBuffer buffer) {
+        // touching a byte per page has the file system allocate the pages now instead of on the first write
+        for (int i = 0, n = buffer.capacity(); i < n; i += PAGE_SIZE) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+    
+    private void closeChannel() {
+        try {
+            channel.close();
+        } catch (IOException ignore) {
+            
+        }
+    }
+    
+    private static final int PAGE_SIZE = 4096;
+    
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+}
@@ -0,0 +1,14 @@
+package io.github.jonloucks.metalog.impl;
+
+/**
+ * Work that measures its own latency when {@link io.github.jonloucks.metalog.api.Metalog.Config#measureLatency()}.
+ * The dispatcher queueing it says where to record the time until it starts running.
+ */
+interface MeasuredWork {
+    
+    /**
+     * Invoked before the work is queued, so it is seen by the thread running it
+     * @param dispatcherLatency the latency of the dispatcher queueing the work
+     */
+    void measuredBy(LatencyHistogram dispatcherLatency);
+}
@@ -5,13 +5,23 @@ import io.github.jonloucks.metalog.api.Entity;
 import io.github.jonloucks.metalog.api.Meta;
 
 import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
+import static io.github.jonloucks.contracts.api.Checks.builderConsumerCheck;
 import static io.github.jonloucks.contracts.api.Checks.typeCheck;
 import static io.github.jonloucks.metalog.impl.Internal.*;
 
+/**
+ * Time, thread and thrown are kept in fields instead of as correlated entities,
+ * they are only turned into entities when all the correlations are asked for.
+ * The correlations copied from a template are shared with it and only copied
+ * if they have to be changed.
+ */
 final class MetaImpl implements Meta.Builder<MetaImpl>, Entity.Builder<MetaImpl> {
 
     @Override
@@ -27,7 +37,8 @@ final class MetaImpl implements Meta.Builder<MetaImpl>, Entity.Builder<MetaImpl>
     
     @Override
     public MetaImpl key(String key) {
-        this.key = key;
+        // kept as an Optional so getKey() does not allocate on every publish
+        this.key = Optional.ofNullable(key);
         return this;
     }
     
@@ -39,17 +50,20 @@ final class MetaImpl implements Meta.Builder<MetaImpl>, Entity.Builder<MetaImpl>
     
     @Override
     public MetaImpl thread(Thread thread) {
-        return setUniqueEntity(THREAD_ENTITY_NAME, thread);
+        this.thread = thread;
+        return removeCorrelatedSlot(THREAD_ENTITY_NAME);
     }
     
     @Override
     public MetaImpl thrown(Throwable thrown) {
-        return setUniqueEntity(THROWN_ENTITY_NAME, thrown);
+        this.thrown = thrown;
+        return removeCorrelatedSlot(THROWN_ENTITY_NAME);
     }
     
     @Override
     public MetaImpl time(Temporal timestamp) {
-        return setUniqueEntity(TIME_ENTITY_NAME, timestamp);
+        this.time = timestamp;
+        return removeCorrelatedSlot(TIME_ENTITY_NAME);
     }
     
     @Override
@@ -59,22 +73,22 @@ final class MetaImpl implements Meta.Builder<MetaImpl>, Entity.Builder<MetaImpl>
     
     @Override
     public Optional<Temporal> getTime() {
-        return getUniqueEntity(TIME_ENTITY_NAME, Temporal.class);
+        return null == time ? getCorrelatedSlot(TIME_ENTITY_NAME, Temporal.class) : Optional.of(time);
     }
     
     @Override
     public Optional<Throwable> getThrown() {
-        return getUniqueEntity(THROWN_ENTITY_NAME, Throwable.class);
+        return null == thrown ? getCorrelatedSlot(THROWN_ENTITY_NAME, Throwable.class) : Optional.of(thrown);
     }
     
     @Override
     public Optional<Thread> getThread() {
-        return getUniqueEntity(THREAD_ENTITY_NAME, Thread.class);
+        return null == thread ? getCorrelatedSlot(THREAD_ENTITY_NAME, Thread.class) : Optional.of(thread);
     }
     
     @Override
     public Optional<String> getKey() {
-        return Optional.ofNullable(key);
+        return key;
     }
 
     @Override
@@ -99,7 +113,15 @@ final class MetaImpl implements Meta.Builder<MetaImpl>, Entity.Builder<MetaImpl>
     
     @Override
     public Optional<Entities> getCorrelations() {
-        return thisEntity.getCorrelations();
+        if (null == time && null == thread && null == thrown && inherited.length == 0) {
+            return thisEntity.getCorrelations();
+        }
+        final EntitiesImpl correlations = new EntitiesImpl();
+        for (Entity correlation : mergeCorrelations()) {
+            correlations.entity(correlation);
+        }
+        addSlotEntities(correlations);
+        return Optional.of(correlations);
     }
     
     @Override
@@ -133,19 +155,32 @@ final class MetaImpl implements Meta.Builder<MetaImpl>, Entity.Builder<MetaImpl>
     
     @Override
     public MetaImpl correlation(Consumer<Entity.Builder<?>> builderConsumer) {
-        thisEntity.correlation(builderConsumer);
-        return this;
+        final EntityImpl builder = new EntityImpl();
+        builderConsumerCheck(builderConsumer).accept(builder);
+        return correlation(builder);
     }
     
     @Override
     public MetaImpl correlation(Entity entity) {
         thisEntity.correlation(entity);
+        if (entity.isUnique()) {
+            // the correlation added last wins, same as when the slots were correlations
+            entity.getName().ifPresent(this::yieldSlot);
+        }
         return this;
     }
     
     @Override
     public MetaImpl correlations(Consumer<Entities.Builder<?>> builderConsumer) {
-        thisEntity.correlations(builderConsumer);
+        final Consumer<Entities.Builder<?>> validBuilderConsumer = builderConsumerCheck(builderConsumer);
+        // the consumer may look for or remove them, so they are correlations from now on
+        ownInheritedCorrelations();
+        thisEntity.correlations(this::addSlotEntities);
+        time = null;
+        thread = null;
+        thrown = null;
+        slotsCorrelated = true;
+        thisEntity.correlations(validBuilderConsumer);
         return this;
     }
     
@@ -153,7 +188,16 @@ final class MetaImpl implements Meta.Builder<MetaImpl>, Entity.Builder<MetaImpl>
     public MetaImpl copy(Meta fromMeta) {
         final Meta validFromMeta = metaCheck(fromMeta);
         
-        thisEntity.copy(validFromMeta);
+        if (validFromMeta instanceof FrozenMeta) {
+            copyTemplate((FrozenMeta) validFromMeta);
+        } else if (validFromMeta instanceof MetaImpl) {
+            final MetaImpl fromMetaImpl = (MetaImpl) validFromMeta;
+            inheritCorrelations(fromMetaImpl.inherited, false);
+            copyEntity(fromMetaImpl.thisEntity, fromMetaImpl.slotsCorrelated);
+            copySlots(fromMetaImpl);
+        } else {
+            copyEntity(validFromMeta, validFromMeta.getCorrelations().isPresent());
+        }
         
         block(validFromMeta.isBlocking());
         channel(validFromMeta.getChannel());
@@ -164,10 +208,16 @@ final class MetaImpl implements Meta.Builder<MetaImpl>, Entity.Builder<MetaImpl>
     
     @Override
     public MetaImpl copy(Entity entity) {
-        thisEntity.copy(entity);
+        final Entity validEntity = entityCheck(entity);
+        copyEntity(validEntity, validEntity.getCorrelations().isPresent());
         return this;
     }
     
+    @Override
+    public Meta template() {
+        return freeze();
+    }
+    
     @Override
     public MetaImpl id(String id) {
         thisEntity.id(id);
@@ -177,16 +227,199 @@ final class MetaImpl implements Meta.Builder<MetaImpl>, Entity.Builder<MetaImpl>
     MetaImpl() {
     }
     
-    private <T> MetaImpl setUniqueEntity(String name, T value) {
-        if (value == null) {
-            return correlations( b -> b.removeIf(byName(name).and(byUnique())));
-        } else {
-            return correlation(b -> b.unique().name(name).value(value));
+    /**
+     * @return the thread's pooled builder, or a new one if the pooled builder is in use
+     */
+    static MetaImpl acquire() {
+        final MetaImpl pooled = POOLED.get();
+        if (pooled.inUse) {
+            return new MetaImpl();
         }
+        pooled.inUse = true;
+        return pooled;
+    }
+    
+    /**
+     * Reset the builder so the thread can reuse it
+     */
+    void release() {
+        block = false;
+        key = Optional.empty();
+        channel = Meta.DEFAULT.getChannel();
+        time = null;
+        thread = null;
+        thrown = null;
+        slotsCorrelated = false;
+        inherited = NO_CORRELATIONS;
+        thisEntity.reset();
+        inUse = false;
+    }
+    
+    /**
+     * @return an immutable copy, safe to read from any thread while this builder changes
+     */
+    Meta freeze() {
+        return new FrozenMeta(this, thisEntity.getTextSupplier(), mergeCorrelations(), time, thread, thrown);
+    }
+    
+    static void addSlotEntities(Entities.Builder<?> entities, Temporal time, Thread thread, Throwable thrown) {
+        addSlotEntity(entities, TIME_ENTITY_NAME, time);
+        addSlotEntity(entities, THREAD_ENTITY_NAME, thread);
+        addSlotEntity(entities, THROWN_ENTITY_NAME, thrown);
     }
     
-    private <T> Optional<T> getUniqueEntity(String name, Class<T> type) {
-        final Optional<Entities> optional = getCorrelations();
+    static boolean hasSlotName(Entity[] correlations) {
+        for (Entity correlation : correlations) {
+            if (correlation.isUnique() && correlation.getName().filter(MetaImpl::isSlotName).isPresent()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void copyEntity(Entity entity, boolean mayCorrelateSlots) {
+        thisEntity.copy(entity);
+        if (mayCorrelateSlots) {
+            yieldSlot(TIME_ENTITY_NAME);
+            yieldSlot(THREAD_ENTITY_NAME);
+            yieldSlot(THROWN_ENTITY_NAME);
+        }
+    }
+    
+    private void copyTemplate(FrozenMeta template) {
+        inheritCorrelations(template.getCorrelationArray(), template.hasSlotName());
+        unique(template.isUnique());
+        template.getId().ifPresent(this::id);
+        template.getName().ifPresent(this::name);
+        template.getValue().ifPresent(this::value);
+        template.getTime().ifPresent(this::time);
+        template.getThread().ifPresent(this::thread);
+        template.getThrown().ifPresent(this::thrown);
+    }
+    
+    private void inheritCorrelations(Entity[] correlations, boolean hasSlotName) {
+        if (correlations.length == 0) {
+            return;
+        }
+        if (inherited.length == 0 && !thisEntity.getCorrelations().isPresent() && !hasSlotName) {
+            // nothing to merge with, share them until they have to change
+            inherited = correlations;
+            return;
+        }
+        for (Entity correlation : correlations) {
+            correlation(correlation);
+        }
+    }
+    
+    /**
+     * Copy the inherited correlations so they can be changed
+     */
+    private void ownInheritedCorrelations() {
+        if (inherited.length == 0) {
+            return;
+        }
+        final Entity[] merged = mergeCorrelations();
+        inherited = NO_CORRELATIONS;
+        thisEntity.correlations(b -> {
+            b.removeIf(e -> true);
+            for (Entity correlation : merged) {
+                b.entity(correlation);
+            }
+        });
+    }
+    
+    /**
+     * @return the inherited correlations not replaced by a unique correlation of this builder, followed by its own
+     */
+    private Entity[] mergeCorrelations() {
+        final Entity[] own = thisEntity.correlationsToArray();
+        if (inherited.length == 0) {
+            return own;
+        }
+        if (own.length == 0) {
+            return inherited;
+        }
+        final List<Entity> merged = new ArrayList<>(inherited.length + own.length);
+        for (Entity correlation : inherited) {
+            if (!isReplaced(correlation, own)) {
+                merged.add(correlation);
+            }
+        }
+        merged.addAll(Arrays.asList(own));
+        return merged.toArray(NO_CORRELATIONS);
+    }
+    
+    private static boolean isReplaced(Entity inheritedCorrelation, Entity[] own) {
+        if (!inheritedCorrelation.isUnique() || !inheritedCorrelation.getName().isPresent()) {
+            return false;
+        }
+        final String name = inheritedCorrelation.getName().get();
+        for (Entity correlation : own) {
+            if (correlation.isUnique() && correlation.getName().filter(name::equals).isPresent()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void copySlots(MetaImpl fromMeta) {
+        if (null != fromMeta.time) {
+            time(fromMeta.time);
+        }
+        if (null != fromMeta.thread) {
+            thread(fromMeta.thread);
+        }
+        if (null != fromMeta.thrown) {
+            thrown(fromMeta.thrown);
+        }
+    }
+    
+    private void addSlotEntities(Entities.Builder<?> entities) {
+        addSlotEntities(entities, time, thread, thrown);
+    }
+    
+    private static void addSlotEntity(Entities.Builder<?> entities, String name, Object value) {
+        if (null != value) {
+            entities.entity(new EntityImpl().unique(true).name(name).value(value));
+        }
+    }
+    
+    /**
+     * A correlation with the name of a slot was added, it replaces the slot
+     */
+    private void yieldSlot(String name) {
+        if (!isSlotName(name)) {
+            return;
+        }
+        slotsCorrelated = true;
+        if (getUniqueCorrelation(name, Object.class).isPresent()) {
+            switch (name) {
+                case TIME_ENTITY_NAME:
+                    time = null;
+                    break;
+                case THREAD_ENTITY_NAME:
+                    thread = null;
+                    break;
+                default:
+                    thrown = null;
+                    break;
+            }
+        }
+    }
+    
+    private MetaImpl removeCorrelatedSlot(String name) {
+        if (slotsCorrelated) {
+            thisEntity.correlations(b -> b.removeIf(byName(name).and(byUnique())));
+        }
+        return this;
+    }
+    
+    private <T> Optional<T> getCorrelatedSlot(String name, Class<T> type) {
+        return slotsCorrelated ? getUniqueCorrelation(name, type) : Optional.empty();
+    }
+    
+    private <T> Optional<T> getUniqueCorrelation(String name, Class<T> type) {
+        final Optional<Entities> optional = thisEntity.getCorrelations();
         if (optional.isPresent()) {
             final Entities entities = optional.get();
             return entities.findFirstValueWithType(byName(name).and(byUnique()), typeCheck(type));
@@ -194,12 +427,26 @@ final class MetaImpl implements Meta.Builder<MetaImpl>, Entity.Builder<MetaImpl>
         return Optional.empty();
     }
     
+    private static boolean isSlotName(String name) {
+        return TIME_ENTITY_NAME.equals(name) || THREAD_ENTITY_NAME.equals(name) || THROWN_ENTITY_NAME.equals(name);
+    }
+    
     private static final String THROWN_ENTITY_NAME = "thrown";
     private static final String TIME_ENTITY_NAME = "time";
     private static final String THREAD_ENTITY_NAME = "thread";
+    private static final ThreadLocal<MetaImpl> POOLED = ThreadLocal.withInitial(MetaImpl::new);
+    private static final Entity[] NO_CORRELATIONS = new Entity[0];
     
     private boolean block;
-    private String key;
+    private Optional<String> key = Optional.empty();
     private String channel = Meta.DEFAULT.getChannel();
+    private Temporal time;
+    private Thread thread;
+    private Throwable thrown;
+    // true once a correlation may carry a slot name, until then the correlations are never searched for one
+    private boolean slotsCorrelated;
+    private boolean inUse;
+    // shared with the template they were copied from, never changed
+    private Entity[] inherited = NO_CORRELATIONS;
     private final EntityImpl thisEntity = new EntityImpl();
 }
@@ -92,6 +92,13 @@ public final class MetalogFactoryImpl implements MetalogFactory {
         return candidateConfig;
     }
     
+    private static Dispatcher createKeyedDispatcher(Metalog.Config config) {
+        if (config.keyedStripeCount() > 0) {
+            return new StripedDispatcherImpl(config);
+        }
+        return new KeyedDispatcherImpl(config);
+    }
+    
     private void installCore(Metalog.Config config, Repository repository) {
   
         repository.require(Repository.FACTORY);
@@ -104,8 +111,16 @@ public final class MetalogFactoryImpl implements MetalogFactory {
         repository.keep(Meta.Builder.FACTORY, () -> MetaImpl::new, IF_NOT_BOUND);
         
         repository.keep(MetalogFactory.CONTRACT, lifeCycle(MetalogFactoryImpl::new), IF_NOT_BOUND);
-        repository.keep(Dispatcher.KEYED_FACTORY, () -> () -> new KeyedDispatcherImpl(config), IF_NOT_BOUND);
+        repository.keep(Dispatcher.KEYED_FACTORY, () -> () -> createKeyedDispatcher(config), IF_NOT_BOUND);
         repository.keep(Dispatcher.UNKEYED_FACTORY, () -> ()-> new UnkeyedDispatcherImpl(config), IF_NOT_BOUND);
         repository.keep(Console.CONTRACT, lifeCycle(() -> new ConsoleImpl(config)), IF_NOT_BOUND);
+        repository.keep(Encoder.TEXT_FACTORY, () -> TextEncoderImpl::new, IF_NOT_BOUND);
+        repository.keep(Encoder.BINARY_FACTORY, () -> BinaryEncoderImpl::new, IF_NOT_BOUND);
+        repository.keep(Decoder.BINARY_FACTORY, () -> BinaryDecoderImpl::new, IF_NOT_BOUND);
+        repository.keep(JsonEncoder.FACTORY, () -> JsonEncoderImpl::new, IF_NOT_BOUND);
+        repository.keep(MappedFileSubscriber.FACTORY, () -> new MappedFileSubscriberFactoryImpl(config), IF_NOT_BOUND);
+        repository.keep(DurableFileSubscriber.FACTORY, () -> new DurableFileSubscriberFactoryImpl(config), IF_NOT_BOUND);
+        repository.keep(FlightRecorder.FACTORY, () -> new FlightRecorderFactoryImpl(config), IF_NOT_BOUND);
+        repository.keep(RecentEventsSubscriber.FACTORY, () -> new RecentEventsSubscriberFactoryImpl(config), IF_NOT_BOUND);
     }
 }
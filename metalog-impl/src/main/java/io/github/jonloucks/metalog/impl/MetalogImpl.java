@@ -5,11 +5,16 @@ import io.github.jonloucks.concurrency.api.StateMachine;
 import io.github.jonloucks.contracts.api.*;
 import io.github.jonloucks.metalog.api.*;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -25,46 +30,81 @@ final class MetalogImpl implements Metalog {
     
     @Override
     public Outcome publish(Log log, Meta meta) {
-        final Log validLog = new InvokeOnlyOnce(log);
-        final Meta validMeta = metaCheck(meta);
-        
-        if (stateMachine.getState().isRejecting()) {
-            return Outcome.REJECTED;
-        }
-        
-        if (test(validMeta)) {
-            if (shouldTransmitNow(validMeta)) {
-                return transmitNow(validLog, validMeta);
-            } else {
-                return relayToDispatcher(validMeta, validLog);
-            }
-        } else {
-            return Outcome.SKIPPED;
-        }
+        return publish(logCheck(log), metaCheck(meta), false);
     }
     
     @Override
     public Outcome publish(Log log, Consumer<Meta.Builder<?>> builderConsumer) {
-        final Meta.Builder<?> metaBuilder = metaFactory.get();
-        builderConsumerCheck(builderConsumer).accept(metaBuilder);
-        return publish(logCheck(log), metaBuilder);
+        final Consumer<Meta.Builder<?>> validBuilderConsumer = builderConsumerCheck(builderConsumer);
+        if (!poolMetaBuilders) {
+            final Meta.Builder<?> metaBuilder = metaFactory.get();
+            validBuilderConsumer.accept(metaBuilder);
+            return publish(logCheck(log), metaBuilder, false);
+        }
+        final MetaImpl metaBuilder = MetaImpl.acquire();
+        try {
+            validBuilderConsumer.accept(metaBuilder);
+            return publish(logCheck(log), metaBuilder, true);
+        } finally {
+            metaBuilder.release();
+        }
     }
 
     @Override
     public AutoClose addFilter(Predicate<Meta> filter) {
-        return filters.addFilter(filter);
+        final AutoClose removeFilter = filters.addFilter(filter);
+        decisions.invalidate();
+        return () -> {
+            removeFilter.close();
+            decisions.invalidate();
+        };
+    }
+    
+    @Override
+    public boolean isEnabled(String channel) {
+        return isEnabled(channel, UNKEYED);
+    }
+    
+    @Override
+    public boolean isEnabled(String channel, String key) {
+        final String validChannel = channelCheck(channel);
+        final String validKey = keyCheck(key);
+        if (stateMachine.getState().isRejecting()) {
+            return false;
+        }
+        return decisions.isEnabled(validChannel, validKey);
     }
     
     @Override
     public boolean test(Meta meta) {
-        return filters.test(meta) && subscribers.stream().anyMatch(s -> s.test(meta));
+        final Meta validMeta = metaCheck(meta);
+        return test(routes.forChannel(validMeta.getChannel()), validMeta);
     }
     
     @Override
     public AutoClose subscribe(Subscriber subscriber) {
         final Subscriber validSubscriber = subscriberCheck(subscriber);
-        subscribers.add(validSubscriber);
-        return () -> subscribers.removeIf( x -> x == validSubscriber);
+        synchronized (subscribers) {
+            subscribers.add(validSubscriber);
+            routes = new SubscriberRoutes(subscribers);
+            meters = rebuildMeters();
+            decisions.invalidate();
+        }
+        return () -> unsubscribe(validSubscriber);
+    }
+
+    @Override
+    public Statistics getStatistics() {
+        final StatisticsImpl statistics = new StatisticsImpl(outcomeCounts, latency);
+        // the dispatchers are only live while open
+        if (!stateMachine.getState().isRejecting()) {
+            statistics.observe(UNKEYED_DISPATCHER_NAME, unkeyedDispatcher);
+            statistics.observe(keyedDispatcherName, keyedDispatcher);
+        }
+        if (null != latency) {
+            observeSubscriptions(statistics);
+        }
+        return statistics;
     }
 
     @Override
@@ -77,22 +117,38 @@ final class MetalogImpl implements Metalog {
         this.repository = nullCheck(repository, "Repository must be present.");
         this.closeRepository = openRepository ? repository.open() : AutoClose.NONE;
         this.stateMachine = Idempotent.createStateMachine(config.contracts());
+        this.latency = config.measureLatency() ? new LatencyHistogram() : null;
+        for (int i = 0; i < outcomeCounts.length; i++) {
+            outcomeCounts[i] = new LongAdder();
+        }
     }
     
     private AutoClose realOpen() {
         metaFactory = config.contracts().claim(Meta.Builder.FACTORY);
+        // only the built-in builders can be reset and reused
+        poolMetaBuilders = metaFactory.get() instanceof MetaImpl;
         keyedDispatcherFactory = config.contracts().claim(Dispatcher.KEYED_FACTORY);
         unkeyedDispatcherFactory = config.contracts().claim(Dispatcher.UNKEYED_FACTORY);
-        createUnkeyedDispatcher();
+        createDispatchers();
         activateConsole();
         return this::close;
     }
 
-    private void createUnkeyedDispatcher() {
-        final Contracts contracts = config.contracts();
-        final Contract<Dispatcher> contract = Contract.create(Dispatcher.class, n -> n.name("Unkeyed Dispatcher"));
-        repository.keep(contract, lifeCycle(unkeyedDispatcherFactory::get));
-        dispatchers.put(UNKEYED, contracts.claim(contract));
+    private void createDispatchers() {
+        unkeyedDispatcher = keepDispatcher(UNKEYED_DISPATCHER_NAME, unkeyedDispatcherFactory);
+        if (config.keyedStripeCount() > 0) {
+            keyedDispatcherName = "Striped Keyed Dispatcher";
+            keyedDispatcher = keepDispatcher(keyedDispatcherName, keyedDispatcherFactory);
+        } else {
+            keyedDispatcherName = "Keyed Dispatchers";
+            keyedDispatcher = keepDispatcher(keyedDispatcherName, () -> new PerKeyDispatcherImpl(config, keyedDispatcherFactory));
+        }
+    }
+    
+    private Dispatcher keepDispatcher(String name, Supplier<Dispatcher> dispatcherFactory) {
+        final Contract<Dispatcher> contract = Contract.create(Dispatcher.class, n -> n.name(name));
+        repository.keep(contract, lifeCycle(dispatcherFactory::get));
+        return config.contracts().claim(contract);
     }
     
     private void activateConsole() {
@@ -104,36 +160,133 @@ final class MetalogImpl implements Metalog {
     }
     
     private void realClose() {
+        decisions.invalidate();
         closeRepository.close();
     }
     
+    private Outcome publish(Log checkedLog, Meta validMeta, boolean pooledMeta) {
+        final Outcome outcome = route(checkedLog, validMeta, pooledMeta);
+        // a subscriber that breaks the contract is not counted
+        if (null != outcome) {
+            outcomeCounts[outcome.ordinal()].increment();
+        }
+        return outcome;
+    }
+    
+    private Outcome route(Log checkedLog, Meta validMeta, boolean pooledMeta) {
+        if (stateMachine.getState().isRejecting()) {
+            return Outcome.REJECTED;
+        }
+        
+        // nothing is allocated for log messages nobody receives.
+        // not decided by the decision cache, the filters may look at more than the channel and key
+        final Subscriber[] routed = routes.forChannel(validMeta.getChannel());
+        if (test(routed, validMeta)) {
+            if (shouldTransmitNow(validMeta)) {
+                // a pooled builder is reset when publish returns, but subscribers may keep the meta
+                return transmitNow(routed, checkedLog, pooledMeta ? freeze(validMeta) : validMeta);
+            } else {
+                return relayToDispatcher(routed, freeze(validMeta), checkedLog);
+            }
+        } else {
+            return Outcome.SKIPPED;
+        }
+    }
+    
+    private boolean decide(String channel, String key) {
+        return test(routes.forChannel(channel), new ProbeMeta(channel, key));
+    }
+    
     private boolean shouldTransmitNow(Meta meta) {
         return meta.isBlocking() || onDispatchingThread();
     }
     
-    private Outcome relayToDispatcher(Meta meta, Log log) {
-        final Dispatcher dispatcher = chooseDispatcher(meta);
-        final AtomicReference<Outcome> outcomeReference = new AtomicReference<>(Outcome.SKIPPED);
-        
-        subscribers.forEach(subscriber -> {
+    private void unsubscribe(Subscriber subscriber) {
+        synchronized (subscribers) {
+            if (subscribers.removeIf(x -> x == subscriber)) {
+                routes = new SubscriberRoutes(subscribers);
+                meters = rebuildMeters();
+                decisions.invalidate();
+            }
+        }
+    }
+    
+    /**
+     * @return the meters of the current subscribers, keeping the measurements of the remaining ones
+     */
+    private Map<Subscriber, SubscriptionMeter> rebuildMeters() {
+        if (null == latency) {
+            return meters;
+        }
+        final Map<Subscriber, SubscriptionMeter> rebuilt = new IdentityHashMap<>();
+        for (Subscriber subscriber : subscribers) {
+            final SubscriptionMeter meter = meters.get(subscriber);
+            rebuilt.put(subscriber, null == meter ? new SubscriptionMeter(subscriber) : meter);
+        }
+        return rebuilt;
+    }
+    
+    private void observeSubscriptions(StatisticsImpl statistics) {
+        synchronized (subscribers) {
+            final Map<Subscriber, SubscriptionMeter> currentMeters = meters;
+            final Set<Subscriber> observed = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Subscriber subscriber : subscribers) {
+                if (observed.add(subscriber)) {
+                    currentMeters.get(subscriber).observe(statistics);
+                }
+            }
+        }
+    }
+    
+    private boolean test(Subscriber[] routed, Meta meta) {
+        return anyMatch(routed, meta) && filters.test(meta);
+    }
+    
+    private static boolean anyMatch(Subscriber[] routed, Meta meta) {
+        for (Subscriber subscriber : routed) {
             if (subscriber.test(meta)) {
-                outcomeReference.set(relayWithContext(subscriber, dispatcher, meta, log));
+                return true;
             }
-        });
-        
-        return outcomeReference.get();
+        }
+        return false;
     }
     
-    private Outcome relayWithContext(Subscriber subscriber, Dispatcher dispatcher, Meta meta, Log log) {
-        return dispatcher.dispatch(meta,  () -> {
-            final Map<String,Object> context = THREAD_CONTEXT.get();
-            final Object oldValue = context.put(DISPATCHING_PROPERTY, true);
-            try {
-                subscriber.receive(log, meta);
-            } finally {
-                context.put(DISPATCHING_PROPERTY, oldValue);
+    private Outcome relayToDispatcher(Subscriber[] routed, Meta meta, Log log) {
+        return chooseDispatcher(meta).dispatch(meta, new Envelope(routed, log, meta));
+    }
+    
+    private void receiveBatch(BatchSubscriber subscriber, List<Event> events) {
+        final Object oldValue = enterDispatching();
+        try {
+            final SubscriptionMeter meter = null == latency ? null : meters.get(subscriber);
+            if (null == meter) {
+                subscriber.receive(events);
+            } else {
+                receiveMeasuredBatch(subscriber, events, meter);
+            }
+        } finally {
+            exitDispatching(oldValue);
+        }
+    }
+    
+    private static void receiveMeasuredBatch(BatchSubscriber subscriber, List<Event> events, SubscriptionMeter meter) {
+        final long startNanos = System.nanoTime();
+        for (int i = 0, n = events.size(); i < n; i++) {
+            final Event event = events.get(i);
+            if (event instanceof Envelope) {
+                meter.recordLatency(startNanos - ((Envelope) event).publishedNanos);
             }
-        });
+        }
+        subscriber.receive(events);
+        meter.recordReceiveTime(System.nanoTime() - startNanos);
+    }
+    
+    private static Object enterDispatching() {
+        return THREAD_CONTEXT.get().put(DISPATCHING_PROPERTY, true);
+    }
+    
+    private static void exitDispatching(Object oldValue) {
+        THREAD_CONTEXT.get().put(DISPATCHING_PROPERTY, oldValue);
     }
     
     private boolean onDispatchingThread() {
@@ -141,38 +294,208 @@ final class MetalogImpl implements Metalog {
     }
     
     private Dispatcher chooseDispatcher(Meta meta) {
-        final String key = meta.getKey().orElse("");
-        return dispatchers.computeIfAbsent(key, this::createKeyedDispatcher);
+        final String key = meta.getKey().orElse(UNKEYED);
+        return UNKEYED.equals(key) ? unkeyedDispatcher : keyedDispatcher;
     }
     
-    private Dispatcher createKeyedDispatcher(String key) {
-        final Contract<Dispatcher> contract = Contract.create(Dispatcher.class, n -> n.name("Keyed Dispatcher " + key));
-        repository.keep(contract, lifeCycle(keyedDispatcherFactory::get));
-        return config.contracts().claim(contract);
+    /**
+     * @param log the log message received by a subscriber
+     * @return the log message as an Event that can be kept after receive returns, otherwise null
+     */
+    static Event keepableEvent(Log log) {
+        // an envelope is made for one dispatched log message and never reused
+        return log instanceof Envelope ? (Event) log : null;
     }
     
-    private Outcome transmitNow(Log log, Meta meta) {
-        final AtomicReference<Outcome> outcomeReference = new AtomicReference<>(Outcome.SKIPPED);
-        subscribers.forEach(subscriber -> {
+    static Meta freeze(Meta meta) {
+        // a builder can be changed or reused while the log message is still being delivered
+        return meta instanceof MetaImpl ? ((MetaImpl) meta).freeze() : meta;
+    }
+    
+    private static Outcome transmitNow(Subscriber[] routed, Log log, Meta meta) {
+        // not reused, a subscriber may keep the Log after receive returns
+        final Log onceLog = new InvokeOnlyOnce(log);
+        Outcome outcome = Outcome.SKIPPED;
+        for (Subscriber subscriber : routed) {
             if (subscriber.test(meta)) {
-                outcomeReference.set(subscriber.receive(log, meta));
+                outcome = subscriber.receive(onceLog, meta);
+            }
+        }
+        return outcome;
+    }
+    
+    /**
+     * One queued job per published log message.
+     * The dispatcher thread delivers it to every matching subscriber in subscription order,
+     * so a log message takes one queue slot no matter how many subscribers there are.
+     * It is also the Log the subscribers receive, invoking the published Log only once,
+     * so the envelope is the only allocation for a dispatched log message.
+     */
+    private final class Envelope implements Runnable, Event, Log, MeasuredWork {
+        
+        @Override
+        public void run() {
+            final Object oldValue = enterDispatching();
+            try {
+                if (null == latency) {
+                    deliver();
+                } else {
+                    deliverMeasured();
+                }
+            } finally {
+                exitDispatching(oldValue);
             }
-        });
-        return outcomeReference.get();
+        }
+        
+        @Override
+        public void measuredBy(LatencyHistogram dispatcherLatency) {
+            this.dispatcherLatency = dispatcherLatency;
+        }
+        
+        @Override
+        public synchronized CharSequence get() {
+            final Log referent = log;
+            if (null != referent) {
+                log = null;
+                text = referent.get();
+            }
+            return text;
+        }
+        
+        @Override
+        public Log getLog() {
+            return this;
+        }
+        
+        @Override
+        public Meta getMeta() {
+            return meta;
+        }
+        
+        private Envelope(Subscriber[] routed, Log log, Meta meta) {
+            this.routed = routed;
+            this.log = log;
+            this.meta = meta;
+            this.publishedNanos = null == latency ? 0L : System.nanoTime();
+        }
+        
+        private void deliver() {
+            for (Subscriber subscriber : routed) {
+                // one failing subscriber must not keep the log message from the others
+                try {
+                    if (subscriber.test(meta)) {
+                        deliverTo(subscriber);
+                    }
+                } catch (Throwable ignore) {
+                
+                }
+            }
+        }
+        
+        /**
+         * Same as deliver, stamping the time when delivery starts and just before and after each subscriber receives,
+         * so the time other subscribers take to test is not charged to the one receiving.
+         */
+        private void deliverMeasured() {
+            final long waitedNanos = System.nanoTime() - publishedNanos;
+            latency.record(waitedNanos);
+            if (null != dispatcherLatency) {
+                dispatcherLatency.record(waitedNanos);
+            }
+            final Map<Subscriber, SubscriptionMeter> currentMeters = meters;
+            for (Subscriber subscriber : routed) {
+                try {
+                    if (!subscriber.test(meta)) {
+                        continue;
+                    }
+                    final long startNanos = System.nanoTime();
+                    if (deliverTo(subscriber)) {
+                        final long receivedNanos = System.nanoTime();
+                        final SubscriptionMeter meter = currentMeters.get(subscriber);
+                        // null when unsubscribed since publish
+                        if (null != meter) {
+                            meter.record(startNanos - publishedNanos, receivedNanos - startNanos);
+                        }
+                    }
+                } catch (Throwable ignore) {
+                
+                }
+            }
+        }
+        
+        /**
+         * @return true if received now, false if it will be received with a batch
+         */
+        private boolean deliverTo(Subscriber subscriber) {
+            if (subscriber instanceof BatchSubscriber) {
+                final BatchSubscriber batchSubscriber = (BatchSubscriber) subscriber;
+                if (EventBatch.offer(batchSubscriber, this, batchReceiver)) {
+                    return false;
+                }
+            }
+            subscriber.receive(this, meta);
+            return true;
+        }
+        
+        private final Subscriber[] routed;
+        private final Meta meta;
+        private final long publishedNanos;
+        private LatencyHistogram dispatcherLatency;
+        private Log log;
+        private CharSequence text;
+    }
+    
+    /**
+     * The Meta the filters and subscribers decide on for {@link #isEnabled(String, String)}
+     */
+    private static final class ProbeMeta implements Meta {
+        
+        @Override
+        public CharSequence get() {
+            return "";
+        }
+        
+        @Override
+        public String getChannel() {
+            return channel;
+        }
+        
+        @Override
+        public Optional<String> getKey() {
+            return UNKEYED.equals(key) ? Optional.empty() : Optional.of(key);
+        }
+        
+        private ProbeMeta(String channel, String key) {
+            this.channel = channel;
+            this.key = key;
+        }
+        
+        private final String channel;
+        private final String key;
     }
     
     private static final ThreadLocal<Map<String, Object>> THREAD_CONTEXT = withInitial(LinkedHashMap::new);
     private static final String DISPATCHING_PROPERTY = "dispatching";
     private static final String UNKEYED = "";
+    private static final String UNKEYED_DISPATCHER_NAME = "Unkeyed Dispatcher";
     
     private final Config config;
     private final StateMachine<Idempotent> stateMachine;
     private final Repository repository;
     private final AutoClose closeRepository;
-    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private volatile SubscriberRoutes routes = SubscriberRoutes.EMPTY;
+    private final DecisionCache decisions = new DecisionCache(this::decide);
     private final Filterable filters = new FiltersImpl();
-    private final ConcurrentHashMap<String,Dispatcher> dispatchers = new ConcurrentHashMap<>();
+    private final BiConsumer<BatchSubscriber, List<Event>> batchReceiver = this::receiveBatch;
+    private final LongAdder[] outcomeCounts = new LongAdder[Outcome.values().length];
+    private final LatencyHistogram latency;
+    private volatile Map<Subscriber, SubscriptionMeter> meters = Map.of();
     private Supplier<Meta.Builder<?>> metaFactory;
+    private boolean poolMetaBuilders;
     private Supplier<Dispatcher> keyedDispatcherFactory;
     private Supplier<Dispatcher> unkeyedDispatcherFactory;
+    private Dispatcher unkeyedDispatcher;
+    private Dispatcher keyedDispatcher;
+    private String keyedDispatcherName;
 }
@@ -0,0 +1,14 @@
+package io.github.jonloucks.metalog.impl;
+
+/**
+ * A dispatcher that adds itself, and the dispatchers it owns, to a statistics snapshot.
+ * It must not block the publishers while doing so.
+ */
+interface ObservedDispatcher {
+    
+    /**
+     * @param name the name of the dispatcher
+     * @param statistics the snapshot being taken
+     */
+    void observe(String name, StatisticsImpl statistics);
+}
@@ -0,0 +1,281 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.concurrency.api.Idempotent;
+import io.github.jonloucks.concurrency.api.StateMachine;
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.contracts.api.AutoOpen;
+import io.github.jonloucks.metalog.api.Dispatcher;
+import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.api.Metalog;
+import io.github.jonloucks.metalog.api.Outcome;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static io.github.jonloucks.concurrency.api.Idempotent.withClose;
+import static io.github.jonloucks.concurrency.api.Idempotent.withOpen;
+import static io.github.jonloucks.contracts.api.Checks.nullCheck;
+import static io.github.jonloucks.metalog.impl.Internal.*;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Routes each key to a dedicated keyed dispatcher created on first use.
+ * <p>
+ * Dispatchers that have been idle longer than {@link Metalog.Config#keyedIdleTimeout()} are removed,
+ * and when {@link Metalog.Config#keyedDispatcherLimit()} is reached the least recently used of a
+ * small sample of dispatchers is removed to make room.
+ * Only a dispatcher known to have nothing queued or running is evicted, other implementations bound to
+ * {@link Dispatcher#KEYED_FACTORY} are kept until closed. An evicted dispatcher is retired first, so no new work can
+ * enter it, then removed, and closed on the sweeper thread so publishers never wait for a worker to stop.
+ * A returning key waits for the removal and gets a new dispatcher, keeping its messages in order.
+ * </p>
+ */
+final class PerKeyDispatcherImpl implements Dispatcher, AutoOpen, ObservedDispatcher {
+    
+    @Override
+    public AutoClose open() {
+        return withOpen(stateMachine, this::realOpen);
+    }
+    
+    @Override
+    public Outcome dispatch(Meta meta, Runnable work) {
+        final Meta validMeta = metaCheck(meta);
+        final Runnable validCommand = commandCheck(work);
+        if (stateMachine.getState().isRejecting()) {
+            validCommand.run();
+            return Outcome.CONSUMED;
+        }
+        final String key = validMeta.getKey().orElse("");
+        if (!evictionEnabled) {
+            final Entry entry = entries.get(key);
+            return (null == entry ? entries.computeIfAbsent(key, entryFactory) : entry).dispatcher.dispatch(validMeta, validCommand);
+        }
+        for (;;) {
+            final Entry entry = findOrCreateEntry(key);
+            if (entry.enter()) {
+                try {
+                    return entry.dispatcher.dispatch(validMeta, validCommand);
+                } finally {
+                    entry.exit();
+                }
+            }
+            // the entry is being checked for eviction, it is removed or reinstated shortly
+            LockSupport.parkNanos(RETIRED_WAIT_NANOS);
+        }
+    }
+    
+    @Override
+    public void observe(String name, StatisticsImpl statistics) {
+        // weakly consistent, keys added or evicted while observing may be missed
+        entries.forEach((key, entry) -> statistics.observe(name + " " + key, entry.dispatcher));
+    }
+    
+    PerKeyDispatcherImpl(Metalog.Config config, Supplier<Dispatcher> keyedDispatcherFactory) {
+        this.keyedDispatcherFactory = nullCheck(keyedDispatcherFactory, "Keyed dispatcher factory must be present.");
+        this.idleTimeoutNanos = config.keyedIdleTimeout().toNanos();
+        this.dispatcherLimit = config.keyedDispatcherLimit();
+        this.evictionEnabled = idleTimeoutNanos > 0 || dispatcherLimit < Integer.MAX_VALUE;
+        this.shutdownTimeout = config.shutdownTimeout();
+        this.stateMachine = Idempotent.createStateMachine(config.contracts());
+    }
+    
+    private AutoClose realOpen() {
+        if (evictionEnabled) {
+            sweeper = Executors.newSingleThreadScheduledExecutor(PerKeyDispatcherImpl::newSweeperThread);
+        }
+        if (idleTimeoutNanos > 0) {
+            final long period = Math.max(idleTimeoutNanos / 2, MINIMUM_SWEEP_NANOS);
+            sweeper.scheduleWithFixedDelay(this::evictIdle, period, period, NANOSECONDS);
+        }
+        return this::close;
+    }
+    
+    private void close() {
+        withClose(stateMachine, this::realClose);
+    }
+    
+    private void realClose() {
+        if (null != sweeper) {
+            // stops sweeping, evicted dispatchers still waiting to be closed are closed first
+            sweeper.shutdown();
+            runWithIgnore(() -> sweeper.awaitTermination(shutdownTimeout.toMillis(), MILLISECONDS));
+        }
+        entries.forEach((key, entry) -> {
+            entries.remove(key, entry);
+            entry.close();
+        });
+    }
+    
+    private Entry findOrCreateEntry(String key) {
+        final Entry entry = entries.get(key);
+        if (null != entry) {
+            return entry;
+        }
+        if (entries.size() >= dispatcherLimit) {
+            evictLeastRecentlyUsed();
+        }
+        return entries.computeIfAbsent(key, entryFactory);
+    }
+    
+    private Entry createEntry(String key) {
+        final Dispatcher dispatcher = keyedDispatcherFactory.get();
+        return new Entry(dispatcher, dispatcher.open());
+    }
+    
+    private void evictIdle() {
+        final long now = System.nanoTime();
+        entries.forEach((key, entry) -> {
+            if (entry.isIdle(now, idleTimeoutNanos) && entry.retire()) {
+                // a publisher may have slipped in between the idle check and retiring, it is out now
+                if (entry.isIdle(now, idleTimeoutNanos)) {
+                    evict(key, entry);
+                } else {
+                    entry.reinstate();
+                }
+            }
+        });
+    }
+    
+    private void evictLeastRecentlyUsed() {
+        final Map.Entry<String, Entry> oldest = sampleLeastRecentlyUsed();
+        // the limit is soft, if the sampled entry got busy another publisher will evict later
+        if (null != oldest && oldest.getValue().retire()) {
+            if (oldest.getValue().isQuiet()) {
+                evict(oldest.getKey(), oldest.getValue());
+            } else {
+                oldest.getValue().reinstate();
+            }
+        }
+    }
+    
+    /**
+     * Approximates least recently used by looking at a few entries, continuing where the last sample ended
+     * @return the least recently used quiet entry of the sample, null if none was quiet
+     */
+    private Map.Entry<String, Entry> sampleLeastRecentlyUsed() {
+        synchronized (sampleLock) {
+            Map.Entry<String, Entry> oldest = null;
+            boolean restarted = false;
+            for (int sampled = 0; sampled < LRU_SAMPLE_SIZE; sampled++) {
+                if (null == sampleCursor || !sampleCursor.hasNext()) {
+                    if (restarted) {
+                        break;
+                    }
+                    sampleCursor = entries.entrySet().iterator();
+                    restarted = true;
+                    if (!sampleCursor.hasNext()) {
+                        break;
+                    }
+                }
+                final Map.Entry<String, Entry> candidate = sampleCursor.next();
+                if (candidate.getValue().isQuiet()
+                    && (null == oldest || candidate.getValue().lastUsedNanos - oldest.getValue().lastUsedNanos < 0)) {
+                    oldest = candidate;
+                }
+            }
+            return oldest;
+        }
+    }
+    
+    /**
+     * Only invoked on a retired entry with nothing queued or running, so no work is left behind
+     */
+    private void evict(String key, Entry entry) {
+        entries.remove(key, entry);
+        try {
+            // stopping the worker may take a while, the publishers do not wait for it
+            sweeper.execute(entry::close);
+        } catch (RejectedExecutionException thrown) {
+            // shutting down
+            entry.close();
+        }
+    }
+    
+    private static Thread newSweeperThread(Runnable runnable) {
+        final Thread thread = new Thread(runnable, "Metalog Keyed Dispatcher Sweeper");
+        thread.setDaemon(true);
+        return thread;
+    }
+    
+    private static final class Entry {
+        
+        private Entry(Dispatcher dispatcher, AutoClose closeDispatcher) {
+            this.dispatcher = dispatcher;
+            this.closeDispatcher = closeDispatcher;
+        }
+        
+        private boolean enter() {
+            for (int current = users.get(); current >= 0; current = users.get()) {
+                if (users.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        private void exit() {
+            lastUsedNanos = System.nanoTime();
+            users.decrementAndGet();
+        }
+        
+        private boolean retire() {
+            return users.compareAndSet(0, RETIRED);
+        }
+        
+        private void reinstate() {
+            users.set(0);
+        }
+        
+        /**
+         * Deliberately ignores the users, it is also checked after retiring
+         */
+        private boolean isIdle(long now, long idleTimeoutNanos) {
+            return now - lastUsedNanos >= idleTimeoutNanos && isQuiet();
+        }
+        
+        /**
+         * A dispatcher bound in place of {@link KeyedDispatcherImpl} can't tell, so it is never quiet and never evicted
+         * @return true if nothing is queued or running
+         */
+        private boolean isQuiet() {
+            return dispatcher instanceof KeyedDispatcherImpl && ((KeyedDispatcherImpl) dispatcher).isIdle();
+        }
+        
+        private void close() {
+            runWithIgnore(closeDispatcher::close);
+        }
+        
+        private static final int RETIRED = -1;
+        
+        private final Dispatcher dispatcher;
+        private final AutoClose closeDispatcher;
+        private final AtomicInteger users = new AtomicInteger();
+        private volatile long lastUsedNanos = System.nanoTime();
+    }
+    
+    private static final long MINIMUM_SWEEP_NANOS = 1_000_000L;
+    private static final long RETIRED_WAIT_NANOS = 50_000L;
+    private static final int LRU_SAMPLE_SIZE = 8;
+    
+    private final StateMachine<Idempotent> stateMachine;
+    private final Supplier<Dispatcher> keyedDispatcherFactory;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Function<String, Entry> entryFactory = this::createEntry;
+    private final long idleTimeoutNanos;
+    private final int dispatcherLimit;
+    private final boolean evictionEnabled;
+    private final Duration shutdownTimeout;
+    private final Object sampleLock = new Object();
+    private Iterator<Map.Entry<String, Entry>> sampleCursor;
+    private ScheduledExecutorService sweeper;
+}
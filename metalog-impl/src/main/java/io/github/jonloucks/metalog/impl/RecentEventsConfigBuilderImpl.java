@@ -0,0 +1,34 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.metalog.api.RecentEventsSubscriber;
+
+final class RecentEventsConfigBuilderImpl implements RecentEventsSubscriber.Config.Builder {
+    @Override
+    public Builder arenaSize(int arenaSize) {
+        this.arenaSize = arenaSize;
+        return this;
+    }
+    
+    @Override
+    public Builder capacity(int capacity) {
+        this.capacity = capacity;
+        return this;
+    }
+    
+    @Override
+    public int arenaSize() {
+        return arenaSize;
+    }
+    
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+    
+    RecentEventsConfigBuilderImpl() {
+        
+    }
+    
+    private int arenaSize = DEFAULT.arenaSize();
+    private int capacity = DEFAULT.capacity();
+}
@@ -0,0 +1,33 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.metalog.api.Metalog;
+import io.github.jonloucks.metalog.api.RecentEventsSubscriber;
+
+import java.util.function.Consumer;
+
+import static io.github.jonloucks.contracts.api.Checks.builderConsumerCheck;
+import static io.github.jonloucks.contracts.api.Checks.configCheck;
+
+final class RecentEventsSubscriberFactoryImpl implements RecentEventsSubscriber.Factory {
+    
+    @Override
+    public RecentEventsSubscriber create(RecentEventsSubscriber.Config config) {
+        return new RecentEventsSubscriberImpl(metalogConfig, configCheck(config));
+    }
+    
+    @Override
+    public RecentEventsSubscriber create(Consumer<RecentEventsSubscriber.Config.Builder> builderConsumer) {
+        final Consumer<RecentEventsSubscriber.Config.Builder> validBuilderConsumer = builderConsumerCheck(builderConsumer);
+        final RecentEventsConfigBuilderImpl builder = new RecentEventsConfigBuilderImpl();
+        
+        validBuilderConsumer.accept(builder);
+        
+        return create(builder);
+    }
+    
+    RecentEventsSubscriberFactoryImpl(Metalog.Config metalogConfig) {
+        this.metalogConfig = configCheck(metalogConfig);
+    }
+    
+    private final Metalog.Config metalogConfig;
+}
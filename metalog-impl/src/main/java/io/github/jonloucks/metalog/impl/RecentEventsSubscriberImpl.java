@@ -0,0 +1,188 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.metalog.api.*;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static io.github.jonloucks.contracts.api.Checks.configCheck;
+import static io.github.jonloucks.metalog.impl.Internal.arenaSizeCheck;
+import static io.github.jonloucks.metalog.impl.Internal.capacityCheck;
+import static io.github.jonloucks.metalog.impl.Internal.logCheck;
+import static io.github.jonloucks.metalog.impl.Internal.metaCheck;
+
+/**
+ * Keeps the most recent log messages as binary records in a circular arena of direct memory.
+ * The records are laid out in the order received, when the next one does not fit before the end of the arena
+ * it is written at the start and the rest of the arena is given up. The index holds the offset and length of
+ * each record kept, slot by sequence number. The oldest records are forgotten as their bytes are written over.
+ * The encoder is reset before every record, so each can be decoded on its own.
+ */
+final class RecentEventsSubscriberImpl implements RecentEventsSubscriber {
+    
+    @Override
+    public Outcome receive(Log log, Meta meta) {
+        final Log validLog = logCheck(log);
+        final Meta validMeta = metaCheck(meta);
+        synchronized (this) {
+            return write(validLog, validMeta) ? Outcome.CONSUMED : Outcome.SKIPPED;
+        }
+    }
+    
+    @Override
+    public Iterator<Event> iterator() {
+        return new Reader();
+    }
+    
+    @Override
+    public synchronized int size() {
+        return (int) (next - oldest);
+    }
+    
+    @Override
+    public synchronized void clear() {
+        oldest = next;
+        head = 0;
+    }
+    
+    @Override
+    public boolean test(Meta meta) {
+        return filters.test(metaCheck(meta));
+    }
+    
+    @Override
+    public AutoClose addFilter(Predicate<Meta> filter) {
+        return filters.addFilter(filter);
+    }
+    
+    RecentEventsSubscriberImpl(Metalog.Config metalogConfig, Config config) {
+        final Config validConfig = configCheck(config);
+        this.arenaSize = arenaSizeCheck(validConfig.arenaSize());
+        this.capacity = capacityCheck(validConfig.capacity());
+        this.encoder = metalogConfig.contracts().claim(Encoder.BINARY_FACTORY).get();
+        this.decoderFactory = metalogConfig.contracts().claim(Decoder.BINARY_FACTORY);
+        this.arena = ByteBuffer.allocateDirect(arenaSize);
+        this.writer = arena.duplicate();
+        this.index = ByteBuffer.allocateDirect(capacity * SLOT_SIZE);
+    }
+    
+    private boolean write(Log log, Meta meta) {
+        encoder.reset();
+        writer.limit(arenaSize).position(head);
+        if (encoder.encode(log, meta, writer)) {
+            forget(head, writer.position(), false);
+            return keep(head, writer.position());
+        }
+        if (0 == head) {
+            // too large for the arena
+            return false;
+        }
+        writer.position(0);
+        if (!encoder.encode(log, meta, writer)) {
+            return false;
+        }
+        forget(0, writer.position(), true);
+        return keep(0, writer.position());
+    }
+    
+    // the records written over are always the oldest, so forgetting stops at the first one left alone
+    private void forget(int start, int end, boolean wrapped) {
+        while (oldest < next) {
+            final int slot = slotOf(oldest);
+            final int offset = index.getInt(slot);
+            final int limit = offset + index.getInt(slot + Integer.BYTES);
+            final boolean writtenOver = offset < end && start < limit;
+            final boolean givenUp = wrapped && limit > head;
+            if (!writtenOver && !givenUp && next - oldest < capacity) {
+                return;
+            }
+            oldest++;
+        }
+    }
+    
+    private boolean keep(int start, int end) {
+        final int slot = slotOf(next);
+        index.putInt(slot, start);
+        index.putInt(slot + Integer.BYTES, end - start);
+        next++;
+        head = end;
+        return true;
+    }
+    
+    private int slotOf(long sequence) {
+        return (int) (sequence % capacity) * SLOT_SIZE;
+    }
+    
+    /**
+     * Reads the records kept when it was created, each one decoded straight from the arena when it is reached.
+     */
+    private final class Reader implements Iterator<Event> {
+        
+        @Override
+        public boolean hasNext() {
+            if (null == pending) {
+                pending = read();
+            }
+            return null != pending;
+        }
+        
+        @Override
+        public Event next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Event event = pending;
+            pending = null;
+            return event;
+        }
+        
+        private Reader() {
+            synchronized (RecentEventsSubscriberImpl.this) {
+                this.cursor = oldest;
+                this.end = next;
+            }
+        }
+        
+        private Event read() {
+            synchronized (RecentEventsSubscriberImpl.this) {
+                // records forgotten since the last one read are skipped
+                for (cursor = Math.max(cursor, oldest); cursor < end; ) {
+                    final int slot = slotOf(cursor++);
+                    final int offset = index.getInt(slot);
+                    view.limit(offset + index.getInt(slot + Integer.BYTES)).position(offset);
+                    decoder.reset();
+                    final Optional<Event> event = decoder.decode(view);
+                    if (event.isPresent()) {
+                        return event.get();
+                    }
+                }
+                return null;
+            }
+        }
+        
+        private final ByteBuffer view = arena.duplicate();
+        private final Decoder decoder = decoderFactory.get();
+        private final long end;
+        private long cursor;
+        private Event pending;
+    }
+    
+    private static final int SLOT_SIZE = 2 * Integer.BYTES;
+    
+    private final int arenaSize;
+    private final int capacity;
+    private final Encoder encoder;
+    private final Supplier<Decoder> decoderFactory;
+    private final ByteBuffer arena;
+    private final ByteBuffer writer;
+    private final ByteBuffer index;
+    private final Filterable filters = new FiltersImpl();
+    private int head;
+    private long next;
+    private long oldest;
+}
@@ -0,0 +1,41 @@
+package io.github.jonloucks.metalog.impl;
+
+/**
+ * Cache line padding around the counters of {@link RingWorkQueue}.
+ * The consumer's head and the producers' tail are written by different threads,
+ * keeping them on separate cache lines avoids false sharing between them.
+ * HotSpot lays out superclass fields before subclass fields, which keeps the padding in place.
+ */
+@SuppressWarnings("unused")
+final class RingPadding {
+    
+    /**
+     * Utility class instantiation protection
+     * Test coverage not possible, java module protections in place
+     */
+    private RingPadding() {
+    }
+    
+    abstract static class LeftPad {
+        long p00, p01, p02, p03, p04, p05, p06, p07;
+        long p08, p09, p0a, p0b, p0c, p0d, p0e, p0f;
+    }
+    
+    abstract static class Head extends LeftPad {
+        volatile long head;
+    }
+    
+    abstract static class MiddlePad extends Head {
+        long p10, p11, p12, p13, p14, p15, p16, p17;
+        long p18, p19, p1a, p1b, p1c, p1d, p1e, p1f;
+    }
+    
+    abstract static class Tail extends MiddlePad {
+        volatile long tail;
+    }
+    
+    abstract static class RightPad extends Tail {
+        long p20, p21, p22, p23, p24, p25, p26, p27;
+        long p28, p29, p2a, p2b, p2c, p2d, p2e, p2f;
+    }
+}
@@ -0,0 +1,227 @@
+package io.github.jonloucks.metalog.impl;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import static io.github.jonloucks.metalog.impl.Internal.queueLimitCheck;
+
+/**
+ * Lock-free, bounded, preallocated multi-producer ring buffer, normally with a single consumer.
+ * <p>
+ * Producers claim a position by CAS on the tail, store the work and then publish it by
+ * advancing the slot sequence. Published slots are taken by CAS on the head, because a producer
+ * dropping the oldest work competes with the worker for it.
+ * The worker parks when the ring is empty and the producer that publishes next unparks it.
+ * The limit counts work that is queued or running, room is only made once work completes.
+ * Producers that find the ring full spin, then back off, until the worker makes room.
+ * </p>
+ */
+final class RingWorkQueue extends RingPadding.RightPad implements WorkQueue {
+    
+    @Override
+    public void put(Runnable work) {
+        for (int attempt = 0; !offer(work); attempt++) {
+            backOff(attempt);
+        }
+    }
+    
+    @Override
+    public boolean offer(Runnable work) {
+        if (enqueue(work)) {
+            if (consumerWaiting) {
+                LockSupport.unpark(consumer);
+            }
+            return true;
+        }
+        return false;
+    }
+    
+    @Override
+    public boolean offer(Runnable work, long timeoutNanos) {
+        final long deadline = System.nanoTime() + timeoutNanos;
+        for (int attempt = 0; !offer(work); attempt++) {
+            if (deadline - System.nanoTime() <= 0 || Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            backOff(attempt);
+        }
+        return true;
+    }
+    
+    @Override
+    public Runnable removeOldest() {
+        final Runnable work = poll();
+        if (null != work) {
+            completed();
+        }
+        return work;
+    }
+    
+    @Override
+    public Runnable take() throws InterruptedException {
+        for (;;) {
+            final Runnable work = poll();
+            if (null != work) {
+                return work;
+            }
+            if (closed) {
+                if (head == tail) {
+                    return null;
+                }
+                // a producer claimed a slot before closing and is still publishing it
+                Thread.onSpinWait();
+                continue;
+            }
+            consumer = Thread.currentThread();
+            consumerWaiting = true;
+            if (!isPublished(head) && !closed) {
+                LockSupport.park(this);
+            }
+            consumerWaiting = false;
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+    
+    @Override
+    public Runnable poll() {
+        for (;;) {
+            final long position = head;
+            final int index = (int) position & mask;
+            final long sequence = sequences.get(index);
+            if (sequence != position + 1) {
+                if (sequence <= position) {
+                    // nothing published at the head yet
+                    return null;
+                }
+                // the head slot was taken since head was read
+                continue;
+            }
+            // a publisher dropping the oldest work may race the worker for the head
+            if (HEAD.compareAndSet(this, position, position + 1)) {
+                final Runnable work = items.get(index);
+                items.lazySet(index, null);
+                // volatile, frees the slot for the next lap only after the work was read
+                sequences.set(index, position + length);
+                return work;
+            }
+        }
+    }
+    
+    @Override
+    public void completed() {
+        COMPLETED.getAndAdd(this, 1L);
+    }
+    
+    @Override
+    public boolean isIdle() {
+        return (long) COMPLETED.getAcquire(this) == tail;
+    }
+    
+    @Override
+    public int size() {
+        // completed first, it never passes the tail read after it
+        final long completed = (long) COMPLETED.getAcquire(this);
+        return (int) (tail - completed);
+    }
+    
+    @Override
+    public void close() {
+        closed = true;
+        final Thread waitingConsumer = consumer;
+        if (null != waitingConsumer) {
+            LockSupport.unpark(waitingConsumer);
+        }
+    }
+    
+    RingWorkQueue(int limit) {
+        this.capacity = queueLimitCheck(limit);
+        // at least two slots, with one slot the published and free sequences of a slot collide
+        this.length = nextPowerOfTwo(Math.max(2, limit));
+        this.mask = length - 1;
+        this.sequences = new AtomicLongArray(length);
+        this.items = new AtomicReferenceArray<>(length);
+        for (int i = 0; i < length; i++) {
+            sequences.set(i, i);
+        }
+    }
+    
+    private boolean enqueue(Runnable work) {
+        for (;;) {
+            final long position = tail;
+            final int index = (int) position & mask;
+            final long sequence = sequences.get(index);
+            if (sequence == position) {
+                // like the blocking queue, the limit counts work that is queued or still running
+                if (position - (long) COMPLETED.getAcquire(this) >= capacity) {
+                    return false;
+                }
+                if (TAIL.compareAndSet(this, position, position + 1)) {
+                    items.lazySet(index, work);
+                    // volatile publish, ordered before reading consumerWaiting
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (sequence < position) {
+                // the slot from the previous lap has not been consumed yet
+                return false;
+            }
+            // another producer claimed this position first
+        }
+    }
+    
+    private boolean isPublished(long position) {
+        return sequences.get((int) position & mask) == position + 1;
+    }
+    
+    private static void backOff(int attempt) {
+        if (attempt < SPIN_ATTEMPTS) {
+            Thread.onSpinWait();
+        } else if (attempt < SPIN_ATTEMPTS + YIELD_ATTEMPTS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+    }
+    
+    private static int nextPowerOfTwo(int value) {
+        final int power = 1 << (32 - Integer.numberOfLeadingZeros(value - 1));
+        if (power <= 0) {
+            throw new IllegalArgumentException("Queue limit is too large.");
+        }
+        return power;
+    }
+    
+    // spinning only helps when the consumer can run at the same time
+    private static final int SPIN_ATTEMPTS = Runtime.getRuntime().availableProcessors() > 1 ? 100 : 0;
+    private static final int YIELD_ATTEMPTS = 100;
+    private static final long FULL_PARK_NANOS = 10_000L;
+    private static final VarHandle HEAD;
+    private static final VarHandle TAIL;
+    private static final VarHandle COMPLETED;
+    
+    static {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            HEAD = lookup.findVarHandle(RingPadding.Head.class, "head", long.class);
+            TAIL = lookup.findVarHandle(RingPadding.Tail.class, "tail", long.class);
+            COMPLETED = lookup.findVarHandle(RingWorkQueue.class, "completedCount", long.class);
+        } catch (ReflectiveOperationException thrown) {
+            throw new ExceptionInInitializerError(thrown);
+        }
+    }
+    
+    private final int capacity;
+    private final int length;
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final AtomicReferenceArray<Runnable> items;
+    private volatile Thread consumer;
+    private volatile boolean consumerWaiting;
+    private volatile boolean closed;
+    private long completedCount;
+}
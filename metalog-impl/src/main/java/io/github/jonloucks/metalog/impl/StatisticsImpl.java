@@ -0,0 +1,176 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.metalog.api.Dispatcher;
+import io.github.jonloucks.metalog.api.Outcome;
+import io.github.jonloucks.metalog.api.Statistics;
+import io.github.jonloucks.metalog.api.Subscriber;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.github.jonloucks.contracts.api.Checks.nullCheck;
+
+/**
+ * A snapshot of the statistics, the dispatchers add themselves while it is taken
+ */
+final class StatisticsImpl implements Statistics {
+    
+    @Override
+    public long getCount(Outcome outcome) {
+        return counts[nullCheck(outcome, "Outcome must be present.").ordinal()];
+    }
+    
+    @Override
+    public int getDispatcherCount() {
+        return dispatcherCount;
+    }
+    
+    @Override
+    public List<Queue> getQueues() {
+        return Collections.unmodifiableList(queues);
+    }
+    
+    @Override
+    public long getCallerRuns() {
+        return callerRuns;
+    }
+    
+    @Override
+    public Histogram getLatency() {
+        return latency;
+    }
+    
+    @Override
+    public List<Subscription> getSubscriptions() {
+        return Collections.unmodifiableList(subscriptions);
+    }
+    
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        for (Outcome outcome : Outcome.values()) {
+            builder.append(outcome).append('=').append(getCount(outcome)).append(' ');
+        }
+        builder.append("dispatchers=").append(dispatcherCount).append(" callerRuns=").append(callerRuns);
+        for (Queue queue : queues) {
+            builder.append(" [").append(queue.getName()).append(" depth=").append(queue.getDepth())
+                .append(" highWaterMark=").append(queue.getHighWaterMark())
+                .append(" latency ").append(queue.getLatency()).append(']');
+        }
+        for (Subscription subscription : subscriptions) {
+            builder.append(" [").append(subscription.getSubscriber()).append(" latency ").append(subscription.getLatency())
+                .append(" receiveTime ").append(subscription.getReceiveTime()).append(']');
+        }
+        return builder.append(" latency ").append(latency).toString();
+    }
+    
+    StatisticsImpl(LongAdder[] outcomeCounts, LatencyHistogram latency) {
+        this.counts = new long[outcomeCounts.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = outcomeCounts[i].sum();
+        }
+        this.latency = snapshotOf(latency);
+    }
+    
+    /**
+     * Add the dispatcher, a dispatcher from another implementation is only counted
+     * @param name the name of the dispatcher
+     * @param dispatcher the dispatcher
+     */
+    void observe(String name, Dispatcher dispatcher) {
+        if (dispatcher instanceof ObservedDispatcher) {
+            ((ObservedDispatcher) dispatcher).observe(name, this);
+        } else {
+            dispatcherCount++;
+        }
+    }
+    
+    void addQueue(String name, int depth, int highWaterMark, LatencyHistogram latency) {
+        dispatcherCount++;
+        queues.add(new QueueImpl(name, depth, highWaterMark, snapshotOf(latency)));
+    }
+    
+    void addSubscription(Subscriber subscriber, Histogram latency, Histogram receiveTime) {
+        subscriptions.add(new SubscriptionImpl(subscriber, latency, receiveTime));
+    }
+    
+    void addCallerRuns(long callerRuns) {
+        this.callerRuns += callerRuns;
+    }
+    
+    private static Histogram snapshotOf(LatencyHistogram histogram) {
+        return null == histogram ? LatencyHistogram.EMPTY : histogram.snapshot();
+    }
+    
+    private static final class QueueImpl implements Queue {
+        
+        @Override
+        public String getName() {
+            return name;
+        }
+        
+        @Override
+        public int getDepth() {
+            return depth;
+        }
+        
+        @Override
+        public int getHighWaterMark() {
+            return highWaterMark;
+        }
+        
+        @Override
+        public Histogram getLatency() {
+            return latency;
+        }
+        
+        private QueueImpl(String name, int depth, int highWaterMark, Histogram latency) {
+            this.name = name;
+            this.depth = depth;
+            this.highWaterMark = highWaterMark;
+            this.latency = latency;
+        }
+        
+        private final String name;
+        private final int depth;
+        private final int highWaterMark;
+        private final Histogram latency;
+    }
+    
+    private static final class SubscriptionImpl implements Subscription {
+        
+        @Override
+        public Subscriber getSubscriber() {
+            return subscriber;
+        }
+        
+        @Override
+        public Histogram getLatency() {
+            return latency;
+        }
+        
+        @Override
+        public Histogram getReceiveTime() {
+            return receiveTime;
+        }
+        
+        private SubscriptionImpl(Subscriber subscriber, Histogram latency, Histogram receiveTime) {
+            this.subscriber = subscriber;
+            this.latency = latency;
+            this.receiveTime = receiveTime;
+        }
+        
+        private final Subscriber subscriber;
+        private final Histogram latency;
+        private final Histogram receiveTime;
+    }
+    
+    private final long[] counts;
+    private final Histogram latency;
+    private final List<Queue> queues = new ArrayList<>();
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    private int dispatcherCount;
+    private long callerRuns;
+}
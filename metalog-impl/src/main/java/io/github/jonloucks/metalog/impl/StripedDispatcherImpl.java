@@ -0,0 +1,83 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.concurrency.api.Idempotent;
+import io.github.jonloucks.concurrency.api.StateMachine;
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.contracts.api.AutoOpen;
+import io.github.jonloucks.metalog.api.Dispatcher;
+import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.api.Metalog;
+import io.github.jonloucks.metalog.api.Outcome;
+
+import static io.github.jonloucks.concurrency.api.Idempotent.withClose;
+import static io.github.jonloucks.concurrency.api.Idempotent.withOpen;
+import static io.github.jonloucks.metalog.impl.Internal.*;
+
+/**
+ * A fixed number of keyed workers shared by all keys.
+ * Each key is hashed onto one stripe, so messages for a key stay in FIFO order
+ * while the thread count stays flat regardless of how many keys are seen.
+ */
+final class StripedDispatcherImpl implements Dispatcher, AutoOpen, ObservedDispatcher {
+    
+    @Override
+    public AutoClose open() {
+        return withOpen(stateMachine, this::realOpen);
+    }
+    
+    @Override
+    public Outcome dispatch(Meta meta, Runnable work) {
+        final Meta validMeta = metaCheck(meta);
+        final Runnable validCommand = commandCheck(work);
+        if (stateMachine.getState().isRejecting()) {
+            validCommand.run();
+            return Outcome.CONSUMED;
+        }
+        return chooseStripe(validMeta).dispatch(validMeta, validCommand);
+    }
+    
+    @Override
+    public void observe(String name, StatisticsImpl statistics) {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i].observe(name + " " + i, statistics);
+        }
+    }
+    
+    StripedDispatcherImpl(Metalog.Config config) {
+        this.stripes = new KeyedDispatcherImpl[stripeCountCheck(config.keyedStripeCount())];
+        this.closeStripes = new AutoClose[stripes.length];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new KeyedDispatcherImpl(config);
+        }
+        this.stateMachine = Idempotent.createStateMachine(config.contracts());
+    }
+    
+    private AutoClose realOpen() {
+        for (int i = 0; i < stripes.length; i++) {
+            closeStripes[i] = stripes[i].open();
+        }
+        return this::close;
+    }
+    
+    private void close() {
+        withClose(stateMachine, this::realClose);
+    }
+    
+    private void realClose() {
+        for (AutoClose closeStripe : closeStripes) {
+            if (null != closeStripe) {
+                runWithIgnore(closeStripe::close);
+            }
+        }
+    }
+    
+    private KeyedDispatcherImpl chooseStripe(Meta meta) {
+        final int hash = meta.getKey().orElse("").hashCode();
+        // spread the high bits, same as HashMap, since string hashes are weak in the low bits
+        return stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+    }
+    
+    private final StateMachine<Idempotent> stateMachine;
+    private final KeyedDispatcherImpl[] stripes;
+    private final AutoClose[] closeStripes;
+}
@@ -0,0 +1,56 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.metalog.api.Subscriber;
+
+import java.util.*;
+
+/**
+ * Immutable snapshot of the subscribers indexed by channel.
+ * Rebuilt whenever a subscription is added or closed, so publishing only needs one lookup
+ * and never iterates subscribers that can't be interested in the channel.
+ */
+final class SubscriberRoutes {
+    
+    static final SubscriberRoutes EMPTY = new SubscriberRoutes(Collections.emptyList());
+    
+    SubscriberRoutes(List<Subscriber> subscribers) {
+        final List<Subscriber> everyChannel = new ArrayList<>();
+        final Set<String> declaredChannels = new HashSet<>();
+        final List<Set<String>> subscriberChannels = new ArrayList<>(subscribers.size());
+        
+        for (Subscriber subscriber : subscribers) {
+            final Set<String> channels = subscriber.getChannels().map(Set::copyOf).orElse(null);
+            subscriberChannels.add(channels);
+            if (null == channels) {
+                everyChannel.add(subscriber);
+            } else {
+                declaredChannels.addAll(channels);
+            }
+        }
+        
+        this.wildcard = everyChannel.toArray(new Subscriber[0]);
+        for (String channel : declaredChannels) {
+            final List<Subscriber> routed = new ArrayList<>();
+            for (int i = 0; i < subscribers.size(); i++) {
+                final Set<String> channels = subscriberChannels.get(i);
+                // keep subscription order across wildcard and channel subscribers
+                if (null == channels || channels.contains(channel)) {
+                    routed.add(subscribers.get(i));
+                }
+            }
+            byChannel.put(channel, routed.toArray(new Subscriber[0]));
+        }
+    }
+    
+    /**
+     * @param channel the channel of the log message
+     * @return the subscribers for the channel in subscription order, shared and must not be modified
+     */
+    Subscriber[] forChannel(String channel) {
+        final Subscriber[] routed = byChannel.get(channel);
+        return null == routed ? wildcard : routed;
+    }
+    
+    private final Map<String, Subscriber[]> byChannel = new HashMap<>();
+    private final Subscriber[] wildcard;
+}
@@ -0,0 +1,39 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.metalog.api.Subscriber;
+
+/**
+ * The latency and receive time histograms of one subscriber.
+ * Recorded by every thread delivering to the subscriber.
+ */
+final class SubscriptionMeter {
+    
+    SubscriptionMeter(Subscriber subscriber) {
+        this.subscriber = subscriber;
+    }
+    
+    /**
+     * @param latencyNanos the time from publish until the subscriber started receiving
+     * @param receiveNanos how long the subscriber took to receive
+     */
+    void record(long latencyNanos, long receiveNanos) {
+        latency.record(latencyNanos);
+        receiveTime.record(receiveNanos);
+    }
+    
+    void recordLatency(long latencyNanos) {
+        latency.record(latencyNanos);
+    }
+    
+    void recordReceiveTime(long receiveNanos) {
+        receiveTime.record(receiveNanos);
+    }
+    
+    void observe(StatisticsImpl statistics) {
+        statistics.addSubscription(subscriber, latency.snapshot(), receiveTime.snapshot());
+    }
+    
+    private final Subscriber subscriber;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram receiveTime = new LatencyHistogram();
+}
@@ -0,0 +1,95 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.metalog.api.Encoder;
+import io.github.jonloucks.metalog.api.Log;
+import io.github.jonloucks.metalog.api.Meta;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.Temporal;
+import java.util.Optional;
+
+import static io.github.jonloucks.contracts.api.Checks.nullCheck;
+import static io.github.jonloucks.metalog.impl.Internal.logCheck;
+import static io.github.jonloucks.metalog.impl.Internal.metaCheck;
+
+/**
+ * Renders a line of UTF-8 text per log message: time, channel, [thread], the text and the thrown, when present.
+ * The characters go through a small reusable buffer straight into the destination, nothing is allocated per log message
+ * beyond what the time and thrown need to become text.
+ */
+final class TextEncoderImpl implements Encoder {
+    
+    @Override
+    public boolean encode(Log log, Meta meta, ByteBuffer buffer) {
+        final Log validLog = logCheck(log);
+        final Meta validMeta = metaCheck(meta);
+        final ByteBuffer validBuffer = nullCheck(buffer, "Buffer must be present.");
+        final int start = validBuffer.position();
+        
+        encoder.reset();
+        chars.clear();
+        if (renderLine(validLog, validMeta, validBuffer)) {
+            return true;
+        }
+        validBuffer.position(start);
+        return false;
+    }
+    
+    TextEncoderImpl() {
+    }
+    
+    private boolean renderLine(Log log, Meta meta, ByteBuffer buffer) {
+        final Optional<Temporal> time = meta.getTime();
+        if (time.isPresent() && !(put(time.get().toString(), buffer) && put(" ", buffer))) {
+            return false;
+        }
+        if (!(put(meta.getChannel(), buffer) && put(" ", buffer))) {
+            return false;
+        }
+        final Optional<Thread> thread = meta.getThread();
+        if (thread.isPresent() && !(put("[", buffer) && put(thread.get().getName(), buffer) && put("] ", buffer))) {
+            return false;
+        }
+        if (!put(log.get(), buffer)) {
+            return false;
+        }
+        final Optional<Throwable> thrown = meta.getThrown();
+        if (thrown.isPresent() && !(put(" ", buffer) && put(thrown.get().toString(), buffer))) {
+            return false;
+        }
+        return put(LINE_SEPARATOR, buffer) && finish(buffer);
+    }
+    
+    private boolean put(CharSequence text, ByteBuffer buffer) {
+        for (int i = 0, n = text.length(); i < n; i++) {
+            if (!chars.hasRemaining()) {
+                chars.flip();
+                final boolean encoded = encoder.encode(chars, buffer, false).isUnderflow();
+                // keeps the high half of a surrogate pair split across chunks
+                chars.compact();
+                if (!encoded) {
+                    return false;
+                }
+            }
+            chars.put(text.charAt(i));
+        }
+        return true;
+    }
+    
+    private boolean finish(ByteBuffer buffer) {
+        chars.flip();
+        return encoder.encode(chars, buffer, true).isUnderflow() && encoder.flush(buffer).isUnderflow();
+    }
+    
+    private static final String LINE_SEPARATOR = "\n";
+    private static final int CHUNK_SIZE = 256;
+    
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE);
+}
@@ -0,0 +1,55 @@
+package io.github.jonloucks.metalog.impl;
+
+import io.github.jonloucks.metalog.api.Metalog;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Responsible for choosing between platform and virtual threads for dispatching.
+ * Virtual threads are located by reflection so the library still runs on JDKs without them.
+ */
+final class ThreadFactories {
+    
+    /**
+     * Utility class instantiation protection
+     * Test coverage not possible, java module protections in place
+     */
+    private ThreadFactories() {
+    }
+    
+    /**
+     * @param config the Metalog configuration
+     * @return the factory for dedicated worker threads, such as keyed dispatcher workers
+     */
+    static ThreadFactory workerThreadFactory(Metalog.Config config) {
+        if (config.useVirtualThreads() && null != VIRTUAL_THREAD_FACTORY) {
+            return VIRTUAL_THREAD_FACTORY;
+        }
+        return Thread::new;
+    }
+    
+    /**
+     * @param config the Metalog configuration
+     * @return the factory for pooled threads, such as the unkeyed dispatcher threads
+     */
+    static ThreadFactory poolThreadFactory(Metalog.Config config) {
+        if (config.useVirtualThreads() && null != VIRTUAL_THREAD_FACTORY) {
+            return VIRTUAL_THREAD_FACTORY;
+        }
+        return Executors.defaultThreadFactory();
+    }
+    
+    private static ThreadFactory findVirtualThreadFactory() {
+        try {
+            // Thread.ofVirtual().factory(), only present on JDK 21+ (or 19+ with preview enabled)
+            final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (Throwable thrown) {
+            return null;
+        }
+    }
+    
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = findVirtualThreadFactory();
+}
@@ -11,13 +11,14 @@ import io.github.jonloucks.metalog.api.Outcome;
 
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 import static io.github.jonloucks.concurrency.api.Idempotent.withClose;
 import static io.github.jonloucks.concurrency.api.Idempotent.withOpen;
 import static io.github.jonloucks.metalog.impl.Internal.*;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
-final class UnkeyedDispatcherImpl implements Dispatcher, AutoOpen {
+final class UnkeyedDispatcherImpl implements Dispatcher, AutoOpen, ObservedDispatcher {
 
     @Override
     public AutoClose open() {
@@ -31,10 +32,19 @@ final class UnkeyedDispatcherImpl implements Dispatcher, AutoOpen {
             validCommand.run();
             return Outcome.CONSUMED;
         }
+        if (null != latency && validCommand instanceof MeasuredWork) {
+            ((MeasuredWork) validCommand).measuredBy(latency);
+        }
         executor.execute(validCommand);
         return Outcome.DISPATCHED;
     }
     
+    @Override
+    public void observe(String name, StatisticsImpl statistics) {
+        statistics.addQueue(name, executor.getActiveCount(), executor.getLargestPoolSize(), latency);
+        statistics.addCallerRuns(callerRuns.sum());
+    }
+    
     UnkeyedDispatcherImpl(Metalog.Config config) {
 //        this.config = config;
         this.executor = new ThreadPoolExecutor(
@@ -42,13 +52,23 @@ final class UnkeyedDispatcherImpl implements Dispatcher, AutoOpen {
             config.unkeyedThreadCount(),
             60L,
             TimeUnit.SECONDS,
-            new SynchronousQueue<>(config.unkeyedFairness())
+            new SynchronousQueue<>(config.unkeyedFairness()),
+            ThreadFactories.poolThreadFactory(config)
         );
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setRejectedExecutionHandler(this::runOnCaller);
         stateMachine = Idempotent.createStateMachine(config.contracts());
+        latency = config.measureLatency() ? new LatencyHistogram() : null;
         
     }
     
+    private void runOnCaller(Runnable command, ThreadPoolExecutor rejectingExecutor) {
+        // same as the CallerRunsPolicy, counted
+        if (!rejectingExecutor.isShutdown()) {
+            callerRuns.increment();
+            command.run();
+        }
+    }
+    
     private void close() {
         withClose(stateMachine, this::realClose);
     }
@@ -89,4 +109,6 @@ final class UnkeyedDispatcherImpl implements Dispatcher, AutoOpen {
     private final StateMachine<Idempotent> stateMachine;
 //    private final Metalog.Config config;
     private final ThreadPoolExecutor executor;
+    private final LongAdder callerRuns = new LongAdder();
+    private final LatencyHistogram latency;
 }
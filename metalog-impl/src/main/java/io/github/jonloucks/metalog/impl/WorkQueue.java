@@ -0,0 +1,69 @@
+package io.github.jonloucks.metalog.impl;
+
+/**
+ * The bounded queue between the publishers and the worker of a keyed dispatcher.
+ * Many threads put work, only the worker takes it, except while closing when the
+ * closing thread takes over emptying the queue, and when a publisher drops the oldest work.
+ */
+interface WorkQueue {
+    
+    /**
+     * Add work, waiting while the queue is full
+     * @param work the work to add
+     */
+    void put(Runnable work);
+    
+    /**
+     * Add work if there is room
+     * @param work the work to add
+     * @return true if the work was added
+     */
+    boolean offer(Runnable work);
+    
+    /**
+     * Add work, waiting while the queue is full up to the timeout
+     * @param work the work to add
+     * @param timeoutNanos the maximum time to wait
+     * @return true if the work was added, false if the timeout expired or the thread was interrupted
+     */
+    boolean offer(Runnable work, long timeoutNanos);
+    
+    /**
+     * Remove the oldest queued work without running it, the work counts as completed.
+     * Work that is already running is never removed.
+     * @return the removed work, or null if nothing is queued
+     */
+    Runnable removeOldest();
+    
+    /**
+     * Wait for the next work
+     * @return the next work, or null once the queue has been closed and is empty
+     * @throws InterruptedException if interrupted while waiting
+     */
+    Runnable take() throws InterruptedException;
+    
+    /**
+     * @return the next work, or null if there is nothing to take right now
+     */
+    Runnable poll();
+    
+    /**
+     * Invoked after work that was taken has finished running
+     */
+    void completed();
+    
+    /**
+     * @return true if nothing is queued or running
+     */
+    boolean isIdle();
+    
+    /**
+     * @return the amount of work queued or running
+     */
+    int size();
+    
+    /**
+     * Wake the worker, {@link #take()} returns null once the queue is empty
+     */
+    void close();
+}
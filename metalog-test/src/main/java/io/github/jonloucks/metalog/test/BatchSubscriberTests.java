@@ -0,0 +1,87 @@
+package io.github.jonloucks.metalog.test;
+
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.metalog.api.BatchSubscriber;
+import io.github.jonloucks.metalog.api.Event;
+import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.api.Outcome;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.jonloucks.metalog.test.Tools.withMetalog;
+import static org.junit.jupiter.api.Assertions.*;
+
+public interface BatchSubscriberTests {
+    
+    @Test
+    default void batchSubscriber_Keyed_ReceivesBatchesInOrder() {
+        final int batchLimit = 8;
+        withMetalog(b -> b.keyedBatchLimit(batchLimit), (contracts, metalog) -> {
+            final int logCount = 1_000;
+            final CountDownLatch receivedLatch = new CountDownLatch(logCount);
+            final AtomicInteger expected = new AtomicInteger();
+            final AtomicInteger failures = new AtomicInteger();
+            final BatchSubscriber subscriber = events -> {
+                if (events.isEmpty() || events.size() > batchLimit) {
+                    failures.incrementAndGet();
+                }
+                for (Event event : events) {
+                    if (!String.valueOf(expected.getAndIncrement()).contentEquals(event.getLog().get())) {
+                        failures.incrementAndGet();
+                    }
+                    receivedLatch.countDown();
+                }
+                return Outcome.CONSUMED;
+            };
+            
+            try (AutoClose closeSubscription = metalog.subscribe(subscriber)) {
+                final AutoClose ignored = closeSubscription;
+                for (int i = 0; i < logCount; i++) {
+                    final String text = String.valueOf(i);
+                    assertEquals(Outcome.DISPATCHED, metalog.publish(() -> text, m -> m.key("batch")));
+                }
+                assertTrue(receivedLatch.await(1, TimeUnit.MINUTES), "Batches took too long.");
+            } catch (InterruptedException e) {
+                fail("Batch subscriber was interrupted.");
+            }
+            assertEquals(0, failures.get(), "Failures");
+        });
+    }
+    
+    @Test
+    default void batchSubscriber_Blocking_ReceivesBatchOfOne() {
+        withMetalog((contracts, metalog) -> {
+            final AtomicInteger batchSize = new AtomicInteger();
+            final BatchSubscriber subscriber = events -> {
+                batchSize.set(events.size());
+                assertEquals("Hello", events.get(0).getLog().get().toString());
+                return Outcome.CONSUMED;
+            };
+            
+            try (AutoClose closeSubscription = metalog.subscribe(subscriber)) {
+                final AutoClose ignored = closeSubscription;
+                assertEquals(Outcome.CONSUMED, metalog.publish(() -> "Hello", m -> m.block()));
+            }
+            assertEquals(1, batchSize.get());
+        });
+    }
+    
+    @Test
+    default void batchSubscriber_Default_Receive_WrapsEvent() {
+        @SuppressWarnings("unchecked")
+        final List<Event>[] received = new List[1];
+        final BatchSubscriber subscriber = events -> {
+            received[0] = events;
+            return Outcome.CONSUMED;
+        };
+        
+        assertEquals(Outcome.CONSUMED, subscriber.receive(() -> "Hello", Meta.DEFAULT));
+        assertEquals(1, received[0].size());
+        assertEquals("Hello", received[0].get(0).getLog().get().toString());
+        assertSame(Meta.DEFAULT, received[0].get(0).getMeta());
+    }
+}
@@ -0,0 +1,494 @@
+package io.github.jonloucks.metalog.test;
+
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.contracts.api.Contracts;
+import io.github.jonloucks.metalog.api.Decoder;
+import io.github.jonloucks.metalog.api.DurableFileSubscriber;
+import io.github.jonloucks.metalog.api.Encoder;
+import io.github.jonloucks.metalog.api.Entities;
+import io.github.jonloucks.metalog.api.Entity;
+import io.github.jonloucks.metalog.api.Event;
+import io.github.jonloucks.metalog.api.FsyncPolicy;
+import io.github.jonloucks.metalog.api.MappedFileSubscriber;
+import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.api.MetalogException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static io.github.jonloucks.contracts.test.Tools.assertInstantiateThrows;
+import static io.github.jonloucks.contracts.test.Tools.assertThrown;
+import static io.github.jonloucks.metalog.test.BinaryEncodingTests.BinaryEncodingTestsTools.assertSameEvent;
+import static io.github.jonloucks.metalog.test.BinaryEncodingTests.BinaryEncodingTestsTools.decodeAll;
+import static io.github.jonloucks.metalog.test.BinaryEncodingTests.BinaryEncodingTestsTools.randomMeta;
+import static io.github.jonloucks.metalog.test.BinaryEncodingTests.BinaryEncodingTestsTools.randomText;
+import static io.github.jonloucks.metalog.test.Tools.withMetalog;
+import static org.junit.jupiter.api.Assertions.*;
+
+public interface BinaryEncodingTests {
+    
+    @Test
+    default void binaryEncoding_RoundTrip_AllFields() {
+        withMetalog((contracts, metalog) -> {
+            final Encoder encoder = contracts.claim(Encoder.BINARY_FACTORY).get();
+            final Decoder decoder = contracts.claim(Decoder.BINARY_FACTORY).get();
+            final Instant time = Instant.parse("2025-01-02T03:04:05.123456789Z");
+            final IllegalStateException thrown = new IllegalStateException("Problem");
+            final Meta meta = contracts.claim(Meta.Builder.FACTORY).get()
+                .channel("audit").key("tenant-1").id("id-1").name("name-1").value(42L).unique().block()
+                .time(time).thread().thrown(thrown)
+                .correlation(b -> b.name("user").id("u-7").value("alice").correlation(c -> c.name("roles").value(3)))
+                .correlation(b -> b.name("ratio").value(0.25d).text(() -> "a quarter"))
+                .template();
+            final ByteBuffer buffer = ByteBuffer.allocate(1024);
+            
+            assertTrue(encoder.encode(() -> "Hello \u00e9\ud83d\ude00", meta, buffer));
+            buffer.flip();
+            final Event event = decoder.decode(buffer).orElseThrow();
+            final Meta decoded = event.getMeta();
+            
+            assertFalse(buffer.hasRemaining());
+            assertEquals("Hello \u00e9\ud83d\ude00", event.getLog().get().toString());
+            assertEquals("audit", decoded.getChannel());
+            assertEquals(Optional.of("tenant-1"), decoded.getKey());
+            assertEquals(Optional.of("id-1"), decoded.getId());
+            assertEquals(Optional.of("name-1"), decoded.getName());
+            assertEquals(Optional.of(42L), decoded.getValue());
+            assertTrue(decoded.isUnique());
+            assertTrue(decoded.isBlocking());
+            assertEquals(Optional.of(time), decoded.getTime());
+            assertFalse(decoded.getThread().isPresent());
+            assertFalse(decoded.getThrown().isPresent());
+            final Entities correlations = decoded.getCorrelations().orElseThrow();
+            final Entity user = correlations.findFirstIf(e -> e.getName().filter("user"::equals).isPresent()).orElseThrow();
+            assertEquals(Optional.of("u-7"), user.getId());
+            assertEquals("alice", user.get().toString());
+            assertEquals(Optional.of(3), user.getCorrelations().orElseThrow().asList().get(0).getValue());
+            final Entity ratio = correlations.findFirstIf(e -> e.getName().filter("ratio"::equals).isPresent()).orElseThrow();
+            assertEquals(Optional.of(0.25d), ratio.getValue());
+            assertEquals("a quarter", ratio.get().toString());
+            final Entity thread = correlations.findFirstIf(e -> e.getName().filter("thread"::equals).isPresent()).orElseThrow();
+            assertEquals(Thread.currentThread().getName(), thread.get().toString());
+            final Entity thrownEntity = correlations.findFirstIf(e -> e.getName().filter("thrown"::equals).isPresent()).orElseThrow();
+            assertEquals(thrown.toString(), thrownEntity.get().toString());
+        });
+    }
+    
+    @Test
+    default void binaryEncoding_Fuzz_RoundTrip() {
+        final Random random = new Random(20250101L);
+        withMetalog((contracts, metalog) -> {
+            final Encoder encoder = contracts.claim(Encoder.BINARY_FACTORY).get();
+            final Decoder decoder = contracts.claim(Decoder.BINARY_FACTORY).get();
+            final List<Meta> metas = new ArrayList<>();
+            final List<String> texts = new ArrayList<>();
+            final ByteBuffer encoded = ByteBuffer.allocate(4 * 1024 * 1024);
+            for (int i = 0; i < 2_000; i++) {
+                final Meta meta = randomMeta(contracts, random);
+                final String text = randomText(random, 200);
+                assertTrue(encoder.encode(() -> text, meta, encoded));
+                metas.add(meta);
+                texts.add(text);
+            }
+            encoded.flip();
+            
+            // read through a small window filled a few bytes at a time, like reading a stream
+            final ByteBuffer window = ByteBuffer.allocateDirect(64 * 1024);
+            final List<Event> events = new ArrayList<>();
+            while (encoded.hasRemaining()) {
+                final int chunk = Math.min(encoded.remaining(), 1 + random.nextInt(300));
+                window.put(encoded.slice().limit(chunk));
+                encoded.position(encoded.position() + chunk);
+                window.flip();
+                for (Optional<Event> event = decoder.decode(window); event.isPresent(); event = decoder.decode(window)) {
+                    events.add(event.get());
+                }
+                window.compact();
+            }
+            
+            assertEquals(0, window.position(), "Nothing should be left over.");
+            assertEquals(metas.size(), events.size());
+            for (int i = 0; i < events.size(); i++) {
+                assertSameEvent(texts.get(i), metas.get(i), events.get(i));
+            }
+        });
+    }
+    
+    @Test
+    default void binaryEncoding_encode_WhenFull_LeavesBufferUnchanged() {
+        withMetalog((contracts, metalog) -> {
+            final Encoder encoder = contracts.claim(Encoder.BINARY_FACTORY).get();
+            final Meta meta = contracts.claim(Meta.Builder.FACTORY).get().channel("audit").time().template();
+            final ByteBuffer small = ByteBuffer.allocate(8);
+            final ByteBuffer large = ByteBuffer.allocate(1024);
+            
+            assertFalse(encoder.encode(() -> "does not fit", meta, small));
+            assertEquals(0, small.position());
+            assertTrue(encoder.encode(() -> "fits", meta, large));
+            large.flip();
+            
+            // the names from the record that did not fit are defined again by the one that did
+            final Event event = contracts.claim(Decoder.BINARY_FACTORY).get().decode(large).orElseThrow();
+            assertEquals("audit", event.getMeta().getChannel());
+            assertEquals(meta.getTime(), event.getMeta().getTime());
+        });
+    }
+    
+    @Test
+    default void binaryEncoding_encode_WhenTextThrows_NextRecordStandsAlone() {
+        withMetalog((contracts, metalog) -> {
+            final Encoder encoder = contracts.claim(Encoder.BINARY_FACTORY).get();
+            final Meta failing = contracts.claim(Meta.Builder.FACTORY).get().channel("audit").time()
+                .correlation(b -> b.name("broken").value(1).text(() -> {
+                    throw new IllegalStateException("Problem");
+                }))
+                .template();
+            final Meta meta = contracts.claim(Meta.Builder.FACTORY).get().channel("audit").time().template();
+            final ByteBuffer buffer = ByteBuffer.allocate(1024);
+            
+            final IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> {
+                encoder.encode(() -> "first", failing, buffer);
+            });
+            
+            assertThrown(thrown, "Problem");
+            assertEquals(0, buffer.position());
+            assertTrue(encoder.encode(() -> "second", meta, buffer));
+            buffer.flip();
+            
+            // the names and time from the record that threw are defined again by the one that was written
+            final Event event = contracts.claim(Decoder.BINARY_FACTORY).get().decode(buffer).orElseThrow();
+            assertEquals("second", event.getLog().get().toString());
+            assertEquals("audit", event.getMeta().getChannel());
+            assertEquals(meta.getTime(), event.getMeta().getTime());
+        });
+    }
+    
+    @Test
+    default void binaryEncoding_reset_NextRecordStandsAlone() {
+        withMetalog((contracts, metalog) -> {
+            final Encoder encoder = contracts.claim(Encoder.BINARY_FACTORY).get();
+            final Meta meta = contracts.claim(Meta.Builder.FACTORY).get().channel("audit").time().template();
+            final ByteBuffer buffer = ByteBuffer.allocate(1024);
+            
+            assertTrue(encoder.encode(() -> "first", meta, buffer));
+            final int second = buffer.position();
+            encoder.reset();
+            assertTrue(encoder.encode(() -> "second", meta, buffer));
+            buffer.flip().position(second);
+            
+            final Event event = contracts.claim(Decoder.BINARY_FACTORY).get().decode(buffer).orElseThrow();
+            assertEquals("second", event.getLog().get().toString());
+            assertEquals("audit", event.getMeta().getChannel());
+            assertEquals(meta.getTime(), event.getMeta().getTime());
+        });
+    }
+    
+    @Test
+    default void binaryEncoding_decode_WithPartialRecord_ReturnsEmpty() {
+        withMetalog((contracts, metalog) -> {
+            final Encoder encoder = contracts.claim(Encoder.BINARY_FACTORY).get();
+            final Decoder decoder = contracts.claim(Decoder.BINARY_FACTORY).get();
+            final ByteBuffer buffer = ByteBuffer.allocate(1024);
+            
+            assertTrue(encoder.encode(() -> "Hello", Meta.DEFAULT, buffer));
+            buffer.flip().limit(buffer.limit() - 1);
+            
+            assertFalse(decoder.decode(buffer).isPresent());
+            assertEquals(0, buffer.position());
+            buffer.limit(buffer.limit() + 1);
+            assertEquals("Hello", decoder.decode(buffer).orElseThrow().getLog().get().toString());
+        });
+    }
+    
+    @Test
+    default void binaryEncoding_decode_WithUnsupportedVersion_Throws() {
+        withMetalog((contracts, metalog) -> {
+            final Decoder decoder = contracts.claim(Decoder.BINARY_FACTORY).get();
+            final ByteBuffer buffer = ByteBuffer.wrap(new byte[]{3, 99, 0, 0, 1});
+            
+            final MetalogException thrown = assertThrows(MetalogException.class, () -> decoder.decode(buffer));
+            
+            assertThrown(thrown);
+            assertEquals(4, buffer.position(), "The record should be skipped.");
+        });
+    }
+    
+    @Test
+    default void binaryEncoding_decode_WithUndefinedName_Throws() {
+        withMetalog((contracts, metalog) -> {
+            final Decoder decoder = contracts.claim(Decoder.BINARY_FACTORY).get();
+            final ByteBuffer buffer = ByteBuffer.wrap(new byte[]{4, 1, 0, 2, 0});
+            
+            final MetalogException thrown = assertThrows(MetalogException.class, () -> decoder.decode(buffer));
+            
+            assertThrown(thrown);
+        });
+    }
+    
+    @Test
+    default void binaryEncoding_WithMappedFileSubscriber_EachSegmentStandsAlone(@TempDir Path directory) {
+        final int logCount = 300;
+        withMetalog((contracts, metalog) -> {
+            final MappedFileSubscriber subscriber = contracts.claim(MappedFileSubscriber.FACTORY)
+                .create(b -> b.directory(directory).segmentSize(1024).encoderFactory(Encoder.BINARY_FACTORY));
+            try (AutoClose closeSubscriber = subscriber.open()) {
+                final AutoClose ignored = closeSubscriber;
+                for (int i = 0; i < logCount; i++) {
+                    final String text = "line " + i;
+                    subscriber.receive(() -> text, Meta.DEFAULT);
+                }
+            }
+            
+            final List<Event> events = decodeAll(contracts, directory);
+            assertEquals(logCount, events.size());
+            for (int i = 0; i < logCount; i++) {
+                assertEquals("line " + i, events.get(i).getLog().get().toString());
+                assertEquals("info", events.get(i).getMeta().getChannel());
+            }
+        });
+    }
+    
+    @Test
+    default void binaryEncoding_WithDurableFileSubscriber_AppendsAcrossOpens(@TempDir Path directory) {
+        final Path file = directory.resolve("a.bin");
+        final Instant start = Instant.parse("2024-05-01T10:15:30.123456789Z");
+        final List<Meta> expected = new ArrayList<>();
+        withMetalog((contracts, metalog) -> {
+            for (int open = 0; open < 2; open++) {
+                final DurableFileSubscriber subscriber = contracts.claim(DurableFileSubscriber.FACTORY)
+                    .create(b -> b.file(file).fsyncPolicy(FsyncPolicy.NEVER).encoderFactory(Encoder.BINARY_FACTORY));
+                try (AutoClose closeSubscriber = subscriber.open()) {
+                    final AutoClose ignored = closeSubscriber;
+                    for (int i = 0; i < 3; i++) {
+                        // the same channel and key in both opens, a restarted encoder defines them again
+                        final Meta meta = contracts.claim(Meta.Builder.FACTORY).get()
+                            .channel("audit").key("account").time(start.plusSeconds(open * 60L + i)).template();
+                        expected.add(meta);
+                        subscriber.receive(() -> "line " + expected.size(), meta);
+                    }
+                }
+            }
+            
+            final Decoder decoder = contracts.claim(Decoder.BINARY_FACTORY).get();
+            final ByteBuffer buffer;
+            try {
+                buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+            } catch (IOException thrown) {
+                throw new UncheckedIOException(thrown);
+            }
+            for (int i = 0; i < expected.size(); i++) {
+                final Event event = decoder.decode(buffer).orElseThrow();
+                assertEquals("line " + (i + 1), event.getLog().get().toString());
+                assertEquals("audit", event.getMeta().getChannel());
+                assertEquals(expected.get(i).getKey(), event.getMeta().getKey());
+                assertEquals(expected.get(i).getTime(), event.getMeta().getTime());
+            }
+            assertFalse(buffer.hasRemaining(), "File should be read to the end.");
+        });
+    }
+    
+    @Test
+    default void binaryEncoding_InternalCoverage() {
+        assertInstantiateThrows(BinaryEncodingTestsTools.class);
+    }
+    
+    final class BinaryEncodingTestsTools {
+        private BinaryEncodingTestsTools() {
+            throw new AssertionError("Illegal constructor");
+        }
+        
+        static Meta randomMeta(Contracts contracts, Random random) {
+            final Meta.Builder<?> builder = contracts.claim(Meta.Builder.FACTORY).get();
+            builder.channel(CHANNELS[random.nextInt(CHANNELS.length)]);
+            if (random.nextBoolean()) {
+                builder.key("key-" + random.nextInt(20));
+            }
+            if (random.nextBoolean()) {
+                builder.id(randomText(random, 20));
+            }
+            if (random.nextInt(4) == 0) {
+                builder.name(randomText(random, 10));
+            }
+            if (random.nextInt(4) == 0) {
+                builder.value(randomValue(random));
+            }
+            if (random.nextInt(4) == 0) {
+                builder.text(() -> "meta text");
+            }
+            builder.unique(random.nextBoolean());
+            builder.block(random.nextBoolean());
+            if (random.nextBoolean()) {
+                builder.time(Instant.ofEpochSecond(random.nextInt(2_000_000_000), random.nextInt(1_000_000_000)));
+            }
+            if (random.nextBoolean()) {
+                builder.thread();
+            }
+            if (random.nextInt(8) == 0) {
+                builder.thrown(new IllegalStateException(randomText(random, 30)));
+            }
+            for (int i = random.nextInt(4); i > 0; i--) {
+                builder.correlation(randomEntity(contracts, random, 3));
+            }
+            // published metas are frozen, others are read through the Meta interface
+            return random.nextBoolean() ? builder.template() : builder;
+        }
+        
+        static Entity randomEntity(Contracts contracts, Random random, int depth) {
+            final Entity.Builder<?> builder = contracts.claim(Entity.Builder.FACTORY).get();
+            if (random.nextInt(5) > 0) {
+                builder.name("entity-" + random.nextInt(10));
+            }
+            if (random.nextBoolean()) {
+                builder.id(randomText(random, 10));
+            }
+            if (random.nextBoolean()) {
+                builder.value(randomValue(random));
+            }
+            if (random.nextInt(3) == 0) {
+                final String text = randomText(random, 40);
+                builder.text(() -> text);
+            }
+            builder.unique(random.nextInt(4) == 0);
+            for (int i = depth > 0 ? random.nextInt(3) : 0; i > 0; i--) {
+                builder.correlation(randomEntity(contracts, random, depth - 1));
+            }
+            return builder;
+        }
+        
+        static Object randomValue(Random random) {
+            switch (random.nextInt(11)) {
+                case 0:
+                    return randomText(random, 30);
+                case 1:
+                    return random.nextBoolean();
+                case 2:
+                    return random.nextInt();
+                case 3:
+                    return random.nextLong();
+                case 4:
+                    return random.nextDouble() * Math.pow(10, random.nextInt(20) - 10);
+                case 5:
+                    return random.nextFloat();
+                case 6:
+                    return (short) random.nextInt();
+                case 7:
+                    return (byte) random.nextInt();
+                case 8:
+                    return (char) ('a' + random.nextInt(26));
+                case 9:
+                    return Instant.ofEpochSecond(random.nextInt(), random.nextInt(1_000_000_000));
+                default:
+                    return Double.NaN;
+            }
+        }
+        
+        static String randomText(Random random, int maxLength) {
+            final StringBuilder builder = new StringBuilder();
+            for (int i = random.nextInt(maxLength + 1); i > 0; i--) {
+                switch (random.nextInt(8)) {
+                    case 0:
+                        builder.append((char) (0x80 + random.nextInt(0x780)));
+                        break;
+                    case 1:
+                        builder.append((char) (0x800 + random.nextInt(0xD000)));
+                        break;
+                    case 2:
+                        builder.appendCodePoint(0x10000 + random.nextInt(0x10000));
+                        break;
+                    default:
+                        builder.append((char) (' ' + random.nextInt(95)));
+                        break;
+                }
+            }
+            return builder.toString();
+        }
+        
+        static void assertSameEvent(String expectedText, Meta expected, Event actual) {
+            final Meta meta = actual.getMeta();
+            assertEquals(expectedText, actual.getLog().get().toString());
+            assertEquals(expected.getChannel(), meta.getChannel());
+            assertEquals(expected.getKey(), meta.getKey());
+            assertEquals(expected.getId(), meta.getId());
+            assertEquals(expected.getName(), meta.getName());
+            assertEquals(expected.getValue(), meta.getValue());
+            assertEquals(expected.get().toString(), meta.get().toString());
+            assertEquals(expected.isUnique(), meta.isUnique());
+            assertEquals(expected.isBlocking(), meta.isBlocking());
+            assertEquals(expected.getTime(), meta.getTime());
+            assertEquals(expected.getThread().map(Thread::getName), findText(meta, "thread"));
+            assertEquals(expected.getThrown().map(Throwable::toString), findText(meta, "thrown"));
+            assertSameEntities(withoutSlots(expected), withoutSlots(meta));
+        }
+        
+        static void assertSameEntities(List<Entity> expected, List<Entity> actual) {
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                final Entity expectedEntity = expected.get(i);
+                final Entity actualEntity = actual.get(i);
+                assertEquals(expectedEntity.getName(), actualEntity.getName());
+                assertEquals(expectedEntity.getId(), actualEntity.getId());
+                assertEquals(expectedEntity.getValue(), actualEntity.getValue());
+                assertEquals(expectedEntity.isUnique(), actualEntity.isUnique());
+                assertEquals(expectedEntity.get().toString(), actualEntity.get().toString());
+                assertSameEntities(listOf(expectedEntity.getCorrelations()), listOf(actualEntity.getCorrelations()));
+            }
+        }
+        
+        static List<Event> decodeAll(Contracts contracts, Path directory) {
+            final List<Path> segments = new ArrayList<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                files.forEach(segments::add);
+            } catch (IOException thrown) {
+                throw new UncheckedIOException(thrown);
+            }
+            Collections.sort(segments);
+            final List<Event> events = new ArrayList<>();
+            for (Path segment : segments) {
+                // a new decoder for each segment, it must not need the segments before it
+                final Decoder decoder = contracts.claim(Decoder.BINARY_FACTORY).get();
+                final ByteBuffer buffer;
+                try {
+                    buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+                } catch (IOException thrown) {
+                    throw new UncheckedIOException(thrown);
+                }
+                for (Optional<Event> event = decoder.decode(buffer); event.isPresent(); event = decoder.decode(buffer)) {
+                    events.add(event.get());
+                }
+                assertFalse(buffer.hasRemaining(), "Segment should be read to the end.");
+            }
+            return events;
+        }
+        
+        private static Optional<String> findText(Meta meta, String name) {
+            return meta.getCorrelations()
+                .flatMap(c -> c.findFirstIf(e -> e.isUnique() && e.getName().filter(name::equals).isPresent()))
+                .map(e -> e.get().toString());
+        }
+        
+        private static List<Entity> withoutSlots(Meta meta) {
+            final List<Entity> entities = listOf(meta.getCorrelations());
+            entities.removeIf(e -> e.isUnique() && e.getName().filter(SLOT_NAMES::contains).isPresent());
+            return entities;
+        }
+        
+        private static List<Entity> listOf(Optional<Entities> entities) {
+            return entities.map(Entities::asList).orElseGet(ArrayList::new);
+        }
+        
+        private static final String[] CHANNELS = {"info", "warn", "error", "audit"};
+        private static final List<String> SLOT_NAMES = List.of("time", "thread", "thrown");
+    }
+}
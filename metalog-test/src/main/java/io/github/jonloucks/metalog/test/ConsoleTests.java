@@ -11,6 +11,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
+import java.time.Duration;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static io.github.jonloucks.contracts.test.Tools.assertInstantiateThrows;
@@ -119,6 +120,16 @@ public interface ConsoleTests {
         });
     }
     
+    @ParameterizedTest(name = "channel = {0}")
+    @ValueSource(strings = {"System.out", "System.err", "Console.output", "Console.error"})
+    default void console_getChannels_HasSupportedChannel(String channel) {
+        withMetalog((contracts, metalog) -> {
+            final Console console = contracts.claim(Console.CONTRACT);
+            
+            assertTrue(console.getChannels().orElseThrow().contains(channel));
+        });
+    }
+    
     @ParameterizedTest(name = "channel = {0}")
     @ValueSource(strings = {"System.out", "System.err", "Console.output", "Console.error"})
     default void console_publish_AfterMetalogShutdown_Works(String channel) {
@@ -192,6 +203,57 @@ public interface ConsoleTests {
         });
     }
     
+    @ParameterizedTest(name = "channel = {0}")
+    @ValueSource(strings = {"System.out", "System.err", "Console.output", "Console.error"})
+    default void console_publish_Buffered_WithSupportedChannel(String channel) {
+        withMetalog(b -> b.consoleBuffered(true), (contracts, metalog) -> {
+            
+            assertOutcomeSuccess(assertIndirectConsole(metalog, channel, 1));
+            assertOutcomeSuccess(assertDirectConsole(contracts, channel, 1));
+        });
+    }
+    
+    @ParameterizedTest(name = "linger = {0}")
+    @ValueSource(longs = {0, 1, 20})
+    default void console_output_Buffered_WithManyLogs_Works(long lingerMillis) {
+        withMetalog(b -> b.consoleBuffered(true).consoleLinger(Duration.ofMillis(lingerMillis)), (contracts, metalog) -> {
+            final Console console = contracts.claim(Console.CONTRACT);
+            final String longText = "x".repeat(70_000) + "\u00e9\ud83d\ude00";
+            
+            for (int i = 0; i < 3; i++) {
+                assertOutcomeSuccess(console.output(() -> longText));
+            }
+            assertOutcomeSuccess(console.error(() -> "error"));
+        });
+    }
+    
+    @ParameterizedTest(name = "buffered = {0}")
+    @ValueSource(booleans = {false, true})
+    default void console_Subscribed_AsBatchSubscriber_OnlyWhenBuffered(boolean buffered) {
+        withMetalog(b -> b.consoleBuffered(buffered).measureLatency(true), (contracts, metalog) -> {
+            final Console console = contracts.claim(Console.CONTRACT);
+            final Subscriber subscribed = metalog.getStatistics().getSubscriptions().stream()
+                .map(Statistics.Subscription::getSubscriber)
+                .filter(subscriber -> subscriber == console || subscriber instanceof BatchSubscriber)
+                .findFirst().orElseThrow();
+            
+            // unbuffered lines are printed as they are received, not held until the batch ends
+            assertEquals(buffered, subscribed instanceof BatchSubscriber);
+            assertOutcomeSuccess(console.output(() -> "Hello"));
+        });
+    }
+    
+    @Test
+    default void console_publish_Buffered_AfterMetalogShutdown_Works() {
+        final AtomicReference<Console> consoleRef = new AtomicReference<>();
+        withMetalog(b -> b.consoleBuffered(true), (contracts, metalog) -> {
+            consoleRef.set(contracts.claim(Console.CONTRACT));
+        });
+        
+        assertNotNull(consoleRef.get().publish(() -> "Hello"));
+        assertNotNull(consoleRef.get().error(() -> "Hello"));
+    }
+    
     @Test
     default void console_InternalCoverage() {
         assertInstantiateThrows(ConsoleTestsTools.class);
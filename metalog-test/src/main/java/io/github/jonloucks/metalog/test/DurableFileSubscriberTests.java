@@ -0,0 +1,286 @@
+package io.github.jonloucks.metalog.test;
+
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.contracts.api.Contracts;
+import io.github.jonloucks.metalog.api.DurableFileSubscriber;
+import io.github.jonloucks.metalog.api.Encoder;
+import io.github.jonloucks.metalog.api.FsyncPolicy;
+import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.api.MetalogException;
+import io.github.jonloucks.metalog.api.Outcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static io.github.jonloucks.contracts.test.Tools.assertInstantiateThrows;
+import static io.github.jonloucks.contracts.test.Tools.assertThrown;
+import static io.github.jonloucks.metalog.test.DurableFileSubscriberTests.DurableFileSubscriberTestsTools.blockingMeta;
+import static io.github.jonloucks.metalog.test.DurableFileSubscriberTests.DurableFileSubscriberTestsTools.newSubscriber;
+import static io.github.jonloucks.metalog.test.DurableFileSubscriberTests.DurableFileSubscriberTestsTools.readLines;
+import static io.github.jonloucks.metalog.test.Tools.withMetalog;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public interface DurableFileSubscriberTests {
+    
+    @Test
+    default void durableFileSubscriber_Config_Defaults() {
+        final DurableFileSubscriber.Config config = DurableFileSubscriber.Config.DEFAULT;
+        
+        assertEquals(Path.of("logs", "durable.log"), config.file());
+        assertEquals(FsyncPolicy.BATCH, config.fsyncPolicy());
+        assertTrue(config.fsyncInterval().toMillis() > 0, "Fsync interval should be positive.");
+        assertTrue(config.queueLimit() > 0, "Queue limit should be positive.");
+        assertEquals(Encoder.TEXT_FACTORY, config.encoderFactory());
+    }
+    
+    @Test
+    default void durableFileSubscriber_create_WithNullConfig_Throws() {
+        withMetalog((contracts, metalog) -> {
+            final DurableFileSubscriber.Factory factory = contracts.claim(DurableFileSubscriber.FACTORY);
+            final IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> {
+                factory.create((DurableFileSubscriber.Config) null);
+            });
+            
+            assertThrown(thrown);
+        });
+    }
+    
+    @Test
+    default void durableFileSubscriber_create_WithInvalidQueueLimit_Throws(@TempDir Path directory) {
+        withMetalog((contracts, metalog) -> {
+            final IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> {
+                contracts.claim(DurableFileSubscriber.FACTORY).create(b -> b.file(directory.resolve("a.log")).queueLimit(0));
+            });
+            
+            assertThrown(thrown);
+        });
+    }
+    
+    @Test
+    default void durableFileSubscriber_receive_WhenNotOpen_IsRejected(@TempDir Path directory) {
+        withMetalog((contracts, metalog) -> {
+            final DurableFileSubscriber subscriber = newSubscriber(contracts, directory.resolve("a.log"), FsyncPolicy.BATCH);
+            
+            assertEquals(Outcome.REJECTED, subscriber.receive(() -> "Hello", Meta.DEFAULT));
+        });
+    }
+    
+    @ParameterizedTest(name = "fsyncPolicy = {0}")
+    @EnumSource(FsyncPolicy.class)
+    default void durableFileSubscriber_receive_Blocking_IsWrittenBeforeReturn(FsyncPolicy fsyncPolicy, @TempDir Path directory) {
+        final Path file = directory.resolve("nested").resolve("a.log");
+        withMetalog((contracts, metalog) -> {
+            final DurableFileSubscriber subscriber = newSubscriber(contracts, file, fsyncPolicy);
+            try (AutoClose closeSubscriber = subscriber.open()) {
+                final AutoClose ignored = closeSubscriber;
+                for (int i = 0; i < 10; i++) {
+                    final String text = "line " + i;
+                    assertEquals(Outcome.CONSUMED, subscriber.receive(() -> text, blockingMeta()));
+                    assertEquals("info " + text, readLines(file).get(i));
+                }
+            }
+        });
+    }
+    
+    @ParameterizedTest(name = "fsyncPolicy = {0}")
+    @EnumSource(FsyncPolicy.class)
+    default void durableFileSubscriber_publish_FromManyThreads_WritesAll(FsyncPolicy fsyncPolicy, @TempDir Path directory) {
+        final Path file = directory.resolve("a.log");
+        final int threadCount = 8;
+        final int logCount = 200;
+        withMetalog((contracts, metalog) -> {
+            final DurableFileSubscriber subscriber = newSubscriber(contracts, file, fsyncPolicy);
+            final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+            try (AutoClose closeSubscriber = subscriber.open();
+                 AutoClose closeSubscription = metalog.subscribe(subscriber)) {
+                final AutoClose ignore1 = closeSubscriber, ignore2 = closeSubscription;
+                final List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threadCount; t++) {
+                    final int thread = t;
+                    futures.add(executor.submit(() -> {
+                        for (int i = 0; i < logCount; i++) {
+                            final String text = thread + " " + i;
+                            assertEquals(Outcome.CONSUMED, metalog.publish(() -> text, b -> b.block()));
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    assertDoesNotThrow(() -> future.get());
+                }
+            } finally {
+                executor.shutdown();
+            }
+        });
+        
+        final List<String> lines = readLines(file);
+        final List<String> expected = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            for (int i = 0; i < logCount; i++) {
+                expected.add("info " + t + " " + i);
+            }
+        }
+        Collections.sort(lines);
+        Collections.sort(expected);
+        assertEquals(expected, lines);
+    }
+    
+    @Test
+    default void durableFileSubscriber_close_WritesQueued(@TempDir Path directory) {
+        final Path file = directory.resolve("a.log");
+        withMetalog((contracts, metalog) -> {
+            final DurableFileSubscriber subscriber = newSubscriber(contracts, file, FsyncPolicy.INTERVAL);
+            try (AutoClose closeSubscriber = subscriber.open()) {
+                final AutoClose ignored = closeSubscriber;
+                for (int i = 0; i < 100; i++) {
+                    final String text = "line " + i;
+                    assertEquals(Outcome.DISPATCHED, subscriber.receive(() -> text, Meta.DEFAULT));
+                }
+            }
+            assertEquals(Outcome.REJECTED, subscriber.receive(() -> "late", Meta.DEFAULT));
+        });
+        
+        final List<String> lines = readLines(file);
+        assertEquals(100, lines.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("info line " + i, lines.get(i));
+        }
+    }
+    
+    @Test
+    default void durableFileSubscriber_open_AppendsToExistingFile(@TempDir Path directory) {
+        final Path file = directory.resolve("a.log");
+        withMetalog((contracts, metalog) -> {
+            for (String text : new String[]{"first", "second"}) {
+                final DurableFileSubscriber subscriber = newSubscriber(contracts, file, FsyncPolicy.BATCH);
+                try (AutoClose closeSubscriber = subscriber.open()) {
+                    final AutoClose ignored = closeSubscriber;
+                    subscriber.receive(() -> text, blockingMeta());
+                }
+            }
+        });
+        
+        assertEquals(List.of("info first", "info second"), readLines(file));
+    }
+    
+    @ParameterizedTest(name = "fsyncPolicy = {0}")
+    @EnumSource(FsyncPolicy.class)
+    default void durableFileSubscriber_receive_Blocking_WhenWriteFails_Throws(FsyncPolicy fsyncPolicy) {
+        // every write to this device fails with no space left
+        final Path full = Path.of("/dev/full");
+        assumeTrue(Files.isWritable(full), "Requires a device that always fails to write.");
+        final int threadCount = 8;
+        final int logCount = 50;
+        withMetalog((contracts, metalog) -> {
+            final DurableFileSubscriber subscriber = newSubscriber(contracts, full, fsyncPolicy);
+            final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+            try (AutoClose closeSubscriber = subscriber.open()) {
+                final AutoClose ignored = closeSubscriber;
+                final List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threadCount; t++) {
+                    // many failed batches in flight, none may be acknowledged as written
+                    futures.add(executor.submit(() -> {
+                        for (int i = 0; i < logCount; i++) {
+                            final String text = "line " + i;
+                            final MetalogException thrown = assertThrows(MetalogException.class, () -> {
+                                subscriber.receive(() -> text, blockingMeta());
+                            });
+                            
+                            assertThrown(thrown);
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    assertDoesNotThrow(() -> future.get());
+                }
+            } finally {
+                executor.shutdown();
+            }
+        });
+    }
+    
+    @Test
+    default void durableFileSubscriber_receive_LargerThanBuffer_IsWritten(@TempDir Path directory) {
+        final Path file = directory.resolve("a.log");
+        final String large = "x".repeat(1024 * 1024);
+        withMetalog((contracts, metalog) -> {
+            final DurableFileSubscriber subscriber = newSubscriber(contracts, file, FsyncPolicy.BATCH);
+            try (AutoClose closeSubscriber = subscriber.open()) {
+                final AutoClose ignored = closeSubscriber;
+                assertEquals(Outcome.DISPATCHED, subscriber.receive(() -> "before", Meta.DEFAULT));
+                assertEquals(Outcome.CONSUMED, subscriber.receive(() -> large, blockingMeta()));
+                assertEquals(Outcome.CONSUMED, subscriber.receive(() -> "after", blockingMeta()));
+            }
+        });
+        
+        assertEquals(List.of("info before", "info " + large, "info after"), readLines(file));
+    }
+    
+    @Test
+    default void durableFileSubscriber_addFilter_Works(@TempDir Path directory) {
+        withMetalog((contracts, metalog) -> {
+            final DurableFileSubscriber subscriber = newSubscriber(contracts, directory.resolve("a.log"), FsyncPolicy.BATCH);
+            
+            assertTrue(subscriber.test(Meta.DEFAULT));
+            try (AutoClose closeFilter = subscriber.addFilter(m -> false)) {
+                final AutoClose ignored = closeFilter;
+                assertFalse(subscriber.test(Meta.DEFAULT));
+            }
+            assertTrue(subscriber.test(Meta.DEFAULT));
+        });
+    }
+    
+    @Test
+    default void durableFileSubscriber_InternalCoverage() {
+        assertInstantiateThrows(DurableFileSubscriberTestsTools.class);
+    }
+    
+    final class DurableFileSubscriberTestsTools {
+        private DurableFileSubscriberTestsTools() {
+            throw new AssertionError("Illegal constructor");
+        }
+        
+        static DurableFileSubscriber newSubscriber(Contracts contracts, Path file, FsyncPolicy fsyncPolicy) {
+            return contracts.claim(DurableFileSubscriber.FACTORY).create(b -> b
+                .file(file)
+                .fsyncPolicy(fsyncPolicy)
+                .fsyncInterval(Duration.ofMillis(5)));
+        }
+        
+        static Meta blockingMeta() {
+            return new Meta() {
+                @Override
+                public boolean isBlocking() {
+                    return true;
+                }
+                
+                @Override
+                public CharSequence get() {
+                    return "";
+                }
+            };
+        }
+        
+        static List<String> readLines(Path file) {
+            try {
+                return Files.readAllLines(file, StandardCharsets.UTF_8);
+            } catch (IOException thrown) {
+                throw new UncheckedIOException(thrown);
+            }
+        }
+    }
+}
@@ -252,6 +252,55 @@ public interface EntitiesTests {
         });
     }
     
+    @Test
+    default void entities_removeIf_ReplaceIf_KeepOrderAtEverySize() {
+        for (int entityCount = 0; entityCount <= 10; entityCount++) {
+            final int count = entityCount;
+            runWithScenario( entities -> {
+                final List<Entity> expected = new ArrayList<>();
+                for (int i = 0; i < count; i++) {
+                    final Entity entity = createTestEntity("entity" + i);
+                    entities.entity(entity);
+                    if (i % 2 == 1) {
+                        expected.add(entity);
+                    }
+                }
+                final Predicate<Entity> isEven = e -> Integer.parseInt(e.getName().orElse("").substring(6)) % 2 == 0;
+                
+                assertEquals(count > 0, entities.removeIf(isEven), "Removed with " + count);
+                assertEquals(expected, entities.asList(), "Kept with " + count);
+                
+                final Entity replacement = createTestEntity("replacement");
+                expected.replaceAll(e -> replacement);
+                assertEquals(count > 1, entities.replaceIf(e -> true, replacement), "Replaced with " + count);
+                assertEquals(expected, entities.asList(), "Replacements with " + count);
+            });
+        }
+    }
+    
+    @Test
+    default void entities_removeIf_WhenFilterThrows_KeepsEntities() {
+        runWithScenario( entities -> {
+            final List<Entity> expected = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                final Entity entity = createTestEntity("entity" + i);
+                entities.entity(entity);
+                if (i != 1) {
+                    expected.add(entity);
+                }
+            }
+            final Predicate<Entity> failing = e -> {
+                if (e.getName().filter("entity3"::equals).isPresent()) {
+                    throw new IllegalStateException("Oops.");
+                }
+                return e.getName().filter("entity1"::equals).isPresent();
+            };
+            
+            assertThrows(IllegalStateException.class, () -> entities.removeIf(failing));
+            assertEquals(expected, entities.asList(), "Entities not removed are kept");
+        });
+    }
+    
     @Test
     default void entities_InternalCoverage() {
         assertInstantiateThrows(EntitiesTestsTools.class);
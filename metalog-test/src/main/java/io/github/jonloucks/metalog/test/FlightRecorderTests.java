@@ -0,0 +1,301 @@
+package io.github.jonloucks.metalog.test;
+
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.contracts.api.Contracts;
+import io.github.jonloucks.metalog.api.BatchSubscriber;
+import io.github.jonloucks.metalog.api.FlightRecorder;
+import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.api.Outcome;
+import io.github.jonloucks.metalog.api.Subscriber;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static io.github.jonloucks.contracts.test.Tools.assertInstantiateThrows;
+import static io.github.jonloucks.contracts.test.Tools.assertThrown;
+import static io.github.jonloucks.metalog.test.FlightRecorderTests.FlightRecorderTestsTools.collect;
+import static io.github.jonloucks.metalog.test.FlightRecorderTests.FlightRecorderTestsTools.meta;
+import static io.github.jonloucks.metalog.test.Tools.withMetalog;
+import static org.junit.jupiter.api.Assertions.*;
+
+public interface FlightRecorderTests {
+    
+    @Test
+    default void flightRecorder_Config_Defaults() {
+        final FlightRecorder.Config config = FlightRecorder.Config.DEFAULT;
+        
+        assertTrue(config.capacity() > 0, "Capacity should be positive.");
+        assertFalse(config.perKey(), "Per key should be off.");
+        assertTrue(config.maxKeys() > 0, "Maximum keys should be positive.");
+        assertEquals(Set.of("error"), config.errorChannels());
+        assertEquals(Optional.empty(), config.sink());
+    }
+    
+    @Test
+    default void flightRecorder_create_WithNullConfig_Throws() {
+        withMetalog((contracts, metalog) -> {
+            final FlightRecorder.Factory factory = contracts.claim(FlightRecorder.FACTORY);
+            final IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> {
+                factory.create((FlightRecorder.Config) null);
+            });
+            
+            assertThrown(thrown);
+        });
+    }
+    
+    @Test
+    default void flightRecorder_create_WithInvalidCapacity_Throws() {
+        withMetalog((contracts, metalog) -> {
+            final IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> {
+                contracts.claim(FlightRecorder.FACTORY).create(b -> b.capacity(0));
+            });
+            
+            assertThrown(thrown);
+        });
+    }
+    
+    @Test
+    default void flightRecorder_create_WithNullSink_Throws() {
+        withMetalog((contracts, metalog) -> {
+            final IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> {
+                contracts.claim(FlightRecorder.FACTORY).create(b -> b.sink(null));
+            });
+            
+            assertThrown(thrown);
+        });
+    }
+    
+    @Test
+    default void flightRecorder_receive_Thrown_DumpsLastInOrder() {
+        withMetalog((contracts, metalog) -> {
+            final List<String> dumped = Collections.synchronizedList(new ArrayList<>());
+            final FlightRecorder recorder = contracts.claim(FlightRecorder.FACTORY).create(b -> b
+                .capacity(4)
+                .sink(collect(dumped)));
+            
+            for (int i = 0; i < 10; i++) {
+                final String text = "message " + i;
+                assertEquals(Outcome.CONSUMED, recorder.receive(() -> text, meta(contracts, m -> m.channel("info"))));
+            }
+            assertTrue(dumped.isEmpty(), "Nothing should be dumped before an error.");
+            
+            recorder.receive(() -> "failed", meta(contracts, m -> m.thrown(new IllegalStateException("Oops."))));
+            
+            assertEquals(List.of("message 7", "message 8", "message 9", "failed"), dumped);
+        });
+    }
+    
+    @Test
+    default void flightRecorder_receive_ErrorChannel_Dumps() {
+        withMetalog((contracts, metalog) -> {
+            final List<String> dumped = Collections.synchronizedList(new ArrayList<>());
+            final FlightRecorder recorder = contracts.claim(FlightRecorder.FACTORY).create(b -> b
+                .errorChannels(Set.of("fatal"))
+                .sink(collect(dumped)));
+            
+            recorder.receive(() -> "before", meta(contracts, m -> m.channel("info")));
+            recorder.receive(() -> "not an error", meta(contracts, m -> m.channel("error")));
+            assertTrue(dumped.isEmpty(), "Only the configured channels should dump.");
+            
+            recorder.receive(() -> "fatal", meta(contracts, m -> m.channel("fatal")));
+            
+            assertEquals(List.of("before", "not an error", "fatal"), dumped);
+        });
+    }
+    
+    @Test
+    default void flightRecorder_dump_NeverDumpsTwice() {
+        withMetalog((contracts, metalog) -> {
+            final List<String> dumped = Collections.synchronizedList(new ArrayList<>());
+            final FlightRecorder recorder = contracts.claim(FlightRecorder.FACTORY).create(b -> b.sink(collect(dumped)));
+            
+            recorder.receive(() -> "first", meta(contracts, m -> m.channel("info")));
+            assertEquals(1, recorder.dump());
+            assertEquals(0, recorder.dump());
+            
+            recorder.receive(() -> "second", meta(contracts, m -> m.channel("error")));
+            
+            assertEquals(List.of("first", "second"), dumped);
+            assertEquals(0, recorder.dump());
+        });
+    }
+    
+    @Test
+    default void flightRecorder_receive_KeepsTextOfReusedLog() {
+        withMetalog((contracts, metalog) -> {
+            final List<String> dumped = Collections.synchronizedList(new ArrayList<>());
+            final FlightRecorder recorder = contracts.claim(FlightRecorder.FACTORY).create(b -> b.sink(collect(dumped)));
+            final StringBuilder reused = new StringBuilder();
+            
+            reused.append("first");
+            recorder.receive(() -> reused, meta(contracts, m -> m.channel("info")));
+            reused.setLength(0);
+            reused.append("second");
+            recorder.receive(() -> reused, meta(contracts, m -> m.channel("info")));
+            reused.setLength(0);
+            
+            assertEquals(2, recorder.dump());
+            assertEquals(List.of("first", "second"), dumped);
+        });
+    }
+    
+    @Test
+    default void flightRecorder_PerKey_DumpsOnlyRingOfKey() {
+        withMetalog((contracts, metalog) -> {
+            final List<String> dumped = Collections.synchronizedList(new ArrayList<>());
+            final FlightRecorder recorder = contracts.claim(FlightRecorder.FACTORY).create(b -> b
+                .perKey(true)
+                .sink(collect(dumped)));
+            
+            recorder.receive(() -> "a1", meta(contracts, m -> m.key("a")));
+            recorder.receive(() -> "b1", meta(contracts, m -> m.key("b")));
+            recorder.receive(() -> "none", meta(contracts, m -> m.channel("info")));
+            recorder.receive(() -> "a2", meta(contracts, m -> m.key("a").channel("error")));
+            
+            assertEquals(List.of("a1", "a2"), dumped);
+            assertEquals(2, recorder.dump());
+        });
+    }
+    
+    @Test
+    default void flightRecorder_PerKey_OverMaxKeys_SharesRing() {
+        withMetalog((contracts, metalog) -> {
+            final List<String> dumped = Collections.synchronizedList(new ArrayList<>());
+            final FlightRecorder recorder = contracts.claim(FlightRecorder.FACTORY).create(b -> b
+                .perKey(true)
+                .maxKeys(1)
+                .sink(collect(dumped)));
+            
+            recorder.receive(() -> "a1", meta(contracts, m -> m.key("a")));
+            recorder.receive(() -> "b1", meta(contracts, m -> m.key("b")));
+            recorder.receive(() -> "c1", meta(contracts, m -> m.key("c")));
+            recorder.receive(() -> "none", meta(contracts, m -> m.channel("error")));
+            
+            assertEquals(List.of("b1", "c1", "none"), dumped);
+        });
+    }
+    
+    @Test
+    default void flightRecorder_BatchSink_ReceivesOneBatch() {
+        withMetalog((contracts, metalog) -> {
+            final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+            final BatchSubscriber sink = events -> {
+                batchSizes.add(events.size());
+                return Outcome.CONSUMED;
+            };
+            final FlightRecorder recorder = contracts.claim(FlightRecorder.FACTORY).create(b -> b.sink(sink));
+            
+            recorder.receive(() -> "first", meta(contracts, m -> m.channel("info")));
+            recorder.receive(() -> "second", meta(contracts, m -> m.channel("info")));
+            recorder.receive(() -> "third", meta(contracts, m -> m.channel("error")));
+            
+            assertEquals(List.of(3), batchSizes);
+        });
+    }
+    
+    @Test
+    default void flightRecorder_Subscribed_OnlyRecordsWhatMetalogPublishes() {
+        withMetalog((contracts, metalog) -> {
+            final List<String> dumped = Collections.synchronizedList(new ArrayList<>());
+            final CountDownLatch dumpedLatch = new CountDownLatch(3);
+            final Subscriber sink = (log, meta) -> {
+                dumped.add(log.get().toString());
+                dumpedLatch.countDown();
+                return Outcome.CONSUMED;
+            };
+            final FlightRecorder recorder = contracts.claim(FlightRecorder.FACTORY).create(b -> b.sink(sink));
+            
+            try (AutoClose closeSubscription = metalog.subscribe(recorder);
+                 AutoClose closeFilter = metalog.addFilter(m -> !"debug".equals(m.getChannel()))) {
+                final AutoClose ignored = closeSubscription;
+                final AutoClose ignoredFilter = closeFilter;
+                metalog.publish(() -> "first", m -> m.key("flight").channel("info"));
+                metalog.publish(() -> "hidden", m -> m.key("flight").channel("debug"));
+                metalog.publish(() -> "second", m -> m.key("flight").channel("info"));
+                metalog.publish(() -> "failed", m -> m.key("flight").channel("error"));
+                assertTrue(dumpedLatch.await(1, TimeUnit.MINUTES), "Dump took too long.");
+            } catch (InterruptedException e) {
+                fail("Flight recorder was interrupted.");
+            }
+            assertEquals(List.of("first", "second", "failed"), dumped);
+        });
+    }
+    
+    @Test
+    default void flightRecorder_Subscribed_RendersOnlyWhenDumped() {
+        withMetalog((contracts, metalog) -> {
+            final List<String> dumped = Collections.synchronizedList(new ArrayList<>());
+            final FlightRecorder recorder = contracts.claim(FlightRecorder.FACTORY).create(b -> b.sink(collect(dumped)));
+            final Thread[] invokedOn = {null};
+            final CountDownLatch recordedLatch = new CountDownLatch(1);
+            // subscribed after the recorder, so it receives the log message once it is recorded
+            final Subscriber recorded = (log, meta) -> {
+                recordedLatch.countDown();
+                return Outcome.CONSUMED;
+            };
+            
+            try (AutoClose closeRecorder = metalog.subscribe(recorder);
+                 AutoClose closeRecorded = metalog.subscribe(recorded)) {
+                final AutoClose ignored = closeRecorder;
+                final AutoClose ignoredRecorded = closeRecorded;
+                metalog.publish(() -> {
+                    invokedOn[0] = Thread.currentThread();
+                    return "first";
+                }, m -> m.key("flight").channel("info"));
+                assertTrue(recordedLatch.await(1, TimeUnit.MINUTES), "Recording took too long.");
+                
+                assertNull(invokedOn[0], "The Log should not be invoked when recorded.");
+                assertEquals(1, recorder.dump());
+                assertSame(Thread.currentThread(), invokedOn[0]);
+                assertEquals(List.of("first"), dumped);
+            } catch (InterruptedException e) {
+                fail("Flight recorder was interrupted.");
+            }
+        });
+    }
+    
+    @Test
+    default void flightRecorder_addFilter_Works() {
+        withMetalog((contracts, metalog) -> {
+            final FlightRecorder recorder = contracts.claim(FlightRecorder.FACTORY).create(b -> {});
+            
+            assertTrue(recorder.test(Meta.DEFAULT));
+            try (AutoClose closeFilter = recorder.addFilter(m -> false)) {
+                final AutoClose ignored = closeFilter;
+                assertFalse(recorder.test(Meta.DEFAULT));
+            }
+            assertTrue(recorder.test(Meta.DEFAULT));
+        });
+    }
+    
+    @Test
+    default void flightRecorder_InternalCoverage() {
+        assertInstantiateThrows(FlightRecorderTestsTools.class);
+    }
+    
+    final class FlightRecorderTestsTools {
+        private FlightRecorderTestsTools() {
+            throw new AssertionError("Illegal constructor");
+        }
+        
+        static Meta meta(Contracts contracts, Consumer<Meta.Builder<?>> builderConsumer) {
+            final Meta.Builder<?> builder = contracts.claim(Meta.Builder.FACTORY).get();
+            builderConsumer.accept(builder);
+            return builder.template();
+        }
+        
+        static Subscriber collect(List<String> texts) {
+            return (log, meta) -> {
+                texts.add(log.get().toString());
+                return Outcome.CONSUMED;
+            };
+        }
+    }
+}
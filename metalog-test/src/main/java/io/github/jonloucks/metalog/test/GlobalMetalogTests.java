@@ -67,6 +67,12 @@ public interface GlobalMetalogTests {
         assertDoesNotThrow(() -> GlobalMetalog.publish((() -> "hi"), b -> b.name("x")));
     }
     
+    @Test
+    default void globalMetalog_isEnabled_DoesNotThrow() {
+        assertDoesNotThrow(() -> GlobalMetalog.isEnabled("info"));
+        assertDoesNotThrow(() -> GlobalMetalog.isEnabled("info", "key"));
+    }
+    
     @Test
     default void globalMetalog_DefaultConfig() {
         final Metalog.Config config = new Metalog.Config() {
@@ -0,0 +1,178 @@
+package io.github.jonloucks.metalog.test;
+
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.metalog.api.DurableFileSubscriber;
+import io.github.jonloucks.metalog.api.Encoder;
+import io.github.jonloucks.metalog.api.FsyncPolicy;
+import io.github.jonloucks.metalog.api.JsonEncoder;
+import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.api.Outcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static io.github.jonloucks.contracts.test.Tools.assertInstantiateThrows;
+import static io.github.jonloucks.contracts.test.Tools.assertThrown;
+import static io.github.jonloucks.metalog.test.JsonEncodingTests.JsonEncodingTestsTools.encodeToString;
+import static io.github.jonloucks.metalog.test.Tools.withMetalog;
+import static org.junit.jupiter.api.Assertions.*;
+
+public interface JsonEncodingTests {
+    
+    @Test
+    default void jsonEncoding_AllFields() {
+        withMetalog((contracts, metalog) -> {
+            final Encoder encoder = contracts.claim(JsonEncoder.FACTORY).get();
+            final Meta meta = contracts.claim(Meta.Builder.FACTORY).get()
+                .channel("audit").key("tenant-1").id("id-1").name("name-1").value(42L)
+                .time(Instant.parse("2025-01-02T03:04:05.123Z")).thrown(new IllegalStateException("Problem"))
+                .correlation(b -> b.name("user").id("u-7").value("alice").correlation(c -> c.name("roles").value(3)))
+                .correlation(b -> b.name("ratio").value(0.25d).text(() -> "a quarter"))
+                .correlation(b -> b.name("admin").value(true).unique())
+                .template();
+            
+            assertEquals("{\"time\":\"2025-01-02T03:04:05.123Z\",\"channel\":\"audit\",\"key\":\"tenant-1\""
+                    + ",\"id\":\"id-1\",\"name\":\"name-1\",\"value\":42,\"message\":\"Hello\""
+                    + ",\"thrown\":\"java.lang.IllegalStateException: Problem\""
+                    + ",\"correlations\":[{\"name\":\"user\",\"id\":\"u-7\",\"value\":\"alice\""
+                    + ",\"correlations\":[{\"name\":\"roles\",\"value\":3}]}"
+                    + ",{\"name\":\"ratio\",\"value\":0.25,\"text\":\"a quarter\"}"
+                    + ",{\"name\":\"admin\",\"value\":true,\"unique\":true}]}\n",
+                encodeToString(encoder, "Hello", meta));
+        });
+    }
+    
+    @Test
+    default void jsonEncoding_Values_AreNative() {
+        withMetalog((contracts, metalog) -> {
+            final Encoder encoder = contracts.claim(JsonEncoder.FACTORY).get();
+            
+            assertEquals("{\"channel\":\"info\",\"value\":-7,\"message\":\"\"}\n",
+                encodeToString(encoder, "", contracts.claim(Meta.Builder.FACTORY).get().value(-7)));
+            assertEquals("{\"channel\":\"info\",\"value\":1.5,\"message\":\"\"}\n",
+                encodeToString(encoder, "", contracts.claim(Meta.Builder.FACTORY).get().value(1.5f)));
+            assertEquals("{\"channel\":\"info\",\"value\":false,\"message\":\"\"}\n",
+                encodeToString(encoder, "", contracts.claim(Meta.Builder.FACTORY).get().value(false)));
+            assertEquals("{\"channel\":\"info\",\"value\":\"x\",\"message\":\"\"}\n",
+                encodeToString(encoder, "", contracts.claim(Meta.Builder.FACTORY).get().value('x')));
+            assertEquals("{\"channel\":\"info\",\"value\":\"NaN\",\"message\":\"\"}\n",
+                encodeToString(encoder, "", contracts.claim(Meta.Builder.FACTORY).get().value(Double.NaN)));
+            assertEquals("{\"channel\":\"info\",\"value\":\"PT1S\",\"message\":\"\"}\n",
+                encodeToString(encoder, "", contracts.claim(Meta.Builder.FACTORY).get().value(Duration.ofSeconds(1))));
+        });
+    }
+    
+    @Test
+    default void jsonEncoding_Text_IsEscaped() {
+        withMetalog((contracts, metalog) -> {
+            final Encoder encoder = contracts.claim(JsonEncoder.FACTORY).get();
+            final String text = "quote\" back\\ line\n tab\t bell\u0007 separator\u2028 e\u00e9 smile\ud83d\ude00";
+            
+            assertEquals("{\"channel\":\"info\",\"message\":\"quote\\\" back\\\\ line\\n tab\\t bell\\u0007"
+                    + " separator\\u2028 e\u00e9 smile\ud83d\ude00\"}\n",
+                encodeToString(encoder, text, Meta.DEFAULT));
+        });
+    }
+    
+    @Test
+    default void jsonEncoding_append_MatchesEncode() {
+        withMetalog((contracts, metalog) -> {
+            final JsonEncoder encoder = contracts.claim(JsonEncoder.FACTORY).get();
+            final Meta meta = contracts.claim(Meta.Builder.FACTORY).get()
+                .channel("info").key("k").correlation(b -> b.name("n").value(1));
+            final StringBuilder builder = new StringBuilder("before ");
+            
+            encoder.append(() -> "Hello \u00e9", meta, builder);
+            
+            assertEquals("before " + encodeToString(encoder, "Hello \u00e9", meta), builder.toString());
+        });
+    }
+    
+    @Test
+    default void jsonEncoding_append_WhenAppendFails_Throws() {
+        withMetalog((contracts, metalog) -> {
+            final JsonEncoder encoder = contracts.claim(JsonEncoder.FACTORY).get();
+            final Writer failing = new Writer() {
+                @Override
+                public void write(char[] chars, int offset, int length) throws IOException {
+                    throw new IOException("Failed.");
+                }
+                
+                @Override
+                public void flush() {
+                }
+                
+                @Override
+                public void close() {
+                }
+            };
+            
+            final UncheckedIOException thrown = assertThrows(UncheckedIOException.class, () -> {
+                encoder.append(() -> "Hello", Meta.DEFAULT, failing);
+            });
+            
+            assertThrown(thrown);
+        });
+    }
+    
+    @Test
+    default void jsonEncoding_encode_WhenFull_LeavesBufferUnchanged() {
+        withMetalog((contracts, metalog) -> {
+            final Encoder encoder = contracts.claim(JsonEncoder.FACTORY).get();
+            final ByteBuffer buffer = ByteBuffer.allocate(20);
+            buffer.put((byte) 'x');
+            
+            assertFalse(encoder.encode(() -> "Hello World", Meta.DEFAULT, buffer));
+            assertEquals(1, buffer.position());
+            assertEquals(0, buffer.get(1));
+        });
+    }
+    
+    @Test
+    default void jsonEncoding_WithDurableFileSubscriber_WritesJsonLines(@TempDir Path directory) throws IOException {
+        final Path file = directory.resolve("events.jsonl");
+        withMetalog((contracts, metalog) -> {
+            final DurableFileSubscriber subscriber = contracts.claim(DurableFileSubscriber.FACTORY).create(b -> b
+                .file(file)
+                .fsyncPolicy(FsyncPolicy.NEVER)
+                .encoderFactory(JsonEncoder.FACTORY));
+            
+            try (AutoClose closeSubscriber = subscriber.open()) {
+                final AutoClose ignored = closeSubscriber;
+                assertEquals(Outcome.DISPATCHED, subscriber.receive(() -> "first", Meta.DEFAULT));
+                assertEquals(Outcome.DISPATCHED, subscriber.receive(() -> "second", Meta.DEFAULT));
+            }
+        });
+        
+        assertEquals(List.of(
+            "{\"channel\":\"info\",\"message\":\"first\"}",
+            "{\"channel\":\"info\",\"message\":\"second\"}"), Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+    
+    @Test
+    default void jsonEncoding_InternalCoverage() {
+        assertInstantiateThrows(JsonEncodingTestsTools.class);
+    }
+    
+    final class JsonEncodingTestsTools {
+        private JsonEncodingTestsTools() {
+            throw new AssertionError("Illegal constructor");
+        }
+        
+        static String encodeToString(Encoder encoder, String text, Meta meta) {
+            final ByteBuffer buffer = ByteBuffer.allocate(4096);
+            assertTrue(encoder.encode(() -> text, meta, buffer), "Line should fit.");
+            return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -1,17 +1,30 @@
 package io.github.jonloucks.metalog.test;
 
+import io.github.jonloucks.contracts.api.AutoClose;
 import io.github.jonloucks.metalog.api.Dispatcher;
 import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.api.Metalog;
 import io.github.jonloucks.metalog.api.Outcome;
+import io.github.jonloucks.metalog.api.OverflowPolicy;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static io.github.jonloucks.contracts.test.Tools.assertInstantiateThrows;
+import static io.github.jonloucks.metalog.test.KeyedDispatcherTests.KeyedDispatcherTestsTools.overflowDispatcher;
+import static io.github.jonloucks.metalog.test.KeyedDispatcherTests.KeyedDispatcherTestsTools.withFullDispatcher;
 import static io.github.jonloucks.metalog.test.Tools.withMetalog;
-import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -34,4 +47,164 @@ public interface KeyedDispatcherTests {
             }
         });
     }
+    
+    @ParameterizedTest(name = "useKeyedRingBuffer = {0}")
+    @ValueSource(booleans = {false, true})
+    default void keyedDispatcher_AfterOpen_RunsWorkInOrder(boolean useKeyedRingBuffer) {
+        withMetalog(b -> b.useKeyedRingBuffer(useKeyedRingBuffer).keyedQueueLimit(10), (contracts, metalog) -> {
+            final Dispatcher dispatcher = contracts.claim(Dispatcher.KEYED_FACTORY).get();
+            final int jobCount = 1_000;
+            final CountDownLatch completedLatch = new CountDownLatch(jobCount);
+            final int[] expected = {0};
+            final int[] failures = {0};
+            
+            try (AutoClose closeDispatcher = dispatcher.open()) {
+                final AutoClose ignored = closeDispatcher;
+                for (int i = 0; i < jobCount; i++) {
+                    final int sequence = i;
+                    final Outcome outcome = dispatcher.dispatch(Meta.DEFAULT, () -> {
+                        if (expected[0]++ != sequence) {
+                            failures[0]++;
+                        }
+                        completedLatch.countDown();
+                    });
+                    assertEquals(Outcome.DISPATCHED, outcome);
+                }
+                assertTrue(completedLatch.await(1, TimeUnit.MINUTES), "Dispatcher took too long.");
+            } catch (InterruptedException e) {
+                fail("Dispatcher was interrupted.");
+            }
+            assertEquals(0, failures[0], "Failures");
+        });
+    }
+    
+    @ParameterizedTest(name = "useKeyedRingBuffer = {0}")
+    @ValueSource(booleans = {false, true})
+    default void keyedDispatcher_QueueLimit_CountsRunningWork(boolean useKeyedRingBuffer) {
+        withMetalog(b -> b.useKeyedRingBuffer(useKeyedRingBuffer).keyedQueueLimit(2)
+            .keyedOverflowPolicy(OverflowPolicy.DROP_NEWEST), (contracts, metalog) -> {
+            final Dispatcher dispatcher = contracts.claim(Dispatcher.KEYED_FACTORY).get();
+            final CountDownLatch runningLatch = new CountDownLatch(1);
+            final CountDownLatch releaseLatch = new CountDownLatch(1);
+            
+            try (AutoClose closeDispatcher = dispatcher.open()) {
+                final AutoClose ignored = closeDispatcher;
+                try {
+                    assertEquals(Outcome.DISPATCHED, dispatcher.dispatch(Meta.DEFAULT, () -> {
+                        runningLatch.countDown();
+                        KeyedDispatcherTestsTools.awaitRelease(releaseLatch);
+                    }));
+                    KeyedDispatcherTestsTools.awaitRelease(runningLatch);
+                    
+                    assertEquals(Outcome.DISPATCHED, dispatcher.dispatch(Meta.DEFAULT, () -> {}));
+                    assertEquals(Outcome.DROPPED, dispatcher.dispatch(Meta.DEFAULT, () -> {}), "Running work counts toward the limit.");
+                } finally {
+                    releaseLatch.countDown();
+                }
+            }
+        });
+    }
+    
+    @ParameterizedTest(name = "useKeyedRingBuffer = {0}")
+    @ValueSource(booleans = {false, true})
+    default void keyedDispatcher_Overflow_DropNewest(boolean useKeyedRingBuffer) {
+        withFullDispatcher(b -> b.useKeyedRingBuffer(useKeyedRingBuffer).keyedOverflowPolicy(OverflowPolicy.DROP_NEWEST),
+            dispatcher -> assertEquals(Outcome.DROPPED, overflowDispatcher(dispatcher, Meta.DEFAULT)));
+    }
+    
+    @ParameterizedTest(name = "useKeyedRingBuffer = {0}")
+    @ValueSource(booleans = {false, true})
+    default void keyedDispatcher_Overflow_DropOldest(boolean useKeyedRingBuffer) {
+        withFullDispatcher(b -> b.useKeyedRingBuffer(useKeyedRingBuffer).keyedOverflowPolicy(OverflowPolicy.DROP_OLDEST),
+            dispatcher -> assertEquals(Outcome.DISPLACED, overflowDispatcher(dispatcher, Meta.DEFAULT)));
+    }
+    
+    @ParameterizedTest(name = "useKeyedRingBuffer = {0}")
+    @ValueSource(booleans = {false, true})
+    default void keyedDispatcher_Overflow_BlockWithTimeout(boolean useKeyedRingBuffer) {
+        withFullDispatcher(b -> b.useKeyedRingBuffer(useKeyedRingBuffer)
+                .keyedOverflowPolicy(OverflowPolicy.BLOCK_WITH_TIMEOUT)
+                .keyedOverflowTimeout(Duration.ofMillis(10)),
+            dispatcher -> assertEquals(Outcome.EXPIRED, overflowDispatcher(dispatcher, Meta.DEFAULT)));
+    }
+    
+    @ParameterizedTest(name = "useKeyedRingBuffer = {0}")
+    @ValueSource(booleans = {false, true})
+    default void keyedDispatcher_Overflow_PerChannel_CallerRuns(boolean useKeyedRingBuffer) {
+        withFullDispatcher(b -> b.useKeyedRingBuffer(useKeyedRingBuffer)
+                .keyedOverflowPolicy(OverflowPolicy.DROP_NEWEST)
+                .keyedOverflowPolicy("error", OverflowPolicy.CALLER_RUNS),
+            dispatcher -> {
+                final Thread caller = Thread.currentThread();
+                final boolean[] ranOnCaller = {false};
+                final Meta errorMeta = new Meta() {
+                    @Override
+                    public String getChannel() {
+                        return "error";
+                    }
+                    
+                    @Override
+                    public CharSequence get() {
+                        return "error";
+                    }
+                };
+                
+                assertEquals(Outcome.DROPPED, overflowDispatcher(dispatcher, Meta.DEFAULT));
+                assertEquals(Outcome.CONSUMED, dispatcher.dispatch(errorMeta, () -> ranOnCaller[0] = Thread.currentThread() == caller));
+                assertTrue(ranOnCaller[0], "Work should have run on the caller.");
+            });
+    }
+    
+    @Test
+    default void keyedDispatcher_InternalCoverage() {
+        assertInstantiateThrows(KeyedDispatcherTestsTools.class);
+    }
+    
+    final class KeyedDispatcherTestsTools {
+        private KeyedDispatcherTestsTools() {
+            throw new AssertionError("Illegal constructor call.");
+        }
+        
+        /**
+         * Runs the block with an open keyed dispatcher whose worker is stuck until the block completes
+         */
+        static void withFullDispatcher(Consumer<Metalog.Config.Builder> builderConsumer, Consumer<Dispatcher> block) {
+            withMetalog(b -> builderConsumer.accept(b.keyedQueueLimit(2)), (contracts, metalog) -> {
+                final Dispatcher dispatcher = contracts.claim(Dispatcher.KEYED_FACTORY).get();
+                final CountDownLatch releaseLatch = new CountDownLatch(1);
+                
+                try (AutoClose closeDispatcher = dispatcher.open()) {
+                    final AutoClose ignored = closeDispatcher;
+                    try {
+                        assertEquals(Outcome.DISPATCHED, dispatcher.dispatch(Meta.DEFAULT, () -> awaitRelease(releaseLatch)));
+                        block.accept(dispatcher);
+                    } finally {
+                        releaseLatch.countDown();
+                    }
+                }
+            });
+        }
+        
+        /**
+         * Keeps dispatching until the queue is full
+         * @return the first outcome that is not DISPATCHED
+         */
+        static Outcome overflowDispatcher(Dispatcher dispatcher, Meta meta) {
+            for (int i = 0; i < 10; i++) {
+                final Outcome outcome = dispatcher.dispatch(meta, () -> {});
+                if (outcome != Outcome.DISPATCHED) {
+                    return outcome;
+                }
+            }
+            return fail("Dispatcher never overflowed.");
+        }
+        
+        private static void awaitRelease(CountDownLatch releaseLatch) {
+            try {
+                assertTrue(releaseLatch.await(1, TimeUnit.MINUTES), "Release took too long.");
+            } catch (InterruptedException e) {
+                fail("Dispatcher was interrupted.");
+            }
+        }
+    }
 }
@@ -0,0 +1,215 @@
+package io.github.jonloucks.metalog.test;
+
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.contracts.api.Contracts;
+import io.github.jonloucks.metalog.api.Encoder;
+import io.github.jonloucks.metalog.api.MappedFileSubscriber;
+import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.api.Outcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static io.github.jonloucks.contracts.test.Tools.assertInstantiateThrows;
+import static io.github.jonloucks.contracts.test.Tools.assertThrown;
+import static io.github.jonloucks.metalog.test.MappedFileSubscriberTests.MappedFileSubscriberTestsTools.listSegments;
+import static io.github.jonloucks.metalog.test.MappedFileSubscriberTests.MappedFileSubscriberTestsTools.newSubscriber;
+import static io.github.jonloucks.metalog.test.MappedFileSubscriberTests.MappedFileSubscriberTestsTools.readLines;
+import static io.github.jonloucks.metalog.test.MappedFileSubscriberTests.MappedFileSubscriberTestsTools.size;
+import static io.github.jonloucks.metalog.test.Tools.assertOutcomeSuccess;
+import static io.github.jonloucks.metalog.test.Tools.withMetalog;
+import static org.junit.jupiter.api.Assertions.*;
+
+public interface MappedFileSubscriberTests {
+    
+    @Test
+    default void mappedFileSubscriber_Config_Defaults() {
+        final MappedFileSubscriber.Config config = MappedFileSubscriber.Config.DEFAULT;
+        
+        assertEquals(Path.of("logs"), config.directory());
+        assertEquals("metalog", config.prefix());
+        assertEquals(".log", config.suffix());
+        assertTrue(config.segmentSize() > 0, "Segment size should be positive.");
+        assertEquals(Encoder.TEXT_FACTORY, config.encoderFactory());
+    }
+    
+    @Test
+    default void mappedFileSubscriber_create_WithNullConfig_Throws() {
+        withMetalog((contracts, metalog) -> {
+            final MappedFileSubscriber.Factory factory = contracts.claim(MappedFileSubscriber.FACTORY);
+            final IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> {
+                factory.create((MappedFileSubscriber.Config) null);
+            });
+            
+            assertThrown(thrown);
+        });
+    }
+    
+    @Test
+    default void mappedFileSubscriber_create_WithInvalidSegmentSize_Throws(@TempDir Path directory) {
+        withMetalog((contracts, metalog) -> {
+            final IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> {
+                newSubscriber(contracts, directory, 0);
+            });
+            
+            assertThrown(thrown);
+        });
+    }
+    
+    @Test
+    default void mappedFileSubscriber_receive_WhenNotOpen_IsRejected(@TempDir Path directory) {
+        withMetalog((contracts, metalog) -> {
+            final MappedFileSubscriber subscriber = newSubscriber(contracts, directory, 1024);
+            
+            assertEquals(Outcome.REJECTED, subscriber.receive(() -> "Hello", Meta.DEFAULT));
+            assertFalse(subscriber.getSegment().isPresent());
+        });
+    }
+    
+    @Test
+    default void mappedFileSubscriber_receive_WritesInOrderAcrossSegments(@TempDir Path directory) {
+        final int segmentSize = 1024;
+        final int logCount = 500;
+        withMetalog((contracts, metalog) -> {
+            final MappedFileSubscriber subscriber = newSubscriber(contracts, directory, segmentSize);
+            try (AutoClose closeSubscriber = subscriber.open();
+                 AutoClose closeSubscription = metalog.subscribe(subscriber)) {
+                final AutoClose ignore1 = closeSubscriber, ignore2 = closeSubscription;
+                assertTrue(subscriber.getSegment().isPresent());
+                for (int i = 0; i < logCount; i++) {
+                    final String text = "line " + i;
+                    assertOutcomeSuccess(metalog.publish(() -> text, b -> b.channel("info").block()));
+                }
+            }
+            assertFalse(subscriber.getSegment().isPresent());
+        });
+        
+        final List<Path> segments = listSegments(directory);
+        final List<String> lines = readLines(segments);
+        assertTrue(segments.size() > 1, "Should have rolled over to more segments.");
+        for (Path segment : segments) {
+            assertTrue(size(segment) <= segmentSize, "Segment is larger than the segment size.");
+        }
+        assertEquals(logCount, lines.size());
+        for (int i = 0; i < logCount; i++) {
+            assertEquals("info line " + i, lines.get(i));
+        }
+    }
+    
+    @Test
+    default void mappedFileSubscriber_receive_WithLogLargerThanSegment_IsDropped(@TempDir Path directory) {
+        withMetalog((contracts, metalog) -> {
+            final MappedFileSubscriber subscriber = newSubscriber(contracts, directory, 64);
+            try (AutoClose closeSubscriber = subscriber.open()) {
+                final AutoClose ignored = closeSubscriber;
+                subscriber.receive(() -> "x".repeat(100), Meta.DEFAULT);
+                subscriber.receive(() -> "small", Meta.DEFAULT);
+            }
+        });
+        
+        assertEquals(List.of("info small"), readLines(listSegments(directory)));
+    }
+    
+    @Test
+    default void mappedFileSubscriber_open_ContinuesNumbering(@TempDir Path directory) {
+        withMetalog((contracts, metalog) -> {
+            final MappedFileSubscriber first = newSubscriber(contracts, directory, 1024);
+            final MappedFileSubscriber second = newSubscriber(contracts, directory, 1024);
+            final Path firstSegment;
+            try (AutoClose closeFirst = first.open()) {
+                final AutoClose ignored = closeFirst;
+                firstSegment = first.getSegment().orElseThrow();
+                first.receive(() -> "first", Meta.DEFAULT);
+            }
+            try (AutoClose closeSecond = second.open()) {
+                final AutoClose ignored = closeSecond;
+                assertTrue(second.getSegment().orElseThrow().getFileName().toString()
+                    .compareTo(firstSegment.getFileName().toString()) > 0, "Numbering should continue.");
+            }
+        });
+    }
+    
+    @Test
+    default void mappedFileSubscriber_addFilter_Works(@TempDir Path directory) {
+        withMetalog((contracts, metalog) -> {
+            final MappedFileSubscriber subscriber = newSubscriber(contracts, directory, 1024);
+            
+            assertTrue(subscriber.test(Meta.DEFAULT));
+            try (AutoClose closeFilter = subscriber.addFilter(m -> false)) {
+                final AutoClose ignored = closeFilter;
+                assertFalse(subscriber.test(Meta.DEFAULT));
+            }
+            assertTrue(subscriber.test(Meta.DEFAULT));
+        });
+    }
+    
+    @Test
+    default void mappedFileSubscriber_textEncoder_WhenFull_LeavesBufferUnchanged() {
+        withMetalog((contracts, metalog) -> {
+            final Encoder encoder = contracts.claim(Encoder.TEXT_FACTORY).get();
+            final ByteBuffer buffer = ByteBuffer.allocate(16);
+            
+            assertTrue(encoder.encode(() -> "a\u00e9", Meta.DEFAULT, buffer));
+            final int position = buffer.position();
+            assertFalse(encoder.encode(() -> "does not fit", Meta.DEFAULT, buffer));
+            assertEquals(position, buffer.position());
+            assertEquals("info a\u00e9\n", new String(buffer.array(), 0, position, StandardCharsets.UTF_8));
+        });
+    }
+    
+    @Test
+    default void mappedFileSubscriber_InternalCoverage() {
+        assertInstantiateThrows(MappedFileSubscriberTestsTools.class);
+    }
+    
+    final class MappedFileSubscriberTestsTools {
+        private MappedFileSubscriberTestsTools() {
+            throw new AssertionError("Illegal constructor");
+        }
+        
+        static MappedFileSubscriber newSubscriber(Contracts contracts, Path directory, int segmentSize) {
+            return contracts.claim(MappedFileSubscriber.FACTORY).create(b -> b.directory(directory).segmentSize(segmentSize));
+        }
+        
+        static List<Path> listSegments(Path directory) {
+            final List<Path> segments = new ArrayList<>();
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                files.forEach(segments::add);
+            } catch (IOException thrown) {
+                throw new UncheckedIOException(thrown);
+            }
+            Collections.sort(segments);
+            return segments;
+        }
+        
+        static List<String> readLines(List<Path> segments) {
+            final List<String> lines = new ArrayList<>();
+            for (Path segment : segments) {
+                try {
+                    lines.addAll(Files.readAllLines(segment, StandardCharsets.UTF_8));
+                } catch (IOException thrown) {
+                    throw new UncheckedIOException(thrown);
+                }
+            }
+            return lines;
+        }
+        
+        static long size(Path file) {
+            try {
+                return Files.size(file);
+            } catch (IOException thrown) {
+                throw new UncheckedIOException(thrown);
+            }
+        }
+    }
+}
@@ -9,6 +9,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
 import java.time.Instant;
 import java.time.temporal.Temporal;
 import java.util.Optional;
@@ -19,6 +21,7 @@ import static io.github.jonloucks.contracts.test.Tools.assertInstantiateThrows;
 import static io.github.jonloucks.contracts.test.Tools.assertThrown;
 import static io.github.jonloucks.metalog.test.MetaTests.MetaTestsTools.newMetaBuilder;
 import static io.github.jonloucks.metalog.test.MetaTests.MetaTestsTools.runWithScenario;
+import static io.github.jonloucks.metalog.test.MetaTests.MetaTestsTools.withDefaultTemplate;
 import static io.github.jonloucks.metalog.test.Tools.createTestEntity;
 import static io.github.jonloucks.metalog.test.Tools.withMetalog;
 import static org.junit.jupiter.api.Assertions.*;
@@ -314,6 +317,113 @@ public interface MetaTests {
         });
     }
     
+    @Test
+    default void meta_getCorrelations_WithTimeThreadThrown_HasEntities() {
+        runWithScenario(builder -> {
+            final Instant timestamp = Instant.now();
+            final Thread thread = Thread.currentThread();
+            final Throwable thrown = new RuntimeException("Error");
+            
+            builder.time(timestamp).thread(thread).thrown(thrown);
+            
+            assertTrue(builder.getCorrelations().isPresent());
+            assertEquals(3, builder.getCorrelations().get().size());
+            assertEquals(Optional.of(timestamp), builder.getCorrelations().get().findFirstValueWithType(e -> e.getName().filter("time"::equals).isPresent(), Temporal.class));
+            assertEquals(Optional.of(thread), builder.getCorrelations().get().findFirstValueWithType(e -> e.getName().filter("thread"::equals).isPresent(), Thread.class));
+            assertEquals(Optional.of(thrown), builder.getCorrelations().get().findFirstValueWithType(e -> e.getName().filter("thrown"::equals).isPresent(), Throwable.class));
+        });
+    }
+    
+    @Test
+    default void meta_correlation_WithUniqueTime_ReplacesTime() {
+        runWithScenario(builder -> {
+            final Instant first = Instant.now();
+            final Instant second = first.plusSeconds(1);
+            
+            builder.time(first);
+            builder.correlation(b -> b.unique().name("time").value(second));
+            
+            assertEquals(Optional.of(second), builder.getTime());
+            assertEquals(1, builder.getCorrelations().get().size());
+            
+            builder.time(first);
+            
+            assertEquals(Optional.of(first), builder.getTime());
+            assertEquals(1, builder.getCorrelations().get().size());
+        });
+    }
+    
+    @Test
+    default void meta_correlations_SeesAndRemovesTime() {
+        runWithScenario(builder -> {
+            builder.time(Instant.now());
+            
+            builder.correlations(b -> b.removeIf(e -> e.getName().filter("time"::equals).isPresent()));
+            
+            assertFalse(builder.getTime().isPresent());
+            assertFalse(builder.getCorrelations().isPresent());
+        });
+    }
+    
+    @Test
+    default void meta_template_Copy_HasTemplateAndChanges() {
+        runWithScenario(templateBuilder -> {
+            templateBuilder.channel("audit").key("service").name("request")
+                .correlation(b -> b.unique().name("region").value("north"))
+                .correlation(b -> b.unique().name("version").value(3));
+            final Meta template = templateBuilder.template();
+            
+            final Meta.Builder<?> builder = newMetaBuilder().copy(template)
+                .id("event")
+                .correlation(b -> b.unique().name("version").value(4))
+                .correlation(b -> b.name("extra").value(true));
+            
+            assertEquals("audit", builder.getChannel());
+            assertEquals(Optional.of("service"), builder.getKey());
+            assertEquals(Optional.of("request"), builder.getName());
+            assertEquals(Optional.of("event"), builder.getId());
+            assertTrue(builder.getCorrelations().isPresent());
+            assertEquals(3, builder.getCorrelations().get().size());
+            assertEquals(Optional.of("north"), builder.getCorrelations().get().findFirstValueWithType(e -> e.getName().filter("region"::equals).isPresent(), String.class));
+            assertEquals(Optional.of(4), builder.getCorrelations().get().findFirstValueWithType(e -> e.getName().filter("version"::equals).isPresent(), Integer.class));
+        });
+    }
+    
+    @Test
+    default void meta_template_IsNotChangedByBuilders() {
+        runWithScenario(templateBuilder -> {
+            templateBuilder.correlation(b -> b.unique().name("region").value("north"));
+            final Meta template = templateBuilder.template();
+            
+            templateBuilder.correlation(b -> b.name("later").value(1));
+            newMetaBuilder().copy(template).correlations(b -> b.removeIf(e -> true));
+            
+            assertTrue(template.getCorrelations().isPresent());
+            assertEquals(1, template.getCorrelations().get().size());
+            assertEquals(1, newMetaBuilder().copy(template).getCorrelations().get().size());
+        });
+    }
+    
+    @Test
+    default void meta_template_Default_IsImmutableCopy() {
+        runWithScenario(builder -> {
+            final Meta.Builder<?> templateBuilder = withDefaultTemplate(builder);
+            templateBuilder.channel("audit").name("request")
+                .correlation(b -> b.unique().name("region").value("north"));
+            final Meta template = templateBuilder.template();
+            
+            templateBuilder.channel("info").name("later").correlation(b -> b.name("later").value(1));
+            final Meta.Builder<?> copied = newMetaBuilder().copy(template);
+            
+            assertEquals("audit", template.getChannel());
+            assertEquals(Optional.of("request"), template.getName());
+            assertTrue(template.getCorrelations().isPresent());
+            assertEquals(1, template.getCorrelations().get().size());
+            assertEquals("audit", copied.getChannel());
+            assertEquals(Optional.of("north"), copied.getCorrelations().get().findFirstValueWithType(e -> e.getName().filter("region"::equals).isPresent(), String.class));
+        });
+    }
+    
     @Test
     default void meta_InternalCoverage() {
         assertInstantiateThrows(MetaTestsTools.class);
@@ -334,6 +444,16 @@ public interface MetaTests {
             return CONTRACTS.claim(Meta.Builder.FACTORY).get();
         }
         
+        /**
+         * @return the builder as one that predates {@link Meta.Builder#template()}, so the default is used
+         */
+        static Meta.Builder<?> withDefaultTemplate(Meta.Builder<?> builder) {
+            final InvocationHandler handler = (proxy, method, args) -> "template".equals(method.getName())
+                ? InvocationHandler.invokeDefault(proxy, method, args)
+                : method.invoke(builder, args);
+            return (Meta.Builder<?>) Proxy.newProxyInstance(Meta.Builder.class.getClassLoader(), new Class<?>[]{Meta.Builder.class}, handler);
+        }
+        
         static void runWithScenario(ScenarioConfig scenarioConfig) {
             withMetalog(b -> {}, (contracts, metalog) -> {
                 CONTRACTS = contracts;
@@ -1,13 +1,18 @@
 package io.github.jonloucks.metalog.test;
 
 import io.github.jonloucks.metalog.api.Metalog.Config.Builder;
+import io.github.jonloucks.metalog.api.OverflowPolicy;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.time.Duration;
 
+import static io.github.jonloucks.contracts.test.Tools.assertThrown;
 import static io.github.jonloucks.metalog.api.Metalog.Config.DEFAULT;
 import static io.github.jonloucks.metalog.test.Tools.withMetalog;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public interface MetalogConfigTests {
     
@@ -22,7 +27,19 @@ public interface MetalogConfigTests {
             assertEquals(DEFAULT.contracts(), builder.contracts());
             assertEquals(DEFAULT.serviceLoaderClass(), builder.serviceLoaderClass());
             assertEquals(DEFAULT.keyedQueueLimit(), builder.keyedQueueLimit());
+            assertEquals(DEFAULT.useKeyedRingBuffer(), builder.useKeyedRingBuffer());
+            assertEquals(DEFAULT.keyedBatchLimit(), builder.keyedBatchLimit());
+            assertEquals(DEFAULT.keyedOverflowPolicy(), builder.keyedOverflowPolicy());
+            assertEquals(DEFAULT.keyedOverflowPolicy("error"), builder.keyedOverflowPolicy("error"));
+            assertEquals(DEFAULT.keyedOverflowTimeout(), builder.keyedOverflowTimeout());
+            assertEquals(DEFAULT.keyedStripeCount(), builder.keyedStripeCount());
+            assertEquals(DEFAULT.keyedIdleTimeout(), builder.keyedIdleTimeout());
+            assertEquals(DEFAULT.keyedDispatcherLimit(), builder.keyedDispatcherLimit());
             assertEquals(DEFAULT.unkeyedThreadCount(), builder.unkeyedThreadCount());
+            assertEquals(DEFAULT.useVirtualThreads(), builder.useVirtualThreads());
+            assertEquals(DEFAULT.consoleBuffered(), builder.consoleBuffered());
+            assertEquals(DEFAULT.consoleLinger(), builder.consoleLinger());
+            assertEquals(DEFAULT.measureLatency(), builder.measureLatency());
             assertEquals(DEFAULT.reflectionClassName(), builder.reflectionClassName());
             assertEquals(DEFAULT.shutdownTimeout(), builder.shutdownTimeout());
         });
@@ -40,7 +57,19 @@ public interface MetalogConfigTests {
                 .contracts(contracts)
                 .serviceLoaderClass(BadMetalogFactory.class)
                 .keyedQueueLimit(DEFAULT.keyedQueueLimit()+1)
+                .useKeyedRingBuffer(!DEFAULT.useKeyedRingBuffer())
+                .keyedBatchLimit(DEFAULT.keyedBatchLimit()+1)
+                .keyedOverflowPolicy(OverflowPolicy.DROP_NEWEST)
+                .keyedOverflowPolicy("error", OverflowPolicy.BLOCK_WITH_TIMEOUT)
+                .keyedOverflowTimeout(DEFAULT.keyedOverflowTimeout().plus(Duration.ofSeconds(1)))
+                .keyedStripeCount(DEFAULT.keyedStripeCount()+1)
+                .keyedIdleTimeout(DEFAULT.keyedIdleTimeout().plus(Duration.ofSeconds(1)))
+                .keyedDispatcherLimit(DEFAULT.keyedDispatcherLimit()-1)
                 .unkeyedThreadCount(DEFAULT.unkeyedThreadCount()+1)
+                .useVirtualThreads(!DEFAULT.useVirtualThreads())
+                .consoleBuffered(!DEFAULT.consoleBuffered())
+                .consoleLinger(DEFAULT.consoleLinger().plus(Duration.ofSeconds(1)))
+                .measureLatency(!DEFAULT.measureLatency())
                 .reflectionClassName("MyReflectionClassName")
                 .shutdownTimeout(DEFAULT.shutdownTimeout().plus(Duration.ofSeconds(1)));
             
@@ -50,9 +79,35 @@ public interface MetalogConfigTests {
             assertEquals(contracts, builder.contracts());
             assertEquals(BadMetalogFactory.class, builder.serviceLoaderClass());
             assertEquals(DEFAULT.keyedQueueLimit()+1, builder.keyedQueueLimit());
+            assertEquals(!DEFAULT.useKeyedRingBuffer(), builder.useKeyedRingBuffer());
+            assertEquals(DEFAULT.keyedBatchLimit()+1, builder.keyedBatchLimit());
+            assertEquals(OverflowPolicy.DROP_NEWEST, builder.keyedOverflowPolicy());
+            assertEquals(OverflowPolicy.DROP_NEWEST, builder.keyedOverflowPolicy("debug"));
+            assertEquals(OverflowPolicy.BLOCK_WITH_TIMEOUT, builder.keyedOverflowPolicy("error"));
+            assertEquals(DEFAULT.keyedOverflowTimeout().plus(Duration.ofSeconds(1)), builder.keyedOverflowTimeout());
+            assertEquals(DEFAULT.keyedStripeCount()+1, builder.keyedStripeCount());
+            assertEquals(DEFAULT.keyedIdleTimeout().plus(Duration.ofSeconds(1)), builder.keyedIdleTimeout());
+            assertEquals(DEFAULT.keyedDispatcherLimit()-1, builder.keyedDispatcherLimit());
             assertEquals(DEFAULT.unkeyedThreadCount()+1, builder.unkeyedThreadCount());
+            assertEquals(!DEFAULT.useVirtualThreads(), builder.useVirtualThreads());
+            assertEquals(!DEFAULT.consoleBuffered(), builder.consoleBuffered());
+            assertEquals(DEFAULT.consoleLinger().plus(Duration.ofSeconds(1)), builder.consoleLinger());
+            assertEquals(!DEFAULT.measureLatency(), builder.measureLatency());
             assertEquals("MyReflectionClassName", builder.reflectionClassName());
             assertEquals(DEFAULT.shutdownTimeout().plus(Duration.ofSeconds(1)), builder.shutdownTimeout());
         });
     }
+    
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1})
+    default void metalogConfig_keyedDispatcherLimit_WithInvalid_Throws(int keyedDispatcherLimit) {
+        withMetalog((contracts, metalog) -> {
+            final Builder builder = contracts.claim(Builder.FACTORY).get();
+            final IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> {
+                builder.keyedDispatcherLimit(keyedDispatcherLimit);
+            });
+            
+            assertThrown(thrown);
+        });
+    }
 }
@@ -11,6 +11,11 @@ import org.mockito.quality.Strictness;
 import org.mockito.stubbing.Answer;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -19,7 +24,10 @@ import static io.github.jonloucks.metalog.api.GlobalMetalog.createMetalog;
 import static io.github.jonloucks.metalog.test.MetalogTests.MetalogTestsTools.runWithScenario;
 import static io.github.jonloucks.metalog.test.Tools.*;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 @SuppressWarnings("ALL")
@@ -27,6 +35,18 @@ import static org.mockito.Mockito.*;
 @MockitoSettings(strictness = Strictness.LENIENT)
 public interface MetalogTests {
     
+    @Test
+    default void metalog_DefaultMethods_KeepOlderImplementationsWorking() {
+        final Metalog metalog = mock(Metalog.class, CALLS_REAL_METHODS);
+        
+        assertTrue(metalog.isEnabled("debug"));
+        assertTrue(metalog.isEnabled("debug", "key"));
+        assertEquals(0, metalog.getStatistics().getCount(Outcome.DISPATCHED));
+        assertEquals(0, metalog.getStatistics().getDispatcherCount());
+        assertTrue(metalog.getStatistics().getQueues().isEmpty());
+        assertEquals(0, metalog.getStatistics().getLatency().getCount());
+    }
+    
     @Test
     default void metalog_addFilter_WithNull_Throws() {
 
@@ -223,6 +243,281 @@ public interface MetalogTests {
         });
     }
     
+    @Test
+    default void metalog_Keyed_DispatchesOncePerLog() {
+        withContracts(contracts -> {
+            final AtomicInteger dispatchCount = new AtomicInteger();
+            final Dispatcher countingDispatcher = new Dispatcher() {
+                @Override
+                public AutoClose open() {
+                    return AutoClose.NONE;
+                }
+                
+                @Override
+                public Outcome dispatch(Meta meta, Runnable job) {
+                    dispatchCount.incrementAndGet();
+                    job.run();
+                    return Outcome.DISPATCHED;
+                }
+            };
+            final List<Integer> received = new CopyOnWriteArrayList<>();
+            final int subscriberCount = 5;
+            
+            try (AutoClose closeBinding = contracts.bind(Dispatcher.KEYED_FACTORY, () -> () -> countingDispatcher)) {
+                final AutoClose ignored = closeBinding;
+                final Metalog metalog = getMetalogFactory().create(b -> b.contracts(contracts));
+                try (AutoClose closeMetalog = metalog.open()) {
+                    final AutoClose ignored2 = closeMetalog;
+                    for (int i = 0; i < subscriberCount; i++) {
+                        final int subscriberIndex = i;
+                        //noinspection resource
+                        metalog.subscribe((log, meta) -> {
+                            received.add(subscriberIndex);
+                            return Outcome.CONSUMED;
+                        });
+                    }
+                    
+                    assertEquals(Outcome.DISPATCHED, metalog.publish(() -> "Hello", b -> b.key(uniqueString())));
+                }
+            }
+            
+            assertEquals(1, dispatchCount.get(), "One dispatch per log message.");
+            assertEquals(List.of(0, 1, 2, 3, 4), received, "Subscribers receive in subscription order.");
+        });
+    }
+    
+    @Test
+    default void metalog_Keyed_WithOtherDispatcher_IsNotEvicted() {
+        withContracts(contracts -> {
+            final AtomicInteger closeCount = new AtomicInteger();
+            // queues its work, so it can't be known to be idle
+            final Dispatcher queueingDispatcher = new Dispatcher() {
+                @Override
+                public AutoClose open() {
+                    return closeCount::incrementAndGet;
+                }
+                
+                @Override
+                public Outcome dispatch(Meta meta, Runnable job) {
+                    return Outcome.DISPATCHED;
+                }
+            };
+            
+            try (AutoClose closeBinding = contracts.bind(Dispatcher.KEYED_FACTORY, () -> () -> queueingDispatcher)) {
+                final AutoClose ignored = closeBinding;
+                final Metalog metalog = getMetalogFactory().create(b -> b.contracts(contracts)
+                    .keyedIdleTimeout(Duration.ofMillis(1)).keyedDispatcherLimit(1));
+                try (AutoClose closeMetalog = metalog.open()) {
+                    final AutoClose ignored2 = closeMetalog;
+                    //noinspection resource
+                    metalog.subscribe((log, meta) -> Outcome.CONSUMED);
+                    
+                    assertEquals(Outcome.DISPATCHED, metalog.publish(() -> "Hello", b -> b.key("alpha")));
+                    assertEquals(Outcome.DISPATCHED, metalog.publish(() -> "Hello", b -> b.key("beta")));
+                    sleep(Duration.ofMillis(50));
+                    
+                    assertEquals(0, closeCount.get(), "Dispatchers that can't report idleness should not be evicted.");
+                }
+            }
+            
+            assertEquals(2, closeCount.get());
+        });
+    }
+    
+    @Test
+    default void metalog_subscribe_WithChannels_OnlyRoutesThoseChannels() {
+        runWithScenario(metalog -> {
+            final AtomicInteger testCount = new AtomicInteger();
+            final List<String> received = new CopyOnWriteArrayList<>();
+            final Subscriber auditSubscriber = new Subscriber() {
+                @Override
+                public Outcome receive(Log log, Meta meta) {
+                    received.add("audit:" + meta.getChannel());
+                    return Outcome.CONSUMED;
+                }
+                
+                @Override
+                public Optional<Set<String>> getChannels() {
+                    return Optional.of(Set.of("audit"));
+                }
+                
+                @Override
+                public boolean test(Meta meta) {
+                    testCount.incrementAndGet();
+                    return true;
+                }
+            };
+            final Subscriber everySubscriber = (log, meta) -> {
+                received.add("every:" + meta.getChannel());
+                return Outcome.CONSUMED;
+            };
+            
+            try (AutoClose closeAudit = metalog.subscribe(auditSubscriber);
+                 AutoClose closeEvery = metalog.subscribe(everySubscriber)) {
+                final AutoClose ignored = closeAudit, ignored2 = closeEvery;
+                
+                assertEquals(Outcome.CONSUMED, metalog.publish(() -> "Hello", b -> b.channel("info").block()));
+                assertEquals(0, testCount.get(), "Subscriber should not be tested for other channels.");
+                
+                assertEquals(Outcome.CONSUMED, metalog.publish(() -> "Hello", b -> b.channel("audit").block()));
+                assertEquals(List.of("every:info", "audit:audit", "every:audit"), received);
+            }
+            
+            // subscriptions are closed, the routes are rebuilt
+            assertEquals(Outcome.SKIPPED, metalog.publish(() -> "Hello", b -> b.channel("audit").block()));
+        });
+    }
+    
+    @Test
+    default void metalog_isEnabled_FollowsSubscriptionsAndFilters() {
+        runWithScenario(metalog -> {
+            final String channel = uniqueString();
+            final Subscriber subscriber = new Subscriber() {
+                @Override
+                public Outcome receive(Log log, Meta meta) {
+                    return Outcome.CONSUMED;
+                }
+                
+                @Override
+                public Optional<Set<String>> getChannels() {
+                    return Optional.of(Set.of(channel));
+                }
+            };
+            
+            assertFalse(metalog.isEnabled(channel));
+            try (AutoClose closeSubscriber = metalog.subscribe(subscriber)) {
+                final AutoClose ignored = closeSubscriber;
+                assertTrue(metalog.isEnabled(channel));
+                assertTrue(metalog.isEnabled(channel, uniqueString()));
+                
+                try (AutoClose removeFilter = metalog.addFilter(meta -> !channel.equals(meta.getChannel()))) {
+                    final AutoClose ignored2 = removeFilter;
+                    assertFalse(metalog.isEnabled(channel));
+                }
+                assertTrue(metalog.isEnabled(channel));
+            }
+            assertFalse(metalog.isEnabled(channel));
+        });
+    }
+    
+    @Test
+    default void metalog_publish_WhenDisabled_SkipsWithoutLog(@Mock Log log) {
+        runWithScenario(metalog -> {
+            final Outcome outcome = metalog.publish(log, b -> b.channel(uniqueString()));
+            
+            assertEquals(Outcome.SKIPPED, outcome);
+            verify(log, never()).get();
+        });
+    }
+    
+    @Test
+    default void metalog_isEnabled_WithNull_Throws() {
+        runWithScenario(metalog -> {
+            assertThrown(assertThrows(IllegalArgumentException.class, () -> metalog.isEnabled(null)));
+            assertThrown(assertThrows(IllegalArgumentException.class, () -> metalog.isEnabled("info", null)));
+        });
+    }
+    
+    @Test
+    default void metalog_publish_Blocking_InvokesLogOnce() {
+        runWithScenario(metalog -> {
+            final AtomicInteger invokeCount = new AtomicInteger();
+            final List<String> received = new CopyOnWriteArrayList<>();
+            final String channel = uniqueString();
+            //noinspection resource
+            metalog.subscribe((log, meta) -> {
+                received.add(log.get().toString());
+                return Outcome.CONSUMED;
+            });
+            //noinspection resource
+            metalog.subscribe((log, meta) -> {
+                received.add(log.get().toString());
+                return Outcome.CONSUMED;
+            });
+            
+            for (int i = 0; i < 2; i++) {
+                final String text = "Hello " + i;
+                metalog.publish(() -> {
+                    invokeCount.incrementAndGet();
+                    return text;
+                }, b -> b.channel(channel).block(true));
+            }
+            
+            assertEquals(2, invokeCount.get(), "Log is invoked once per publish.");
+            assertEquals(List.of("Hello 0", "Hello 0", "Hello 1", "Hello 1"), received);
+        });
+    }
+    
+    @Test
+    default void metalog_publish_Blocking_KeptLog_StillWorks() {
+        runWithScenario(metalog -> {
+            final String channel = uniqueString();
+            final List<Log> kept = new CopyOnWriteArrayList<>();
+            //noinspection resource
+            metalog.subscribe((log, meta) -> {
+                if (channel.equals(meta.getChannel())) {
+                    kept.add(log);
+                }
+                return Outcome.CONSUMED;
+            });
+            
+            metalog.publish(() -> "first", b -> b.channel(channel).block(true));
+            metalog.publish(() -> "second", b -> b.channel(channel).block(true));
+            
+            assertEquals(2, kept.size());
+            assertEquals("first", kept.get(0).get().toString());
+            assertEquals("second", kept.get(1).get().toString());
+        });
+    }
+    
+    @Test
+    default void metalog_publish_Blocking_FromSubscriber_KeepsOuterLog() {
+        runWithScenario(metalog -> {
+            final String outerChannel = uniqueString();
+            final String innerChannel = uniqueString();
+            final List<String> received = new CopyOnWriteArrayList<>();
+            //noinspection resource
+            metalog.subscribe((log, meta) -> {
+                if (outerChannel.equals(meta.getChannel())) {
+                    metalog.publish(() -> "inner", b -> b.channel(innerChannel).block(true));
+                }
+                received.add(log.get().toString());
+                return Outcome.CONSUMED;
+            });
+            
+            metalog.publish(() -> "outer", b -> b.channel(outerChannel).block(true));
+            
+            assertEquals(List.of("inner", "outer"), received);
+        });
+    }
+    
+    @Test
+    default void metalog_publish_WithBuilder_SubscriberCanKeepMeta() {
+        runWithScenario(metalog -> {
+            final String channel = uniqueString();
+            final List<Meta> kept = new CopyOnWriteArrayList<>();
+            //noinspection resource
+            metalog.subscribe((log, meta) -> {
+                if (channel.equals(meta.getChannel())) {
+                    kept.add(meta);
+                }
+                return Outcome.CONSUMED;
+            });
+            
+            for (int i = 0; i < 3; i++) {
+                final String id = "id" + i;
+                metalog.publish(() -> "Hello", b -> b.id(id).channel(channel).thread().block());
+            }
+            
+            assertEquals(3, kept.size());
+            for (int i = 0; i < 3; i++) {
+                assertEquals(Optional.of("id" + i), kept.get(i).getId(), "Kept meta is unchanged.");
+                assertEquals(Optional.of(Thread.currentThread()), kept.get(i).getThread());
+                assertEquals(channel, kept.get(i).getChannel());
+            }
+        });
+    }
+    
     @Test
     default void metalog_InternalCoverage() {
         assertInstantiateThrows(MetalogTestsTools.class);
@@ -0,0 +1,228 @@
+package io.github.jonloucks.metalog.test;
+
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.contracts.api.Contracts;
+import io.github.jonloucks.metalog.api.Event;
+import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.api.Outcome;
+import io.github.jonloucks.metalog.api.RecentEventsSubscriber;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static io.github.jonloucks.contracts.test.Tools.assertInstantiateThrows;
+import static io.github.jonloucks.contracts.test.Tools.assertThrown;
+import static io.github.jonloucks.metalog.test.RecentEventsSubscriberTests.RecentEventsSubscriberTestsTools.receive;
+import static io.github.jonloucks.metalog.test.RecentEventsSubscriberTests.RecentEventsSubscriberTestsTools.texts;
+import static io.github.jonloucks.metalog.test.Tools.withMetalog;
+import static org.junit.jupiter.api.Assertions.*;
+
+public interface RecentEventsSubscriberTests {
+    
+    @Test
+    default void recentEventsSubscriber_Config_Defaults() {
+        final RecentEventsSubscriber.Config config = RecentEventsSubscriber.Config.DEFAULT;
+        
+        assertTrue(config.arenaSize() > 0, "Arena size should be positive.");
+        assertTrue(config.capacity() > 0, "Capacity should be positive.");
+    }
+    
+    @Test
+    default void recentEventsSubscriber_create_WithNullConfig_Throws() {
+        withMetalog((contracts, metalog) -> {
+            final RecentEventsSubscriber.Factory factory = contracts.claim(RecentEventsSubscriber.FACTORY);
+            final IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> {
+                factory.create((RecentEventsSubscriber.Config) null);
+            });
+            
+            assertThrown(thrown);
+        });
+    }
+    
+    @Test
+    default void recentEventsSubscriber_create_WithInvalidArenaSize_Throws() {
+        withMetalog((contracts, metalog) -> {
+            final IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> {
+                contracts.claim(RecentEventsSubscriber.FACTORY).create(b -> b.arenaSize(0));
+            });
+            
+            assertThrown(thrown);
+        });
+    }
+    
+    @Test
+    default void recentEventsSubscriber_create_WithInvalidCapacity_Throws() {
+        withMetalog((contracts, metalog) -> {
+            final IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> {
+                contracts.claim(RecentEventsSubscriber.FACTORY).create(b -> b.capacity(0));
+            });
+            
+            assertThrown(thrown);
+        });
+    }
+    
+    @Test
+    default void recentEventsSubscriber_iterator_ReadsBackInOrder() {
+        withMetalog((contracts, metalog) -> {
+            final RecentEventsSubscriber subscriber = contracts.claim(RecentEventsSubscriber.FACTORY).create(b -> {});
+            
+            receive(contracts, subscriber, "first", "alpha");
+            receive(contracts, subscriber, "second", "beta");
+            
+            assertEquals(2, subscriber.size());
+            final Iterator<Event> iterator = subscriber.iterator();
+            final Event first = iterator.next();
+            assertEquals("first", first.getLog().get().toString());
+            assertEquals("info", first.getMeta().getChannel());
+            assertEquals(Optional.of("alpha"), first.getMeta().getKey());
+            final Event second = iterator.next();
+            assertEquals("second", second.getLog().get().toString());
+            assertEquals(Optional.of("beta"), second.getMeta().getKey());
+            assertFalse(iterator.hasNext());
+            assertThrows(NoSuchElementException.class, iterator::next);
+        });
+    }
+    
+    @ParameterizedTest
+    @ValueSource(ints = {97, 512, 4096})
+    default void recentEventsSubscriber_ArenaWraps_KeepsMostRecent(int arenaSize) {
+        withMetalog((contracts, metalog) -> {
+            final RecentEventsSubscriber subscriber = contracts.claim(RecentEventsSubscriber.FACTORY).create(b -> b
+                .arenaSize(arenaSize));
+            final int count = 1_000;
+            
+            for (int i = 0; i < count; i++) {
+                assertEquals(Outcome.CONSUMED, receive(contracts, subscriber, "message " + i, "key" + (i % 7)));
+            }
+            
+            final List<String> texts = texts(subscriber);
+            assertFalse(texts.isEmpty(), "The most recent should be kept.");
+            assertEquals(subscriber.size(), texts.size());
+            final int first = count - texts.size();
+            for (int i = 0; i < texts.size(); i++) {
+                assertEquals("message " + (first + i), texts.get(i));
+            }
+        });
+    }
+    
+    @Test
+    default void recentEventsSubscriber_CapacityFull_ForgetsOldest() {
+        withMetalog((contracts, metalog) -> {
+            final RecentEventsSubscriber subscriber = contracts.claim(RecentEventsSubscriber.FACTORY).create(b -> b
+                .capacity(3));
+            
+            for (int i = 0; i < 10; i++) {
+                receive(contracts, subscriber, "message " + i, "key");
+            }
+            
+            assertEquals(3, subscriber.size());
+            assertEquals(List.of("message 7", "message 8", "message 9"), texts(subscriber));
+        });
+    }
+    
+    @Test
+    default void recentEventsSubscriber_receive_TooLarge_IsSkipped() {
+        withMetalog((contracts, metalog) -> {
+            final RecentEventsSubscriber subscriber = contracts.claim(RecentEventsSubscriber.FACTORY).create(b -> b
+                .arenaSize(64));
+            
+            receive(contracts, subscriber, "small", "key");
+            
+            assertEquals(Outcome.SKIPPED, receive(contracts, subscriber, "large".repeat(100), "key"));
+            assertEquals(List.of("small"), texts(subscriber));
+        });
+    }
+    
+    @Test
+    default void recentEventsSubscriber_iterator_SkipsForgotten() {
+        withMetalog((contracts, metalog) -> {
+            final RecentEventsSubscriber subscriber = contracts.claim(RecentEventsSubscriber.FACTORY).create(b -> b
+                .capacity(4));
+            for (int i = 0; i < 4; i++) {
+                receive(contracts, subscriber, "message " + i, "key");
+            }
+            
+            final Iterator<Event> iterator = subscriber.iterator();
+            assertEquals("message 0", iterator.next().getLog().get().toString());
+            receive(contracts, subscriber, "message 4", "key");
+            receive(contracts, subscriber, "message 5", "key");
+            
+            final List<String> rest = new ArrayList<>();
+            iterator.forEachRemaining(event -> rest.add(event.getLog().get().toString()));
+            assertEquals(List.of("message 2", "message 3"), rest);
+        });
+    }
+    
+    @Test
+    default void recentEventsSubscriber_clear_ForgetsAll() {
+        withMetalog((contracts, metalog) -> {
+            final RecentEventsSubscriber subscriber = contracts.claim(RecentEventsSubscriber.FACTORY).create(b -> {});
+            receive(contracts, subscriber, "first", "key");
+            
+            subscriber.clear();
+            assertEquals(0, subscriber.size());
+            assertFalse(subscriber.iterator().hasNext());
+            
+            receive(contracts, subscriber, "second", "key");
+            assertEquals(List.of("second"), texts(subscriber));
+        });
+    }
+    
+    @Test
+    default void recentEventsSubscriber_Subscribed_KeepsPublished() {
+        withMetalog((contracts, metalog) -> {
+            final RecentEventsSubscriber subscriber = contracts.claim(RecentEventsSubscriber.FACTORY).create(b -> {});
+            
+            try (AutoClose closeSubscription = metalog.subscribe(subscriber)) {
+                final AutoClose ignored = closeSubscription;
+                assertEquals(Outcome.CONSUMED, metalog.publish(() -> "Hello", m -> m.block()));
+            }
+            
+            assertEquals(List.of("Hello"), texts(subscriber));
+        });
+    }
+    
+    @Test
+    default void recentEventsSubscriber_addFilter_Works() {
+        withMetalog((contracts, metalog) -> {
+            final RecentEventsSubscriber subscriber = contracts.claim(RecentEventsSubscriber.FACTORY).create(b -> {});
+            
+            assertTrue(subscriber.test(Meta.DEFAULT));
+            try (AutoClose closeFilter = subscriber.addFilter(m -> false)) {
+                final AutoClose ignored = closeFilter;
+                assertFalse(subscriber.test(Meta.DEFAULT));
+            }
+            assertTrue(subscriber.test(Meta.DEFAULT));
+        });
+    }
+    
+    @Test
+    default void recentEventsSubscriber_InternalCoverage() {
+        assertInstantiateThrows(RecentEventsSubscriberTestsTools.class);
+    }
+    
+    final class RecentEventsSubscriberTestsTools {
+        private RecentEventsSubscriberTestsTools() {
+            throw new AssertionError("Illegal constructor");
+        }
+        
+        static Outcome receive(Contracts contracts, RecentEventsSubscriber subscriber, String text, String key) {
+            final Meta meta = contracts.claim(Meta.Builder.FACTORY).get().channel("info").key(key);
+            return subscriber.receive(() -> text, meta);
+        }
+        
+        static List<String> texts(RecentEventsSubscriber subscriber) {
+            final List<String> texts = new ArrayList<>();
+            for (Event event : subscriber) {
+                texts.add(event.getLog().get().toString());
+            }
+            return texts;
+        }
+    }
+}
@@ -0,0 +1,484 @@
+package io.github.jonloucks.metalog.test;
+
+import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.contracts.api.Contracts;
+import io.github.jonloucks.metalog.api.BatchSubscriber;
+import io.github.jonloucks.metalog.api.Log;
+import io.github.jonloucks.metalog.api.Meta;
+import io.github.jonloucks.metalog.api.Metalog;
+import io.github.jonloucks.metalog.api.Outcome;
+import io.github.jonloucks.metalog.api.Statistics;
+import io.github.jonloucks.metalog.api.Subscriber;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+import static io.github.jonloucks.contracts.test.Tools.assertInstantiateThrows;
+import static io.github.jonloucks.contracts.test.Tools.assertThrown;
+import static io.github.jonloucks.contracts.test.Tools.sleep;
+import static io.github.jonloucks.contracts.test.Tools.withContracts;
+import static io.github.jonloucks.metalog.api.GlobalMetalog.createMetalog;
+import static io.github.jonloucks.metalog.test.StatisticsTests.StatisticsTestsTools.await;
+import static io.github.jonloucks.metalog.test.StatisticsTests.StatisticsTestsTools.awaitCondition;
+import static io.github.jonloucks.metalog.test.StatisticsTests.StatisticsTestsTools.awaitCount;
+import static io.github.jonloucks.metalog.test.StatisticsTests.StatisticsTestsTools.findQueue;
+import static io.github.jonloucks.metalog.test.StatisticsTests.StatisticsTestsTools.findSubscription;
+import static io.github.jonloucks.metalog.test.Tools.withMetalog;
+import static org.junit.jupiter.api.Assertions.*;
+
+public interface StatisticsTests {
+    
+    @Test
+    default void statistics_Outcomes_AreCounted() {
+        withMetalog((contracts, metalog) -> {
+            assertEquals(Outcome.SKIPPED, metalog.publish(() -> "Nobody listens"));
+            
+            try (AutoClose closeSubscription = metalog.subscribe((log, meta) -> Outcome.CONSUMED)) {
+                final AutoClose ignored = closeSubscription;
+                assertEquals(Outcome.CONSUMED, metalog.publish(() -> "Hello", b -> b.block()));
+                assertEquals(Outcome.CONSUMED, metalog.publish(() -> "Hello", b -> b.block()));
+            }
+            
+            final Statistics statistics = metalog.getStatistics();
+            assertEquals(1, statistics.getCount(Outcome.SKIPPED));
+            assertEquals(2, statistics.getCount(Outcome.CONSUMED));
+            assertEquals(0, statistics.getCount(Outcome.DROPPED));
+            assertNotNull(statistics.toString());
+        });
+    }
+    
+    @Test
+    default void statistics_Rejected_IsCounted() {
+        withContracts(contracts -> {
+            final Metalog.Config config = new Metalog.Config() {
+                @Override
+                public Contracts contracts() {
+                    return contracts;
+                }
+            };
+            final Metalog metalog = createMetalog(config);
+            metalog.open().close();
+            
+            assertEquals(Outcome.REJECTED, metalog.publish(() -> "Too late"));
+            assertEquals(1, metalog.getStatistics().getCount(Outcome.REJECTED));
+        });
+    }
+    
+    @Test
+    default void statistics_getCount_WithNullOutcome_Throws() {
+        withMetalog((contracts, metalog) -> {
+            final Statistics statistics = metalog.getStatistics();
+            final IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> {
+                statistics.getCount(null);
+            });
+            
+            assertThrown(thrown);
+        });
+    }
+    
+    @Test
+    default void statistics_KeyedQueue_DepthAndHighWaterMark() {
+        withMetalog((contracts, metalog) -> {
+            final CountDownLatch releaseLatch = new CountDownLatch(1);
+            final CountDownLatch receivedLatch = new CountDownLatch(3);
+            
+            try (AutoClose closeSubscription = metalog.subscribe((log, meta) -> {
+                await(releaseLatch);
+                receivedLatch.countDown();
+                return Outcome.CONSUMED;
+            })) {
+                final AutoClose ignored = closeSubscription;
+                for (int i = 0; i < 3; i++) {
+                    assertEquals(Outcome.DISPATCHED, metalog.publish(() -> "Hello", b -> b.key("alpha")));
+                }
+                
+                final Statistics busy = metalog.getStatistics();
+                assertEquals(2, busy.getDispatcherCount());
+                final Statistics.Queue alpha = findQueue(busy, "Keyed Dispatchers alpha").orElseThrow();
+                assertEquals(3, alpha.getDepth());
+                assertEquals(3, alpha.getHighWaterMark());
+                assertTrue(findQueue(busy, "Unkeyed Dispatcher").isPresent());
+                
+                releaseLatch.countDown();
+                await(receivedLatch);
+            }
+        });
+    }
+    
+    @Test
+    default void statistics_StripedQueues_AreEach() {
+        withMetalog(b -> b.keyedStripeCount(2), (contracts, metalog) -> {
+            final Statistics statistics = metalog.getStatistics();
+            
+            assertEquals(3, statistics.getDispatcherCount());
+            final Statistics.Queue stripe = findQueue(statistics, "Striped Keyed Dispatcher 1").orElseThrow();
+            assertEquals(0, stripe.getDepth());
+            assertEquals(0, stripe.getHighWaterMark());
+        });
+    }
+    
+    @Test
+    default void statistics_IdleKeyedDispatcher_IsEvicted() {
+        withMetalog(b -> b.keyedIdleTimeout(Duration.ofMillis(20)), (contracts, metalog) -> {
+            final CountDownLatch receivedLatch = new CountDownLatch(1);
+            
+            try (AutoClose closeSubscription = metalog.subscribe((log, meta) -> {
+                receivedLatch.countDown();
+                return Outcome.CONSUMED;
+            })) {
+                final AutoClose ignored = closeSubscription;
+                assertEquals(Outcome.DISPATCHED, metalog.publish(() -> "Hello", b -> b.key("alpha")));
+                await(receivedLatch);
+                
+                awaitCondition(() -> findQueue(metalog.getStatistics(), "Keyed Dispatchers alpha").isEmpty());
+                assertEquals(1, metalog.getStatistics().getDispatcherCount());
+            }
+        });
+    }
+    
+    @Test
+    default void statistics_KeyedDispatcherLimit_EvictsLeastRecentlyUsed() {
+        withMetalog(b -> b.keyedDispatcherLimit(2), (contracts, metalog) -> {
+            final CountDownLatch receivedLatch = new CountDownLatch(3);
+            
+            try (AutoClose closeSubscription = metalog.subscribe((log, meta) -> {
+                receivedLatch.countDown();
+                return Outcome.CONSUMED;
+            })) {
+                final AutoClose ignored = closeSubscription;
+                for (String key : new String[]{"alpha", "beta"}) {
+                    assertEquals(Outcome.DISPATCHED, metalog.publish(() -> "Hello", b -> b.key(key)));
+                }
+                // the keyed dispatchers are only evicted once their queues are empty
+                awaitCondition(() -> metalog.getStatistics().getQueues().stream().allMatch(queue -> 0 == queue.getDepth()));
+                assertEquals(Outcome.DISPATCHED, metalog.publish(() -> "Hello", b -> b.key("gamma")));
+                await(receivedLatch);
+                
+                final Statistics statistics = metalog.getStatistics();
+                assertFalse(findQueue(statistics, "Keyed Dispatchers alpha").isPresent(), "Least recently used should be evicted.");
+                assertTrue(findQueue(statistics, "Keyed Dispatchers beta").isPresent());
+                assertTrue(findQueue(statistics, "Keyed Dispatchers gamma").isPresent());
+            }
+        });
+    }
+    
+    @Test
+    default void statistics_CallerRuns_AreCounted() {
+        withMetalog(b -> b.unkeyedThreadCount(1), (contracts, metalog) -> {
+            final CountDownLatch releaseLatch = new CountDownLatch(1);
+            final CountDownLatch receivedLatch = new CountDownLatch(2);
+            
+            try (AutoClose closeSubscription = metalog.subscribe((log, meta) -> {
+                if ("first".contentEquals(log.get())) {
+                    await(releaseLatch);
+                }
+                receivedLatch.countDown();
+                return Outcome.CONSUMED;
+            })) {
+                final AutoClose ignored = closeSubscription;
+                assertEquals(Outcome.DISPATCHED, metalog.publish(() -> "first"));
+                // the only thread is busy, so the second is delivered on this thread
+                assertEquals(Outcome.DISPATCHED, metalog.publish(() -> "second"));
+                
+                assertEquals(1, metalog.getStatistics().getCallerRuns());
+                releaseLatch.countDown();
+                await(receivedLatch);
+            }
+        });
+    }
+    
+    @Test
+    default void statistics_Latency_WhenDisabled_IsEmpty() {
+        withMetalog((contracts, metalog) -> {
+            final CountDownLatch receivedLatch = new CountDownLatch(1);
+            
+            try (AutoClose closeSubscription = metalog.subscribe((log, meta) -> {
+                receivedLatch.countDown();
+                return Outcome.CONSUMED;
+            })) {
+                final AutoClose ignored = closeSubscription;
+                metalog.publish(() -> "Hello", b -> b.key("alpha"));
+                await(receivedLatch);
+            }
+            
+            final Statistics.Histogram latency = metalog.getStatistics().getLatency();
+            assertEquals(0, latency.getCount());
+            assertEquals(Duration.ZERO, latency.getMax());
+            assertEquals(Duration.ZERO, latency.getPercentile(99.99));
+        });
+    }
+    
+    @Test
+    default void statistics_Latency_WhenEnabled_IsRecorded() {
+        withMetalog(b -> b.measureLatency(true), (contracts, metalog) -> {
+            final int count = 1_000;
+            final CountDownLatch receivedLatch = new CountDownLatch(count);
+            
+            try (AutoClose closeSubscription = metalog.subscribe((log, meta) -> {
+                receivedLatch.countDown();
+                return Outcome.CONSUMED;
+            })) {
+                final AutoClose ignored = closeSubscription;
+                for (int i = 0; i < count; i++) {
+                    final String key = "key" + (i % 3);
+                    metalog.publish(() -> "Hello", b -> b.key(key));
+                }
+                await(receivedLatch);
+            }
+            
+            final Statistics.Histogram latency = metalog.getStatistics().getLatency();
+            assertEquals(count, latency.getCount());
+            assertTrue(latency.getMax().compareTo(Duration.ZERO) > 0, "Max should be positive.");
+            assertTrue(latency.getPercentile(0).compareTo(latency.getPercentile(50)) <= 0);
+            assertTrue(latency.getPercentile(50).compareTo(latency.getPercentile(99)) <= 0);
+            assertTrue(latency.getPercentile(99).compareTo(latency.getPercentile(99.99)) <= 0);
+            assertEquals(latency.getMax(), latency.getPercentile(100));
+            assertNotNull(latency.toString());
+        });
+    }
+    
+    @Test
+    default void statistics_Latency_FromManyThreads_CountsAll() {
+        withMetalog(b -> b.measureLatency(true), (contracts, metalog) -> {
+            final int threadCount = 8;
+            final int logCount = 500;
+            final CountDownLatch receivedLatch = new CountDownLatch(threadCount * logCount);
+            final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+            
+            try (AutoClose closeSubscription = metalog.subscribe((log, meta) -> {
+                receivedLatch.countDown();
+                return Outcome.CONSUMED;
+            })) {
+                final AutoClose ignored = closeSubscription;
+                final List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threadCount; t++) {
+                    final String key = "key" + t;
+                    futures.add(executor.submit(() -> {
+                        for (int i = 0; i < logCount; i++) {
+                            metalog.publish(() -> "Hello", b -> b.key(key));
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    assertDoesNotThrow(() -> future.get());
+                }
+                await(receivedLatch);
+            } finally {
+                executor.shutdown();
+            }
+            
+            assertEquals(threadCount * logCount, metalog.getStatistics().getLatency().getCount());
+        });
+    }
+    
+    @Test
+    default void statistics_Latency_PerDispatcher() {
+        withMetalog(b -> b.measureLatency(true), (contracts, metalog) -> {
+            final CountDownLatch receivedLatch = new CountDownLatch(5);
+            
+            try (AutoClose closeSubscription = metalog.subscribe((log, meta) -> {
+                receivedLatch.countDown();
+                return Outcome.CONSUMED;
+            })) {
+                final AutoClose ignored = closeSubscription;
+                metalog.publish(() -> "Hello", b -> b.key("alpha"));
+                metalog.publish(() -> "Hello", b -> b.key("alpha"));
+                metalog.publish(() -> "Hello", b -> b.key("beta"));
+                metalog.publish(() -> "Hello");
+                metalog.publish(() -> "Hello");
+                await(receivedLatch);
+                
+                final Statistics statistics = metalog.getStatistics();
+                assertEquals(2, findQueue(statistics, "Keyed Dispatchers alpha").orElseThrow().getLatency().getCount());
+                assertEquals(1, findQueue(statistics, "Keyed Dispatchers beta").orElseThrow().getLatency().getCount());
+                assertEquals(2, findQueue(statistics, "Unkeyed Dispatcher").orElseThrow().getLatency().getCount());
+                assertEquals(5, statistics.getLatency().getCount());
+            }
+        });
+    }
+    
+    @Test
+    default void statistics_Subscriptions_WhenDisabled_IsEmpty() {
+        withMetalog((contracts, metalog) -> {
+            try (AutoClose closeSubscription = metalog.subscribe((log, meta) -> Outcome.CONSUMED)) {
+                final AutoClose ignored = closeSubscription;
+                
+                assertTrue(metalog.getStatistics().getSubscriptions().isEmpty());
+            }
+        });
+    }
+    
+    @Test
+    default void statistics_Subscriptions_MeasureEachSubscriber() {
+        withMetalog(b -> b.measureLatency(true), (contracts, metalog) -> {
+            final int count = 5;
+            final CountDownLatch receivedLatch = new CountDownLatch(count);
+            final Subscriber slow = (log, meta) -> {
+                sleep(Duration.ofMillis(2));
+                return Outcome.CONSUMED;
+            };
+            final Subscriber counting = (log, meta) -> {
+                receivedLatch.countDown();
+                return Outcome.CONSUMED;
+            };
+            
+            try (AutoClose closeSlow = metalog.subscribe(slow); AutoClose closeCounting = metalog.subscribe(counting)) {
+                final AutoClose ignored = closeSlow;
+                final AutoClose alsoIgnored = closeCounting;
+                for (int i = 0; i < count; i++) {
+                    metalog.publish(() -> "Hello", b -> b.key("alpha"));
+                }
+                await(receivedLatch);
+                // a receive is measured after it returns
+                awaitCount(() -> findSubscription(metalog.getStatistics(), counting).orElseThrow().getReceiveTime().getCount(), count);
+                
+                final Statistics statistics = metalog.getStatistics();
+                final Statistics.Subscription slowSubscription = findSubscription(statistics, slow).orElseThrow();
+                assertEquals(count, slowSubscription.getLatency().getCount());
+                assertEquals(count, slowSubscription.getReceiveTime().getCount());
+                assertTrue(slowSubscription.getReceiveTime().getPercentile(50).compareTo(Duration.ofMillis(1)) >= 0,
+                    "Receive time should include the sleep.");
+                final Statistics.Subscription countingSubscription = findSubscription(statistics, counting).orElseThrow();
+                assertEquals(count, countingSubscription.getLatency().getCount());
+                // the second subscriber waits for the first one
+                assertTrue(countingSubscription.getLatency().getMax().compareTo(Duration.ofMillis(1)) >= 0,
+                    "Latency should include the first subscriber.");
+            }
+            
+            assertFalse(findSubscription(metalog.getStatistics(), slow).isPresent(), "Unsubscribed should be gone.");
+        });
+    }
+    
+    @Test
+    default void statistics_Subscriptions_ReceiveTime_ExcludesSkippedSubscribers() {
+        withMetalog(b -> b.measureLatency(true), (contracts, metalog) -> {
+            final Duration testTime = Duration.ofMillis(50);
+            final CountDownLatch receivedLatch = new CountDownLatch(1);
+            // slow to decide, then skips the log message
+            final Subscriber skipping = new Subscriber() {
+                @Override
+                public Outcome receive(Log log, Meta meta) {
+                    return Outcome.CONSUMED;
+                }
+                
+                @Override
+                public boolean test(Meta meta) {
+                    sleep(testTime);
+                    return false;
+                }
+            };
+            final Subscriber counting = (log, meta) -> {
+                receivedLatch.countDown();
+                return Outcome.CONSUMED;
+            };
+            
+            try (AutoClose closeSkipping = metalog.subscribe(skipping); AutoClose closeCounting = metalog.subscribe(counting)) {
+                final AutoClose ignored = closeSkipping;
+                final AutoClose alsoIgnored = closeCounting;
+                metalog.publish(() -> "Hello", b -> b.key("alpha"));
+                await(receivedLatch);
+                awaitCount(() -> findSubscription(metalog.getStatistics(), counting).orElseThrow().getReceiveTime().getCount(), 1);
+                
+                final Statistics.Subscription countingSubscription = findSubscription(metalog.getStatistics(), counting).orElseThrow();
+                assertTrue(countingSubscription.getReceiveTime().getMax().compareTo(testTime) < 0,
+                    "Receive time should not include the test of the skipping subscriber.");
+                assertTrue(countingSubscription.getLatency().getMax().compareTo(testTime) >= 0,
+                    "Latency should include the test of the skipping subscriber.");
+            }
+        });
+    }
+    
+    @Test
+    default void statistics_Subscriptions_MeasureBatches() {
+        withMetalog(b -> b.measureLatency(true), (contracts, metalog) -> {
+            final int count = 10;
+            final CountDownLatch receivedLatch = new CountDownLatch(count);
+            final BatchSubscriber subscriber = events -> {
+                events.forEach(event -> receivedLatch.countDown());
+                return Outcome.CONSUMED;
+            };
+            
+            try (AutoClose closeSubscription = metalog.subscribe(subscriber)) {
+                final AutoClose ignored = closeSubscription;
+                for (int i = 0; i < count; i++) {
+                    metalog.publish(() -> "Hello", b -> b.key("alpha"));
+                }
+                await(receivedLatch);
+                awaitCount(() -> findSubscription(metalog.getStatistics(), subscriber).orElseThrow().getReceiveTime().getCount(), 1);
+                
+                final Statistics.Subscription subscription = findSubscription(metalog.getStatistics(), subscriber).orElseThrow();
+                assertEquals(count, subscription.getLatency().getCount());
+                assertTrue(subscription.getReceiveTime().getCount() <= count, "Each batch should be measured once.");
+            }
+        });
+    }
+    
+    @ParameterizedTest
+    @ValueSource(doubles = {-1, 100.5, Double.NaN})
+    default void statistics_getPercentile_WithInvalid_Throws(double percentile) {
+        withMetalog((contracts, metalog) -> {
+            final Statistics.Histogram latency = metalog.getStatistics().getLatency();
+            final IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () -> {
+                latency.getPercentile(percentile);
+            });
+            
+            assertThrown(thrown);
+        });
+    }
+    
+    @Test
+    default void statistics_InternalCoverage() {
+        assertInstantiateThrows(StatisticsTestsTools.class);
+    }
+    
+    final class StatisticsTestsTools {
+        private StatisticsTestsTools() {
+            throw new AssertionError("Illegal constructor");
+        }
+        
+        static Optional<Statistics.Queue> findQueue(Statistics statistics, String name) {
+            return statistics.getQueues().stream().filter(queue -> name.equals(queue.getName())).findFirst();
+        }
+        
+        static Optional<Statistics.Subscription> findSubscription(Statistics statistics, Subscriber subscriber) {
+            return statistics.getSubscriptions().stream().filter(subscription -> subscriber == subscription.getSubscriber()).findFirst();
+        }
+        
+        static void awaitCount(LongSupplier count, long expected) {
+            final long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+            while (count.getAsLong() < expected) {
+                assertTrue(System.nanoTime() - deadline < 0, "Took too long.");
+                sleep(Duration.ofMillis(1));
+            }
+        }
+        
+        static void awaitCondition(BooleanSupplier condition) {
+            final long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+            while (!condition.getAsBoolean()) {
+                assertTrue(System.nanoTime() - deadline < 0, "Took too long.");
+                sleep(Duration.ofMillis(1));
+            }
+        }
+        
+        static void await(CountDownLatch latch) {
+            try {
+                assertTrue(latch.await(1, TimeUnit.MINUTES), "Took too long.");
+            } catch (InterruptedException thrown) {
+                Thread.currentThread().interrupt();
+                fail(thrown);
+            }
+        }
+    }
+}
@@ -4,19 +4,27 @@ package io.github.jonloucks.metalog.test;
  * All the tests for a GlobalMetalog implementation as well as tests for testing tools.
  */
 public interface Tests extends
+    BatchSubscriberTests,
+    BinaryEncodingTests,
     ConsoleTests,
     EntitiesTests,
     EntityTests,
     ExceptionTests,
+    FlightRecorderTests,
     GlobalMetalogTests,
     KeyedDispatcherTests,
+    DurableFileSubscriberTests,
+    MappedFileSubscriberTests,
     UnkeyedDispatcherTests,
     MetaTests,
     MetalogTests,
     MetalogFactoryTests,
     MetalogConfigTests,
     PublisherTests,
+    RecentEventsSubscriberTests,
+    StatisticsTests,
     InternalTests,
+    JsonEncodingTests,
     ToolsTests,
     TorrentTests
 {
@@ -1,6 +1,7 @@
 package io.github.jonloucks.metalog.test;
 
 import io.github.jonloucks.contracts.api.AutoClose;
+import io.github.jonloucks.metalog.api.Metalog;
 import io.github.jonloucks.metalog.api.Outcome;
 import io.github.jonloucks.metalog.api.Subscriber;
 import org.junit.jupiter.api.Test;
@@ -9,14 +10,18 @@ import java.time.Duration;
 import java.util.Random;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BooleanSupplier;
 
 import static io.github.jonloucks.contracts.test.Tools.assertInstantiateThrows;
 import static io.github.jonloucks.contracts.test.Tools.sleep;
 import static io.github.jonloucks.metalog.test.Tools.withMetalog;
+import static io.github.jonloucks.metalog.test.TorrentTests.TorrentTestsTools.isVirtual;
+import static io.github.jonloucks.metalog.test.TorrentTests.TorrentTestsTools.isVirtualThreadsAvailable;
 import static io.github.jonloucks.metalog.test.TorrentTests.TorrentTestsTools.runWithScenario;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 public interface TorrentTests {
     
@@ -40,6 +45,68 @@ public interface TorrentTests {
         });
     }
     
+    @Test
+    default void torrent_keyed_striped() {
+        runWithScenario(new TorrentTestsTools.ScenarioConfig() {
+            @Override
+            public int chanceOfKeyed() {
+                return 100;
+            }
+            
+            @Override
+            public void configure(Metalog.Config.Builder builder) {
+                builder.keyedStripeCount(4);
+            }
+        });
+    }
+    
+    @Test
+    default void torrent_keyed_ring_buffer() {
+        runWithScenario(new TorrentTestsTools.ScenarioConfig() {
+            @Override
+            public int chanceOfKeyed() {
+                return 100;
+            }
+            
+            @Override
+            public void configure(Metalog.Config.Builder builder) {
+                builder.useKeyedRingBuffer(true).keyedQueueLimit(100);
+            }
+        });
+    }
+    
+    @Test
+    default void torrent_keyed_with_eviction() {
+        runWithScenario(new TorrentTestsTools.ScenarioConfig() {
+            @Override
+            public int chanceOfKeyed() {
+                return 100;
+            }
+            
+            @Override
+            public void configure(Metalog.Config.Builder builder) {
+                builder.keyedIdleTimeout(Duration.ofMillis(1)).keyedDispatcherLimit(32);
+            }
+        });
+    }
+    
+    @Test
+    default void torrent_half_and_half_virtual_threads() {
+        // before JDK 21 the dispatchers fall back to platform threads, which the other scenarios already cover
+        assumeTrue(isVirtualThreadsAvailable(), "Virtual threads are not available.");
+        runWithScenario(new TorrentTestsTools.ScenarioConfig() {
+            @Override
+            public void configure(Metalog.Config.Builder builder) {
+                builder.useVirtualThreads(true);
+            }
+            
+            @Override
+            public boolean expectVirtualThreads() {
+                return true;
+            }
+        });
+    }
+    
     @Test
     default void torrent_half_and_half() {
         runWithScenario(new TorrentTestsTools.ScenarioConfig() {
@@ -61,18 +128,50 @@ public interface TorrentTests {
             default int chanceOfKeyed() {
                 return 50;
             }
+            
+            default void configure(Metalog.Config.Builder builder) {
+            }
+            
+            /**
+             * @return true if keyed log messages must be delivered on virtual threads
+             */
+            default boolean expectVirtualThreads() {
+                return false;
+            }
+        }
+        
+        static boolean isVirtualThreadsAvailable() {
+            try {
+                Thread.class.getMethod("ofVirtual");
+                return true;
+            } catch (NoSuchMethodException thrown) {
+                return false;
+            }
+        }
+        
+        static boolean isVirtual(Thread thread) {
+            try {
+                return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+            } catch (ReflectiveOperationException thrown) {
+                return false;
+            }
         }
         
         static void runWithScenario(ScenarioConfig scenarioConfig) {
-            withMetalog(b -> {} ,(contracts, metalog) -> {
+            withMetalog(scenarioConfig::configure, (contracts, metalog) -> {
                 final int producerThreads = 123;
                 final int messagesPerThread = 321;
                 final CountDownLatch messagesCompletedLatch = new CountDownLatch(producerThreads * messagesPerThread);
                 final SequencerTracker sequencer = new SequencerTracker();
                 final Random random = new Random();
+                final AtomicInteger wrongThreadCount = new AtomicInteger();
                 
                 final Subscriber subscriber = (l, m) -> {
                     try {
+                        // keyed log messages always go through a keyed worker, unkeyed ones may run on the publisher
+                        if (m.getKey().isPresent() && scenarioConfig.expectVirtualThreads() != isVirtual(Thread.currentThread())) {
+                            wrongThreadCount.incrementAndGet();
+                        }
                         return sequencer.receive(l,m);
                     } finally {
                         messagesCompletedLatch.countDown();
@@ -116,6 +215,7 @@ public interface TorrentTests {
                     }
                     
                     assertEquals(0, sequencer.getFailureCount(), "Failures");
+                    assertEquals(0, wrongThreadCount.get(), "Delivered on the wrong kind of thread");
                 }
             });
         }